@@ -7,6 +7,7 @@ import androidx.test.filters.LargeTest;
 
 import de.danoeh.antennapod.event.playback.SleepTimerUpdatedEvent;
 import de.danoeh.antennapod.playback.service.internal.PlaybackServiceTaskManager;
+import de.danoeh.antennapod.playback.service.internal.PlaybackTickScheduler;
 import de.danoeh.antennapod.storage.preferences.SleepTimerPreferences;
 import de.danoeh.antennapod.storage.database.PodDBAdapter;
 import de.danoeh.antennapod.ui.widget.WidgetUpdater;
@@ -93,6 +94,11 @@ public class PlaybackServiceTaskManagerTest {
                 countDownLatch.countDown();
             }
 
+            @Override
+            public long positionObserverTick(PlaybackTickScheduler.Visibility visibility) {
+                return PlaybackTickScheduler.STOP;
+            }
+
             @Override
             public WidgetUpdater.WidgetState requestWidgetState() {
                 return null;
@@ -108,6 +114,39 @@ public class PlaybackServiceTaskManagerTest {
         pstm.shutdown();
     }
 
+    @Test
+    public void testPositionObserverStops() throws InterruptedException {
+        final Context c = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        final CountDownLatch countDownLatch = new CountDownLatch(3);
+        PlaybackServiceTaskManager pstm = new PlaybackServiceTaskManager(c, new PlaybackServiceTaskManager.PSTMCallback() {
+            @Override
+            public void positionSaverTick() {
+
+            }
+
+            @Override
+            public long positionObserverTick(PlaybackTickScheduler.Visibility visibility) {
+                countDownLatch.countDown();
+                return countDownLatch.getCount() > 0 ? 100 : PlaybackTickScheduler.STOP;
+            }
+
+            @Override
+            public WidgetUpdater.WidgetState requestWidgetState() {
+                return null;
+            }
+
+            @Override
+            public void onChapterLoaded(Playable media) {
+
+            }
+        });
+        pstm.startPositionObserver();
+        assertTrue(countDownLatch.await(2000, TimeUnit.MILLISECONDS));
+        Thread.sleep(500);
+        assertFalse(pstm.isPositionObserverActive());
+        pstm.shutdown();
+    }
+
     @Test
     public void testIsPositionSaverActive() {
         final Context c = InstrumentationRegistry.getInstrumentation().getTargetContext();
@@ -139,6 +178,11 @@ public class PlaybackServiceTaskManagerTest {
 
             }
 
+            @Override
+            public long positionObserverTick(PlaybackTickScheduler.Visibility visibility) {
+                return PlaybackTickScheduler.STOP;
+            }
+
             @Override
             public WidgetUpdater.WidgetState requestWidgetState() {
                 countDownLatch.countDown();
@@ -286,6 +330,11 @@ public class PlaybackServiceTaskManagerTest {
 
         }
 
+        @Override
+        public long positionObserverTick(PlaybackTickScheduler.Visibility visibility) {
+            return PlaybackTickScheduler.STOP;
+        }
+
         @Override
         public WidgetUpdater.WidgetState requestWidgetState() {
             return null;
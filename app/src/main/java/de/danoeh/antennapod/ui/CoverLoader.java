@@ -11,6 +11,7 @@ import com.bumptech.glide.RequestBuilder;
 import com.bumptech.glide.request.RequestOptions;
 import com.bumptech.glide.request.target.CustomViewTarget;
 import com.bumptech.glide.request.transition.Transition;
+import de.danoeh.antennapod.ui.glide.ThumbnailOptions;
 
 import java.lang.ref.WeakReference;
 
@@ -21,6 +22,7 @@ public class CoverLoader {
     private ImageView imgvCover;
     private boolean textAndImageCombined;
     private TextView fallbackTitle;
+    private int expectedSize = 0;
 
     public CoverLoader() {
     }
@@ -45,6 +47,15 @@ public class CoverLoader {
         return this;
     }
 
+    /**
+     * Size in pixels that the cover view will have, used to pick the thumbnail size
+     * if the view was not laid out yet.
+     */
+    public CoverLoader withExpectedSize(int sizePx) {
+        expectedSize = sizePx;
+        return this;
+    }
+
     public CoverLoader withPlaceholderView(TextView title) {
         this.fallbackTitle = title;
         return this;
@@ -75,6 +86,12 @@ public class CoverLoader {
         RequestOptions options = new RequestOptions()
                 .fitCenter()
                 .dontAnimate();
+        int fallbackSize = expectedSize > 0 ? expectedSize
+                : imgvCover.getResources().getDisplayMetrics().widthPixels;
+        RequestOptions thumbnailOptions = ThumbnailOptions.forView(imgvCover, fallbackSize);
+        if (thumbnailOptions != null) {
+            options = options.apply(thumbnailOptions);
+        }
 
         RequestBuilder<Drawable> builder = Glide.with(imgvCover)
                 .as(Drawable.class)
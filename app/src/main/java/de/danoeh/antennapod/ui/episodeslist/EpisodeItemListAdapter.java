@@ -21,7 +21,9 @@ import de.danoeh.antennapod.ui.common.ThemeUtils;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.danoeh.antennapod.R;
 import de.danoeh.antennapod.activity.MainActivity;
@@ -39,6 +41,7 @@ public class EpisodeItemListAdapter extends SelectableAdapter<EpisodeItemViewHol
     private FeedItem longPressedItem;
     int longPressedPosition = 0; // used to init actionMode
     private int dummyViews = 0;
+    private final Map<Long, EpisodeListDiff.RowState> rowStates = new HashMap<>();
 
     public EpisodeItemListAdapter(FragmentActivity mainActivity) {
         super(mainActivity);
@@ -53,10 +56,53 @@ public class EpisodeItemListAdapter extends SelectableAdapter<EpisodeItemViewHol
 
     public void updateItems(List<FeedItem> items) {
         episodes = items;
+        rowStates.clear();
         notifyDataSetChanged();
         onSelectedItemsUpdated();
     }
 
+    /**
+     * Replaces the loading indicator at the end of the list with the page that was appended to the items.
+     */
+    public void onPageAppended(List<FeedItem> items, int pageSize) {
+        int start = items.size() - pageSize;
+        int removedDummyViews = dummyViews;
+        episodes = items;
+        dummyViews = 0;
+        if (removedDummyViews > 0) {
+            notifyItemRangeRemoved(start, removedDummyViews);
+        }
+        notifyItemRangeInserted(start, pageSize);
+        onSelectedItemsUpdated();
+    }
+
+    /**
+     * Captures the displayed items for {@link EpisodeListDiff#calculate}. Call on the main thread.
+     */
+    @NonNull
+    public EpisodeListDiff.Snapshot snapshot() {
+        return new EpisodeListDiff.Snapshot(episodes, rowStates);
+    }
+
+    /**
+     * Replaces the items and only notifies about the rows that changed according to the diff.
+     * Falls back to a full refresh if dummy views are shown or the displayed list was modified since
+     * the diff was calculated.
+     */
+    public void updateItems(List<FeedItem> items, @Nullable EpisodeListDiff diff) {
+        List<FeedItem> displayedItems = episodes;
+        episodes = items;
+        rowStates.clear();
+        if (diff != null) {
+            rowStates.putAll(diff.getRowStates());
+        }
+        if (dummyViews != 0 || diff == null || !diff.dispatchUpdatesTo(displayedItems, this)) {
+            dummyViews = 0;
+            notifyDataSetChanged();
+        }
+        onSelectedItemsUpdated();
+    }
+
     @Override
     public final int getItemViewType(int position) {
         return R.id.view_type_episode_item;
@@ -86,6 +132,10 @@ public class EpisodeItemListAdapter extends SelectableAdapter<EpisodeItemViewHol
 
         FeedItem item = episodes.get(pos);
         holder.bind(item);
+        EpisodeListDiff.RowState state = rowStates.get(item.getId());
+        if (state != null && !state.isStateOf(item)) {
+            rowStates.remove(item.getId());
+        }
 
         holder.itemView.setOnClickListener(v -> {
             if (!inActionMode()) {
@@ -0,0 +1,231 @@
+package de.danoeh.antennapod.ui.episodeslist;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import de.danoeh.antennapod.model.playback.MediaType;
+import de.danoeh.antennapod.net.download.serviceinterface.DownloadServiceInterface;
+import de.danoeh.antennapod.playback.service.PlaybackStatus;
+
+/**
+ * Difference between two versions of an episode list. Calculate it on a background thread with a snapshot
+ * of the list that is currently displayed, then apply it with {@link #dispatchUpdatesTo}.
+ * When reloading a long list, only the rows that actually changed need to be bound again.
+ */
+public class EpisodeListDiff {
+    private final List<FeedItem> oldItems;
+    private final Map<Long, RowState> newRows;
+    private final DiffUtil.DiffResult result;
+
+    private EpisodeListDiff(List<FeedItem> oldItems, Map<Long, RowState> newRows, DiffUtil.DiffResult result) {
+        this.oldItems = oldItems;
+        this.newRows = newRows;
+        this.result = result;
+    }
+
+    /**
+     * Must not be called on the main thread.
+     *
+     * @param snapshot Created with {@link EpisodeItemListAdapter#snapshot()} before loading the new items.
+     */
+    @NonNull
+    public static EpisodeListDiff calculate(@NonNull Snapshot snapshot, @NonNull List<FeedItem> newItems) {
+        final List<FeedItem> oldItems = snapshot.items;
+        // Looks up the playback and download state of every item once, instead of every time a row is bound
+        final Map<Long, RowState> newRows = new HashMap<>();
+        for (FeedItem item : newItems) {
+            newRows.put(item.getId(), RowState.of(item));
+        }
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldItems.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newItems.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return oldItems.get(oldItemPosition).getId() == newItems.get(newItemPosition).getId();
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                RowState oldState = snapshot.rows.get(oldItems.get(oldItemPosition).getId());
+                // Rows without a known state were added or changed outside of a diff, so they are bound again
+                return oldState != null && oldState.equals(newRows.get(newItems.get(newItemPosition).getId()));
+            }
+        }, true);
+        return new EpisodeListDiff(oldItems, newRows, result);
+    }
+
+    /**
+     * Sends the changes to the adapter. Returns false without notifying the adapter if the displayed list
+     * was structurally modified since the snapshot was taken. Then the diff is no longer valid.
+     */
+    boolean dispatchUpdatesTo(@NonNull List<FeedItem> displayedItems, @NonNull RecyclerView.Adapter<?> adapter) {
+        if (displayedItems.size() != oldItems.size()) {
+            return false;
+        }
+        for (int i = 0; i < oldItems.size(); i++) {
+            if (displayedItems.get(i).getId() != oldItems.get(i).getId()) {
+                return false;
+            }
+        }
+        result.dispatchUpdatesTo(adapter);
+        return true;
+    }
+
+    /**
+     * @return What the rows of the new items show, by item ID.
+     */
+    @NonNull
+    Map<Long, RowState> getRowStates() {
+        return newRows;
+    }
+
+    /**
+     * The displayed list and the known states of its rows.
+     */
+    public static class Snapshot {
+        private final List<FeedItem> items;
+        private final Map<Long, RowState> rows;
+
+        Snapshot(@NonNull List<FeedItem> items, @NonNull Map<Long, RowState> rows) {
+            this.items = new ArrayList<>(items);
+            this.rows = new HashMap<>(rows);
+        }
+    }
+
+    /**
+     * Everything that {@link EpisodeItemViewHolder} and the adapters display for an item, including the playback
+     * and download indicators that do not come from the item itself.
+     */
+    static final class RowState {
+        private final FeedItem item;
+        private final String title;
+        private final String feedTitle;
+        private final String feedImageUrl;
+        private final int feedState;
+        private final Long pubDate;
+        private final int playState;
+        private final boolean isFavorite;
+        private final boolean isInQueue;
+        private final String imageLocation;
+        private final boolean hasMedia;
+        private final MediaType mediaType;
+        private final int duration;
+        private final int position;
+        private final long size;
+        private final boolean isDownloaded;
+        private final boolean isPlaying;
+        private final boolean isCurrentlyPlaying;
+        private final boolean isDownloading;
+        private final boolean isDownloadQueued;
+        private final int downloadProgress;
+
+        private RowState(FeedItem item) {
+            this.item = item;
+            title = item.getTitle();
+            Feed feed = item.getFeed();
+            feedTitle = feed != null ? feed.getTitle() : null;
+            feedImageUrl = feed != null ? feed.getImageUrl() : null;
+            feedState = feed != null ? feed.getState() : 0;
+            pubDate = item.getPubDate() != null ? item.getPubDate().getTime() : null;
+            playState = item.getPlayState();
+            isFavorite = item.isTagged(FeedItem.TAG_FAVORITE);
+            isInQueue = item.isTagged(FeedItem.TAG_QUEUE);
+            imageLocation = item.getImageLocation();
+            FeedMedia media = item.getMedia();
+            hasMedia = media != null;
+            if (media != null) {
+                mediaType = media.getMediaType();
+                duration = media.getDuration();
+                position = media.getPosition();
+                size = media.getSize();
+                isDownloaded = media.isDownloaded();
+                isPlaying = PlaybackStatus.isPlaying(media);
+                isCurrentlyPlaying = PlaybackStatus.isCurrentlyPlaying(media);
+                DownloadServiceInterface downloads = DownloadServiceInterface.get();
+                isDownloading = downloads.isDownloadingEpisode(media.getDownloadUrl());
+                isDownloadQueued = isDownloading && downloads.isEpisodeQueued(media.getDownloadUrl());
+                downloadProgress = isDownloading ? downloads.getProgress(media.getDownloadUrl()) : 0;
+            } else {
+                mediaType = null;
+                duration = 0;
+                position = 0;
+                size = 0;
+                isDownloaded = false;
+                isPlaying = false;
+                isCurrentlyPlaying = false;
+                isDownloading = false;
+                isDownloadQueued = false;
+                downloadProgress = 0;
+            }
+        }
+
+        @NonNull
+        static RowState of(@NonNull FeedItem item) {
+            return new RowState(item);
+        }
+
+        /**
+         * @return False if the item was replaced in the list, for example after a {@code FeedItemEvent}.
+         */
+        boolean isStateOf(@NonNull FeedItem item) {
+            return this.item == item;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RowState)) {
+                return false;
+            }
+            RowState other = (RowState) o;
+            return feedState == other.feedState
+                    && playState == other.playState
+                    && isFavorite == other.isFavorite
+                    && isInQueue == other.isInQueue
+                    && hasMedia == other.hasMedia
+                    && duration == other.duration
+                    && position == other.position
+                    && size == other.size
+                    && isDownloaded == other.isDownloaded
+                    && isPlaying == other.isPlaying
+                    && isCurrentlyPlaying == other.isCurrentlyPlaying
+                    && isDownloading == other.isDownloading
+                    && isDownloadQueued == other.isDownloadQueued
+                    && downloadProgress == other.downloadProgress
+                    && mediaType == other.mediaType
+                    && Objects.equals(pubDate, other.pubDate)
+                    && TextUtils.equals(title, other.title)
+                    && TextUtils.equals(feedTitle, other.feedTitle)
+                    && TextUtils.equals(feedImageUrl, other.feedImageUrl)
+                    && TextUtils.equals(imageLocation, other.imageLocation);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(title, playState, position, isCurrentlyPlaying, downloadProgress);
+        }
+    }
+}
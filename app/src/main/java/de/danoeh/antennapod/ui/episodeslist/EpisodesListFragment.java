@@ -13,8 +13,8 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.widget.Toolbar;
-import androidx.core.util.Pair;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.SimpleItemAnimator;
@@ -39,7 +39,7 @@ import de.danoeh.antennapod.activity.MainActivity;
 import de.danoeh.antennapod.ui.common.ConfirmationDialog;
 import de.danoeh.antennapod.ui.MenuItemUtils;
 import de.danoeh.antennapod.event.EpisodeDownloadEvent;
-import de.danoeh.antennapod.event.FeedItemEvent;
+import de.danoeh.antennapod.event.FeedItemChangesEvent;
 import de.danoeh.antennapod.event.FeedListUpdateEvent;
 import de.danoeh.antennapod.event.FeedUpdateRunningEvent;
 import de.danoeh.antennapod.event.PlayerStatusEvent;
@@ -245,11 +245,13 @@ public abstract class EpisodesListFragment extends Fragment
                     handler.handleAction(listAdapter.getSelectedItems());
                     if (listAdapter.shouldSelectLazyLoadedItems()) {
                         int applyPage = page + 1;
+                        FeedItem lastItem = episodes.isEmpty() ? null : episodes.get(episodes.size() - 1);
                         List<FeedItem> nextPage;
                         do {
-                            nextPage = loadMoreData(applyPage);
+                            nextPage = loadMoreData(applyPage, lastItem);
                             handler.handleAction(nextPage);
                             applyPage++;
+                            lastItem = nextPage.isEmpty() ? null : nextPage.get(nextPage.size() - 1);
                         } while (nextPage.size() == EPISODES_PER_PAGE);
                     }
                 })
@@ -281,7 +283,8 @@ public abstract class EpisodesListFragment extends Fragment
         isLoadingMore = true;
         listAdapter.setDummyViews(1);
         listAdapter.notifyItemInserted(listAdapter.getItemCount() - 1);
-        disposable = Observable.fromCallable(() -> loadMoreData(page))
+        final FeedItem lastItem = episodes.isEmpty() ? null : episodes.get(episodes.size() - 1);
+        disposable = Observable.fromCallable(() -> loadMoreData(page, lastItem))
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
@@ -290,8 +293,7 @@ public abstract class EpisodesListFragment extends Fragment
                                 hasMoreItems = false;
                             }
                             episodes.addAll(data);
-                            listAdapter.setDummyViews(0);
-                            listAdapter.updateItems(episodes);
+                            listAdapter.onPageAppended(episodes, data.size());
                             if (listAdapter.shouldSelectLazyLoadedItems()) {
                                 listAdapter.setSelected(episodes.size() - data.size(), episodes.size(), true);
                             }
@@ -327,18 +329,20 @@ public abstract class EpisodesListFragment extends Fragment
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
-    public void onEventMainThread(FeedItemEvent event) {
+    public void onEventMainThread(FeedItemChangesEvent event) {
         Log.d(TAG, "onEventMainThread() called with: " + "event = [" + event + "]");
-        for (FeedItem item : event.items) {
-            int pos = FeedItemEvent.indexOfItemWithId(episodes, item.getId());
-            if (pos >= 0) {
+        FeedItemFilter filter = getFilter();
+        for (int pos = episodes.size() - 1; pos >= 0; pos--) {
+            FeedItem item = event.get(episodes.get(pos).getId());
+            if (item == null) {
+                continue;
+            }
+            if (filter.matches(item)) {
+                episodes.set(pos, item);
+                listAdapter.notifyItemChangedCompat(pos);
+            } else {
                 episodes.remove(pos);
-                if (getFilter().matches(item)) {
-                    episodes.add(pos, item);
-                    listAdapter.notifyItemChangedCompat(pos);
-                } else {
-                    listAdapter.notifyItemRemoved(pos);
-                }
+                listAdapter.notifyItemRemoved(pos);
             }
         }
     }
@@ -400,18 +404,22 @@ public abstract class EpisodesListFragment extends Fragment
         if (disposable != null) {
             disposable.dispose();
         }
-        disposable = Observable.fromCallable(() -> new Pair<>(loadData(), loadTotalItemCount()))
+        final EpisodeListDiff.Snapshot snapshot = listAdapter.snapshot();
+        final FeedItem lastItem = episodes.isEmpty() ? null : episodes.get(episodes.size() - 1);
+        disposable = Observable.fromCallable(() -> {
+            List<FeedItem> items = loadData(lastItem);
+            return new LoadResult(items, EpisodeListDiff.calculate(snapshot, items), loadTotalItemCount());
+        })
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
-                        data -> {
+                        result -> {
                             final boolean firstLoaded = episodes.isEmpty();
-                            episodes = data.first;
+                            episodes = result.items;
                             hasMoreItems = !(page == 1 && episodes.size() < EPISODES_PER_PAGE);
                             progressBar.setVisibility(View.GONE);
-                            listAdapter.setDummyViews(0);
-                            listAdapter.updateItems(episodes);
-                            listAdapter.setTotalNumberOfItems(data.second);
+                            listAdapter.updateItems(episodes, result.diff);
+                            listAdapter.setTotalNumberOfItems(result.totalItemCount);
                             if (firstLoaded) {
                                 onItemsFirstLoaded();
                             }
@@ -423,11 +431,23 @@ public abstract class EpisodesListFragment extends Fragment
                         });
     }
 
+    /**
+     * Loads the items that are displayed, at least the number of items on the loaded pages.
+     *
+     * @param lastItem The last displayed item. Allows to reload the displayed items without skipping over them
+     *                 with an offset. Null if the list is empty.
+     */
     @NonNull
-    protected abstract List<FeedItem> loadData();
-
+    protected abstract List<FeedItem> loadData(@Nullable FeedItem lastItem);
+
+    /**
+     * Loads the given page.
+     *
+     * @param lastItem The last item of the previous page. Allows to look up the page without skipping over
+     *                 all previous items. Null if the previous page is empty.
+     */
     @NonNull
-    protected abstract List<FeedItem> loadMoreData(int page);
+    protected abstract List<FeedItem> loadMoreData(int page, @Nullable FeedItem lastItem);
 
     protected abstract int loadTotalItemCount();
 
@@ -451,4 +471,16 @@ public abstract class EpisodesListFragment extends Fragment
         outState.putBoolean(KEY_UP_ARROW, displayUpArrow);
         super.onSaveInstanceState(outState);
     }
+
+    private static final class LoadResult {
+        private final List<FeedItem> items;
+        private final EpisodeListDiff diff;
+        private final int totalItemCount;
+
+        private LoadResult(List<FeedItem> items, EpisodeListDiff diff, int totalItemCount) {
+            this.items = items;
+            this.diff = diff;
+            this.totalItemCount = totalItemCount;
+        }
+    }
 }
@@ -55,15 +55,15 @@ public class AllEpisodesFragment extends EpisodesListFragment {
 
     @NonNull
     @Override
-    protected List<FeedItem> loadData() {
-        return DBReader.getEpisodes(0, page * EPISODES_PER_PAGE, getFilter(),
+    protected List<FeedItem> loadData(@Nullable FeedItem lastItem) {
+        return DBReader.getEpisodesUpTo(lastItem, page * EPISODES_PER_PAGE, getFilter(),
                 UserPreferences.getAllEpisodesSortOrder());
     }
 
     @NonNull
     @Override
-    protected List<FeedItem> loadMoreData(int page) {
-        return DBReader.getEpisodes((page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE, getFilter(),
+    protected List<FeedItem> loadMoreData(int page, @Nullable FeedItem lastItem) {
+        return DBReader.getEpisodesAfter(lastItem, (page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE, getFilter(),
                 UserPreferences.getAllEpisodesSortOrder());
     }
 
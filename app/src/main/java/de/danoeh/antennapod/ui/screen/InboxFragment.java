@@ -95,15 +95,15 @@ public class InboxFragment extends EpisodesListFragment {
 
     @NonNull
     @Override
-    protected List<FeedItem> loadData() {
-        return DBReader.getEpisodes(0, page * EPISODES_PER_PAGE,
-                new FeedItemFilter(FeedItemFilter.NEW),  UserPreferences.getInboxSortedOrder());
+    protected List<FeedItem> loadData(@Nullable FeedItem lastItem) {
+        return DBReader.getEpisodesUpTo(lastItem, page * EPISODES_PER_PAGE,
+                new FeedItemFilter(FeedItemFilter.NEW), UserPreferences.getInboxSortedOrder());
     }
 
     @NonNull
     @Override
-    protected List<FeedItem> loadMoreData(int page) {
-        return DBReader.getEpisodes((page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE,
+    protected List<FeedItem> loadMoreData(int page, @Nullable FeedItem lastItem) {
+        return DBReader.getEpisodesAfter(lastItem, (page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE,
                 new FeedItemFilter(FeedItemFilter.NEW), UserPreferences.getInboxSortedOrder());
     }
 
@@ -7,6 +7,7 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.util.Pair;
 
 import de.danoeh.antennapod.R;
@@ -102,15 +103,16 @@ public class PlaybackHistoryFragment extends EpisodesListFragment {
 
     @NonNull
     @Override
-    protected List<FeedItem> loadData() {
-        return DBReader.getEpisodes(0, page * EPISODES_PER_PAGE, FILTER_HISTORY, SortOrder.COMPLETION_DATE_NEW_OLD);
+    protected List<FeedItem> loadData(@Nullable FeedItem lastItem) {
+        return DBReader.getEpisodesUpTo(lastItem, page * EPISODES_PER_PAGE,
+                FILTER_HISTORY, SortOrder.COMPLETION_DATE_NEW_OLD);
     }
 
     @NonNull
     @Override
-    protected List<FeedItem> loadMoreData(int page) {
-        return DBReader.getEpisodes((page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE, FILTER_HISTORY,
-                SortOrder.COMPLETION_DATE_NEW_OLD);
+    protected List<FeedItem> loadMoreData(int page, @Nullable FeedItem lastItem) {
+        return DBReader.getEpisodesAfter(lastItem, (page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE,
+                FILTER_HISTORY, SortOrder.COMPLETION_DATE_NEW_OLD);
     }
 
     @Override
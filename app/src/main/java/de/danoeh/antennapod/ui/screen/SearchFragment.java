@@ -30,7 +30,7 @@ import de.danoeh.antennapod.ui.episodeslist.EpisodeItemListAdapter;
 import de.danoeh.antennapod.ui.screen.subscriptions.HorizontalFeedListAdapter;
 import de.danoeh.antennapod.ui.MenuItemUtils;
 import de.danoeh.antennapod.event.EpisodeDownloadEvent;
-import de.danoeh.antennapod.event.FeedItemEvent;
+import de.danoeh.antennapod.event.FeedItemChangesEvent;
 import de.danoeh.antennapod.event.playback.PlaybackPositionEvent;
 import de.danoeh.antennapod.event.PlayerStatusEvent;
 import de.danoeh.antennapod.event.UnreadItemsUpdateEvent;
@@ -321,7 +321,7 @@ public class SearchFragment extends Fragment implements EpisodeItemListAdapter.O
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
-    public void onEventMainThread(FeedItemEvent event) {
+    public void onEventMainThread(FeedItemChangesEvent event) {
         Log.d(TAG, "onEventMainThread() called with: " + "event = [" + event + "]");
         if (results == null) {
             return;
@@ -329,14 +329,8 @@ public class SearchFragment extends Fragment implements EpisodeItemListAdapter.O
             search();
             return;
         }
-        for (int i = 0, size = event.items.size(); i < size; i++) {
-            FeedItem item = event.items.get(i);
-            int pos = FeedItemEvent.indexOfItemWithId(results, item.getId());
-            if (pos >= 0) {
-                results.remove(pos);
-                results.add(pos, item);
-                adapter.notifyItemChangedCompat(pos);
-            }
+        for (int pos : event.replaceChangedItems(results)) {
+            adapter.notifyItemChangedCompat(pos);
         }
     }
 
@@ -30,7 +30,7 @@ import de.danoeh.antennapod.net.download.serviceinterface.FeedUpdateManager;
 import de.danoeh.antennapod.storage.database.DBReader;
 import de.danoeh.antennapod.ui.screen.feed.ItemSortDialog;
 import de.danoeh.antennapod.event.EpisodeDownloadEvent;
-import de.danoeh.antennapod.event.FeedItemEvent;
+import de.danoeh.antennapod.event.FeedItemChangesEvent;
 import de.danoeh.antennapod.event.PlayerStatusEvent;
 import de.danoeh.antennapod.event.UnreadItemsUpdateEvent;
 import de.danoeh.antennapod.event.playback.PlaybackPositionEvent;
@@ -249,7 +249,7 @@ public class CompletedDownloadsFragment extends Fragment
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
-    public void onEventMainThread(FeedItemEvent event) {
+    public void onEventMainThread(FeedItemChangesEvent event) {
         Log.d(TAG, "onEventMainThread() called with: " + "event = [" + event + "]");
         if (items == null) {
             return;
@@ -257,17 +257,17 @@ public class CompletedDownloadsFragment extends Fragment
             loadItems();
             return;
         }
-        for (int i = 0, size = event.items.size(); i < size; i++) {
-            FeedItem item = event.items.get(i);
-            int pos = FeedItemEvent.indexOfItemWithId(items, item.getId());
-            if (pos >= 0) {
+        for (int pos = items.size() - 1; pos >= 0; pos--) {
+            FeedItem item = event.get(items.get(pos).getId());
+            if (item == null) {
+                continue;
+            }
+            if (item.getMedia().isDownloaded()) {
+                items.set(pos, item);
+                adapter.notifyItemChangedCompat(pos);
+            } else {
                 items.remove(pos);
-                if (item.getMedia().isDownloaded()) {
-                    items.add(pos, item);
-                    adapter.notifyItemChangedCompat(pos);
-                } else {
-                    adapter.notifyItemRemoved(pos);
-                }
+                adapter.notifyItemRemoved(pos);
             }
         }
     }
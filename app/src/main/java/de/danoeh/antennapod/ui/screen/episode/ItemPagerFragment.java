@@ -22,7 +22,7 @@ import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 
 import de.danoeh.antennapod.R;
-import de.danoeh.antennapod.event.FeedItemEvent;
+import de.danoeh.antennapod.event.FeedItemChangesEvent;
 import de.danoeh.antennapod.model.feed.FeedItem;
 import de.danoeh.antennapod.storage.database.DBReader;
 import de.danoeh.antennapod.ui.episodeslist.FeedItemMenuHandler;
@@ -162,13 +162,10 @@ public class ItemPagerFragment extends Fragment implements MaterialToolbar.OnMen
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
-    public void onEventMainThread(FeedItemEvent event) {
-        for (FeedItem item : event.items) {
-            if (this.item != null && this.item.getId() == item.getId()) {
-                this.item = item;
-                refreshToolbarState();
-                return;
-            }
+    public void onEventMainThread(FeedItemChangesEvent event) {
+        if (this.item != null && event.contains(this.item.getId())) {
+            this.item = event.get(this.item.getId());
+            refreshToolbarState();
         }
     }
 
@@ -13,7 +13,6 @@ import android.view.ViewGroup;
 import android.widget.AdapterView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.core.util.Pair;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
 import androidx.recyclerview.widget.RecyclerView;
@@ -26,7 +25,7 @@ import de.danoeh.antennapod.databinding.FeedItemListFragmentBinding;
 import de.danoeh.antennapod.event.EpisodeDownloadEvent;
 import de.danoeh.antennapod.event.FavoritesEvent;
 import de.danoeh.antennapod.event.FeedEvent;
-import de.danoeh.antennapod.event.FeedItemEvent;
+import de.danoeh.antennapod.event.FeedItemChangesEvent;
 import de.danoeh.antennapod.event.FeedListUpdateEvent;
 import de.danoeh.antennapod.event.FeedUpdateRunningEvent;
 import de.danoeh.antennapod.event.MessageEvent;
@@ -51,6 +50,7 @@ import de.danoeh.antennapod.ui.cleaner.HtmlToPlainText;
 import de.danoeh.antennapod.ui.common.IntentUtils;
 import de.danoeh.antennapod.ui.common.OnCollapseChangeListener;
 import de.danoeh.antennapod.ui.episodeslist.EpisodeItemListAdapter;
+import de.danoeh.antennapod.ui.episodeslist.EpisodeListDiff;
 import de.danoeh.antennapod.ui.episodeslist.EpisodeItemViewHolder;
 import de.danoeh.antennapod.ui.episodeslist.EpisodeMultiSelectActionHandler;
 import de.danoeh.antennapod.ui.episodeslist.FeedItemMenuHandler;
@@ -216,18 +216,31 @@ public class FeedItemlistFragment extends Fragment implements AdapterView.OnItem
         handler.handleAction(adapter.getSelectedItems());
         if (adapter.shouldSelectLazyLoadedItems()) {
             int applyPage = page + 1;
+            FeedItem lastItem = getLastLoadedItem();
             List<FeedItem> nextPage;
             do {
-                nextPage = loadMoreData(applyPage);
+                nextPage = loadMoreData(applyPage, lastItem);
                 handler.handleAction(nextPage);
                 applyPage++;
+                lastItem = nextPage.isEmpty() ? null : nextPage.get(nextPage.size() - 1);
             } while (nextPage.size() == EPISODES_PER_PAGE);
         }
     }
 
-    private List<FeedItem> loadMoreData(int page) {
-        Feed feed = DBReader.getFeed(feedID, true, (page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE);
-        return feed != null ? feed.getItems() : Collections.emptyList();
+    @Nullable
+    private FeedItem getLastLoadedItem() {
+        if (feed == null || feed.getItems() == null || feed.getItems().isEmpty()) {
+            return null;
+        }
+        return feed.getItems().get(feed.getItems().size() - 1);
+    }
+
+    private List<FeedItem> loadMoreData(int page, @Nullable FeedItem lastItem) {
+        Feed feed = DBReader.getFeed(feedID, true, 0, 0);
+        if (feed == null) {
+            return Collections.emptyList();
+        }
+        return DBReader.getFeedItemsAfter(feed, true, lastItem, (page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE);
     }
 
     private void updateRecyclerPadding() {
@@ -379,19 +392,13 @@ public class FeedItemlistFragment extends Fragment implements AdapterView.OnItem
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
-    public void onEventMainThread(FeedItemEvent event) {
+    public void onEventMainThread(FeedItemChangesEvent event) {
         Log.d(TAG, "onEventMainThread() called with: " + "event = [" + event + "]");
         if (feed == null || feed.getItems() == null) {
             return;
         }
-        for (int i = 0, size = event.items.size(); i < size; i++) {
-            FeedItem item = event.items.get(i);
-            int pos = FeedItemEvent.indexOfItemWithId(feed.getItems(), item.getId());
-            if (pos >= 0) {
-                feed.getItems().remove(pos);
-                feed.getItems().add(pos, item);
-                adapter.notifyItemChangedCompat(pos);
-            }
+        for (int pos : event.replaceChangedItems(feed.getItems())) {
+            adapter.notifyItemChangedCompat(pos);
         }
     }
 
@@ -613,23 +620,28 @@ public class FeedItemlistFragment extends Fragment implements AdapterView.OnItem
         if (disposable != null) {
             disposable.dispose();
         }
+        final EpisodeListDiff.Snapshot snapshot = adapter.snapshot();
+        final FeedItem lastItem = getLastLoadedItem();
         disposable = Observable.fromCallable(
                 () -> {
-                    feed = DBReader.getFeed(feedID, true, 0, page * EPISODES_PER_PAGE);
-                    int count = DBReader.getFeedEpisodeCount(feed.getId(), feed.getItemFilter());
-                    return new Pair<>(feed, count);
+                    Feed loadedFeed = DBReader.getFeed(feedID, true, 0, 0);
+                    loadedFeed.setItems(DBReader.getFeedItemsUpTo(loadedFeed, true, lastItem,
+                            page * EPISODES_PER_PAGE));
+                    int count = DBReader.getFeedEpisodeCount(loadedFeed.getId(), loadedFeed.getItemFilter());
+                    EpisodeListDiff diff = EpisodeListDiff.calculate(snapshot, loadedFeed.getItems());
+                    return new LoadResult(loadedFeed, diff, count);
                 })
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
                     result -> {
+                        feed = result.feed;
                         hasMoreItems = !(page == 1 && feed.getItems().size() < EPISODES_PER_PAGE);
                         swipeActions.setFilter(feed.getItemFilter());
                         refreshHeaderView();
                         viewBinding.progressBar.setVisibility(View.GONE);
-                        adapter.setDummyViews(0);
-                        adapter.updateItems(feed.getItems());
-                        adapter.setTotalNumberOfItems(result.second);
+                        adapter.updateItems(feed.getItems(), result.diff);
+                        adapter.setTotalNumberOfItems(result.episodeCount);
                         updateToolbar();
                     }, error -> {
                         feed = null;
@@ -648,7 +660,8 @@ public class FeedItemlistFragment extends Fragment implements AdapterView.OnItem
         isLoadingMore = true;
         adapter.setDummyViews(1);
         adapter.notifyItemInserted(adapter.getItemCount() - 1);
-        disposable = Observable.fromCallable(() -> loadMoreData(page))
+        final FeedItem lastItem = getLastLoadedItem();
+        disposable = Observable.fromCallable(() -> loadMoreData(page, lastItem))
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
@@ -656,9 +669,11 @@ public class FeedItemlistFragment extends Fragment implements AdapterView.OnItem
                             if (items.size() < EPISODES_PER_PAGE) {
                                 hasMoreItems = false;
                             }
+                            for (FeedItem item : items) {
+                                item.setFeed(feed);
+                            }
                             feed.getItems().addAll(items);
-                            adapter.setDummyViews(0);
-                            adapter.updateItems(feed.getItems());
+                            adapter.onPageAppended(feed.getItems(), items.size());
                             if (adapter.shouldSelectLazyLoadedItems()) {
                                 adapter.setSelected(feed.getItems().size() - items.size(),
                                         feed.getItems().size(), true);
@@ -690,6 +705,18 @@ public class FeedItemlistFragment extends Fragment implements AdapterView.OnItem
         }
     }
 
+    private static final class LoadResult {
+        private final Feed feed;
+        private final EpisodeListDiff diff;
+        private final int episodeCount;
+
+        private LoadResult(Feed feed, EpisodeListDiff diff, int episodeCount) {
+            this.feed = feed;
+            this.diff = diff;
+            this.episodeCount = episodeCount;
+        }
+    }
+
     private class FeedItemListAdapter extends EpisodeItemListAdapter {
         public FeedItemListAdapter(FragmentActivity mainActivity) {
             super(mainActivity);
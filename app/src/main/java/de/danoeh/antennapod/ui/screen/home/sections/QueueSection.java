@@ -16,7 +16,7 @@ import de.danoeh.antennapod.ui.episodeslist.HorizontalItemListAdapter;
 import de.danoeh.antennapod.ui.MenuItemUtils;
 import de.danoeh.antennapod.storage.database.DBReader;
 import de.danoeh.antennapod.event.EpisodeDownloadEvent;
-import de.danoeh.antennapod.event.FeedItemEvent;
+import de.danoeh.antennapod.event.FeedItemChangesEvent;
 import de.danoeh.antennapod.event.PlayerStatusEvent;
 import de.danoeh.antennapod.event.QueueEvent;
 import de.danoeh.antennapod.event.playback.PlaybackPositionEvent;
@@ -85,19 +85,13 @@ public class QueueSection extends HomeSection {
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
-    public void onEventMainThread(FeedItemEvent event) {
+    public void onEventMainThread(FeedItemChangesEvent event) {
         Log.d(TAG, "onEventMainThread() called with: " + "event = [" + event + "]");
         if (queue == null) {
             return;
         }
-        for (int i = 0, size = event.items.size(); i < size; i++) {
-            FeedItem item = event.items.get(i);
-            int pos = FeedItemEvent.indexOfItemWithId(queue, item.getId());
-            if (pos >= 0) {
-                queue.remove(pos);
-                queue.add(pos, item);
-                listAdapter.notifyItemChangedCompat(pos);
-            }
+        for (int pos : event.replaceChangedItems(queue)) {
+            listAdapter.notifyItemChangedCompat(pos);
         }
     }
 
@@ -26,10 +26,6 @@ import androidx.core.content.FileProvider;
 import com.google.android.material.snackbar.Snackbar;
 import de.danoeh.antennapod.R;
 import de.danoeh.antennapod.activity.OpmlImportActivity;
-import de.danoeh.antennapod.storage.database.DBReader;
-import de.danoeh.antennapod.model.feed.FeedItem;
-import de.danoeh.antennapod.model.feed.FeedItemFilter;
-import de.danoeh.antennapod.model.feed.SortOrder;
 import de.danoeh.antennapod.storage.importexport.AutomaticDatabaseExportWorker;
 import de.danoeh.antennapod.storage.importexport.DatabaseExporter;
 import de.danoeh.antennapod.storage.importexport.FavoritesWriter;
@@ -43,15 +39,16 @@ import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 
 public class ImportExportPreferencesFragment extends AnimatedPreferenceFragment {
@@ -68,7 +65,7 @@ public class ImportExportPreferencesFragment extends AnimatedPreferenceFragment
     private static final String DEFAULT_HTML_OUTPUT_NAME = "antennapod-feeds-%s.html";
     private static final String CONTENT_TYPE_HTML = "text/html";
     private static final String DEFAULT_FAVORITES_OUTPUT_NAME = "antennapod-favorites-%s.html";
-    private static final String DATABASE_EXPORT_FILENAME = "AntennaPodBackup-%s.db";
+    private static final String DATABASE_EXPORT_FILENAME = "AntennaPodBackup-%s.db.gz";
 
     private final ActivityResultLauncher<Intent> chooseOpmlExportPathLauncher =
             registerForActivityResult(new StartActivityForResult(),
@@ -262,7 +259,7 @@ public class ImportExportPreferencesFragment extends AnimatedPreferenceFragment
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(() -> {
-                    showExportSuccessSnackbar(uri, "application/x-sqlite3");
+                    showExportSuccessSnackbar(uri, DatabaseExporter.MIME_TYPE);
                     progressDialog.dismiss();
                 }, this::showExportErrorDialog);
     }
@@ -341,18 +338,16 @@ public class ImportExportPreferencesFragment extends AnimatedPreferenceFragment
     }
 
     private void writeToStream(OutputStream outputStream, Export type) throws IOException {
-        try (OutputStreamWriter writer = new OutputStreamWriter(outputStream, Charset.forName("UTF-8"))) {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, Charset.forName("UTF-8")))) {
             switch (type) {
                 case HTML:
-                    HtmlWriter.writeDocument(DBReader.getFeedList(), writer, getContext());
+                    HtmlWriter.writeDocument(writer, getContext());
                     break;
                 case OPML:
-                    OpmlWriter.writeDocument(DBReader.getFeedList(), writer);
+                    OpmlWriter.writeDocument(writer);
                     break;
                 case FAVORITES:
-                    List<FeedItem> allFavorites = DBReader.getEpisodes(0, Integer.MAX_VALUE,
-                            new FeedItemFilter(FeedItemFilter.IS_FAVORITE), SortOrder.DATE_NEW_OLD);
-                    FavoritesWriter.writeDocument(allFavorites, writer, getContext());
+                    FavoritesWriter.writeDocument(writer, getContext());
                     break;
                 default:
                     showExportErrorDialog(new Exception("Invalid export type"));
@@ -383,7 +378,7 @@ public class ImportExportPreferencesFragment extends AnimatedPreferenceFragment
     private static class BackupDatabase extends ActivityResultContracts.CreateDocument {
 
         BackupDatabase() {
-            super("application/x-sqlite3");
+            super(DatabaseExporter.MIME_TYPE);
         }
 
         @NonNull
@@ -391,7 +386,7 @@ public class ImportExportPreferencesFragment extends AnimatedPreferenceFragment
         public Intent createIntent(@NonNull final Context context, @NonNull final String input) {
             return super.createIntent(context, input)
                     .addCategory(Intent.CATEGORY_OPENABLE)
-                    .setType("application/x-sqlite3");
+                    .setType(DatabaseExporter.MIME_TYPE);
         }
     }
 
@@ -45,6 +45,7 @@ import java.util.List;
 import de.danoeh.antennapod.R;
 import de.danoeh.antennapod.activity.MainActivity;
 import de.danoeh.antennapod.ui.episodeslist.EpisodeItemListAdapter;
+import de.danoeh.antennapod.ui.episodeslist.EpisodeListDiff;
 import de.danoeh.antennapod.ui.common.ConfirmationDialog;
 import de.danoeh.antennapod.ui.MenuItemUtils;
 import de.danoeh.antennapod.storage.database.DBReader;
@@ -52,6 +53,7 @@ import de.danoeh.antennapod.storage.database.DBWriter;
 import de.danoeh.antennapod.ui.common.Converter;
 import de.danoeh.antennapod.ui.screen.feed.ItemSortDialog;
 import de.danoeh.antennapod.event.EpisodeDownloadEvent;
+import de.danoeh.antennapod.event.FeedItemChangesEvent;
 import de.danoeh.antennapod.event.FeedItemEvent;
 import de.danoeh.antennapod.event.FeedUpdateRunningEvent;
 import de.danoeh.antennapod.event.PlayerStatusEvent;
@@ -149,6 +151,10 @@ public class QueueFragment extends Fragment implements MaterialToolbar.OnMenuIte
                 queue.add(event.position, event.item);
                 recyclerAdapter.notifyItemInserted(event.position);
                 break;
+            case ADDED_ITEMS:
+                queue.addAll(event.position, event.items);
+                recyclerAdapter.notifyItemRangeInserted(event.position, event.items.size());
+                break;
             case SET_QUEUE:
             case SORTED: //Deliberate fall-through
                 queue = event.items;
@@ -178,7 +184,7 @@ public class QueueFragment extends Fragment implements MaterialToolbar.OnMenuIte
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
-    public void onEventMainThread(FeedItemEvent event) {
+    public void onEventMainThread(FeedItemChangesEvent event) {
         Log.d(TAG, "onEventMainThread() called with: " + "event = [" + event + "]");
         if (queue == null) {
             return;
@@ -186,15 +192,12 @@ public class QueueFragment extends Fragment implements MaterialToolbar.OnMenuIte
             loadItems();
             return;
         }
-        for (int i = 0, size = event.items.size(); i < size; i++) {
-            FeedItem item = event.items.get(i);
-            int pos = FeedItemEvent.indexOfItemWithId(queue, item.getId());
-            if (pos >= 0) {
-                queue.remove(pos);
-                queue.add(pos, item);
-                recyclerAdapter.notifyItemChangedCompat(pos);
-                refreshInfoBar();
-            }
+        List<Integer> changedPositions = event.replaceChangedItems(queue);
+        for (int pos : changedPositions) {
+            recyclerAdapter.notifyItemChangedCompat(pos);
+        }
+        if (!changedPositions.isEmpty()) {
+            refreshInfoBar();
         }
     }
 
@@ -529,16 +532,18 @@ public class QueueFragment extends Fragment implements MaterialToolbar.OnMenuIte
         if (queue == null) {
             emptyView.hide();
         }
+        final EpisodeListDiff.Snapshot snapshot = recyclerAdapter.snapshot();
         disposable = Observable.fromCallable(() -> {
             boolean displayGoToInboxButton = DBReader.getTotalEpisodeCount(new FeedItemFilter(FeedItemFilter.NEW)) > 0;
-            return new Pair<>(DBReader.getQueue(), displayGoToInboxButton);
+            List<FeedItem> items = DBReader.getQueue();
+            return new LoadResult(items, EpisodeListDiff.calculate(snapshot, items), displayGoToInboxButton);
         })
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(itemsAndDisplayButton -> {
+                .subscribe(result -> {
                     final boolean restoreScrollPosition = queue == null || queue.isEmpty();
-                    queue = itemsAndDisplayButton.first;
-                    if (itemsAndDisplayButton.second) {
+                    queue = result.items;
+                    if (result.displayGoToInboxButton) {
                         emptyView.setMessage(R.string.no_queue_items_inbox_has_items_label);
                         emptyView.setButtonText(R.string.no_queue_items_inbox_has_items_button_label);
                         emptyView.setButtonVisibility(View.VISIBLE);
@@ -546,8 +551,7 @@ public class QueueFragment extends Fragment implements MaterialToolbar.OnMenuIte
                                 .loadChildFragment(new InboxFragment()));
                     }
                     progressBar.setVisibility(View.GONE);
-                    recyclerAdapter.setDummyViews(0);
-                    recyclerAdapter.updateItems(queue);
+                    recyclerAdapter.updateItems(queue, result.diff);
                     if (restoreScrollPosition) {
                         Pair<Integer, Integer> scrollPosition = new Pair<>(
                                 prefs.getInt(SCROLL_POSITION_KEY, 0), prefs.getInt(SCROLL_OFFSET_KEY, 0));
@@ -578,6 +582,18 @@ public class QueueFragment extends Fragment implements MaterialToolbar.OnMenuIte
         refreshInfoBar();
     }
 
+    private static final class LoadResult {
+        private final List<FeedItem> items;
+        private final EpisodeListDiff diff;
+        private final boolean displayGoToInboxButton;
+
+        private LoadResult(List<FeedItem> items, EpisodeListDiff diff, boolean displayGoToInboxButton) {
+            this.items = items;
+            this.diff = diff;
+            this.displayGoToInboxButton = displayGoToInboxButton;
+        }
+    }
+
     public static class QueueSortDialog extends ItemSortDialog {
         boolean turnedOffKeepSortedForRandom = false;
 
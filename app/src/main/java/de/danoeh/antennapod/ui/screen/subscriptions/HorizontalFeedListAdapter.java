@@ -14,6 +14,7 @@ import de.danoeh.antennapod.activity.MainActivity;
 import de.danoeh.antennapod.model.feed.Feed;
 import de.danoeh.antennapod.ui.screen.feed.FeedItemlistFragment;
 import de.danoeh.antennapod.ui.common.SquareImageView;
+import de.danoeh.antennapod.ui.glide.ThumbnailOptions;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
@@ -83,12 +84,18 @@ public class HorizontalFeedListAdapter extends RecyclerView.Adapter<HorizontalFe
             return false;
         });
 
+        RequestOptions options = new RequestOptions()
+                .placeholder(R.color.light_gray)
+                .fitCenter()
+                .dontAnimate();
+        int coverSize = (int) (96 * holder.imageView.getResources().getDisplayMetrics().density);
+        RequestOptions thumbnailOptions = ThumbnailOptions.forView(holder.imageView, coverSize);
+        if (thumbnailOptions != null) {
+            options = options.apply(thumbnailOptions);
+        }
         Glide.with(mainActivityRef.get())
                 .load(podcast.getImageUrl())
-                .apply(new RequestOptions()
-                        .placeholder(R.color.light_gray)
-                        .fitCenter()
-                        .dontAnimate())
+                .apply(options)
                 .into(holder.imageView);
     }
 
@@ -81,6 +81,7 @@ public class SubscriptionViewHolder extends RecyclerView.ViewHolder {
             coverLoader.withPlaceholderView(fallbackTitle, textAndImageCombined);
         }
         coverLoader.withCoverView(coverImage);
+        coverLoader.withExpectedSize(itemView.getResources().getDisplayMetrics().widthPixels / columnCount);
         coverLoader.load();
 
         if (card != null) {
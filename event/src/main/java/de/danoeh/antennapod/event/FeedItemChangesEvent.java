@@ -0,0 +1,74 @@
+package de.danoeh.antennapod.event;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import de.danoeh.antennapod.model.feed.FeedItem;
+
+/**
+ * All {@link FeedItemEvent}s that were posted during one frame, merged by {@link FeedItemEventHub}.
+ * Contains only the latest version of each item.
+ */
+public class FeedItemChangesEvent {
+    @NonNull
+    private final Map<Long, FeedItem> changes;
+
+    public FeedItemChangesEvent(@NonNull Map<Long, FeedItem> changes) {
+        this.changes = Collections.unmodifiableMap(changes);
+    }
+
+    /**
+     * Returns the latest version of the item with the given id, or null if it did not change.
+     */
+    @Nullable
+    public FeedItem get(long id) {
+        return changes.get(id);
+    }
+
+    public boolean contains(long id) {
+        return changes.containsKey(id);
+    }
+
+    @NonNull
+    public Collection<FeedItem> getItems() {
+        return changes.values();
+    }
+
+    public int size() {
+        return changes.size();
+    }
+
+    /**
+     * Replaces all changed items in the list with their latest version.
+     *
+     * @return The positions that were replaced, in ascending order.
+     */
+    @NonNull
+    public List<Integer> replaceChangedItems(@NonNull List<FeedItem> items) {
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            FeedItem item = items.get(i);
+            if (item == null) {
+                continue;
+            }
+            FeedItem changed = changes.get(item.getId());
+            if (changed != null) {
+                items.set(i, changed);
+                positions.add(i);
+            }
+        }
+        return positions;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "FeedItemChangesEvent{size=" + changes.size() + "}";
+    }
+}
@@ -0,0 +1,67 @@
+package de.danoeh.antennapod.event;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.danoeh.antennapod.model.feed.FeedItem;
+
+/**
+ * Bulk operations like marking all episodes as played post long bursts of {@link FeedItemEvent}s.
+ * This collects them until the next frame and then posts a single {@link FeedItemChangesEvent}
+ * on the main thread, so that lists only need to update once per frame.
+ */
+public class FeedItemEventHub {
+    private static FeedItemEventHub instance;
+
+    private final EventBus eventBus;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Object lock = new Object();
+    private Map<Long, FeedItem> pendingChanges = new LinkedHashMap<>();
+    private boolean dispatchScheduled = false;
+
+    FeedItemEventHub(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    public static synchronized void init() {
+        if (instance != null) {
+            return;
+        }
+        instance = new FeedItemEventHub(EventBus.getDefault());
+        EventBus.getDefault().register(instance);
+    }
+
+    @Subscribe(threadMode = ThreadMode.POSTING)
+    public void onFeedItemEvent(FeedItemEvent event) {
+        synchronized (lock) {
+            for (FeedItem item : event.items) {
+                if (item != null) {
+                    pendingChanges.put(item.getId(), item);
+                }
+            }
+            if (dispatchScheduled || pendingChanges.isEmpty()) {
+                return;
+            }
+            dispatchScheduled = true;
+        }
+        mainHandler.post(() -> Choreographer.getInstance().postFrameCallback(frameTimeNanos -> dispatch()));
+    }
+
+    private void dispatch() {
+        Map<Long, FeedItem> changes;
+        synchronized (lock) {
+            changes = pendingChanges;
+            pendingChanges = new LinkedHashMap<>();
+            dispatchScheduled = false;
+        }
+        eventBus.post(new FeedItemChangesEvent(changes));
+    }
+}
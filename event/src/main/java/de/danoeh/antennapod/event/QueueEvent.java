@@ -32,6 +32,10 @@ public class QueueEvent {
         return new QueueEvent(Action.ADDED, item, null, position);
     }
 
+    public static QueueEvent addedItems(List<FeedItem> items, int position) {
+        return new QueueEvent(Action.ADDED_ITEMS, null, items, position);
+    }
+
     public static QueueEvent setQueue(List<FeedItem> queue) {
         return new QueueEvent(Action.SET_QUEUE, null, queue, -1);
     }
@@ -0,0 +1,104 @@
+package de.danoeh.antennapod.event;
+
+import de.danoeh.antennapod.model.feed.FeedItem;
+import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.Subscribe;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class FeedItemEventHubTest {
+    private EventBus eventBus;
+    private List<FeedItemChangesEvent> received;
+
+    @Before
+    public void setUp() {
+        eventBus = EventBus.builder().build();
+        eventBus.register(new FeedItemEventHub(eventBus));
+        received = new ArrayList<>();
+        eventBus.register(this);
+    }
+
+    @Subscribe
+    public void onFeedItemChanges(FeedItemChangesEvent event) {
+        received.add(event);
+    }
+
+    @Test
+    public void testCoalescesEventsUntilNextFrame() {
+        FeedItem oldVersion = item(1);
+        FeedItem newVersion = item(1);
+        eventBus.post(FeedItemEvent.updated(oldVersion));
+        eventBus.post(FeedItemEvent.updated(item(2)));
+        eventBus.post(FeedItemEvent.updated(newVersion));
+        assertTrue(received.isEmpty());
+
+        nextFrame();
+        assertEquals(1, received.size());
+        FeedItemChangesEvent event = received.get(0);
+        assertEquals(2, event.size());
+        assertSame(newVersion, event.get(1));
+        assertTrue(event.contains(2));
+        assertFalse(event.contains(3));
+    }
+
+    @Test
+    public void testKeepsOrderOfFirstChange() {
+        eventBus.post(FeedItemEvent.updated(item(3), item(1)));
+        eventBus.post(FeedItemEvent.updated(item(2), item(3)));
+        nextFrame();
+
+        assertEquals(1, received.size());
+        List<Long> ids = new ArrayList<>();
+        for (FeedItem item : received.get(0).getItems()) {
+            ids.add(item.getId());
+        }
+        assertEquals(Arrays.asList(3L, 1L, 2L), ids);
+    }
+
+    @Test
+    public void testFlushesOncePerFrame() {
+        eventBus.post(FeedItemEvent.updated(item(1)));
+        nextFrame();
+        eventBus.post(FeedItemEvent.updated(item(2)));
+        nextFrame();
+        nextFrame();
+
+        assertEquals(2, received.size());
+        assertEquals(1, received.get(0).size());
+        assertTrue(received.get(0).contains(1));
+        assertEquals(1, received.get(1).size());
+        assertTrue(received.get(1).contains(2));
+    }
+
+    @Test
+    public void testIgnoresEventsWithoutItems() {
+        eventBus.post(FeedItemEvent.updated(new ArrayList<>()));
+        eventBus.post(FeedItemEvent.updated((FeedItem) null));
+        nextFrame();
+        assertTrue(received.isEmpty());
+    }
+
+    private static FeedItem item(long id) {
+        FeedItem item = new FeedItem();
+        item.setId(id);
+        return item;
+    }
+
+    private static void nextFrame() {
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+    }
+}
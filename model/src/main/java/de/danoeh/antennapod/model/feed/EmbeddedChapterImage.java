@@ -1,15 +1,19 @@
 package de.danoeh.antennapod.model.feed;
 
 import android.text.TextUtils;
+import androidx.annotation.Nullable;
 import de.danoeh.antennapod.model.playback.Playable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class EmbeddedChapterImage {
-    private static final Pattern EMBEDDED_IMAGE_MATCHER = Pattern.compile("embedded-image://(\\d+)/(\\d+)");
+    private static final Pattern EMBEDDED_IMAGE_MATCHER = Pattern.compile(
+            "embedded-image://(\\d+)/(\\d+)(?:/([0-9a-f]+))?");
 
     private final int position;
     private final int length;
+    @Nullable
+    private final String hash;
     private final String imageUrl;
     private final Playable media;
 
@@ -20,6 +24,7 @@ public class EmbeddedChapterImage {
         if (m.find()) {
             this.position = Integer.parseInt(m.group(1));
             this.length = Integer.parseInt(m.group(2));
+            this.hash = m.group(3);
         } else {
             throw new IllegalArgumentException("Not an embedded chapter");
         }
@@ -29,6 +34,13 @@ public class EmbeddedChapterImage {
         return "embedded-image://" + position + "/" + length;
     }
 
+    /**
+     * @param hash Hash of the image content, which lets identical images share a cache entry
+     */
+    public static String makeUrl(int position, int length, String hash) {
+        return makeUrl(position, length) + "/" + hash;
+    }
+
     public int getPosition() {
         return position;
     }
@@ -37,6 +49,14 @@ public class EmbeddedChapterImage {
         return length;
     }
 
+    /**
+     * @return Hash of the image content, or null for chapters that were read before hashes were stored.
+     */
+    @Nullable
+    public String getHash() {
+        return hash;
+    }
+
     public Playable getMedia() {
         return media;
     }
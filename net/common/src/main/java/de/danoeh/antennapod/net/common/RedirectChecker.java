@@ -26,28 +26,43 @@ public abstract class RedirectChecker {
             return null;
         }
         Collections.reverse(responses);
-        int firstCode = responses.get(0).code();
-        String firstUrl = responses.get(0).request().url().toString();
-        String secondUrl = responses.get(1).request().url().toString();
-        if (firstCode == HttpURLConnection.HTTP_MOVED_PERM || firstCode == StatusLine.HTTP_PERM_REDIRECT) {
-            Log.d(TAG, "Detected permanent redirect from " + firstUrl + " to " + secondUrl);
-            return secondUrl;
-        } else if (secondUrl.equals(firstUrl.replace("http://", "https://"))) {
-            Log.d(TAG, "Treating http->https non-permanent redirect as permanent: " + firstUrl);
-            return secondUrl;
+        // Follow the chain as long as the redirects are permanent
+        String newUrl = null;
+        for (int i = 0; i < responses.size() - 1; i++) {
+            int code = responses.get(i).code();
+            String fromUrl = responses.get(i).request().url().toString();
+            String toUrl = responses.get(i + 1).request().url().toString();
+            if (code == HttpURLConnection.HTTP_MOVED_PERM || code == StatusLine.HTTP_PERM_REDIRECT) {
+                Log.d(TAG, "Detected permanent redirect from " + fromUrl + " to " + toUrl);
+            } else if (toUrl.equals(fromUrl.replace("http://", "https://"))) {
+                Log.d(TAG, "Treating http->https non-permanent redirect as permanent: " + fromUrl);
+            } else {
+                break;
+            }
+            newUrl = toUrl;
         }
-        return null;
+        return newUrl;
     }
 
     @Nullable
     public static String getNewUrlIfPermanentRedirect(String downloadUrl) {
         try {
-            Request httpReq = new Request.Builder().url(downloadUrl).head().build();
-            Response response = AntennapodHttpClient.getHttpClient().newCall(httpReq).execute();
-            return RedirectChecker.getNewUrlIfPermanentRedirect(response);
+            return checkPermanentRedirect(downloadUrl);
         } catch (IOException e) {
             e.printStackTrace();
         }
         return null;
     }
+
+    /**
+     * Like {@link #getNewUrlIfPermanentRedirect(String)}, but passes network errors on to the caller,
+     * so that a failed request can be told apart from a URL that does not redirect.
+     */
+    @Nullable
+    public static String checkPermanentRedirect(String downloadUrl) throws IOException {
+        Request httpReq = new Request.Builder().url(downloadUrl).head().build();
+        try (Response response = AntennapodHttpClient.getHttpClient().newCall(httpReq).execute()) {
+            return RedirectChecker.getNewUrlIfPermanentRedirect(response);
+        }
+    }
 }
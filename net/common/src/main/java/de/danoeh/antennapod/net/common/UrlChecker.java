@@ -130,6 +130,27 @@ public final class UrlChecker {
         return url1.getQuery().equals(url2.getQuery());
     }
 
+    /**
+     * Returns a key that is the same for two URLs if and only if {@link #urlEquals} considers them equal.
+     * This allows to look up URLs in a hash set instead of comparing with every element of a list.
+     * Path segments are encoded again after decoding, so that an encoded slash ("%2F") stays part of its segment
+     * and different spellings of the same character ("%2f", "%2F") give the same key.
+     */
+    public static String getComparisonKey(String url) {
+        Uri uri = Uri.parse(url);
+        if (uri == null || uri.getHost() == null) {
+            return "raw:" + url; // Unable to parse url properly
+        }
+        StringBuilder key = new StringBuilder(uri.getHost().toLowerCase(Locale.ROOT));
+        for (String segment : normalizePathSegments(uri.getPathSegments())) {
+            key.append('/').append(Uri.encode(segment));
+        }
+        if (!TextUtils.isEmpty(uri.getQuery())) {
+            key.append('?').append(uri.getQuery());
+        }
+        return key.toString();
+    }
+
     /**
      * Removes empty segments and converts all to lower case.
      * @param input List of path segments
@@ -0,0 +1,65 @@
+package de.danoeh.antennapod.net.common;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+public class RedirectCheckerTest {
+
+    @Test
+    public void testPermanentRedirect() {
+        Response response = chain("https://example.com/a", 301, "https://example.com/b", 200);
+        assertEquals("https://example.com/b", RedirectChecker.getNewUrlIfPermanentRedirect(response));
+    }
+
+    @Test
+    public void testTemporaryRedirect() {
+        Response response = chain("https://example.com/a", 302, "https://example.com/b", 200);
+        assertNull(RedirectChecker.getNewUrlIfPermanentRedirect(response));
+    }
+
+    @Test
+    public void testNoRedirect() {
+        assertNull(RedirectChecker.getNewUrlIfPermanentRedirect(chain("https://example.com/a", 200)));
+    }
+
+    @Test
+    public void testChainOfPermanentRedirects() {
+        Response response = chain("http://example.com/a", 302, "https://example.com/a", 308,
+                "https://example.com/b", 301, "https://example.org/c", 200);
+        assertEquals("https://example.org/c", RedirectChecker.getNewUrlIfPermanentRedirect(response));
+    }
+
+    @Test
+    public void testChainStopsAtTemporaryRedirect() {
+        Response response = chain("https://example.com/a", 301, "https://example.com/b", 307,
+                "https://example.com/c", 200);
+        assertEquals("https://example.com/b", RedirectChecker.getNewUrlIfPermanentRedirect(response));
+    }
+
+    /**
+     * Builds the final response of a redirect chain.
+     *
+     * @param urlsAndCodes Alternating URL and status code of each request
+     */
+    private static Response chain(Object... urlsAndCodes) {
+        Response response = null;
+        for (int i = 0; i < urlsAndCodes.length; i += 2) {
+            response = new Response.Builder()
+                    .request(new Request.Builder().url((String) urlsAndCodes[i]).build())
+                    .protocol(Protocol.HTTP_1_1)
+                    .code((Integer) urlsAndCodes[i + 1])
+                    .message("")
+                    .priorResponse(response)
+                    .build();
+        }
+        return response;
+    }
+}
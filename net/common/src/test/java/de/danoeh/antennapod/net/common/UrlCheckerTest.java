@@ -9,6 +9,7 @@ import java.net.URLEncoder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -177,4 +178,35 @@ public class UrlCheckerTest {
         assertFalse(UrlChecker.urlEquals("https://example.com/podcast%25test", "https://example.com/podcast test"));
         assertFalse(UrlChecker.urlEquals("antennapod_local:abc", "https://example.com/"));
     }
+
+    @Test
+    public void testComparisonKeyMatchesUrlEquals() {
+        String[][] equalUrls = {
+                {"https://www.example.com/test", "https://www.example.com/test/"},
+                {"https://www.example.com/test", "https://www.example.com//test"},
+                {"https://www.example.com", "https://www.example.com/"},
+                {"https://www.example.com", "http://www.example.com"},
+                {"https://example.com/podcast%20test", "https://example.com/podcast test"},
+                {"https://example.com/?", "https://example.com"},
+                {"https://Example.com", "https://example.com"},
+                {"https://example.com/test", "https://example.com/Test"},
+                {"https://example.com/a%2Fb", "https://example.com/a%2fb"},
+                {"https://example.com/%41bc", "https://example.com/abc"},
+                {"antennapod_local:abc", "antennapod_local:abc"},
+        };
+        for (String[] pair : equalUrls) {
+            assertEquals(UrlChecker.getComparisonKey(pair[0]), UrlChecker.getComparisonKey(pair[1]));
+        }
+        String[][] differentUrls = {
+                {"https://www.example.com/test", "https://www.example2.com/test"},
+                {"https://example.com/", "https://otherpodcast.example.com/"},
+                {"https://www.example.com/?id=42&a=b", "https://www.example.com/?id=43&a=b"},
+                {"https://example.com/podcast%25test", "https://example.com/podcast test"},
+                {"https://example.com/a%2Fb", "https://example.com/a/b"},
+                {"antennapod_local:abc", "https://example.com/"},
+        };
+        for (String[] pair : differentUrls) {
+            assertNotEquals(UrlChecker.getComparisonKey(pair[0]), UrlChecker.getComparisonKey(pair[1]));
+        }
+    }
 }
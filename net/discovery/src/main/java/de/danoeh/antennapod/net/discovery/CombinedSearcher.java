@@ -2,70 +2,154 @@ package de.danoeh.antennapod.net.discovery;
 
 import android.text.TextUtils;
 import android.util.Log;
+import androidx.annotation.Nullable;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
-import io.reactivex.SingleOnSubscribe;
 import io.reactivex.android.schedulers.AndroidSchedulers;
-import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class CombinedSearcher implements PodcastSearcher {
     private static final String TAG = "CombinedSearcher";
+    private static final long PROVIDER_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long CACHE_TIME_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final int CACHE_SIZE = 20;
+
+    @Nullable
+    private final List<PodcastSearcherRegistry.SearcherInfo> searchProviders;
+    private final long providerTimeoutMillis;
+    private final Scheduler scheduler;
+    private final Map<String, Observable<List<PodcastSearchResult>>> runningSearches = new HashMap<>();
+    private final Map<String, CachedResult> cache = new LinkedHashMap<String, CachedResult>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
 
     public CombinedSearcher() {
+        this(null, PROVIDER_TIMEOUT_MILLIS, Schedulers.computation());
+    }
+
+    /**
+     * @param searchProviders The searchers to combine, or null to use the ones from {@link PodcastSearcherRegistry}
+     * @param scheduler Used for the provider timeouts and as the clock of the result cache
+     */
+    CombinedSearcher(@Nullable List<PodcastSearcherRegistry.SearcherInfo> searchProviders,
+                     long providerTimeoutMillis, Scheduler scheduler) {
+        this.searchProviders = searchProviders;
+        this.providerTimeoutMillis = providerTimeoutMillis;
+        this.scheduler = scheduler;
     }
 
     public Single<List<PodcastSearchResult>> search(String query) {
-        ArrayList<Disposable> disposables = new ArrayList<>();
-        List<List<PodcastSearchResult>> singleResults = new ArrayList<>(
-                Collections.nCopies(PodcastSearcherRegistry.getSearchProviders().size(), null));
-        CountDownLatch latch = new CountDownLatch(PodcastSearcherRegistry.getSearchProviders().size());
-        for (int i = 0; i < PodcastSearcherRegistry.getSearchProviders().size(); i++) {
-            PodcastSearcherRegistry.SearcherInfo searchProviderInfo
-                    = PodcastSearcherRegistry.getSearchProviders().get(i);
-            PodcastSearcher searcher = searchProviderInfo.searcher;
-            if (searchProviderInfo.weight <= 0.00001f || searcher.getClass() == CombinedSearcher.class) {
-                latch.countDown();
-                continue;
+        return searchProgressive(query)
+                .last(Collections.<PodcastSearchResult>emptyList())
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread());
+    }
+
+    /**
+     * Emits the merged and ranked results every time a provider answers, so fast providers do not have to wait
+     * for slow ones. Providers that do not answer in time are left out. Identical queries that run at the same
+     * time share the provider requests, which are cancelled when nobody is interested anymore.
+     * Complete results are cached for a while.
+     */
+    public Observable<List<PodcastSearchResult>> searchProgressive(String query) {
+        final String key = normalizeQuery(query);
+        synchronized (this) {
+            CachedResult cached = cache.get(key);
+            if (cached != null) {
+                if (scheduler.now(TimeUnit.MILLISECONDS) - cached.timestamp < CACHE_TIME_MILLIS) {
+                    return Observable.just(cached.results);
+                }
+                cache.remove(key);
             }
-            final int index = i;
-            disposables.add(searcher.search(query).subscribe(e -> {
-                        singleResults.set(index, e);
-                        latch.countDown();
-                    }, throwable -> {
-                        Log.d(TAG, Log.getStackTraceString(throwable));
-                        latch.countDown();
-                    }
-            ));
+            Observable<List<PodcastSearchResult>> running = runningSearches.get(key);
+            if (running != null) {
+                return running;
+            }
+            final List<Observable<List<PodcastSearchResult>>> self = new ArrayList<>(1);
+            running = createSearch(query.trim(), key)
+                    .doFinally(() -> {
+                        synchronized (CombinedSearcher.this) {
+                            if (runningSearches.get(key) == self.get(0)) {
+                                runningSearches.remove(key);
+                            }
+                        }
+                    })
+                    .replay(1)
+                    .refCount();
+            self.add(running);
+            runningSearches.put(key, running);
+            return running;
         }
+    }
+
+    static String normalizeQuery(String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
 
-        return Single.create((SingleOnSubscribe<List<PodcastSearchResult>>) subscriber -> {
-            latch.await();
-            List<PodcastSearchResult> results = weightSearchResults(singleResults);
-            subscriber.onSuccess(results);
-        })
-                .doOnDispose(() -> {
-                    for (Disposable disposable : disposables) {
-                        if (disposable != null) {
-                            disposable.dispose();
+    private List<PodcastSearcherRegistry.SearcherInfo> getActiveSearchProviders() {
+        List<PodcastSearcherRegistry.SearcherInfo> providers = new ArrayList<>();
+        for (PodcastSearcherRegistry.SearcherInfo searchProviderInfo : searchProviders != null
+                ? searchProviders : PodcastSearcherRegistry.getSearchProviders()) {
+            if (searchProviderInfo.weight > 0.00001f
+                    && searchProviderInfo.searcher.getClass() != CombinedSearcher.class) {
+                providers.add(searchProviderInfo);
+            }
+        }
+        return providers;
+    }
+
+    private Observable<List<PodcastSearchResult>> createSearch(String query, String key) {
+        List<PodcastSearcherRegistry.SearcherInfo> providers = getActiveSearchProviders();
+        if (providers.isEmpty()) {
+            return Observable.just(Collections.<PodcastSearchResult>emptyList());
+        }
+        List<Observable<ProviderAnswer>> answers = new ArrayList<>();
+        for (int i = 0; i < providers.size(); i++) {
+            final int index = i;
+            final PodcastSearcher searcher = providers.get(i).searcher;
+            answers.add(searcher.search(query)
+                    .timeout(providerTimeoutMillis, TimeUnit.MILLISECONDS, scheduler)
+                    .map(results -> new ProviderAnswer(index, results))
+                    .onErrorReturn(throwable -> {
+                        Log.d(TAG, searcher.getName() + ": " + Log.getStackTraceString(throwable));
+                        return new ProviderAnswer(index, null);
+                    })
+                    .toObservable());
+        }
+        return Observable.merge(answers)
+                .scanWith(() -> new SearchState(providers.size()), SearchState::add)
+                .skip(1) // Initial empty state
+                .map(state -> {
+                    List<PodcastSearchResult> results = weightSearchResults(providers, state.results);
+                    if (state.isComplete()) {
+                        synchronized (CombinedSearcher.this) {
+                            cache.put(key, new CachedResult(scheduler.now(TimeUnit.MILLISECONDS), results));
                         }
                     }
-                })
-                .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread());
+                    return results;
+                });
     }
 
-    private List<PodcastSearchResult> weightSearchResults(List<List<PodcastSearchResult>> singleResults) {
-        HashMap<String, Float> resultRanking = new HashMap<>();
+    private static List<PodcastSearchResult> weightSearchResults(List<PodcastSearcherRegistry.SearcherInfo> providers,
+                                                                 List<List<PodcastSearchResult>> singleResults) {
+        // Linked, so that results with the same ranking do not jump around when more providers answer
+        Map<String, Float> resultRanking = new LinkedHashMap<>();
         HashMap<String, PodcastSearchResult> urlToResult = new HashMap<>();
         for (int i = 0; i < singleResults.size(); i++) {
-            float providerPriority = PodcastSearcherRegistry.getSearchProviders().get(i).weight;
+            float providerPriority = providers.get(i).weight;
             List<PodcastSearchResult> providerResults = singleResults.get(i);
             if (providerResults == null) {
                 continue;
@@ -105,14 +189,57 @@ public class CombinedSearcher implements PodcastSearcher {
     @Override
     public String getName() {
         ArrayList<String> names = new ArrayList<>();
-        for (int i = 0; i < PodcastSearcherRegistry.getSearchProviders().size(); i++) {
-            PodcastSearcherRegistry.SearcherInfo searchProviderInfo
-                    = PodcastSearcherRegistry.getSearchProviders().get(i);
-            PodcastSearcher searcher = searchProviderInfo.searcher;
-            if (searchProviderInfo.weight > 0.00001f && searcher.getClass() != CombinedSearcher.class) {
-                names.add(searcher.getName());
-            }
+        for (PodcastSearcherRegistry.SearcherInfo searchProviderInfo : getActiveSearchProviders()) {
+            names.add(searchProviderInfo.searcher.getName());
         }
         return TextUtils.join(", ", names);
     }
+
+    private static class ProviderAnswer {
+        final int index;
+        @Nullable
+        final List<PodcastSearchResult> results;
+
+        ProviderAnswer(int index, @Nullable List<PodcastSearchResult> results) {
+            this.index = index;
+            this.results = results;
+        }
+    }
+
+    /**
+     * Results of the providers that answered so far. Failed providers stay null.
+     */
+    private static class SearchState {
+        final List<List<PodcastSearchResult>> results;
+        int numAnswers = 0;
+        boolean hasFailures = false;
+
+        SearchState(int numProviders) {
+            results = new ArrayList<>(Collections.nCopies(numProviders, null));
+        }
+
+        SearchState add(ProviderAnswer answer) {
+            results.set(answer.index, answer.results);
+            numAnswers++;
+            hasFailures |= answer.results == null;
+            return this;
+        }
+
+        /**
+         * Only complete results are cached, so that a temporary problem of one provider does not stick.
+         */
+        boolean isComplete() {
+            return numAnswers == results.size() && !hasFailures;
+        }
+    }
+
+    private static class CachedResult {
+        final long timestamp;
+        final List<PodcastSearchResult> results;
+
+        CachedResult(long timestamp, List<PodcastSearchResult> results) {
+            this.timestamp = timestamp;
+            this.results = results;
+        }
+    }
 }
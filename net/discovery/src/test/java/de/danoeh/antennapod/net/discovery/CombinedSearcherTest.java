@@ -0,0 +1,150 @@
+package de.danoeh.antennapod.net.discovery;
+
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.SingleSubject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(RobolectricTestRunner.class)
+public class CombinedSearcherTest {
+    private static final long TIMEOUT_MILLIS = 1000;
+
+    private TestScheduler scheduler;
+    private FakeSearcher fast;
+    private FakeSearcher slow;
+    private CombinedSearcher searcher;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler();
+        fast = new FakeSearcher();
+        slow = new FakeSearcher();
+        searcher = new CombinedSearcher(Arrays.asList(
+                new PodcastSearcherRegistry.SearcherInfo(fast, 1.0f),
+                new PodcastSearcherRegistry.SearcherInfo(slow, 1.0f)), TIMEOUT_MILLIS, scheduler);
+    }
+
+    @Test
+    public void testEmitsMergedResultsWhenProvidersAnswer() {
+        TestObserver<List<PodcastSearchResult>> observer = searcher.searchProgressive("query").test();
+        observer.assertNoValues();
+
+        fast.response.onSuccess(results("a", "b"));
+        observer.assertValueCount(1);
+        observer.assertNotComplete();
+        assertEquals(Arrays.asList("a", "b"), feedUrls(observer.values().get(0)));
+
+        slow.response.onSuccess(results("b", "c"));
+        observer.assertValueCount(2);
+        observer.assertComplete();
+        assertEquals(Arrays.asList("b", "a", "c"), feedUrls(observer.values().get(1)));
+    }
+
+    @Test
+    public void testSlowProviderTimesOut() {
+        TestObserver<List<PodcastSearchResult>> observer = searcher.searchProgressive("query").test();
+        fast.response.onSuccess(results("a"));
+        scheduler.advanceTimeBy(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        observer.assertComplete();
+        assertEquals(Arrays.asList("a"), feedUrls(observer.values().get(observer.valueCount() - 1)));
+        assertFalse(slow.response.hasObservers());
+
+        // Incomplete results are not cached
+        searcher.searchProgressive("query").test();
+        assertEquals(2, slow.numSearches);
+    }
+
+    @Test
+    public void testIdenticalQueriesShareRequests() {
+        TestObserver<List<PodcastSearchResult>> first = searcher.searchProgressive("Query").test();
+        TestObserver<List<PodcastSearchResult>> second = searcher.searchProgressive("  query ").test();
+        fast.response.onSuccess(results("a"));
+        slow.response.onSuccess(results("b"));
+
+        assertEquals(1, fast.numSearches);
+        assertEquals(1, slow.numSearches);
+        first.assertComplete();
+        second.assertComplete();
+        assertEquals(first.values().get(1), second.values().get(1));
+    }
+
+    @Test
+    public void testCachesCompleteResults() {
+        searcher.searchProgressive("query").test();
+        fast.response.onSuccess(results("a"));
+        slow.response.onSuccess(results("b"));
+
+        TestObserver<List<PodcastSearchResult>> cached = searcher.searchProgressive("QUERY").test();
+        cached.assertValueCount(1);
+        cached.assertComplete();
+        assertEquals(Arrays.asList("a", "b"), feedUrls(cached.values().get(0)));
+        assertEquals(1, fast.numSearches);
+
+        scheduler.advanceTimeBy(1, TimeUnit.HOURS);
+        searcher.searchProgressive("query").test();
+        assertEquals(2, fast.numSearches);
+    }
+
+    @Test
+    public void testDisposeCancelsProviders() {
+        TestObserver<List<PodcastSearchResult>> observer = searcher.searchProgressive("query").test();
+        observer.dispose();
+        assertFalse(fast.response.hasObservers());
+        assertFalse(slow.response.hasObservers());
+    }
+
+    private static List<PodcastSearchResult> results(String... feedUrls) {
+        List<PodcastSearchResult> results = new ArrayList<>();
+        for (String feedUrl : feedUrls) {
+            results.add(new PodcastSearchResult(feedUrl, null, feedUrl, null));
+        }
+        return results;
+    }
+
+    private static List<String> feedUrls(List<PodcastSearchResult> results) {
+        List<String> feedUrls = new ArrayList<>();
+        for (PodcastSearchResult result : results) {
+            feedUrls.add(result.feedUrl);
+        }
+        return feedUrls;
+    }
+
+    private static class FakeSearcher implements PodcastSearcher {
+        final SingleSubject<List<PodcastSearchResult>> response = SingleSubject.create();
+        int numSearches = 0;
+
+        @Override
+        public Single<List<PodcastSearchResult>> search(String query) {
+            numSearches++;
+            return response;
+        }
+
+        @Override
+        public Single<String> lookupUrl(String resultUrl) {
+            return Single.just(resultUrl);
+        }
+
+        @Override
+        public boolean urlNeedsLookup(String resultUrl) {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return "Fake";
+        }
+    }
+}
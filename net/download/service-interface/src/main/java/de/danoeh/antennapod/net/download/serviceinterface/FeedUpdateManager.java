@@ -24,6 +24,16 @@ public abstract class FeedUpdateManager {
 
     public abstract void runOnce(Context context, Feed feed, boolean nextPage);
 
+    /**
+     * Refreshes only the subscriptions that were never refreshed, for example after an import.
+     */
+    public abstract void runOnceForNewSubscriptions(Context context);
+
+    /**
+     * Deletes what was stored to speed up updates of a local feed that no longer exists.
+     */
+    public abstract void onFeedRemoved(Context context, long feedId);
+
     public abstract void runOnceOrAsk(@NonNull Context context);
 
     public abstract void runOnceOrAsk(@NonNull Context context, @Nullable Feed feed);
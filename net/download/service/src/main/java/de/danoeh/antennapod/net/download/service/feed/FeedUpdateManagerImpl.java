@@ -19,6 +19,7 @@ import de.danoeh.antennapod.net.common.NetworkUtils;
 import de.danoeh.antennapod.event.MessageEvent;
 import de.danoeh.antennapod.model.feed.Feed;
 import de.danoeh.antennapod.net.download.service.R;
+import de.danoeh.antennapod.net.download.service.feed.local.LocalFeedUpdater;
 import de.danoeh.antennapod.net.download.serviceinterface.FeedUpdateManager;
 import de.danoeh.antennapod.storage.preferences.UserPreferences;
 import org.greenrobot.eventbus.EventBus;
@@ -29,9 +30,11 @@ public class FeedUpdateManagerImpl extends FeedUpdateManager {
     public static final String WORK_TAG_FEED_UPDATE = "feedUpdate";
     private static final String WORK_ID_FEED_UPDATE = "de.danoeh.antennapod.core.service.FeedUpdateWorker";
     private static final String WORK_ID_FEED_UPDATE_MANUAL = "feedUpdateManual";
+    private static final String WORK_ID_FEED_UPDATE_NEW_SUBSCRIPTIONS = "feedUpdateNewSubscriptions";
     public static final String EXTRA_FEED_ID = "feed_id";
     public static final String EXTRA_NEXT_PAGE = "next_page";
     public static final String EXTRA_EVEN_ON_MOBILE = "even_on_mobile";
+    public static final String EXTRA_NEW_SUBSCRIPTIONS_ONLY = "new_subscriptions_only";
     private static final String TAG = "AutoUpdateManager";
 
     /**
@@ -81,6 +84,28 @@ public class FeedUpdateManagerImpl extends FeedUpdateManager {
                 ExistingWorkPolicy.REPLACE, workRequest.build());
     }
 
+    /**
+     * Uses its own unique work, so that it neither cancels nor gets cancelled by a manual refresh.
+     */
+    public void runOnceForNewSubscriptions(Context context) {
+        OneTimeWorkRequest workRequest = new OneTimeWorkRequest.Builder(FeedUpdateWorker.class)
+                .setInitialDelay(0L, TimeUnit.MILLISECONDS)
+                .setExpedited(OutOfQuotaPolicy.RUN_AS_NON_EXPEDITED_WORK_REQUEST)
+                .addTag(WORK_TAG_FEED_UPDATE)
+                .setConstraints(new Constraints.Builder().setRequiredNetworkType(NetworkType.CONNECTED).build())
+                .setInputData(new Data.Builder()
+                        .putBoolean(EXTRA_EVEN_ON_MOBILE, true)
+                        .putBoolean(EXTRA_NEW_SUBSCRIPTIONS_ONLY, true)
+                        .build())
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_ID_FEED_UPDATE_NEW_SUBSCRIPTIONS,
+                ExistingWorkPolicy.REPLACE, workRequest);
+    }
+
+    public void onFeedRemoved(Context context, long feedId) {
+        LocalFeedUpdater.deleteScanIndex(context, feedId);
+    }
+
     public void runOnceOrAsk(@NonNull Context context) {
         runOnceOrAsk(context, null);
     }
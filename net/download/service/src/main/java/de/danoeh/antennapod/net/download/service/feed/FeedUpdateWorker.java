@@ -47,9 +47,15 @@ import java.util.concurrent.Executors;
 
 public class FeedUpdateWorker extends Worker {
     private static final String TAG = "FeedUpdateWorker";
+    private static final int PARALLEL_DOWNLOADS = 4;
+    /**
+     * New subscriptions are usually on many different servers and do not need to be merged with existing episodes.
+     */
+    private static final int PARALLEL_DOWNLOADS_NEW_SUBSCRIPTIONS = 8;
 
     private final NewEpisodesNotification newEpisodesNotification;
     private final NotificationManagerCompat notificationManager;
+    private int numFeedsToUpdate = 0;
 
     public FeedUpdateWorker(@NonNull Context context, @NonNull WorkerParameters params) {
         super(context, params);
@@ -64,6 +70,8 @@ public class FeedUpdateWorker extends Worker {
 
         List<Feed> toUpdate;
         long feedId = getInputData().getLong(FeedUpdateManagerImpl.EXTRA_FEED_ID, -1);
+        boolean newSubscriptionsOnly = getInputData().getBoolean(
+                FeedUpdateManagerImpl.EXTRA_NEW_SUBSCRIPTIONS_ONLY, false);
         boolean allAreLocal = true;
         boolean force = false;
         if (feedId == -1) { // Update all
@@ -71,7 +79,8 @@ public class FeedUpdateWorker extends Worker {
             Iterator<Feed> itr = toUpdate.iterator();
             while (itr.hasNext()) {
                 Feed feed = itr.next();
-                if (!feed.getPreferences().getKeepUpdated() || feed.getState() != Feed.STATE_SUBSCRIBED) {
+                if (!feed.getPreferences().getKeepUpdated() || feed.getState() != Feed.STATE_SUBSCRIBED
+                        || (newSubscriptionsOnly && feed.getLastRefreshAttempt() != 0)) {
                     itr.remove();
                     continue;
                 }
@@ -99,7 +108,7 @@ public class FeedUpdateWorker extends Worker {
                 return Result.retry();
             }
         }
-        refreshFeeds(toUpdate,  force);
+        refreshFeeds(toUpdate, force, newSubscriptionsOnly ? PARALLEL_DOWNLOADS_NEW_SUBSCRIPTIONS : PARALLEL_DOWNLOADS);
 
         NonSubscribedFeedsCleaner.deleteOldNonSubscribedFeeds(getApplicationContext());
         AutoDownloadManager.getInstance().autodownloadUndownloadedItems(getApplicationContext());
@@ -126,6 +135,8 @@ public class FeedUpdateWorker extends Worker {
         return new NotificationCompat.Builder(context, NotificationUtils.CHANNEL_ID_REFRESHING)
                 .setContentTitle(context.getString(R.string.download_notification_title_feeds))
                 .setContentText(contentText)
+                .setProgress(numFeedsToUpdate, toUpdate != null ? numFeedsToUpdate - toUpdate.size() : 0,
+                        toUpdate == null)
                 .setStyle(new NotificationCompat.BigTextStyle().bigText(bigText))
                 .setSmallIcon(R.drawable.ic_notification_sync)
                 .setOngoing(true)
@@ -147,10 +158,11 @@ public class FeedUpdateWorker extends Worker {
         return Futures.immediateFuture(new ForegroundInfo(R.id.notification_updating_feeds, createNotification(null)));
     }
 
-    private void refreshFeeds(List<Feed> toUpdate, boolean force) {
+    private void refreshFeeds(List<Feed> toUpdate, boolean force, int parallelDownloads) {
         List<Feed> notificationRemainingFeeds = new ArrayList<>(toUpdate);
+        numFeedsToUpdate = toUpdate.size();
         updateNotification(notificationRemainingFeeds);
-        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelDownloads);
         for (Feed feed : toUpdate) {
             executor.submit(() -> {
                 if (isStopped()) {
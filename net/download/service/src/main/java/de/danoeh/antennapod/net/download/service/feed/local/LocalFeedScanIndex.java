@@ -0,0 +1,128 @@
+package de.danoeh.antennapod.net.download.service.feed.local;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers size and modification time of the files that were scanned for a local feed.
+ * Files that did not change since the last scan do not need their metadata extracted again.
+ */
+class LocalFeedScanIndex {
+    private static final String TAG = "LocalFeedScanIndex";
+    private static final String DIRECTORY = "local-feed-index";
+
+    private final Map<String, Entry> entries;
+
+    private LocalFeedScanIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    static LocalFeedScanIndex load(Context context, long feedId) {
+        Map<String, Entry> entries = new HashMap<>();
+        File file = getFile(context, feedId);
+        if (!file.exists()) {
+            return new LocalFeedScanIndex(entries);
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length != 3) {
+                    continue;
+                }
+                entries.put(parts[2], new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+            }
+        } catch (IOException | NumberFormatException e) {
+            Log.d(TAG, "Discarding unreadable scan index: " + e.getMessage());
+            entries.clear();
+        }
+        return new LocalFeedScanIndex(entries);
+    }
+
+    void save(Context context, long feedId) {
+        File file = getFile(context, feedId);
+        File directory = file.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            Log.d(TAG, "Unable to create " + directory);
+            return;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writer.write(entry.getValue().size + "\t" + entry.getValue().lastModified + "\t" + entry.getKey());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            Log.d(TAG, "Unable to write scan index: " + e.getMessage());
+            tempFile.delete();
+            return;
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Deletes the stored index, for example when the feed is removed.
+     */
+    static void delete(Context context, long feedId) {
+        File file = getFile(context, feedId);
+        File tempFile = new File(file.getPath() + ".tmp");
+        if ((file.exists() && !file.delete()) || (tempFile.exists() && !tempFile.delete())) {
+            Log.d(TAG, "Unable to delete scan index of feed " + feedId);
+        }
+    }
+
+    /**
+     * Returns true if the file has the same size and modification time as during the last scan.
+     */
+    boolean isUnchanged(@NonNull FastDocumentFile file) {
+        Entry entry = entries.get(file.getUri().toString());
+        return entry != null && entry.size == file.getLength() && entry.lastModified == file.getLastModified()
+                && file.getLastModified() != 0;
+    }
+
+    boolean contains(@NonNull FastDocumentFile file) {
+        return entries.containsKey(file.getUri().toString());
+    }
+
+    /**
+     * Replaces the content of the index with the given files.
+     */
+    void setFiles(@NonNull Iterable<FastDocumentFile> files) {
+        entries.clear();
+        for (FastDocumentFile file : files) {
+            entries.put(file.getUri().toString(), new Entry(file.getLength(), file.getLastModified()));
+        }
+    }
+
+    private static File getFile(Context context, long feedId) {
+        return new File(new File(context.getNoBackupFilesDir(), DIRECTORY), feedId + ".tsv");
+    }
+
+    private static class Entry {
+        final long size;
+        final long lastModified;
+
+        Entry(long size, long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -17,12 +17,18 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import androidx.annotation.VisibleForTesting;
 import androidx.documentfile.provider.DocumentFile;
@@ -49,6 +55,8 @@ import org.apache.commons.io.input.CountingInputStream;
 public class LocalFeedUpdater {
     private static final String TAG = "LocalFeedUpdater";
 
+    private static final int MAX_SCAN_THREADS = 4;
+
     static final String[] PREFERRED_FEED_IMAGE_FILENAMES = {"folder.jpg", "Folder.jpg", "folder.png", "Folder.png"};
 
     public static Feed updateFeed(Feed feed, Context context,
@@ -77,15 +85,26 @@ public class LocalFeedUpdater {
         return null;
     }
 
+    /**
+     * Forgets which files were scanned for the feed, so that nothing is left behind when it is removed.
+     */
+    public static void deleteScanIndex(Context context, long feedId) {
+        LocalFeedScanIndex.delete(context, feedId);
+    }
+
     @VisibleForTesting
     static Feed tryUpdateFeed(Feed feed, Context context, Uri folderUri,
                               UpdaterProgressListener updaterProgressListener) throws IOException {
         if (feed.getItems() == null) {
             feed.setItems(new ArrayList<>());
         }
-        // make sure it is the latest 'version' of this feed from the db (all items etc)
-        // and for new feeds, settings etc are set up properly.
-        feed = FeedDatabaseWriter.updateFeed(context, feed, false);
+        // make sure it is the latest 'version' of this feed from the db (all items etc).
+        // New feeds are created first so that settings etc are set up properly.
+        Feed savedFeed = loadSavedFeed(feed);
+        if (savedFeed == null) {
+            savedFeed = FeedDatabaseWriter.updateFeed(context, feed, false);
+        }
+        feed = savedFeed;
 
         // list files in feed folder
         List<FastDocumentFile> allFiles = FastDocumentFile.list(context, folderUri);
@@ -100,19 +119,48 @@ public class LocalFeedUpdater {
             }
         }
 
+        Map<String, FeedItem> itemsByFilename = new HashMap<>();
+        Map<String, FeedItem> itemsByDownloadUrl = new HashMap<>();
+        for (FeedItem item : feed.getItems()) {
+            if (item.getMedia() == null) {
+                continue;
+            }
+            if (!itemsByFilename.containsKey(item.getLink())) {
+                itemsByFilename.put(item.getLink(), item);
+            }
+            if (!itemsByDownloadUrl.containsKey(item.getMedia().getDownloadUrl())) {
+                itemsByDownloadUrl.put(item.getMedia().getDownloadUrl(), item);
+            }
+        }
+
+        // files that did not change since the last scan are kept as they are
+        LocalFeedScanIndex scanIndex = LocalFeedScanIndex.load(context, feed.getId());
+        List<FastDocumentFile> filesToScan = new ArrayList<>();
+        List<FeedItem> reusableItems = new ArrayList<>();
+        for (FastDocumentFile file : mediaFiles) {
+            FeedItem oldItem = itemsByFilename.get(file.getName());
+            if (oldItem != null && scanIndex.isUnchanged(file)
+                    && oldItem.getMedia().getDownloadUrl().equals(file.getUri().toString())) {
+                continue;
+            }
+            filesToScan.add(file);
+            // Files scanned before the index existed can still re-use metadata if their size did not change
+            reusableItems.add(scanIndex.contains(file) ? null : itemsByDownloadUrl.get(file.getUri().toString()));
+        }
+        Log.d(TAG, "Scanning " + filesToScan.size() + " of " + mediaFiles.size() + " files");
+
         // add new files to feed and update item data
+        List<FeedItem> scannedItems = scanFiles(feed, filesToScan, reusableItems,
+                context, updaterProgressListener);
         List<FeedItem> newItems = feed.getItems();
-        for (int i = 0; i < mediaFiles.size(); i++) {
-            FeedItem oldItem = feedContainsFile(feed, mediaFiles.get(i).getName());
-            FeedItem newItem = createFeedItem(feed, mediaFiles.get(i), context);
+        for (int i = 0; i < filesToScan.size(); i++) {
+            FeedItem oldItem = itemsByFilename.get(filesToScan.get(i).getName());
+            FeedItem newItem = scannedItems.get(i);
             if (oldItem == null) {
                 newItems.add(newItem);
             } else {
                 oldItem.updateFromOther(newItem);
             }
-            if (updaterProgressListener != null) {
-                updaterProgressListener.onLocalFileScanned(i, mediaFiles.size());
-            }
         }
 
         // remove feed items without corresponding file
@@ -132,9 +180,66 @@ public class LocalFeedUpdater {
 
         FeedDatabaseWriter.updateFeed(context, feed, true);
 
+        scanIndex.setFiles(mediaFiles);
+        scanIndex.save(context, feed.getId());
         return feed;
     }
 
+    /**
+     * Looks up the feed and all of its items without writing to the database.
+     */
+    @Nullable
+    private static Feed loadSavedFeed(Feed feed) {
+        if (feed.getId() != 0) {
+            return DBReader.getFeed(feed.getId(), false, 0, Integer.MAX_VALUE);
+        }
+        for (Feed savedFeed : DBReader.getFeedList()) {
+            if (savedFeed.getIdentifyingValue().equals(feed.getIdentifyingValue())) {
+                return DBReader.getFeed(savedFeed.getId(), false, 0, Integer.MAX_VALUE);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the items for the given files. Extracting metadata is slow on most storage providers,
+     * so multiple files are scanned in parallel. The returned list has the same order as the files.
+     */
+    private static List<FeedItem> scanFiles(Feed feed, List<FastDocumentFile> files,
+                                            List<FeedItem> reusableItems, Context context,
+                                            @Nullable UpdaterProgressListener updaterProgressListener)
+            throws IOException {
+        List<FeedItem> items = new ArrayList<>(files.size());
+        if (files.isEmpty()) {
+            return items;
+        }
+        int numThreads = Math.max(1, Math.min(Math.min(MAX_SCAN_THREADS, files.size()),
+                Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<FeedItem>> futures = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                FastDocumentFile file = files.get(i);
+                FeedItem existingItem = reusableItems.get(i);
+                futures.add(executor.submit(() -> createFeedItem(feed, file, existingItem, context)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                items.add(futures.get(i).get());
+                if (updaterProgressListener != null) {
+                    updaterProgressListener.onLocalFileScanned(i, files.size());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Scanning local folder was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return items;
+    }
+
     /**
      * Returns the image URL for the local feed.
      */
@@ -161,17 +266,8 @@ public class LocalFeedUpdater {
         return Feed.PREFIX_GENERATIVE_COVER + folderUri;
     }
 
-    private static FeedItem feedContainsFile(Feed feed, String filename) {
-        List<FeedItem> items = feed.getItems();
-        for (FeedItem i : items) {
-            if (i.getMedia() != null && i.getLink().equals(filename)) {
-                return i;
-            }
-        }
-        return null;
-    }
-
-    private static FeedItem createFeedItem(Feed feed, FastDocumentFile file, Context context) {
+    private static FeedItem createFeedItem(Feed feed, FastDocumentFile file,
+                                           @Nullable FeedItem existingItem, Context context) {
         FeedItem item = new FeedItem(0, file.getName(), UUID.randomUUID().toString(),
                 file.getName(), new Date(file.getLastModified()), FeedItem.UNPLAYED, feed);
         item.disableAutoDownload();
@@ -181,14 +277,10 @@ public class LocalFeedUpdater {
                 file.getUri().toString(), file.getUri().toString(), 0, null, 0, 0);
         item.setMedia(media);
 
-        for (FeedItem existingItem : feed.getItems()) {
-            if (existingItem.getMedia() != null
-                    && existingItem.getMedia().getDownloadUrl().equals(file.getUri().toString())
-                    && file.getLength() == existingItem.getMedia().getSize()) {
-                // We found an old file that we already scanned. Re-use metadata.
-                item.updateFromOther(existingItem);
-                return item;
-            }
+        if (existingItem != null && file.getLength() == existingItem.getMedia().getSize()) {
+            // We found an old file that we already scanned. Re-use metadata.
+            item.updateFromOther(existingItem);
+            return item;
         }
 
         // Did not find existing item. Scan metadata.
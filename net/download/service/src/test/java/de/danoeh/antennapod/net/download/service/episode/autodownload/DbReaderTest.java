@@ -166,6 +166,113 @@ public class DbReaderTest {
             }
         }
 
+        @Test
+        public void testGetFeedItemsAfterMatchesOffsetPages() {
+            Feed feed = saveFeedWithEqualPubDates(11);
+            for (SortOrder sortOrder : new SortOrder[]{SortOrder.DATE_NEW_OLD, SortOrder.DATE_OLD_NEW}) {
+                feed.setSortOrder(sortOrder);
+                List<FeedItem> expected = DBReader.getFeedItemList(feed, FeedItemFilter.unfiltered(),
+                        sortOrder, 0, Integer.MAX_VALUE);
+                List<FeedItem> paged = new ArrayList<>();
+                FeedItem lastItem = null;
+                List<FeedItem> page;
+                do {
+                    page = DBReader.getFeedItemsAfter(feed, false, lastItem, paged.size(), 3);
+                    paged.addAll(page);
+                    lastItem = page.isEmpty() ? null : page.get(page.size() - 1);
+                } while (page.size() == 3);
+                assertEquals(expected.size(), paged.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getId(), paged.get(i).getId());
+                }
+            }
+        }
+
+        @Test
+        public void testGetEpisodesAfterMatchesOffsetPages() {
+            saveFeedWithEqualPubDates(8);
+            List<FeedItem> expected = DBReader.getEpisodes(0, Integer.MAX_VALUE,
+                    FeedItemFilter.unfiltered(), SortOrder.DATE_NEW_OLD);
+            List<FeedItem> paged = new ArrayList<>();
+            FeedItem lastItem = null;
+            List<FeedItem> page;
+            do {
+                page = DBReader.getEpisodesAfter(lastItem, paged.size(), 3,
+                        FeedItemFilter.unfiltered(), SortOrder.DATE_NEW_OLD);
+                paged.addAll(page);
+                lastItem = page.isEmpty() ? null : page.get(page.size() - 1);
+            } while (page.size() == 3);
+            assertEquals(expected.size(), paged.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getId(), paged.get(i).getId());
+            }
+        }
+
+        @Test
+        public void testGetEpisodesUpToKeepsDisplayedItems() {
+            Feed feed = saveFeedWithEqualPubDates(8);
+            List<FeedItem> displayed = DBReader.getEpisodes(0, 5, FeedItemFilter.unfiltered(), SortOrder.DATE_NEW_OLD);
+            FeedItem lastItem = displayed.get(displayed.size() - 1);
+
+            // A new episode is added before the displayed ones
+            FeedItem newItem = new FeedItem(0, "new", "idNew", "linkNew",
+                    new Date(System.currentTimeMillis() + 3600000L), FeedItem.PLAYED, feed);
+            PodDBAdapter adapter = PodDBAdapter.getInstance();
+            adapter.open();
+            adapter.setSingleFeedItem(newItem);
+            adapter.close();
+
+            List<FeedItem> reloaded = DBReader.getEpisodesUpTo(lastItem, 3,
+                    FeedItemFilter.unfiltered(), SortOrder.DATE_NEW_OLD);
+            assertEquals(displayed.size() + 1, reloaded.size());
+            assertEquals(newItem.getId(), reloaded.get(0).getId());
+            for (int i = 0; i < displayed.size(); i++) {
+                assertEquals(displayed.get(i).getId(), reloaded.get(i + 1).getId());
+            }
+        }
+
+        @Test
+        public void testGetFeedItemsUpToFillsUpToMinCount() {
+            Feed feed = saveFeedWithEqualPubDates(11);
+            for (SortOrder sortOrder : new SortOrder[]{SortOrder.DATE_NEW_OLD, SortOrder.DATE_OLD_NEW}) {
+                feed.setSortOrder(sortOrder);
+                List<FeedItem> expected = DBReader.getFeedItemList(feed, FeedItemFilter.unfiltered(),
+                        sortOrder, 0, Integer.MAX_VALUE);
+                FeedItem lastItem = expected.get(3);
+
+                List<FeedItem> reloaded = DBReader.getFeedItemsUpTo(feed, false, lastItem, 2);
+                assertEquals(4, reloaded.size());
+                // Fewer items up to the last item than displayed pages, for example because items were removed
+                reloaded = DBReader.getFeedItemsUpTo(feed, false, lastItem, 7);
+                assertEquals(7, reloaded.size());
+                for (int i = 0; i < reloaded.size(); i++) {
+                    assertEquals(expected.get(i).getId(), reloaded.get(i).getId());
+                }
+            }
+        }
+
+        /**
+         * Saves a feed where multiple items share the same publication date, so that page boundaries
+         * fall between items that only differ in their ID.
+         */
+        private Feed saveFeedWithEqualPubDates(int numItems) {
+            Feed feed = new Feed(0, null, "feed", "link", "descr", null, null,
+                    null, null, "id", null, null, "url", System.currentTimeMillis());
+            feed.setItems(new ArrayList<>());
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < numItems; i++) {
+                FeedItem item = new FeedItem(0, "item " + i, "id" + i, "link" + i,
+                        new Date(now - (i / 3) * 3600000L), FeedItem.PLAYED, feed);
+                item.setMedia(new FeedMedia(item, "url" + i, 1, "audio/mp3"));
+                feed.getItems().add(item);
+            }
+            PodDBAdapter adapter = PodDBAdapter.getInstance();
+            adapter.open();
+            adapter.setCompleteFeed(feed);
+            adapter.close();
+            return feed;
+        }
+
         @SuppressWarnings("SameParameterValue")
         private List<FeedItem> saveQueue(int numItems) {
             if (numItems <= 0) {
@@ -461,6 +568,35 @@ public class DbReaderTest {
             assertEquals(item1.getItemIdentifier(), feedItemByGuid.getItemIdentifier());
         }
 
+        @Test
+        public void testGetItemsByGuidsOrEpisodeUrls() {
+            List<Feed> feeds = saveFeedlist(1, 3, true);
+            FeedItem item1 = feeds.get(0).getItems().get(0);
+            FeedItem item2 = feeds.get(0).getItems().get(1);
+
+            List<FeedItem> items = DBReader.getFeedItemsByGuidsOrEpisodeUrls(
+                    Arrays.asList(item1.getItemIdentifier(), "unknown guid"),
+                    Arrays.asList(item2.getMedia().getDownloadUrl(), "http://unknown.example/episode.mp3"));
+            assertEquals(2, items.size());
+            List<Long> ids = Arrays.asList(items.get(0).getId(), items.get(1).getId());
+            assertTrue(ids.contains(item1.getId()));
+            assertTrue(ids.contains(item2.getId()));
+        }
+
+        @Test
+        public void testHasNeverRefreshedFeeds() {
+            saveFeedlist(1, 1, true);
+            assertFalse(DBReader.hasNeverRefreshedFeeds());
+
+            Feed feed = new Feed("http://example.com/new-feed.xml", null, "New feed");
+            feed.setItems(new ArrayList<>());
+            PodDBAdapter adapter = PodDBAdapter.getInstance();
+            adapter.open();
+            adapter.setCompleteFeed(feed);
+            adapter.close();
+            assertTrue(DBReader.hasNeverRefreshedFeeds());
+        }
+
     }
 
     @RunWith(ParameterizedRobolectricTestRunner.class)
@@ -27,9 +27,11 @@ import org.robolectric.RobolectricTestRunner;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Random;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -623,6 +625,44 @@ public class DbWriterTest {
         adapter.close();
     }
 
+    @Test
+    public void testAddQueueItemBatch() throws Exception {
+        Feed feed = createTestFeed(30);
+        List<FeedItem> items = feed.getItems();
+        withPodDB(adapter -> adapter.setQueue(items.subList(0, 10)));
+        List<Long> expected = new ArrayList<>(toItemIds(items.subList(0, 10)));
+
+        UserPreferences.setEnqueueLocation(UserPreferences.EnqueueLocation.FRONT);
+        DBWriter.addQueueItem(context, items.subList(10, 20).toArray(new FeedItem[0])).get(TIMEOUT, TimeUnit.SECONDS);
+        expected.addAll(0, toItemIds(items.subList(10, 20)));
+        assertQueueByItemIds("Batch enqueued at front", toArray(expected));
+
+        UserPreferences.setEnqueueLocation(UserPreferences.EnqueueLocation.BACK);
+        List<FeedItem> batch = new ArrayList<>(items.subList(20, 30));
+        batch.add(2, items.get(3)); // Already in the queue
+        batch.add(items.get(25)); // Twice in the batch
+        DBWriter.addQueueItem(context, batch.toArray(new FeedItem[0])).get(TIMEOUT, TimeUnit.SECONDS);
+        expected.addAll(toItemIds(items.subList(20, 30)));
+        assertQueueByItemIds("Batch enqueued at back", toArray(expected));
+    }
+
+    @Test
+    public void testInsertQueueItemsWithoutFreePositionKeys() throws Exception {
+        Feed feed = createTestFeed(30);
+        List<FeedItem> items = feed.getItems();
+        withPodDB(adapter -> adapter.setQueue(items.subList(0, 20)));
+        List<Long> expected = new ArrayList<>(toItemIds(items.subList(0, 20)));
+        // Halves the free position keys between the first two items until there are none left
+        for (int i = 0; i < 16; i++) {
+            expected.add(1, expected.remove(19));
+            DBWriter.moveQueueItem(19, 1, false).get(TIMEOUT, TimeUnit.SECONDS);
+        }
+
+        withPodDB(adapter -> adapter.insertQueueItems(items.subList(20, 30), 1));
+        expected.addAll(1, toItemIds(items.subList(20, 30)));
+        assertQueueByItemIds("Queue order after inserting into a full gap", toArray(expected));
+    }
+
     @Test
     public void testClearQueue() throws Exception {
         final int numItems = 10;
@@ -753,6 +793,43 @@ public class DbWriterTest {
         }
     }
 
+    @Test
+    public void testMoveQueueItemManyTimes() throws Exception {
+        final int numItems = 20;
+        Feed feed = createTestFeed(numItems);
+        withPodDB(adapter -> adapter.setQueue(feed.getItems()));
+
+        // Moving to the same index again and again uses up the free position keys there
+        List<Long> expected = new ArrayList<>(toItemIds(feed.getItems()));
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            int from = i % 3 == 0 ? random.nextInt(numItems) : numItems - 1;
+            int to = i % 3 == 0 ? random.nextInt(numItems) : 1;
+            expected.add(to, expected.remove(from));
+            DBWriter.moveQueueItem(from, to, false).get(TIMEOUT, TimeUnit.SECONDS);
+        }
+        assertQueueByItemIds("Queue order after moves", toArray(expected));
+
+        DBWriter.moveQueueItemsToTop(DBReader.getQueue().subList(5, 8)).get(TIMEOUT, TimeUnit.SECONDS);
+        expected.addAll(0, new ArrayList<>(expected.subList(5, 8)));
+        expected.subList(8, 11).clear();
+        assertQueueByItemIds("Queue order after moving to top", toArray(expected));
+
+        List<FeedItem> queue = DBReader.getQueue();
+        DBWriter.moveQueueItemsToBottom(Arrays.asList(queue.get(2), queue.get(0))).get(TIMEOUT, TimeUnit.SECONDS);
+        expected.add(expected.remove(2));
+        expected.add(expected.remove(0));
+        assertQueueByItemIds("Queue order after moving to bottom", toArray(expected));
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        long[] result = new long[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+
     @Test
     public void testRemoveAllNewFlags() throws Exception {
         final int numItems = 10;
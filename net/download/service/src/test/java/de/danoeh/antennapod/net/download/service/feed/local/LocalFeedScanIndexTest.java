@@ -0,0 +1,72 @@
+package de.danoeh.antennapod.net.download.service.feed.local;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class LocalFeedScanIndexTest {
+    private static final long FEED_ID = 42;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getContext();
+    }
+
+    @Test
+    public void testUnchangedAfterReload() {
+        LocalFeedScanIndex index = LocalFeedScanIndex.load(context, FEED_ID);
+        index.setFiles(Arrays.asList(file("a.mp3", 100, 1000), file("b.mp3", 200, 2000)));
+        index.save(context, FEED_ID);
+
+        LocalFeedScanIndex loaded = LocalFeedScanIndex.load(context, FEED_ID);
+        assertTrue(loaded.isUnchanged(file("a.mp3", 100, 1000)));
+        assertTrue(loaded.isUnchanged(file("b.mp3", 200, 2000)));
+        assertFalse(loaded.isUnchanged(file("c.mp3", 300, 3000)));
+        assertFalse(loaded.contains(file("c.mp3", 300, 3000)));
+    }
+
+    @Test
+    public void testChangedSizeOrModificationTime() {
+        LocalFeedScanIndex index = LocalFeedScanIndex.load(context, FEED_ID);
+        index.setFiles(Arrays.asList(file("a.mp3", 100, 1000)));
+
+        assertFalse(index.isUnchanged(file("a.mp3", 101, 1000)));
+        assertFalse(index.isUnchanged(file("a.mp3", 100, 1001)));
+        assertTrue(index.contains(file("a.mp3", 100, 1001)));
+    }
+
+    @Test
+    public void testUnknownModificationTimeIsNeverUnchanged() {
+        LocalFeedScanIndex index = LocalFeedScanIndex.load(context, FEED_ID);
+        index.setFiles(Arrays.asList(file("a.mp3", 100, 0)));
+        assertFalse(index.isUnchanged(file("a.mp3", 100, 0)));
+    }
+
+    @Test
+    public void testDelete() {
+        LocalFeedScanIndex index = LocalFeedScanIndex.load(context, FEED_ID);
+        index.setFiles(Arrays.asList(file("a.mp3", 100, 1000)));
+        index.save(context, FEED_ID);
+
+        LocalFeedScanIndex.delete(context, FEED_ID);
+        assertFalse(LocalFeedScanIndex.load(context, FEED_ID).contains(file("a.mp3", 100, 1000)));
+    }
+
+    private static FastDocumentFile file(String name, long size, long lastModified) {
+        return new FastDocumentFile(name, "audio/mp3", Uri.parse("file:///path/" + name), size, lastModified);
+    }
+}
@@ -13,6 +13,8 @@ import de.danoeh.antennapod.model.feed.SortOrder;
 import de.danoeh.antennapod.storage.preferences.PlaybackPreferences;
 import de.danoeh.antennapod.net.download.serviceinterface.DownloadServiceInterface;
 import de.danoeh.antennapod.net.download.serviceinterface.DownloadServiceInterfaceStub;
+import de.danoeh.antennapod.net.download.serviceinterface.FeedUpdateManager;
+import de.danoeh.antennapod.net.download.service.feed.FeedUpdateManagerImpl;
 import de.danoeh.antennapod.model.feed.Feed;
 import de.danoeh.antennapod.model.feed.FeedItem;
 import de.danoeh.antennapod.storage.database.PodDBAdapter;
@@ -33,6 +35,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import de.danoeh.antennapod.storage.preferences.UserPreferences;
 import de.danoeh.antennapod.storage.database.DBReader;
@@ -44,6 +47,8 @@ import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.robolectric.Shadows.shadowOf;
 
@@ -88,6 +93,7 @@ public class LocalFeedUpdaterTest {
 
     @After
     public void tearDown() {
+        FeedUpdateManager.setInstance(null);
         DBWriter.tearDownTests();
         PodDBAdapter.tearDownTests();
     }
@@ -137,6 +143,50 @@ public class LocalFeedUpdaterTest {
         verifySingleFeedInDatabaseAndItemCount(1);
     }
 
+    /**
+     * Test that scanning an unchanged folder again keeps the existing items.
+     */
+    @Test
+    public void testUpdateFeed_RescanUnchangedFolder() {
+        callUpdateFeed(LOCAL_FEED_DIR2);
+        Feed feed = verifySingleFeedInDatabase();
+        List<FeedItem> itemsBefore = DBReader.getFeedItemList(feed, FeedItemFilter.unfiltered(),
+                SortOrder.EPISODE_TITLE_A_Z, 0, Integer.MAX_VALUE);
+
+        callUpdateFeed(LOCAL_FEED_DIR2);
+
+        verifySingleFeedInDatabaseAndItemCount(2);
+        List<FeedItem> itemsAfter = DBReader.getFeedItemList(feed, FeedItemFilter.unfiltered(),
+                SortOrder.EPISODE_TITLE_A_Z, 0, Integer.MAX_VALUE);
+        for (int i = 0; i < itemsBefore.size(); i++) {
+            assertEquals(itemsBefore.get(i).getId(), itemsAfter.get(i).getId());
+            assertEquals(itemsBefore.get(i).getTitle(), itemsAfter.get(i).getTitle());
+        }
+    }
+
+    /**
+     * Test that removing a local feed also removes its scan index.
+     */
+    @Test
+    public void testDeleteFeed_DeletesScanIndex() throws Exception {
+        FeedUpdateManager.setInstance(new FeedUpdateManagerImpl());
+        Feed feed = new Feed(Feed.PREFIX_LOCAL_FOLDER + FEED_URL, null, "Local feed");
+        feed.setItems(new ArrayList<>());
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        adapter.setCompleteFeed(feed);
+        adapter.close();
+
+        List<FastDocumentFile> files = mockLocalFolder(LOCAL_FEED_DIR1);
+        LocalFeedScanIndex index = LocalFeedScanIndex.load(context, feed.getId());
+        index.setFiles(files);
+        index.save(context, feed.getId());
+        assertTrue(LocalFeedScanIndex.load(context, feed.getId()).contains(files.get(0)));
+
+        DBWriter.deleteFeed(context, feed.getId()).get(5, TimeUnit.SECONDS);
+        assertFalse(LocalFeedScanIndex.load(context, feed.getId()).contains(files.get(0)));
+    }
+
     /**
      * Test feed icon defined in the local feed media folder.
      */
@@ -0,0 +1,79 @@
+package de.danoeh.antennapod.net.sync;
+
+import android.util.JsonWriter;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Writes episode actions as a JSON array directly to the connection while the request is sent,
+ * instead of building the whole JSON string in memory first.
+ * Produces the same fields as {@link EpisodeAction#writeToJsonObject()}.
+ */
+public class EpisodeActionsRequestBody extends RequestBody {
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final List<EpisodeAction> actions;
+    @Nullable
+    private final String deviceId;
+
+    /**
+     * @param deviceId Added to every action if not null.
+     */
+    public EpisodeActionsRequestBody(List<EpisodeAction> actions, @Nullable String deviceId) {
+        this.actions = actions;
+        this.deviceId = deviceId;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
+        formatter.setTimeZone(TimeZone.getTimeZone("UTC"));
+        // Not closed, OkHttp owns the sink
+        JsonWriter writer = new JsonWriter(new OutputStreamWriter(sink.outputStream(), StandardCharsets.UTF_8));
+        writer.beginArray();
+        for (EpisodeAction action : actions) {
+            writer.beginObject();
+            writeOptional(writer, "podcast", action.getPodcast());
+            writeOptional(writer, "episode", action.getEpisode());
+            writeOptional(writer, "guid", action.getGuid());
+            writer.name("action").value(action.getAction().name().toLowerCase(Locale.US));
+            if (action.getTimestamp() != null) {
+                writer.name("timestamp").value(formatter.format(action.getTimestamp()));
+            }
+            if (action.getAction() == EpisodeAction.Action.PLAY) {
+                writer.name("started").value(action.getStarted());
+                writer.name("position").value(action.getPosition());
+                writer.name("total").value(action.getTotal());
+            }
+            writeOptional(writer, "device", deviceId);
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    private static void writeOptional(JsonWriter writer, String name, @Nullable String value) throws IOException {
+        if (value != null) {
+            writer.name(name).value(value);
+        }
+    }
+}
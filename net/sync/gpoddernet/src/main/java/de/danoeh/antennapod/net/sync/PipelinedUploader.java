@@ -0,0 +1,128 @@
+package de.danoeh.antennapod.net.sync;
+
+import de.danoeh.antennapod.net.sync.serviceinterface.SyncServiceException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Uploads a list in chunks and keeps a limited number of chunk requests in flight at the same time,
+ * so that the upload is not limited by the round trip time. The responses are returned in the order of the
+ * chunks. A chunk that fails because of a network error is retried a few times before the upload fails.
+ * Chunks may reach the server out of order, so they must not depend on each other. Items that do depend on each
+ * other, like several actions for the same episode, can be given the same key to keep them in one chunk.
+ */
+public class PipelinedUploader<T, R> {
+    public interface ChunkUploader<T, R> {
+        R upload(List<T> chunk) throws SyncServiceException;
+    }
+
+    public interface KeyExtractor<T> {
+        Object getKey(T item);
+    }
+
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+
+    public PipelinedUploader(int chunkSize, int maxInFlight, int maxAttempts, long retryDelayMillis) {
+        this.chunkSize = chunkSize;
+        this.maxInFlight = maxInFlight;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    /**
+     * @return The responses for all chunks, in the order of the chunks.
+     * @throws SyncServiceException The error of the first chunk that could not be uploaded.
+     */
+    public List<R> upload(List<T> items, ChunkUploader<T, R> uploader) throws SyncServiceException {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += chunkSize) {
+            chunks.add(items.subList(i, Math.min(items.size(), i + chunkSize)));
+        }
+        return uploadChunks(chunks, uploader);
+    }
+
+    /**
+     * Like {@link #upload(List, ChunkUploader)}, but all items with the same key end up in the same chunk,
+     * in their original order. Items with more than a chunk size of the same key get a larger chunk of their own.
+     */
+    public List<R> upload(List<T> items, KeyExtractor<T> keyExtractor, ChunkUploader<T, R> uploader)
+            throws SyncServiceException {
+        Map<Object, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            Object key = keyExtractor.getKey(item);
+            List<T> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(key, group);
+            }
+            group.add(item);
+        }
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> chunk = new ArrayList<>();
+        for (List<T> group : groups.values()) {
+            if (!chunk.isEmpty() && chunk.size() + group.size() > chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+            }
+            chunk.addAll(group);
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return uploadChunks(chunks, uploader);
+    }
+
+    private List<R> uploadChunks(List<List<T>> chunks, ChunkUploader<T, R> uploader) throws SyncServiceException {
+        List<R> responses = new ArrayList<>();
+        if (chunks.isEmpty()) {
+            return responses;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxInFlight, chunks.size()));
+        try {
+            List<Future<R>> futures = new ArrayList<>();
+            for (List<T> chunk : chunks) {
+                futures.add(executor.submit(() -> uploadWithRetry(chunk, uploader)));
+            }
+            for (Future<R> future : futures) {
+                responses.add(future.get());
+            }
+            return responses;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SyncServiceException) {
+                throw (SyncServiceException) e.getCause();
+            }
+            throw new SyncServiceException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SyncServiceException(new InterruptedIOException("Upload interrupted"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private R uploadWithRetry(List<T> chunk, ChunkUploader<T, R> uploader)
+            throws SyncServiceException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return uploader.upload(chunk);
+            } catch (SyncServiceException e) {
+                if (attempt >= maxAttempts || !(e.getCause() instanceof IOException)) {
+                    throw e;
+                }
+            }
+            Thread.sleep(retryDelayMillis * attempt);
+        }
+    }
+}
@@ -4,7 +4,9 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import de.danoeh.antennapod.net.sync.EpisodeActionsRequestBody;
 import de.danoeh.antennapod.net.sync.HostnameParser;
+import de.danoeh.antennapod.net.sync.PipelinedUploader;
 import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
 import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeActionChanges;
 import de.danoeh.antennapod.net.sync.serviceinterface.ISyncService;
@@ -47,6 +49,9 @@ public class GpodnetService implements ISyncService {
     public static final String TAG = "GpodnetService";
     private static final String DEFAULT_BASE_HOST = "gpodder.net";
     private static final int UPLOAD_BULK_SIZE = 30;
+    private static final int MAX_UPLOADS_IN_FLIGHT = 4;
+    private static final int MAX_UPLOAD_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 1000;
     private static final MediaType TEXT = MediaType.parse("plain/text; charset=utf-8");
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
     private String baseScheme;
@@ -216,32 +221,26 @@ public class GpodnetService implements ISyncService {
     @Override
     public UploadChangesResponse uploadEpisodeActions(List<EpisodeAction> episodeActions) throws SyncServiceException {
         requireLoggedIn();
-        UploadChangesResponse response = null;
-        for (int i = 0; i < episodeActions.size(); i += UPLOAD_BULK_SIZE) {
-            response = uploadEpisodeActionsPartial(episodeActions,
-                    i, Math.min(episodeActions.size(), i + UPLOAD_BULK_SIZE));
+        List<UploadChangesResponse> responses = new PipelinedUploader<EpisodeAction, UploadChangesResponse>(
+                UPLOAD_BULK_SIZE, MAX_UPLOADS_IN_FLIGHT, MAX_UPLOAD_ATTEMPTS, RETRY_DELAY_MILLIS)
+                .upload(episodeActions, EpisodeAction::getEpisode, this::uploadEpisodeActionsPartial);
+        // Chunks are processed in parallel, so the last chunk is not necessarily the one the server saw last
+        UploadChangesResponse newest = null;
+        for (UploadChangesResponse response : responses) {
+            if (newest == null || response.timestamp > newest.timestamp) {
+                newest = response;
+            }
         }
-        return response;
+        return newest;
     }
 
-    private UploadChangesResponse uploadEpisodeActionsPartial(List<EpisodeAction> episodeActions, int from, int to)
+    private UploadChangesResponse uploadEpisodeActionsPartial(List<EpisodeAction> episodeActions)
             throws SyncServiceException {
         try {
-            Log.d(TAG, "Uploading partial actions " + from + " to " + to + " of " + episodeActions.size());
+            Log.d(TAG, "Uploading " + episodeActions.size() + " actions");
             URL url = new URI(baseScheme, null, baseHost, basePort,
                     String.format("/api/2/episodes/%s.json", username), null, null).toURL();
-
-            final JSONArray list = new JSONArray();
-            for (int i = from; i < to; i++) {
-                EpisodeAction episodeAction = episodeActions.get(i);
-                JSONObject obj = episodeAction.writeToJsonObject();
-                if (obj != null) {
-                    obj.put("device", deviceId);
-                    list.put(obj);
-                }
-            }
-
-            RequestBody body = RequestBody.create(list.toString(), JSON);
+            RequestBody body = new EpisodeActionsRequestBody(episodeActions, deviceId);
             Request.Builder request = new Request.Builder().post(body).url(url);
 
             final String response = executeRequest(request);
@@ -1,6 +1,8 @@
 package de.danoeh.antennapod.net.sync.nextcloud;
 
+import de.danoeh.antennapod.net.sync.EpisodeActionsRequestBody;
 import de.danoeh.antennapod.net.sync.HostnameParser;
+import de.danoeh.antennapod.net.sync.PipelinedUploader;
 import de.danoeh.antennapod.net.sync.gpoddernet.mapper.ResponseMapper;
 import de.danoeh.antennapod.net.sync.gpoddernet.model.GpodnetUploadChangesResponse;
 import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
@@ -29,6 +31,9 @@ import java.util.List;
 
 public class NextcloudSyncService implements ISyncService {
     private static final int UPLOAD_BULK_SIZE = 30;
+    private static final int MAX_UPLOADS_IN_FLIGHT = 4;
+    private static final int MAX_UPLOAD_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 1000;
     private final OkHttpClient httpClient;
     private final HostnameParser hostname;
     private final String username;
@@ -102,47 +107,48 @@ public class NextcloudSyncService implements ISyncService {
 
     @Override
     public UploadChangesResponse uploadEpisodeActions(List<EpisodeAction> queuedEpisodeActions)
-            throws NextcloudSynchronizationServiceException {
-        for (int i = 0; i < queuedEpisodeActions.size(); i += UPLOAD_BULK_SIZE) {
-            uploadEpisodeActionsPartial(queuedEpisodeActions,
-                    i, Math.min(queuedEpisodeActions.size(), i + UPLOAD_BULK_SIZE));
-        }
+            throws SyncServiceException {
+        new PipelinedUploader<EpisodeAction, Void>(UPLOAD_BULK_SIZE, MAX_UPLOADS_IN_FLIGHT,
+                MAX_UPLOAD_ATTEMPTS, RETRY_DELAY_MILLIS)
+                .upload(queuedEpisodeActions, EpisodeAction::getEpisode, this::uploadEpisodeActionsPartial);
         return new NextcloudGpodderEpisodeActionPostResponse(System.currentTimeMillis() / 1000);
     }
 
-    private void uploadEpisodeActionsPartial(List<EpisodeAction> queuedEpisodeActions, int from, int to)
+    private Void uploadEpisodeActionsPartial(List<EpisodeAction> episodeActions)
             throws NextcloudSynchronizationServiceException {
         try {
-            final JSONArray list = new JSONArray();
-            for (int i = from; i < to; i++) {
-                EpisodeAction episodeAction = queuedEpisodeActions.get(i);
-                JSONObject obj = episodeAction.writeToJsonObject();
-                if (obj != null) {
-                    list.put(obj);
-                }
-            }
             HttpUrl.Builder url = makeUrl("/index.php/apps/gpoddersync/episode_action/create");
-            RequestBody requestBody = RequestBody.create(
-                    list.toString(), MediaType.get("application/json"));
-            performRequest(url, "POST", requestBody);
+            performRequest(url, "POST", new EpisodeActionsRequestBody(episodeActions, null));
+        } catch (NextcloudSynchronizationServiceException e) {
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             throw new NextcloudSynchronizationServiceException(e);
         }
+        return null;
     }
 
-    private String performRequest(HttpUrl.Builder url, String method, RequestBody body) throws IOException {
+    /**
+     * @throws NextcloudSynchronizationServiceException On client errors, which are not worth retrying.
+     * @throws IOException On network and server errors.
+     */
+    private String performRequest(HttpUrl.Builder url, String method, RequestBody body)
+            throws IOException, NextcloudSynchronizationServiceException {
         Request request = new Request.Builder()
                 .url(url.build())
                 .header("Authorization", Credentials.basic(username, password))
                 .header("Accept", "application/json")
                 .method(method, body)
                 .build();
-        Response response = httpClient.newCall(request).execute();
-        if (response.code() != 200) {
-            throw new IOException("Response code: " + response.code());
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (response.code() >= 400 && response.code() < 500) {
+                throw new NextcloudSynchronizationServiceException(
+                        new Exception("Response code: " + response.code()));
+            } else if (response.code() != 200) {
+                throw new IOException("Response code: " + response.code());
+            }
+            return response.body().string();
         }
-        return response.body().string();
     }
 
     private HttpUrl.Builder makeUrl(String path) {
@@ -0,0 +1,86 @@
+package de.danoeh.antennapod.net.sync;
+
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
+import okio.Buffer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(RobolectricTestRunner.class)
+public class EpisodeActionsRequestBodyTest {
+    private static final Date TIMESTAMP = new Date(1700000000000L); // 2023-11-14T22:13:20 UTC
+
+    @Test
+    public void testWritesAllFields() throws Exception {
+        EpisodeAction play = new EpisodeAction.Builder("https://example.com/feed", "https://example.com/1.mp3",
+                EpisodeAction.PLAY)
+                .guid("guid-1")
+                .timestamp(TIMESTAMP)
+                .started(10)
+                .position(20)
+                .total(30)
+                .build();
+        EpisodeAction download = new EpisodeAction.Builder("https://example.com/feed", "https://example.com/2.mp3",
+                EpisodeAction.DOWNLOAD)
+                .build();
+
+        JSONArray json = write(new EpisodeActionsRequestBody(Arrays.asList(play, download), "device-1"));
+        assertEquals(2, json.length());
+
+        JSONObject playJson = json.getJSONObject(0);
+        assertEquals("https://example.com/feed", playJson.getString("podcast"));
+        assertEquals("https://example.com/1.mp3", playJson.getString("episode"));
+        assertEquals("guid-1", playJson.getString("guid"));
+        assertEquals("play", playJson.getString("action"));
+        assertEquals("2023-11-14T22:13:20", playJson.getString("timestamp"));
+        assertEquals(10, playJson.getInt("started"));
+        assertEquals(20, playJson.getInt("position"));
+        assertEquals(30, playJson.getInt("total"));
+        assertEquals("device-1", playJson.getString("device"));
+
+        JSONObject downloadJson = json.getJSONObject(1);
+        assertEquals("download", downloadJson.getString("action"));
+        assertFalse(downloadJson.has("guid"));
+        assertFalse(downloadJson.has("timestamp"));
+        assertFalse(downloadJson.has("started"));
+        assertFalse(downloadJson.has("position"));
+        assertFalse(downloadJson.has("total"));
+    }
+
+    @Test
+    public void testWithoutDevice() throws Exception {
+        EpisodeAction action = new EpisodeAction.Builder("podcast", "episode", EpisodeAction.NEW).build();
+        JSONObject json = write(new EpisodeActionsRequestBody(Collections.singletonList(action), null))
+                .getJSONObject(0);
+        assertFalse(json.has("device"));
+    }
+
+    @Test
+    public void testMatchesJsonObjectRepresentation() throws Exception {
+        EpisodeAction action = new EpisodeAction.Builder("podcast", "episode", EpisodeAction.PLAY)
+                .guid("guid")
+                .timestamp(TIMESTAMP)
+                .started(1)
+                .position(2)
+                .total(3)
+                .build();
+        JSONObject json = write(new EpisodeActionsRequestBody(Collections.singletonList(action), null))
+                .getJSONObject(0);
+        assertEquals(action.writeToJsonObject().toString(), json.toString());
+    }
+
+    private static JSONArray write(EpisodeActionsRequestBody body) throws Exception {
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return new JSONArray(buffer.readUtf8());
+    }
+}
@@ -0,0 +1,134 @@
+package de.danoeh.antennapod.net.sync;
+
+import de.danoeh.antennapod.net.sync.serviceinterface.SyncServiceException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PipelinedUploaderTest {
+    private static List<Integer> range(int count) {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    private static void sleep(long millis) throws SyncServiceException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new SyncServiceException(e);
+        }
+    }
+
+    @Test
+    public void testResponsesInChunkOrder() throws Exception {
+        PipelinedUploader<Integer, Integer> uploader = new PipelinedUploader<>(3, 4, 1, 0);
+        List<Integer> responses = uploader.upload(range(10), chunk -> {
+            sleep(10L * (5 - chunk.get(0) / 3)); // Later chunks finish first
+            return chunk.get(0);
+        });
+        assertEquals(Arrays.asList(0, 3, 6, 9), responses);
+    }
+
+    @Test
+    public void testKeepsItemsWithSameKeyInOneChunk() throws Exception {
+        // Items 0, 3, 6 and 9 share a key and would otherwise end up in different chunks
+        List<Integer> items = range(10);
+        PipelinedUploader<Integer, List<Integer>> uploader = new PipelinedUploader<>(3, 4, 1, 0);
+        List<List<Integer>> chunks = uploader.upload(items, item -> item % 3 == 0 ? "same" : item,
+                chunk -> new ArrayList<>(chunk));
+
+        List<Integer> uploaded = new ArrayList<>();
+        for (List<Integer> chunk : chunks) {
+            uploaded.addAll(chunk);
+        }
+        Collections.sort(uploaded);
+        assertEquals(items, uploaded);
+        assertEquals(Arrays.asList(0, 3, 6, 9), chunks.get(0));
+        for (List<Integer> chunk : chunks.subList(1, chunks.size())) {
+            assertTrue(chunk.size() <= 3);
+        }
+    }
+
+    @Test
+    public void testEmptyList() throws Exception {
+        PipelinedUploader<Integer, Integer> uploader = new PipelinedUploader<>(3, 4, 1, 0);
+        assertEquals(Collections.emptyList(), uploader.upload(new ArrayList<>(), chunk -> {
+            fail("No chunk expected");
+            return 0;
+        }));
+    }
+
+    @Test
+    public void testLimitsRequestsInFlight() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        PipelinedUploader<Integer, Integer> uploader = new PipelinedUploader<>(1, 3, 1, 0);
+        uploader.upload(range(20), chunk -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(5);
+            inFlight.decrementAndGet();
+            return chunk.get(0);
+        });
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void testRetriesNetworkErrors() throws Exception {
+        ConcurrentHashMap<Integer, Integer> attempts = new ConcurrentHashMap<>();
+        PipelinedUploader<Integer, Integer> uploader = new PipelinedUploader<>(2, 2, 3, 0);
+        List<Integer> responses = uploader.upload(range(4), chunk -> {
+            int attempt = attempts.merge(chunk.get(0), 1, Integer::sum);
+            if (chunk.get(0) == 2 && attempt < 3) {
+                throw new SyncServiceException(new IOException("Connection reset"));
+            }
+            return chunk.get(0);
+        });
+        assertEquals(Arrays.asList(0, 2), responses);
+        assertEquals(3, (int) attempts.get(2));
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        PipelinedUploader<Integer, Integer> uploader = new PipelinedUploader<>(2, 2, 3, 0);
+        try {
+            uploader.upload(range(2), chunk -> {
+                attempts.incrementAndGet();
+                throw new SyncServiceException(new IOException("Connection reset"));
+            });
+            fail("Expected exception");
+        } catch (SyncServiceException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void testDoesNotRetryOtherErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+        PipelinedUploader<Integer, Integer> uploader = new PipelinedUploader<>(2, 2, 3, 0);
+        try {
+            uploader.upload(range(2), chunk -> {
+                attempts.incrementAndGet();
+                throw new SyncServiceException("Authentication failed");
+            });
+            fail("Expected exception");
+        } catch (SyncServiceException e) {
+            assertEquals("Authentication failed", e.getMessage());
+        }
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,91 @@
+package de.danoeh.antennapod.net.sync.service;
+
+import android.util.Log;
+
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedItemFilter;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import de.danoeh.antennapod.model.feed.SortOrder;
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
+import de.danoeh.antennapod.net.sync.serviceinterface.ISyncService;
+import de.danoeh.antennapod.net.sync.serviceinterface.SyncServiceException;
+import de.danoeh.antennapod.net.sync.serviceinterface.UploadChangesResponse;
+import de.danoeh.antennapod.storage.database.DBReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uploads the state of all played episodes on the first sync, one page at a time. The progress is stored
+ * after each page that the server accepted, so an interrupted upload continues where it stopped.
+ */
+class PlayedHistoryUploader {
+    private static final String TAG = "PlayedHistoryUploader";
+    static final int PAGE_SIZE = 150;
+
+    private final SynchronizationQueueStorage synchronizationQueueStorage;
+    private final int pageSize;
+
+    PlayedHistoryUploader(SynchronizationQueueStorage synchronizationQueueStorage, int pageSize) {
+        this.synchronizationQueueStorage = synchronizationQueueStorage;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @return The timestamp of the last upload, or the given timestamp if nothing was uploaded.
+     */
+    long upload(ISyncService syncServiceImpl, long timestamp) throws SyncServiceException {
+        FeedItemFilter filter = new FeedItemFilter(FeedItemFilter.PLAYED);
+        int uploadedCount = synchronizationQueueStorage.getPlayedHistoryCount();
+        FeedItem lastItem = null;
+        long lastItemId = synchronizationQueueStorage.getPlayedHistoryLastItemId();
+        if (lastItemId != 0) {
+            lastItem = DBReader.getFeedItem(lastItemId);
+            if (lastItem == null) {
+                // Uploading the same state twice does no harm
+                uploadedCount = 0;
+            }
+        }
+        Log.d(TAG, "Upload state for played episodes, starting after " + uploadedCount);
+        while (true) {
+            List<FeedItem> page = DBReader.getEpisodesAfter(lastItem, uploadedCount,
+                    pageSize, filter, SortOrder.DATE_NEW_OLD);
+            if (page.isEmpty()) {
+                break;
+            }
+            List<EpisodeAction> playedActions = new ArrayList<>();
+            for (FeedItem item : page) {
+                FeedMedia media = item.getMedia();
+                if (media == null) {
+                    continue;
+                }
+                playedActions.add(new EpisodeAction.Builder(item, EpisodeAction.PLAY)
+                        .currentTimestamp()
+                        .started(media.getDuration() / 1000)
+                        .position(media.getDuration() / 1000)
+                        .total(media.getDuration() / 1000)
+                        .build());
+            }
+            if (!playedActions.isEmpty()) {
+                LockingAsyncExecutor.lock();
+                try {
+                    UploadChangesResponse postResponse = syncServiceImpl.uploadEpisodeActions(playedActions);
+                    if (postResponse != null) {
+                        timestamp = postResponse.timestamp;
+                    }
+                } finally {
+                    LockingAsyncExecutor.unlock();
+                }
+            }
+            lastItem = page.get(page.size() - 1);
+            uploadedCount += page.size();
+            synchronizationQueueStorage.setPlayedHistoryProgress(lastItem.getId(), uploadedCount);
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        Log.d(TAG, "Uploaded state for " + uploadedCount + " played episodes");
+        synchronizationQueueStorage.clearPlayedHistoryProgress();
+        return timestamp;
+    }
+}
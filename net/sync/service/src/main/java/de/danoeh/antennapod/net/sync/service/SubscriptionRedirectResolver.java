@@ -0,0 +1,127 @@
+package de.danoeh.antennapod.net.sync.service;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import de.danoeh.antennapod.net.common.RedirectChecker;
+import de.danoeh.antennapod.net.common.UrlChecker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks subscription URLs for permanent redirects. The requests run in parallel and their results are
+ * remembered, so that following syncs do not need to ask the servers again.
+ * The cache is keyed by {@link UrlChecker#getComparisonKey}, so differently encoded spellings of a URL share an entry.
+ */
+class SubscriptionRedirectResolver {
+    private static final String TAG = "RedirectResolver";
+    private static final String NAME = "sync_redirect_cache";
+    private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final int MAX_PARALLEL_REQUESTS = 8;
+
+    private final SharedPreferences cache;
+    private final Checker checker;
+
+    SubscriptionRedirectResolver(Context context) {
+        this(context, RedirectChecker::checkPermanentRedirect);
+    }
+
+    SubscriptionRedirectResolver(Context context, Checker checker) {
+        this.cache = context.getSharedPreferences(NAME, Context.MODE_PRIVATE);
+        this.checker = checker;
+    }
+
+    /**
+     * Returns the new URL for each of the given URLs that redirects permanently.
+     * URLs that could not be checked are treated like URLs without redirect.
+     */
+    @NonNull
+    Map<String, String> resolve(List<String> urls) {
+        Map<String, String> redirects = new HashMap<>();
+        List<String> toCheck = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String url : urls) {
+            String entry = cache.getString(UrlChecker.getComparisonKey(url), null);
+            if (entry == null || getTimestamp(entry) < now - MAX_AGE_MILLIS) {
+                toCheck.add(url);
+            } else if (!getTarget(entry).isEmpty()) {
+                redirects.put(url, getTarget(entry));
+            }
+        }
+        Log.d(TAG, urls.size() + " URLs, " + toCheck.size() + " not cached");
+        SharedPreferences.Editor editor = cache.edit();
+        removeExpiredEntries(editor, now);
+        if (!toCheck.isEmpty()) {
+            ExecutorService executor = Executors.newFixedThreadPool(
+                    Math.min(MAX_PARALLEL_REQUESTS, toCheck.size()));
+            try {
+                List<Future<String>> results = new ArrayList<>();
+                for (String url : toCheck) {
+                    results.add(executor.submit(() -> checker.check(url)));
+                }
+                for (int i = 0; i < toCheck.size(); i++) {
+                    String url = toCheck.get(i);
+                    try {
+                        String target = results.get(i).get();
+                        editor.putString(UrlChecker.getComparisonKey(url), now + " " + (target == null ? "" : target));
+                        if (target != null) {
+                            redirects.put(url, target);
+                        }
+                    } catch (ExecutionException e) {
+                        Log.d(TAG, "Unable to check " + url + ": " + e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        editor.apply();
+        return redirects;
+    }
+
+    private void removeExpiredEntries(SharedPreferences.Editor editor, long now) {
+        for (Map.Entry<String, ?> entry : cache.getAll().entrySet()) {
+            if (!(entry.getValue() instanceof String)
+                    || getTimestamp((String) entry.getValue()) < now - MAX_AGE_MILLIS) {
+                editor.remove(entry.getKey());
+            }
+        }
+    }
+
+    private static long getTimestamp(String entry) {
+        int separator = entry.indexOf(' ');
+        try {
+            return Long.parseLong(separator < 0 ? entry : entry.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String getTarget(String entry) {
+        int separator = entry.indexOf(' ');
+        return separator < 0 ? "" : entry.substring(separator + 1);
+    }
+
+    interface Checker {
+        /**
+         * Returns the URL that the given URL permanently redirects to, or null if it does not redirect.
+         */
+        @Nullable
+        String check(String url) throws IOException;
+    }
+}
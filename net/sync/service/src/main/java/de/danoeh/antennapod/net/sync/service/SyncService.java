@@ -20,11 +20,8 @@ import de.danoeh.antennapod.event.MessageEvent;
 import de.danoeh.antennapod.event.SyncServiceEvent;
 import de.danoeh.antennapod.model.feed.Feed;
 import de.danoeh.antennapod.model.feed.FeedItem;
-import de.danoeh.antennapod.model.feed.FeedItemFilter;
 import de.danoeh.antennapod.model.feed.FeedMedia;
-import de.danoeh.antennapod.model.feed.SortOrder;
 import de.danoeh.antennapod.net.common.AntennapodHttpClient;
-import de.danoeh.antennapod.net.common.RedirectChecker;
 import de.danoeh.antennapod.net.common.UrlChecker;
 import de.danoeh.antennapod.net.download.serviceinterface.FeedUpdateManager;
 import de.danoeh.antennapod.net.sync.gpoddernet.GpodnetService;
@@ -39,24 +36,33 @@ import de.danoeh.antennapod.net.sync.serviceinterface.UploadChangesResponse;
 import de.danoeh.antennapod.storage.database.DBReader;
 import de.danoeh.antennapod.storage.database.DBWriter;
 import de.danoeh.antennapod.storage.database.FeedDatabaseWriter;
-import de.danoeh.antennapod.storage.database.LongList;
 import de.danoeh.antennapod.storage.preferences.SynchronizationCredentials;
 import de.danoeh.antennapod.storage.preferences.SynchronizationSettings;
 import de.danoeh.antennapod.storage.preferences.UserPreferences;
 import de.danoeh.antennapod.ui.notifications.NotificationUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class SyncService extends Worker {
     public static final String TAG = "SyncService";
+    private static final int FEED_UPDATE_TIMEOUT_MINUTES = 5;
 
     private static boolean currentlyActive = false;
     private final SynchronizationQueueStorage synchronizationQueueStorage;
+    private CountDownLatch feedUpdateCompleted;
 
     public SyncService(@NonNull Context context, @NonNull WorkerParameters params) {
         super(context, params);
@@ -115,27 +121,31 @@ public class SyncService extends Worker {
 
     private void waitForDownloadServiceCompleted() {
         EventBus.getDefault().postSticky(new SyncServiceEvent(R.string.sync_status_wait_for_downloads));
+        feedUpdateCompleted = new CountDownLatch(1);
+        EventBus.getDefault().register(this);
         try {
-            while (true) {
-                FeedUpdateRunningEvent event = EventBus.getDefault().getStickyEvent(FeedUpdateRunningEvent.class);
-                if (event == null || !event.isFeedUpdateRunning) {
-                    return;
-                }
-                //noinspection BusyWait
-                Thread.sleep(1000);
+            if (EventBus.getDefault().getStickyEvent(FeedUpdateRunningEvent.class) == null) {
+                return;
+            }
+            if (!feedUpdateCompleted.await(FEED_UPDATE_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                Log.d(TAG, "Feed update did not complete in time");
             }
         } catch (InterruptedException e) {
             e.printStackTrace();
+        } finally {
+            EventBus.getDefault().unregister(this);
         }
     }
 
-    private boolean someFeedWasNotRefreshedYet() {
-        for (Feed feed : DBReader.getFeedList()) {
-            if (feed.getPreferences().getKeepUpdated() && feed.getLastRefreshAttempt() == 0) {
-                return true;
-            }
+    @Subscribe(sticky = true, threadMode = ThreadMode.POSTING)
+    public void onFeedUpdateRunningEvent(FeedUpdateRunningEvent event) {
+        if (!event.isFeedUpdateRunning) {
+            feedUpdateCompleted.countDown();
         }
-        return false;
+    }
+
+    private boolean someFeedWasNotRefreshedYet() {
+        return DBReader.hasNeverRefreshedFeeds();
     }
 
     /* package-private */ static boolean isCurrentlyActive() {
@@ -153,25 +163,44 @@ public class SyncService extends Worker {
         List<String> queuedAddedFeeds = synchronizationQueueStorage.getQueuedAddedFeeds();
 
         Log.d(TAG, "Downloaded subscription changes: " + subscriptionChanges);
+        Set<String> localUrlKeys = new HashSet<>();
+        for (String url : localSubscriptions) {
+            localUrlKeys.add(UrlChecker.getComparisonKey(url));
+        }
+        Set<String> removedUrls = new HashSet<>(queuedRemovedFeeds);
+        Set<String> removedUrlKeys = new HashSet<>();
+        for (String url : queuedRemovedFeeds) {
+            removedUrlKeys.add(UrlChecker.getComparisonKey(url));
+        }
+        Set<String> addedUrlKeys = new HashSet<>();
+        List<String> candidateUrls = new ArrayList<>();
         for (String downloadUrl : subscriptionChanges.getAdded()) {
+            String urlKey = UrlChecker.getComparisonKey(downloadUrl);
             if (!downloadUrl.startsWith("http")) { // Also matches https
                 Log.d(TAG, "Skipping url: " + downloadUrl);
                 continue;
-            } else if (UrlChecker.containsUrl(localSubscriptions, downloadUrl)
-                    || queuedRemovedFeeds.contains(downloadUrl)) {
+            } else if (localUrlKeys.contains(urlKey) || removedUrls.contains(downloadUrl)
+                    || !addedUrlKeys.add(urlKey)) {
                 continue;
             }
-            String redirectedUrl = RedirectChecker.getNewUrlIfPermanentRedirect(downloadUrl);
-            if (redirectedUrl != null
-                    && (UrlChecker.containsUrl(localSubscriptions, redirectedUrl)
-                        || queuedRemovedFeeds.contains(redirectedUrl))) {
+            candidateUrls.add(downloadUrl);
+        }
+
+        Map<String, String> redirects = new SubscriptionRedirectResolver(getApplicationContext())
+                .resolve(candidateUrls);
+        List<Feed> newFeeds = new ArrayList<>();
+        for (String downloadUrl : candidateUrls) {
+            String redirectedUrl = redirects.get(downloadUrl);
+            if (redirectedUrl != null && (removedUrlKeys.contains(UrlChecker.getComparisonKey(redirectedUrl))
+                    || localUrlKeys.contains(UrlChecker.getComparisonKey(redirectedUrl)))) {
                 continue;
             }
-
             Feed feed = new Feed(downloadUrl, null, "Unknown podcast");
             feed.setItems(Collections.emptyList());
-            FeedDatabaseWriter.updateFeed(getApplicationContext(), feed, false);
+            newFeeds.add(feed);
         }
+        Log.d(TAG, "Adding " + newFeeds.size() + " new subscriptions");
+        FeedDatabaseWriter.addNewFeeds(getApplicationContext(), newFeeds);
 
         // remove subscription if not just subscribed (again)
         for (String downloadUrl : subscriptionChanges.getRemoved()) {
@@ -222,25 +251,6 @@ public class SyncService extends Worker {
         // upload local actions
         EventBus.getDefault().postSticky(new SyncServiceEvent(R.string.sync_status_episodes_upload));
         List<EpisodeAction> queuedEpisodeActions = synchronizationQueueStorage.getQueuedEpisodeActions();
-        if (lastSync == 0) {
-            EventBus.getDefault().postSticky(new SyncServiceEvent(R.string.sync_status_upload_played));
-            List<FeedItem> readItems = DBReader.getEpisodes(0, Integer.MAX_VALUE,
-                    new FeedItemFilter(FeedItemFilter.PLAYED), SortOrder.DATE_NEW_OLD);
-            Log.d(TAG, "First sync. Upload state for all " + readItems.size() + " played episodes");
-            for (FeedItem item : readItems) {
-                FeedMedia media = item.getMedia();
-                if (media == null) {
-                    continue;
-                }
-                EpisodeAction played = new EpisodeAction.Builder(item, EpisodeAction.PLAY)
-                        .currentTimestamp()
-                        .started(media.getDuration() / 1000)
-                        .position(media.getDuration() / 1000)
-                        .total(media.getDuration() / 1000)
-                        .build();
-                queuedEpisodeActions.add(played);
-            }
-        }
         if (!queuedEpisodeActions.isEmpty()) {
             LockingAsyncExecutor.lock();
             try {
@@ -254,6 +264,11 @@ public class SyncService extends Worker {
                 LockingAsyncExecutor.unlock();
             }
         }
+        if (lastSync == 0) {
+            EventBus.getDefault().postSticky(new SyncServiceEvent(R.string.sync_status_upload_played));
+            newTimeStamp = new PlayedHistoryUploader(synchronizationQueueStorage, PlayedHistoryUploader.PAGE_SIZE)
+                    .upload(syncServiceImpl, newTimeStamp);
+        }
         SynchronizationSettings.setLastEpisodeActionSynchronizationAttemptTimestamp(newTimeStamp);
     }
 
@@ -266,11 +281,32 @@ public class SyncService extends Worker {
         Map<Pair<String, String>, EpisodeAction> playActionsToUpdate = EpisodeActionFilter
                 .getRemoteActionsOverridingLocalActions(remoteActions,
                         synchronizationQueueStorage.getQueuedEpisodeActions());
-        LongList queueToBeRemoved = new LongList();
-        List<FeedItem> updatedItems = new ArrayList<>();
+        List<String> guids = new ArrayList<>();
+        List<String> episodeUrls = new ArrayList<>();
         for (EpisodeAction action : playActionsToUpdate.values()) {
-            String guid = GuidValidator.isValidGuid(action.getGuid()) ? action.getGuid() : null;
-            FeedItem feedItem = DBReader.getFeedItemByGuidOrEpisodeUrl(guid, action.getEpisode());
+            if (GuidValidator.isValidGuid(action.getGuid())) {
+                guids.add(action.getGuid());
+            } else {
+                episodeUrls.add(action.getEpisode());
+            }
+        }
+        Map<String, FeedItem> itemsByGuid = new HashMap<>();
+        Map<String, FeedItem> itemsByEpisodeUrl = new HashMap<>();
+        for (FeedItem item : DBReader.getFeedItemsByGuidsOrEpisodeUrls(guids, episodeUrls)) {
+            if (item.getItemIdentifier() != null && !itemsByGuid.containsKey(item.getItemIdentifier())) {
+                itemsByGuid.put(item.getItemIdentifier(), item);
+            }
+            if (item.getMedia() != null && !itemsByEpisodeUrl.containsKey(item.getMedia().getDownloadUrl())) {
+                itemsByEpisodeUrl.put(item.getMedia().getDownloadUrl(), item);
+            }
+        }
+
+        int smartMarkAsPlayedSecs = UserPreferences.getSmartMarkAsPlayedSecs();
+        Map<Long, FeedItem> updatedItems = new LinkedHashMap<>();
+        Set<Long> markedAsPlayed = new HashSet<>();
+        for (EpisodeAction action : playActionsToUpdate.values()) {
+            FeedItem feedItem = GuidValidator.isValidGuid(action.getGuid())
+                    ? itemsByGuid.get(action.getGuid()) : itemsByEpisodeUrl.get(action.getEpisode());
             if (feedItem == null) {
                 Log.i(TAG, "Unknown feed item: " + action);
                 continue;
@@ -281,22 +317,28 @@ public class SyncService extends Worker {
             }
             FeedMedia media = feedItem.getMedia();
             media.setPosition(action.getPosition() * 1000);
-            int smartMarkAsPlayedSecs = UserPreferences.getSmartMarkAsPlayedSecs();
             boolean almostEnded = media.getDuration() > 0
                     && media.getPosition() >= media.getDuration() - smartMarkAsPlayedSecs * 1000;
             if (almostEnded) {
                 Log.d(TAG, "Marking as played: " + action);
                 feedItem.setPlayed(true);
                 media.setPosition(0);
-                queueToBeRemoved.add(feedItem.getId());
+                markedAsPlayed.add(feedItem.getId());
             } else {
                 Log.d(TAG, "Setting position: " + action);
             }
-            updatedItems.add(feedItem);
+            updatedItems.put(feedItem.getId(), feedItem);
+        }
+        List<FeedItem> updatedItemList = new ArrayList<>(updatedItems.values());
+        DBReader.loadAdditionalFeedItemListData(updatedItemList);
+        List<FeedItem> queueToBeRemoved = new ArrayList<>();
+        for (FeedItem item : updatedItemList) {
+            // Episodes that were already played before are left in the queue
+            if (markedAsPlayed.contains(item.getId()) && item.isTagged(FeedItem.TAG_QUEUE)) {
+                queueToBeRemoved.add(item);
+            }
         }
-        DBWriter.removeQueueItem(getApplicationContext(), false, queueToBeRemoved.toArray());
-        DBReader.loadAdditionalFeedItemListData(updatedItems);
-        DBWriter.setItemList(updatedItems);
+        DBWriter.setItemListAndRemoveFromQueue(updatedItemList, queueToBeRemoved);
     }
 
     private void clearErrorNotifications() {
@@ -19,6 +19,8 @@ public class SynchronizationQueueStorage {
     private static final String QUEUED_EPISODE_ACTIONS = "sync_queued_episode_actions";
     private static final String QUEUED_FEEDS_REMOVED = "sync_removed";
     private static final String QUEUED_FEEDS_ADDED = "sync_added";
+    private static final String PLAYED_HISTORY_LAST_ITEM = "sync_played_history_last_item";
+    private static final String PLAYED_HISTORY_COUNT = "sync_played_history_count";
     private final SharedPreferences sharedPreferences;
 
     public SynchronizationQueueStorage(Context context) {
@@ -84,12 +86,42 @@ public class SynchronizationQueueStorage {
                 .apply();
     }
 
+    /**
+     * Id of the last played episode that was uploaded during the first sync, or 0.
+     */
+    public long getPlayedHistoryLastItemId() {
+        return getSharedPreferences().getLong(PLAYED_HISTORY_LAST_ITEM, 0);
+    }
+
+    /**
+     * Number of played episodes that were uploaded during the first sync.
+     */
+    public int getPlayedHistoryCount() {
+        return getSharedPreferences().getInt(PLAYED_HISTORY_COUNT, 0);
+    }
+
+    public void setPlayedHistoryProgress(long lastItemId, int count) {
+        getSharedPreferences().edit()
+                .putLong(PLAYED_HISTORY_LAST_ITEM, lastItemId)
+                .putInt(PLAYED_HISTORY_COUNT, count)
+                .apply();
+    }
+
+    public void clearPlayedHistoryProgress() {
+        getSharedPreferences().edit()
+                .remove(PLAYED_HISTORY_LAST_ITEM)
+                .remove(PLAYED_HISTORY_COUNT)
+                .apply();
+    }
+
     protected void clearQueue() {
         SynchronizationSettings.resetTimestamps();
         getSharedPreferences().edit()
                 .putString(QUEUED_EPISODE_ACTIONS, "[]")
                 .putString(QUEUED_FEEDS_ADDED, "[]")
                 .putString(QUEUED_FEEDS_REMOVED, "[]")
+                .remove(PLAYED_HISTORY_LAST_ITEM)
+                .remove(PLAYED_HISTORY_COUNT)
                 .apply();
 
     }
@@ -0,0 +1,158 @@
+package de.danoeh.antennapod.net.sync.service;
+
+import android.content.Context;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeActionChanges;
+import de.danoeh.antennapod.net.sync.serviceinterface.ISyncService;
+import de.danoeh.antennapod.net.sync.serviceinterface.SubscriptionChanges;
+import de.danoeh.antennapod.net.sync.serviceinterface.SyncServiceException;
+import de.danoeh.antennapod.net.sync.serviceinterface.UploadChangesResponse;
+import de.danoeh.antennapod.storage.database.DBWriter;
+import de.danoeh.antennapod.storage.database.PodDBAdapter;
+import de.danoeh.antennapod.storage.preferences.UserPreferences;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+public class PlayedHistoryUploaderTest {
+    private static final int PAGE_SIZE = 2;
+    private static final int NUM_EPISODES = 5;
+
+    private SynchronizationQueueStorage storage;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        UserPreferences.init(context);
+        PodDBAdapter.init(context);
+        PodDBAdapter.deleteDatabase();
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        adapter.close();
+        storage = new SynchronizationQueueStorage(context);
+        storage.clearPlayedHistoryProgress();
+    }
+
+    @After
+    public void tearDown() {
+        DBWriter.tearDownTests();
+        PodDBAdapter.tearDownTests();
+    }
+
+    @Test
+    public void testContinuesAfterInterruptedUpload() throws Exception {
+        createPlayedEpisodes();
+
+        FakeSyncService interrupted = new FakeSyncService(1);
+        try {
+            new PlayedHistoryUploader(storage, PAGE_SIZE).upload(interrupted, 0);
+            fail("Upload of the second page should fail");
+        } catch (SyncServiceException e) {
+            // Expected
+        }
+        assertEquals(PAGE_SIZE, interrupted.uploadedEpisodes.size());
+        assertEquals(PAGE_SIZE, storage.getPlayedHistoryCount());
+
+        FakeSyncService resumed = new FakeSyncService(Integer.MAX_VALUE);
+        long timestamp = new PlayedHistoryUploader(storage, PAGE_SIZE).upload(resumed, 0);
+        assertEquals(NUM_EPISODES - PAGE_SIZE, resumed.uploadedEpisodes.size());
+        assertEquals(2, timestamp);
+
+        Set<String> allEpisodes = new HashSet<>(interrupted.uploadedEpisodes);
+        allEpisodes.addAll(resumed.uploadedEpisodes);
+        assertEquals(NUM_EPISODES, allEpisodes.size());
+        assertEquals(0, storage.getPlayedHistoryCount());
+        assertEquals(0, storage.getPlayedHistoryLastItemId());
+    }
+
+    @Test
+    public void testStartsOverIfLastItemWasDeleted() throws Exception {
+        createPlayedEpisodes();
+        storage.setPlayedHistoryProgress(12345, PAGE_SIZE);
+
+        FakeSyncService service = new FakeSyncService(Integer.MAX_VALUE);
+        new PlayedHistoryUploader(storage, PAGE_SIZE).upload(service, 0);
+        assertEquals(NUM_EPISODES, service.uploadedEpisodes.size());
+    }
+
+    private static void createPlayedEpisodes() {
+        Feed feed = new Feed("http://example.com/feed", null, "Feed");
+        feed.setItems(new ArrayList<>());
+        for (int i = 0; i < NUM_EPISODES; i++) {
+            FeedItem item = new FeedItem(0, "Item " + i, "guid" + i, "http://example.com/item" + i,
+                    new Date(i * 1000L), FeedItem.PLAYED, feed);
+            item.setMedia(new FeedMedia(0, item, 60000, 0, 0, "audio/mpeg", null,
+                    "http://example.com/episode" + i + ".mp3", 0, null, 0, 0));
+            feed.getItems().add(item);
+        }
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        adapter.setCompleteFeed(feed);
+        adapter.close();
+    }
+
+    private static class FakeSyncService implements ISyncService {
+        final List<String> uploadedEpisodes = new ArrayList<>();
+        private final int numAcceptedUploads;
+        private int numUploads = 0;
+
+        FakeSyncService(int numAcceptedUploads) {
+            this.numAcceptedUploads = numAcceptedUploads;
+        }
+
+        @Override
+        public UploadChangesResponse uploadEpisodeActions(List<EpisodeAction> queuedEpisodeActions)
+                throws SyncServiceException {
+            if (numUploads >= numAcceptedUploads) {
+                throw new SyncServiceException("Connection lost");
+            }
+            numUploads++;
+            for (EpisodeAction action : queuedEpisodeActions) {
+                uploadedEpisodes.add(action.getEpisode());
+            }
+            final long timestamp = numUploads;
+            return new UploadChangesResponse(timestamp) { };
+        }
+
+        @Override
+        public void login() {
+        }
+
+        @Override
+        public SubscriptionChanges getSubscriptionChanges(long lastSync) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public UploadChangesResponse uploadSubscriptionChanges(List<String> addedFeeds, List<String> removedFeeds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EpisodeActionChanges getEpisodeActionChanges(long lastSync) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void logout() {
+        }
+    }
+}
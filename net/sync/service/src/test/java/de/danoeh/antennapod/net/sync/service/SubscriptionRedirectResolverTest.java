@@ -0,0 +1,87 @@
+package de.danoeh.antennapod.net.sync.service;
+
+import android.content.Context;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class SubscriptionRedirectResolverTest {
+    private Context context;
+    private Map<String, String> redirects;
+    private AtomicInteger numChecks;
+    private SubscriptionRedirectResolver resolver;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.getSharedPreferences("sync_redirect_cache", Context.MODE_PRIVATE).edit().clear().commit();
+        redirects = new HashMap<>();
+        numChecks = new AtomicInteger();
+        resolver = new SubscriptionRedirectResolver(context, url -> {
+            numChecks.incrementAndGet();
+            if (url.contains("unreachable")) {
+                throw new IOException("Unreachable");
+            }
+            return redirects.get(url);
+        });
+    }
+
+    @Test
+    public void testResolvesRedirectChainToFinalUrl() {
+        // RedirectChecker reports the end of a chain of permanent redirects
+        redirects.put("https://example.com/a", "https://example.org/c");
+        Map<String, String> result = resolver.resolve(Arrays.asList("https://example.com/a", "https://example.com/x"));
+        assertEquals(Collections.singletonMap("https://example.com/a", "https://example.org/c"), result);
+    }
+
+    @Test
+    public void testRemembersResults() {
+        redirects.put("https://example.com/a", "https://example.com/b");
+        List<String> urls = Arrays.asList("https://example.com/a", "https://example.com/x");
+        resolver.resolve(urls);
+        assertEquals(2, numChecks.get());
+
+        Map<String, String> result = resolver.resolve(urls);
+        assertEquals(2, numChecks.get());
+        assertEquals(Collections.singletonMap("https://example.com/a", "https://example.com/b"), result);
+    }
+
+    @Test
+    public void testEncodedUrlsShareCacheEntry() {
+        redirects.put("https://example.com/feeds/a%2Fb", "https://example.com/new");
+        resolver.resolve(Collections.singletonList("https://example.com/feeds/a%2Fb"));
+        assertEquals(1, numChecks.get());
+
+        Map<String, String> result = resolver.resolve(Collections.singletonList("https://example.com/feeds/a%2fb"));
+        assertEquals(1, numChecks.get());
+        assertEquals("https://example.com/new", result.get("https://example.com/feeds/a%2fb"));
+
+        // An encoded slash is not the same as a path separator
+        resolver.resolve(Collections.singletonList("https://example.com/feeds/a/b"));
+        assertEquals(2, numChecks.get());
+    }
+
+    @Test
+    public void testFailedChecksAreNotRemembered() {
+        Map<String, String> result = resolver.resolve(Collections.singletonList("https://unreachable.example.com/"));
+        assertTrue(result.isEmpty());
+        resolver.resolve(Collections.singletonList("https://unreachable.example.com/"));
+        assertEquals(2, numChecks.get());
+    }
+}
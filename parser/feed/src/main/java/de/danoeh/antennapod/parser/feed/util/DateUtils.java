@@ -1,6 +1,7 @@
 package de.danoeh.antennapod.parser.feed.util;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import org.apache.commons.lang3.StringUtils;
 
 import java.text.ParseException;
@@ -28,6 +29,19 @@ public abstract class DateUtils {
         if (input == null) {
             throw new IllegalArgumentException("Date must not be null");
         }
+        Date date = FastDateParser.parse(input);
+        if (date != null) {
+            return date;
+        }
+        return parseWithPatterns(input);
+    }
+
+    /**
+     * Slow path for dates that {@link FastDateParser} does not understand.
+     * Tries a long list of formats after applying workarounds for common mistakes.
+     */
+    @VisibleForTesting
+    static Date parseWithPatterns(final String input) {
         try {
             return RFC822_DATE_FORMAT.get().parse(input);
         } catch (ParseException ignored) {
@@ -122,7 +136,7 @@ public abstract class DateUtils {
 
         // if date string starts with a weekday, try parsing date string without it
         if (date.matches("^\\w+, .*$")) {
-            return parse(date.substring(date.indexOf(',') + 1));
+            return parseWithPatterns(date.substring(date.indexOf(',') + 1));
         }
 
         System.out.println("Could not parse date string \"" + input + "\" [" + date + "]");
@@ -0,0 +1,404 @@
+package de.danoeh.antennapod.parser.feed.util;
+
+import androidx.annotation.Nullable;
+
+import java.util.Date;
+
+/**
+ * Single-pass parser for the date formats that almost all feeds use:
+ * RFC 822/1123 ({@code Sat, 28 Mar 2015 01:31:04 +0000}) and ISO 8601/RFC 3339 ({@code 2015-03-28T01:31:04.963Z}).
+ * It works directly on the input string and does not create intermediate strings or formatters.
+ *
+ * <p>The parser only accepts input for which the pattern based fallback in {@link DateUtils} produces the same
+ * result. Everything else returns null, so the caller can still apply its workarounds for exotic dates.
+ */
+final class FastDateParser {
+    private static final long INVALID = Long.MIN_VALUE;
+    private static final int INVALID_OFFSET = Integer.MIN_VALUE;
+    private static final int MIN_YEAR = 1900;
+    private static final int MIN_OFFSET = -13 * 60;
+    private static final int MAX_OFFSET = 14 * 60;
+
+    private static final String[] MONTHS = {"january", "february", "march", "april", "may", "june",
+        "july", "august", "september", "october", "november", "december"};
+    private static final String[] WEEKDAYS = {"monday", "tuesday", "wednesday", "thursday",
+        "friday", "saturday", "sunday"};
+    private static final String[] ZONE_NAMES = {"GMT", "UTC", "EST", "EDT", "CST", "CDT", "MST", "MDT",
+        "PST", "PDT", "CET", "CEST"};
+    private static final int[] ZONE_OFFSETS = {0, 0, -5 * 60, -4 * 60, -6 * 60, -5 * 60, -7 * 60, -6 * 60,
+        -8 * 60, -7 * 60, 60, 2 * 60};
+
+    private final String text;
+    private final int end;
+    private int pos;
+    private boolean zoneHadColon = false;
+    /**
+     * True if only the workarounds of the fallback, not its RFC 822 format, would accept the input.
+     */
+    private boolean needsWorkarounds;
+
+    private FastDateParser(String text, int start, int end) {
+        this.text = text;
+        this.pos = start;
+        this.end = end;
+        this.needsWorkarounds = start > 0;
+    }
+
+    /**
+     * Returns the parsed date or null if the input is not in one of the well-known formats.
+     */
+    @Nullable
+    static Date parse(String input) {
+        int start = 0;
+        int end = input.length();
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start < 8) {
+            return null;
+        }
+        FastDateParser parser = new FastDateParser(input, start, end);
+        long millis;
+        if (isDigit(input.charAt(start)) && isDigit(input.charAt(start + 1))
+                && isDigit(input.charAt(start + 2)) && isDigit(input.charAt(start + 3))) {
+            millis = parser.parseIso8601();
+        } else {
+            millis = parser.parseRfc822();
+        }
+        return millis == INVALID ? null : new Date(millis);
+    }
+
+    /**
+     * [weekday ","] day month year hour ":" minute [":" second] [zone].
+     */
+    private long parseRfc822() {
+        boolean hasWeekday = false;
+        if (pos < end && isLetter(text.charAt(pos))) {
+            if (readName(WEEKDAYS) < 0 || !consume(',') || !skipSpaces()) {
+                return INVALID;
+            }
+            hasWeekday = true;
+        }
+        int day = readNumber(1, 2);
+        if (day < 0 || !skipSpaces()) {
+            return INVALID;
+        }
+        int month = readMonth();
+        if (month < 0 || !skipSpaces()) {
+            return INVALID;
+        }
+        int year = readNumber(4, 4);
+        if (year < 0 || !skipSpaces()) {
+            return INVALID;
+        }
+        int hour = readNumber(1, 2);
+        if (hour < 0 || !consume(':')) {
+            return INVALID;
+        }
+        int minute = readNumber(1, 2);
+        if (minute < 0) {
+            return INVALID;
+        }
+        int second = 0;
+        boolean hasSeconds = false;
+        if (consume(':')) {
+            second = readNumber(1, 2);
+            if (second < 0) {
+                return INVALID;
+            }
+            hasSeconds = true;
+        }
+        int offset = 0;
+        boolean hasZone = false;
+        if (pos < end) {
+            if (!skipSpaces()) {
+                return INVALID;
+            }
+            offset = readZone(true);
+            if (offset == INVALID_OFFSET) {
+                return INVALID;
+            }
+            hasZone = true;
+        }
+        if (pos < end) {
+            // Strict RFC 822 dates are parsed by a SimpleDateFormat that ignores trailing text like "(UTC)"
+            if (!hasWeekday || !hasSeconds || !hasZone || zoneHadColon || needsWorkarounds
+                    || text.charAt(pos) != ' ') {
+                return INVALID;
+            }
+            pos = end;
+        }
+        if (!hasWeekday && !hasZone) {
+            return INVALID;
+        }
+        return toEpochMillis(year, month, day, hour, minute, second, 0, offset);
+    }
+
+    /**
+     * year "-" month "-" day ["T" hour ":" minute ":" second ["." fraction]] [zone].
+     */
+    private long parseIso8601() {
+        int year = readNumber(4, 4);
+        if (year < 0 || !consumeDateSeparator()) {
+            return INVALID;
+        }
+        int month = readNumber(1, 2);
+        if (month < 0 || !consumeDateSeparator()) {
+            return INVALID;
+        }
+        int day = readNumber(1, 2);
+        if (day < 0) {
+            return INVALID;
+        }
+        if (pos == end) {
+            return toEpochMillis(year, month, day, 0, 0, 0, 0, 0);
+        } else if (text.charAt(pos) == '+' || text.charAt(pos) == '-') {
+            int offset = readZone(false);
+            if (offset == INVALID_OFFSET || pos != end) {
+                return INVALID;
+            }
+            return toEpochMillis(year, month, day, 0, 0, 0, 0, offset);
+        } else if (!consume('T')) {
+            return INVALID;
+        }
+
+        int hour = readNumber(1, 2);
+        if (hour < 0 || !consume(':')) {
+            return INVALID;
+        }
+        int minute = readNumber(1, 2);
+        if (minute < 0 || !consume(':')) {
+            return INVALID;
+        }
+        int second = readNumber(1, 2);
+        if (second < 0) {
+            return INVALID;
+        }
+        int millis = 0;
+        boolean hasFraction = false;
+        if (consume('.')) {
+            int digits = 0;
+            while (pos < end && isDigit(text.charAt(pos))) {
+                if (digits < 3) {
+                    millis = millis * 10 + (text.charAt(pos) - '0');
+                }
+                digits++;
+                pos++;
+            }
+            if (digits == 0) {
+                return INVALID;
+            }
+            for (int i = digits; i < 3; i++) {
+                millis *= 10;
+            }
+            hasFraction = true;
+        }
+
+        int offset = 0;
+        if (pos < end) {
+            if (text.charAt(pos) == 'Z') {
+                pos++;
+            } else {
+                if (text.charAt(pos) == ' ' && (!hasFraction || !skipSpaces())) {
+                    return INVALID;
+                }
+                offset = readZone(false);
+                if (offset == INVALID_OFFSET) {
+                    return INVALID;
+                }
+            }
+            if (pos != end) {
+                return INVALID;
+            }
+        }
+        return toEpochMillis(year, month, day, hour, minute, second, millis, offset);
+    }
+
+    /**
+     * Reads a numeric offset like +0200 or +02:00 or, if allowed, one of the common zone names.
+     * Returns the offset in minutes.
+     */
+    private int readZone(boolean allowNames) {
+        if (pos >= end) {
+            return INVALID_OFFSET;
+        }
+        char sign = text.charAt(pos);
+        if (sign == '+' || sign == '-') {
+            pos++;
+            int hours = readDigits(2);
+            zoneHadColon = consume(':');
+            int minutes = readNumber(2, 2);
+            if (hours < 0 || minutes < 0 || minutes > 59 || (zoneHadColon && pos != end)) {
+                return INVALID_OFFSET;
+            }
+            int offset = sign == '-' ? -(hours * 60 + minutes) : hours * 60 + minutes;
+            if (offset < MIN_OFFSET || offset > MAX_OFFSET) {
+                // Not accepted by the strict patterns of the fallback
+                return INVALID_OFFSET;
+            }
+            return offset;
+        } else if (!allowNames) {
+            return INVALID_OFFSET;
+        }
+        int nameEnd = pos;
+        while (nameEnd < end && isLetter(text.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        if (nameEnd < end && text.charAt(nameEnd) != ' ') {
+            return INVALID_OFFSET;
+        }
+        for (int i = 0; i < ZONE_NAMES.length; i++) {
+            String name = ZONE_NAMES[i];
+            if (name.length() == nameEnd - pos && text.regionMatches(true, pos, name, 0, name.length())) {
+                pos = nameEnd;
+                return ZONE_OFFSETS[i];
+            }
+        }
+        return INVALID_OFFSET;
+    }
+
+    /**
+     * Reads a month name. Accepts full names, three letter abbreviations and "Sept".
+     * Returns the month from 1 to 12.
+     */
+    private int readMonth() {
+        if (end - pos >= 4 && text.regionMatches(true, pos, "sept", 0, 4)
+                && (pos + 4 == end || !isLetter(text.charAt(pos + 4)))) {
+            pos += 4;
+            needsWorkarounds = true;
+            return 9;
+        }
+        int month = readName(MONTHS);
+        return month < 0 ? -1 : month + 1;
+    }
+
+    /**
+     * Reads a word that is either a full name from the list or its first three letters.
+     * Returns the index in the list.
+     */
+    private int readName(String[] names) {
+        int wordEnd = pos;
+        while (wordEnd < end && isLetter(text.charAt(wordEnd))) {
+            wordEnd++;
+        }
+        int length = wordEnd - pos;
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if ((length == 3 || length == name.length()) && text.regionMatches(true, pos, name, 0, length)) {
+                pos = wordEnd;
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads a non-negative number with the given amount of digits. Returns -1 if there is none.
+     */
+    private int readNumber(int minDigits, int maxDigits) {
+        int value = 0;
+        int digits = 0;
+        while (pos < end && digits < maxDigits && isDigit(text.charAt(pos))) {
+            value = value * 10 + (text.charAt(pos) - '0');
+            digits++;
+            pos++;
+        }
+        if (digits < minDigits || (pos < end && isDigit(text.charAt(pos)))) {
+            return -1;
+        }
+        return value;
+    }
+
+    /**
+     * Reads exactly the given amount of digits, even if more digits follow. Returns -1 if there are fewer.
+     */
+    private int readDigits(int count) {
+        if (end - pos < count) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            char c = text.charAt(pos + i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        pos += count;
+        return value;
+    }
+
+    private boolean consume(char c) {
+        if (pos < end && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean consumeDateSeparator() {
+        return consume('-') || consume('/');
+    }
+
+    /**
+     * Skips at least one space.
+     */
+    private boolean skipSpaces() {
+        int start = pos;
+        while (pos < end && text.charAt(pos) == ' ') {
+            pos++;
+        }
+        if (pos - start > 1) {
+            needsWorkarounds = true;
+        }
+        return pos > start;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static long toEpochMillis(int year, int month, int day, int hour, int minute, int second,
+                                      int millis, int offsetMinutes) {
+        if (year < MIN_YEAR || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            return INVALID;
+        }
+        long seconds = ((daysSinceEpoch(year, month, day) * 24 + hour) * 60 + minute - offsetMinutes) * 60 + second;
+        return seconds * 1000 + millis;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 in the proleptic Gregorian calendar.
+     */
+    private static long daysSinceEpoch(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
@@ -0,0 +1,181 @@
+package de.danoeh.antennapod.parser.feed.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Generates date strings the way feeds in the wild write them.
+ */
+class DateCorpus {
+    private static final String[] WEEKDAYS_SHORT = {"Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat"};
+    private static final String[] WEEKDAYS_LONG = {"Sunday", "Monday", "Tuesday", "Wednesday",
+        "Thursday", "Friday", "Saturday"};
+    private static final String[] MONTHS_SHORT = {"Jan", "Feb", "Mar", "Apr", "May", "Jun",
+        "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+    private static final String[] MONTHS_LONG = {"January", "February", "March", "April", "May", "June",
+        "July", "August", "September", "October", "November", "December"};
+    private static final String[] ZONE_NAMES = {"GMT", "UTC", "EST", "EDT", "CST", "CDT", "MST", "MDT",
+        "PST", "PDT", "CET", "CEST", "gmt", "Z", "UT", "BST", "JST", "IST"};
+
+    /**
+     * Inputs that the hand-written parser leaves to the pattern based fallback.
+     */
+    static final List<String> EXOTIC = Arrays.asList(
+            "Wed May 25 12:33:00 2011",
+            "Sun 01 Mar 2015 01:00:00 GMT-0400 (EDT)",
+            "Sun, 01 Mar 15 01:00:00 +0000",
+            "01 Mar 15 01:00 +0000",
+            "Tues, 03 Mar 2015 01:00:00 +0000",
+            "Sat, 28 Mar 2015 01:31:04 GMT+02:00",
+            "Sat, 28 Mar 2015 01:31:04 +02",
+            "Sat, 28 Mar 2015 24:31:04 +0000",
+            "Sat, 30 Feb 2015 01:31:04 +0000",
+            "Sat, 28 Mar 2015 01:31:60 +0000",
+            "Sat,\t28 Mar 2015 01:31:04 +0000",
+            "Sat, 28 Mar 2015 01:31:04 +02:00 (CEST)",
+            "Sat, 28 Mar. 2015 01:31:04 +0000",
+            "Saturday, 28-Mar-15 01:31:04 GMT",
+            "28 Mar 2015 01:31:04",
+            "28 Mar 2015",
+            "2015-03-28 13:31:04",
+            "2015-03-28T13:31",
+            "2015-03-28T13:31:04 +0700",
+            "2015-03-28T13:31:04.Z",
+            "2015-03-28T13:31:04.123z",
+            "2015-03-28T13:31:04+07",
+            "2015-03-28T13:31:04.123 EST",
+            "2015-13-28T13:31:04Z",
+            "2015-02-29",
+            "1899-12-31T23:59:59Z",
+            "15-03-28",
+            "March 28, 2015",
+            "Sat, 28 Mar 2015 01:31:04 +0000 trailing",
+            "Sat, 28 Mar 2015 01:31 +0000 (UTC)",
+            "Sat, 28 Mar 2015 01:31:04 EST5EDT",
+            "not a date",
+            "");
+
+    private DateCorpus() {
+
+    }
+
+    static List<String> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> corpus = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long millis = 788918400000L + (long) (random.nextDouble() * 1300000000000L); // 1995 to 2036
+            int offsetMinutes = (random.nextInt(27) - 12) * 60 + (random.nextInt(4) == 0 ? 30 : 0);
+            Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone("GMT"), Locale.US);
+            calendar.setTimeInMillis(millis + offsetMinutes * 60000L);
+            if (random.nextBoolean()) {
+                corpus.add(rfc822(random, calendar, offsetMinutes));
+            } else {
+                corpus.add(iso8601(random, calendar, offsetMinutes));
+            }
+        }
+        return corpus;
+    }
+
+    private static String rfc822(Random random, Calendar calendar, int offsetMinutes) {
+        StringBuilder sb = new StringBuilder();
+        int weekday = calendar.get(Calendar.DAY_OF_WEEK) - 1;
+        switch (random.nextInt(4)) {
+            case 0:
+                break;
+            case 1:
+                sb.append(WEEKDAYS_LONG[weekday]).append(", ");
+                break;
+            default:
+                sb.append(WEEKDAYS_SHORT[weekday]).append(", ");
+                break;
+        }
+        int day = calendar.get(Calendar.DAY_OF_MONTH);
+        sb.append(random.nextBoolean() && day < 10 ? "0" + day : String.valueOf(day));
+        sb.append(random.nextInt(10) == 0 ? "  " : " ");
+        int month = calendar.get(Calendar.MONTH);
+        switch (random.nextInt(6)) {
+            case 0:
+                sb.append(MONTHS_LONG[month]);
+                break;
+            case 1:
+                sb.append(month == Calendar.SEPTEMBER ? "Sept" : MONTHS_SHORT[month].toUpperCase(Locale.US));
+                break;
+            default:
+                sb.append(MONTHS_SHORT[month]);
+                break;
+        }
+        sb.append(' ').append(calendar.get(Calendar.YEAR)).append(' ');
+        sb.append(String.format(Locale.US, "%02d:%02d", calendar.get(Calendar.HOUR_OF_DAY),
+                calendar.get(Calendar.MINUTE)));
+        if (random.nextInt(5) != 0) {
+            sb.append(String.format(Locale.US, ":%02d", calendar.get(Calendar.SECOND)));
+        }
+        switch (random.nextInt(8)) {
+            case 0:
+                break;
+            case 1:
+                sb.append(' ').append(ZONE_NAMES[random.nextInt(ZONE_NAMES.length)]);
+                break;
+            case 2:
+                sb.append(' ').append(numericOffset(offsetMinutes, true));
+                break;
+            case 3:
+                sb.append(' ').append(numericOffset(offsetMinutes, false)).append(" (UTC)");
+                break;
+            default:
+                sb.append(' ').append(numericOffset(offsetMinutes, false));
+                break;
+        }
+        return random.nextInt(20) == 0 ? " " + sb + "\n" : sb.toString();
+    }
+
+    private static String iso8601(Random random, Calendar calendar, int offsetMinutes) {
+        StringBuilder sb = new StringBuilder();
+        char separator = random.nextInt(10) == 0 ? '/' : '-';
+        sb.append(calendar.get(Calendar.YEAR)).append(separator);
+        sb.append(String.format(Locale.US, "%02d", calendar.get(Calendar.MONTH) + 1)).append(separator);
+        sb.append(String.format(Locale.US, "%02d", calendar.get(Calendar.DAY_OF_MONTH)));
+        if (random.nextInt(10) == 0) {
+            if (random.nextBoolean()) {
+                sb.append(numericOffset(offsetMinutes, false));
+            }
+            return sb.toString();
+        }
+        sb.append(String.format(Locale.US, "T%02d:%02d:%02d", calendar.get(Calendar.HOUR_OF_DAY),
+                calendar.get(Calendar.MINUTE), calendar.get(Calendar.SECOND)));
+        boolean hasFraction = random.nextBoolean();
+        if (hasFraction) {
+            sb.append('.');
+            int digits = 1 + random.nextInt(9);
+            for (int i = 0; i < digits; i++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+        }
+        switch (random.nextInt(5)) {
+            case 0:
+                break;
+            case 1:
+                sb.append('Z');
+                break;
+            case 2:
+                sb.append(hasFraction ? " " : "").append(numericOffset(offsetMinutes, false));
+                break;
+            default:
+                sb.append(numericOffset(offsetMinutes, random.nextBoolean()));
+                break;
+        }
+        return sb.toString();
+    }
+
+    private static String numericOffset(int offsetMinutes, boolean colon) {
+        int abs = Math.abs(offsetMinutes);
+        return String.format(Locale.US, colon ? "%s%02d:%02d" : "%s%02d%02d",
+                offsetMinutes < 0 ? "-" : "+", abs / 60, abs % 60);
+    }
+}
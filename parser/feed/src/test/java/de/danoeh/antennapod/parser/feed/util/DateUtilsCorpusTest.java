@@ -0,0 +1,52 @@
+package de.danoeh.antennapod.parser.feed.util;
+
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure that {@link FastDateParser} returns exactly what the pattern based parsing returns.
+ */
+public class DateUtilsCorpusTest {
+
+    @Test
+    public void testGeneratedCorpusMatchesPatterns() {
+        List<String> corpus = DateCorpus.generate(50000, 42);
+        int handledByFastParser = 0;
+        for (String input : corpus) {
+            Date expected = DateUtils.parseWithPatterns(input);
+            Date fast = FastDateParser.parse(input);
+            if (fast != null) {
+                handledByFastParser++;
+                assertEquals(input, expected, fast);
+            }
+            assertEquals(input, expected, DateUtils.parse(input));
+        }
+        // Everything except the dates without weekday and time zone and the unusual zone names
+        assertTrue("Only " + handledByFastParser + " handled", handledByFastParser > corpus.size() * 0.9);
+    }
+
+    @Test
+    public void testExoticInputsMatchPatterns() {
+        for (String input : DateCorpus.EXOTIC) {
+            assertEquals(input, DateUtils.parseWithPatterns(input), DateUtils.parse(input));
+        }
+    }
+
+    @Test
+    public void testCommonFormatsUseFastParser() {
+        assertNotNull(FastDateParser.parse("Sat, 28 Mar 2015 01:31:04 +0000"));
+        assertNotNull(FastDateParser.parse("Sat, 28 Mar 2015 01:31:04 GMT"));
+        assertNotNull(FastDateParser.parse("Saturday, 28 March 2015 01:31 -0400"));
+        assertNotNull(FastDateParser.parse("Mon, 8 Sept 2014 00:00:00 GMT"));
+        assertNotNull(FastDateParser.parse("28 Mar 2015 01:31:04 +0000"));
+        assertNotNull(FastDateParser.parse("2015-03-28T01:31:04Z"));
+        assertNotNull(FastDateParser.parse("2015-03-28T01:31:04.963870+07:00"));
+        assertNotNull(FastDateParser.parse("2015-03-28"));
+    }
+}
@@ -99,7 +99,10 @@ public class ChapterReader extends ID3Reader {
                     int alreadyConsumed = getPosition() - frameStartPosition;
                     int rawImageDataLength = frameHeader.getSize() - alreadyConsumed;
                     if (TextUtils.isEmpty(chapter.getImageUrl()) || type == IMAGE_TYPE_COVER) {
-                        chapter.setImageUrl(EmbeddedChapterImage.makeUrl(getPosition(), rawImageDataLength));
+                        // The hash lets chapters with the same image share it in the image cache
+                        int imagePosition = getPosition();
+                        String hash = readBytesHash(rawImageDataLength);
+                        chapter.setImageUrl(EmbeddedChapterImage.makeUrl(imagePosition, rawImageDataLength, hash));
                     }
                 }
                 break;
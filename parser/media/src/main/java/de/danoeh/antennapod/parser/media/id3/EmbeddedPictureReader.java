@@ -0,0 +1,51 @@
+package de.danoeh.antennapod.parser.media.id3;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import de.danoeh.antennapod.parser.media.id3.model.EmbeddedPicture;
+import de.danoeh.antennapod.parser.media.id3.model.FrameHeader;
+import org.apache.commons.io.input.CountingInputStream;
+
+import java.io.IOException;
+
+/**
+ * Finds the cover image in the ID3 tag. Chapter images are not considered because they are in CHAP frames.
+ */
+public class EmbeddedPictureReader extends ID3Reader {
+    private EmbeddedPicture picture = null;
+    private boolean isFrontCover = false;
+
+    public EmbeddedPictureReader(CountingInputStream input) {
+        super(input);
+    }
+
+    @Override
+    protected void readFrame(@NonNull FrameHeader frameHeader) throws IOException, ID3ReaderException {
+        if (!ChapterReader.FRAME_ID_PICTURE.equals(frameHeader.getId()) || isFrontCover) {
+            super.readFrame(frameHeader);
+            return;
+        }
+        int frameStartPosition = getPosition();
+        byte encoding = readByte();
+        String mime = readIsoStringNullTerminated(frameHeader.getSize());
+        byte type = readByte();
+        readEncodedString(encoding, frameHeader.getSize()); // skip description
+        int alreadyConsumed = getPosition() - frameStartPosition;
+        if (ChapterReader.MIME_IMAGE_URL.equals(mime) || (picture != null && type != ChapterReader.IMAGE_TYPE_COVER)) {
+            skipBytes(frameHeader.getSize() - alreadyConsumed);
+            return;
+        }
+        int imagePosition = getPosition();
+        int imageLength = frameHeader.getSize() - alreadyConsumed;
+        picture = new EmbeddedPicture(imagePosition, imageLength, readBytesHash(imageLength));
+        isFrontCover = type == ChapterReader.IMAGE_TYPE_COVER;
+    }
+
+    /**
+     * @return The front cover, or the first image if there is no front cover. Null if there are no images.
+     */
+    @Nullable
+    public EmbeddedPicture getPicture() {
+        return picture;
+    }
+}
@@ -8,10 +8,14 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.CountingInputStream;
 
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.MalformedInputException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
 
 /**
  * Reads the ID3 Tag of a given file.
@@ -24,6 +28,10 @@ public class ID3Reader {
     public static final byte ENCODING_UTF16_WITH_BOM = 1;
     public static final byte ENCODING_UTF16_WITHOUT_BOM = 2;
     public static final byte ENCODING_UTF8 = 3;
+    /**
+     * Number of bytes at the start of an embedded image that {@link #readBytesHash} hashes.
+     */
+    static final int HASH_PREFIX_LENGTH = 16 * 1024;
 
     private TagHeader tagHeader;
     private final CountingInputStream inputStream;
@@ -64,6 +72,41 @@ public class ID3Reader {
         IOUtils.skipFully(inputStream, number);
     }
 
+    /**
+     * Skips a certain number of bytes, like {@link #skipBytes}, and returns the SHA-1 of the first
+     * {@link #HASH_PREFIX_LENGTH} of them as hex string. Large images are not read completely just to hash them,
+     * so images that only differ after the prefix get the same hash. Callers need to combine the hash with the
+     * length and the source of the image to identify content.
+     */
+    String readBytesHash(int number) throws IOException, ID3ReaderException {
+        if (number < 0) {
+            throw new ID3ReaderException("Trying to read a negative number of bytes");
+        }
+        int hashLength = Math.min(number, HASH_PREFIX_LENGTH);
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every Java platform supports SHA-1
+        }
+        byte[] buffer = new byte[8 * 1024];
+        int remaining = hashLength;
+        while (remaining > 0) {
+            int read = inputStream.read(buffer, 0, Math.min(buffer.length, remaining));
+            if (read == -1) {
+                throw new EOFException("Bytes to hash: " + hashLength + " actual: " + (hashLength - remaining));
+            }
+            digest.update(buffer, 0, read);
+            remaining -= read;
+        }
+        skipBytes(number - hashLength);
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format(Locale.US, "%02x", b));
+        }
+        return hash.toString();
+    }
+
     byte readByte() throws IOException {
         return (byte) inputStream.read();
     }
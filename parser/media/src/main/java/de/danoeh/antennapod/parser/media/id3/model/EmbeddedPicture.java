@@ -0,0 +1,36 @@
+package de.danoeh.antennapod.parser.media.id3.model;
+
+/**
+ * Location of an image inside a media file, so that it can be read without parsing the tags again.
+ */
+public class EmbeddedPicture {
+    private final int position;
+    private final int length;
+    private final String hash;
+
+    public EmbeddedPicture(int position, int length, String hash) {
+        this.position = position;
+        this.length = length;
+        this.hash = hash;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return SHA-1 of the first bytes of the image as hex string. Only unique together with the image source.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "EmbeddedPicture [position=" + position + ", length=" + length + ", hash=" + hash + "]";
+    }
+}
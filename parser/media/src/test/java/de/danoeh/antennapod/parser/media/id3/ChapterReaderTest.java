@@ -13,6 +13,7 @@ import java.io.IOException;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 
 @RunWith(RobolectricTestRunner.class)
 public class ChapterReaderTest {
@@ -126,9 +127,9 @@ public class ChapterReaderTest {
         assertEquals("https://example.com", chapters.get(1).getLink());
         assertEquals("https://example.com", chapters.get(2).getLink());
 
-        assertEquals(EmbeddedChapterImage.makeUrl(16073, 2750569), chapters.get(0).getImageUrl());
-        assertEquals(EmbeddedChapterImage.makeUrl(2766765, 15740), chapters.get(1).getImageUrl());
-        assertEquals(EmbeddedChapterImage.makeUrl(2782628, 2750569), chapters.get(2).getImageUrl());
+        assertEmbeddedImage(16073, 2750569, chapters.get(0).getImageUrl());
+        assertEmbeddedImage(2766765, 15740, chapters.get(1).getImageUrl());
+        assertEmbeddedImage(2782628, 2750569, chapters.get(2).getImageUrl());
     }
 
     @Test
@@ -156,10 +157,12 @@ public class ChapterReaderTest {
         assertEquals("https://example.com", chapters.get(2).getLink());
         assertEquals("https://example.com", chapters.get(3).getLink());
 
-        assertEquals(EmbeddedChapterImage.makeUrl(765, 308), chapters.get(0).getImageUrl());
-        assertEquals(EmbeddedChapterImage.makeUrl(1271, 308), chapters.get(1).getImageUrl());
-        assertEquals(EmbeddedChapterImage.makeUrl(1771, 308), chapters.get(2).getImageUrl());
-        assertEquals(EmbeddedChapterImage.makeUrl(2259, 308), chapters.get(3).getImageUrl());
+        // All chapters use the same image, so they have the same hash
+        String hash = "e9c1aba6ce879ac3b55644a2a684467835d258db";
+        assertEquals(EmbeddedChapterImage.makeUrl(765, 308, hash), chapters.get(0).getImageUrl());
+        assertEquals(EmbeddedChapterImage.makeUrl(1271, 308, hash), chapters.get(1).getImageUrl());
+        assertEquals(EmbeddedChapterImage.makeUrl(1771, 308, hash), chapters.get(2).getImageUrl());
+        assertEquals(EmbeddedChapterImage.makeUrl(2259, 308, hash), chapters.get(3).getImageUrl());
     }
 
     @Test
@@ -181,8 +184,10 @@ public class ChapterReaderTest {
         assertEquals("https://example.com/chapter1url", chapters.get(0).getLink());
         assertEquals("https://example.com/chapter2url", chapters.get(1).getLink());
 
-        assertEquals(EmbeddedChapterImage.makeUrl(5330, 4015), chapters.get(0).getImageUrl());
-        assertEquals(EmbeddedChapterImage.makeUrl(9498, 4364), chapters.get(1).getImageUrl());
+        assertEquals(EmbeddedChapterImage.makeUrl(5330, 4015, "f5398e8aedc7a52c0c7fc38b65e3fbecd909c57d"),
+                chapters.get(0).getImageUrl());
+        assertEquals(EmbeddedChapterImage.makeUrl(9498, 4364, "6fd73aee15288fa2606962919efdda26e4cb6f05"),
+                chapters.get(1).getImageUrl());
     }
 
     @Test
@@ -205,4 +210,11 @@ public class ChapterReaderTest {
         assertEquals("Chapter 2", chapters.get(2).getTitle());
         assertEquals("Chapter 3", chapters.get(3).getTitle());
     }
+
+    private static void assertEmbeddedImage(int position, int length, String imageUrl) {
+        EmbeddedChapterImage image = new EmbeddedChapterImage(null, imageUrl);
+        assertEquals(position, image.getPosition());
+        assertEquals(length, image.getLength());
+        assertNotNull(image.getHash());
+    }
 }
@@ -0,0 +1,50 @@
+package de.danoeh.antennapod.parser.media.id3;
+
+import de.danoeh.antennapod.parser.media.id3.model.EmbeddedPicture;
+import org.apache.commons.io.input.CountingInputStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+public class EmbeddedPictureReaderTest {
+    @Test
+    public void testRealFileAuphonic() throws IOException, ID3ReaderException {
+        EmbeddedPicture picture = readPicture("auphonic.mp3");
+        assertEquals(57, picture.getPosition());
+        assertEquals(308, picture.getLength());
+        // Same image as the chapter images
+        assertEquals("e9c1aba6ce879ac3b55644a2a684467835d258db", picture.getHash());
+    }
+
+    @Test
+    public void testRealFileHindenburgJournalistPro() throws IOException, ID3ReaderException {
+        EmbeddedPicture picture = readPicture("hindenburg-journalist-pro.mp3");
+        assertEquals(429, picture.getPosition());
+        assertEquals(4677, picture.getLength());
+        assertEquals("a128cc52e49b910a08afe063b553e19e47e336d1", picture.getHash());
+    }
+
+    @Test
+    public void testNoPicture() throws IOException, ID3ReaderException {
+        byte[] data = Id3ReaderTest.generateId3Header(0);
+        CountingInputStream inputStream = new CountingInputStream(new ByteArrayInputStream(data));
+        EmbeddedPictureReader reader = new EmbeddedPictureReader(inputStream);
+        reader.readInputStream();
+        assertNull(reader.getPicture());
+    }
+
+    private EmbeddedPicture readPicture(String resource) throws IOException, ID3ReaderException {
+        CountingInputStream inputStream = new CountingInputStream(getClass().getClassLoader()
+                .getResource(resource).openStream());
+        EmbeddedPictureReader reader = new EmbeddedPictureReader(inputStream);
+        reader.readInputStream();
+        return reader.getPicture();
+    }
+}
@@ -13,6 +13,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -46,6 +47,28 @@ public class Id3ReaderTest {
         assertEquals("Bar", reader.readEncodingAndString(1000));
     }
 
+    @Test
+    public void testReadBytesHashOnlyHashesPrefix() throws IOException, ID3ReaderException {
+        int length = 3 * ID3Reader.HASH_PREFIX_LENGTH;
+        byte[] image = new byte[length + 1];
+        image[length] = 42; // Following data
+        String hash = readBytesHash(image, length);
+
+        image[length - 1] = 1; // Beyond the hashed prefix
+        assertEquals(hash, readBytesHash(image, length));
+        image[0] = 1;
+        assertNotEquals(hash, readBytesHash(image, length));
+    }
+
+    private static String readBytesHash(byte[] data, int length) throws IOException, ID3ReaderException {
+        CountingInputStream inputStream = new CountingInputStream(new ByteArrayInputStream(data));
+        ID3Reader reader = new ID3Reader(inputStream);
+        String hash = reader.readBytesHash(length);
+        assertEquals(length, reader.getPosition());
+        assertEquals(42, reader.readByte());
+        return hash;
+    }
+
     @Test
     public void testReadingLimit() throws IOException {
         byte[] data = {
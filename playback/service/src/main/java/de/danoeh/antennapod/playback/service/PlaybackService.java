@@ -56,10 +56,12 @@ import androidx.media.MediaBrowserServiceCompat;
 import de.danoeh.antennapod.event.PlayerStatusEvent;
 import de.danoeh.antennapod.net.sync.serviceinterface.SynchronizationQueue;
 import de.danoeh.antennapod.playback.service.internal.LocalPSMP;
+import de.danoeh.antennapod.playback.service.internal.NextEpisodePrefetcher;
 import de.danoeh.antennapod.playback.service.internal.PlayableUtils;
 import de.danoeh.antennapod.playback.service.internal.PlaybackServiceNotificationBuilder;
 import de.danoeh.antennapod.playback.service.internal.PlaybackServiceStateManager;
 import de.danoeh.antennapod.playback.service.internal.PlaybackServiceTaskManager;
+import de.danoeh.antennapod.playback.service.internal.PlaybackTickScheduler;
 import de.danoeh.antennapod.playback.service.internal.PlaybackVolumeUpdater;
 import de.danoeh.antennapod.playback.service.internal.WearMediaSession;
 import de.danoeh.antennapod.ui.notifications.NotificationUtils;
@@ -74,7 +76,6 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import de.danoeh.antennapod.storage.preferences.PlaybackPreferences;
 import de.danoeh.antennapod.storage.preferences.SleepTimerPreferences;
@@ -127,6 +128,16 @@ public class PlaybackService extends MediaBrowserServiceCompat {
     private static final String AVRCP_ACTION_PLAYER_STATUS_CHANGED = "com.android.music.playstatechanged";
     private static final String AVRCP_ACTION_META_CHANGED = "com.android.music.metachanged";
 
+    /**
+     * Interval of the position observer while the position might be visible.
+     */
+    private static final long POSITION_OBSERVER_INTERVAL = 1000;
+    /**
+     * Interval of the position observer while the screen is off. It only needs to run for skipping the ending and
+     * prefetching the next episode then.
+     */
+    private static final long POSITION_OBSERVER_SCREEN_OFF_INTERVAL = 30000;
+
     /**
      * Custom actions used by Android Wear, Android Auto, and Android (API 33+ only)
      */
@@ -160,12 +171,15 @@ public class PlaybackService extends MediaBrowserServiceCompat {
     private PlaybackServiceMediaPlayer mediaPlayer;
     private PlaybackServiceTaskManager taskManager;
     private PlaybackServiceStateManager stateManager;
-    private Disposable positionEventTimer;
+    private final NextEpisodePrefetcher nextEpisodePrefetcher = new NextEpisodePrefetcher();
     private PlaybackServiceNotificationBuilder notificationBuilder;
     private CastStateListener castStateListener;
     private final CompositeDisposable singleShotDisposables = new CompositeDisposable();
 
     private String autoSkippedFeedMediaId = null;
+    private int lastObservedPosition = Playable.INVALID_TIME;
+    private int lastObservedDuration = Playable.INVALID_TIME;
+    private int lastPositionSaverTickPosition = Playable.INVALID_TIME;
     private String positionJustResetAfterPlayback = null;
     private int clickCount = 0;
     private final Handler clickHandler = new Handler(Looper.getMainLooper());
@@ -316,13 +330,17 @@ public class PlaybackService extends MediaBrowserServiceCompat {
             }
         }
         singleShotDisposables.clear();
+        if (mediaPlayer.getPlayerStatus() == PlayerStatus.PLAYING) {
+            saveCurrentPosition(true, null, Playable.INVALID_TIME);
+        }
         stateManager.stopForeground(!UserPreferences.isPersistNotify());
         isRunning = false;
         currentMediaType = MediaType.UNKNOWN;
         castStateListener.destroy();
 
         androidAutoConnectionState.removeObserver(androidAutoConnectionObserver);
-        cancelPositionObserver();
+        taskManager.cancelPositionObserver();
+        nextEpisodePrefetcher.cancel();
         if (mediaSession != null) {
             mediaSession.release();
             mediaSession = null;
@@ -803,7 +821,21 @@ public class PlaybackService extends MediaBrowserServiceCompat {
     private final PlaybackServiceTaskManager.PSTMCallback taskManagerCallback = new PlaybackServiceTaskManager.PSTMCallback() {
         @Override
         public void positionSaverTick() {
-            saveCurrentPosition(true, null, Playable.INVALID_TIME);
+            int position = getCurrentPosition();
+            if (position == lastPositionSaverTickPosition) {
+                return; // Not advancing, for example while buffering
+            }
+            lastPositionSaverTickPosition = position;
+            Playable playable = mediaPlayer.getPlayable();
+            int duration = getDuration();
+            if (position != Playable.INVALID_TIME && duration != Playable.INVALID_TIME && playable != null) {
+                PlayableUtils.journalCurrentPosition(playable, position, System.currentTimeMillis());
+            }
+        }
+
+        @Override
+        public long positionObserverTick(PlaybackTickScheduler.Visibility visibility) {
+            return onPositionObserverTick(visibility);
         }
 
         @Override
@@ -848,7 +880,7 @@ public class PlaybackService extends MediaBrowserServiceCompat {
                     if (!isCasting) {
                         stateManager.stopForeground(!UserPreferences.isPersistNotify());
                     }
-                    cancelPositionObserver();
+                    taskManager.cancelPositionObserver();
                     break;
                 case STOPPED:
                     //writePlaybackPreferencesNoMediaPlaying();
@@ -859,7 +891,7 @@ public class PlaybackService extends MediaBrowserServiceCompat {
                     saveCurrentPosition(true, null, Playable.INVALID_TIME);
                     recreateMediaSessionIfNeeded();
                     updateNotificationAndMediaSession(newInfo.getPlayable());
-                    setupPositionObserver();
+                    taskManager.startPositionObserver();
                     stateManager.validStartCommandWasReceived();
                     stateManager.startForeground(R.id.notification_playing, notificationBuilder.build());
                     // set sleep timer if auto-enabled
@@ -945,7 +977,7 @@ public class PlaybackService extends MediaBrowserServiceCompat {
         @Override
         public void onPlaybackPause(Playable playable, int position) {
             taskManager.cancelPositionSaver();
-            cancelPositionObserver();
+            taskManager.cancelPositionObserver();
             taskManager.cancelWidgetUpdater();
             if (playable instanceof FeedMedia) {
                 FeedMedia media = (FeedMedia) playable;
@@ -1082,7 +1114,7 @@ public class PlaybackService extends MediaBrowserServiceCompat {
         PlaybackPreferences.clearCurrentlyPlayingTemporaryPlaybackSettings();
         if (stopPlaying) {
             taskManager.cancelPositionSaver();
-            cancelPositionObserver();
+            taskManager.cancelPositionObserver();
             if (!isCasting) {
                 stateManager.stopForeground(true);
                 stateManager.stopService();
@@ -1231,6 +1263,26 @@ public class PlaybackService extends MediaBrowserServiceCompat {
         }
     }
 
+    /**
+     * Returns how long the position observer can wait without missing the moment at which
+     * {@link #skipEndingIfNecessary()} needs to skip.
+     */
+    private long getMillisUntilSkipEndingCheck() {
+        Playable playable = mediaPlayer.getPlayable();
+        if (!(playable instanceof FeedMedia) || ((FeedMedia) playable).getItem() == null
+                || ((FeedMedia) playable).getItem().getFeed() == null) {
+            return Long.MAX_VALUE;
+        }
+        int skipEnd = ((FeedMedia) playable).getItem().getFeed().getPreferences().getFeedSkipEnding();
+        float speed = getCurrentPlaybackSpeed();
+        long untilSkip = getDuration() - getCurrentPosition() - skipEnd * 1000L;
+        if (skipEnd <= 0 || speed <= 0 || untilSkip <= speed * 1000) {
+            return Long.MAX_VALUE;
+        }
+        // skipEndingIfNecessary only skips within the last second before the skip point, so aim for the middle of it
+        return (long) ((untilSkip - speed * 500) / speed);
+    }
+
     /**
      * Updates the Media Session for the corresponding status.
      *
@@ -1777,33 +1829,34 @@ public class PlaybackService extends MediaBrowserServiceCompat {
         return mediaPlayer.getVideoSize();
     }
 
-    private void setupPositionObserver() {
-        if (positionEventTimer != null) {
-            positionEventTimer.dispose();
+    private long onPositionObserverTick(PlaybackTickScheduler.Visibility visibility) {
+        int position = getCurrentPosition();
+        int duration = getDuration();
+        if (position != lastObservedPosition || duration != lastObservedDuration) {
+            lastObservedPosition = position;
+            lastObservedDuration = duration;
+            if (visibility == PlaybackTickScheduler.Visibility.UI_VISIBLE) {
+                EventBus.getDefault().post(new PlaybackPositionEvent(position, duration));
+            }
+            if (Build.VERSION.SDK_INT < 29 && visibility != PlaybackTickScheduler.Visibility.SCREEN_OFF) {
+                notificationBuilder.updatePosition(position, getCurrentPlaybackSpeed());
+                NotificationManager notificationManager = (NotificationManager)
+                        getSystemService(NOTIFICATION_SERVICE);
+                if (ContextCompat.checkSelfPermission(getApplicationContext(),
+                        Manifest.permission.POST_NOTIFICATIONS) == PackageManager.PERMISSION_GRANTED) {
+                    notificationManager.notify(R.id.notification_playing, notificationBuilder.build());
+                }
+            }
         }
-
-        Log.d(TAG, "Setting up position observer");
-        positionEventTimer = Observable.interval(1, TimeUnit.SECONDS)
-                .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(number -> {
-                    EventBus.getDefault().post(new PlaybackPositionEvent(getCurrentPosition(), getDuration()));
-                    if (Build.VERSION.SDK_INT < 29) {
-                        notificationBuilder.updatePosition(getCurrentPosition(), getCurrentPlaybackSpeed());
-                        NotificationManager notificationManager = (NotificationManager)
-                                getSystemService(NOTIFICATION_SERVICE);
-                        if (ContextCompat.checkSelfPermission(getApplicationContext(),
-                                Manifest.permission.POST_NOTIFICATIONS) == PackageManager.PERMISSION_GRANTED) {
-                            notificationManager.notify(R.id.notification_playing, notificationBuilder.build());
-                        }
-                    }
-                    skipEndingIfNecessary();
-                });
-    }
-
-    private void cancelPositionObserver() {
-        if (positionEventTimer != null) {
-            positionEventTimer.dispose();
+        skipEndingIfNecessary();
+        if (mediaPlayer instanceof LocalPSMP) {
+            nextEpisodePrefetcher.onPositionUpdate((LocalPSMP) mediaPlayer,
+                    mediaPlayer.getPlayable(), position, duration);
+        }
+        if (visibility == PlaybackTickScheduler.Visibility.SCREEN_OFF) {
+            return Math.min(POSITION_OBSERVER_SCREEN_OFF_INTERVAL, getMillisUntilSkipEndingCheck());
         }
+        return POSITION_OBSERVER_INTERVAL;
     }
 
     private void addPlayableToQueue(Playable playable) {
@@ -15,13 +15,10 @@ import androidx.core.util.Consumer;
 import androidx.media3.common.C;
 import androidx.media3.common.PlaybackException;
 import androidx.media3.common.util.UnstableApi;
-import androidx.media3.database.StandaloneDatabaseProvider;
 import androidx.media3.datasource.DataSource;
 import androidx.media3.datasource.DefaultDataSource;
-import androidx.media3.datasource.DefaultHttpDataSource;
 import androidx.media3.datasource.HttpDataSource;
 import androidx.media3.datasource.cache.CacheDataSource;
-import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
 import androidx.media3.datasource.cache.SimpleCache;
 import androidx.media3.exoplayer.DefaultLoadControl;
 import androidx.media3.exoplayer.DefaultRenderersFactory;
@@ -44,21 +41,18 @@ import androidx.media3.extractor.DefaultExtractorsFactory;
 import androidx.media3.extractor.mp3.Mp3Extractor;
 import androidx.media3.ui.DefaultTrackNameProvider;
 import androidx.media3.ui.TrackNameProvider;
-import de.danoeh.antennapod.net.common.UserAgentInterceptor;
 import de.danoeh.antennapod.model.feed.VolumeAdaptionSetting;
 import de.danoeh.antennapod.playback.service.R;
-import de.danoeh.antennapod.net.common.HttpCredentialEncoder;
 import de.danoeh.antennapod.net.common.NetworkUtils;
 import de.danoeh.antennapod.model.playback.Playable;
 import io.reactivex.Observable;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 @OptIn(markerClass = UnstableApi.class)
@@ -80,9 +74,16 @@ public class ExoPlayerWrapper {
     private SimpleCache simpleCache;
     @Nullable
     private LoudnessEnhancer loudnessEnhancer = null;
+    private final StreamPrefetcher prefetcher;
 
     ExoPlayerWrapper(Context context) {
         this.context = context;
+        prefetcher = new StreamPrefetcher(context, Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "StreamPrefetcher");
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        }));
+        simpleCache = StreamingCache.acquire(context);
         createPlayer();
         playbackParameters = exoPlayer.getPlaybackParameters();
         bufferingUpdateDisposable = Observable.interval(2, TimeUnit.SECONDS)
@@ -158,8 +159,6 @@ public class ExoPlayerWrapper {
                 initLoudnessEnhancer(audioSessionId);
             }
         });
-        simpleCache = new SimpleCache(new File(context.getCacheDir(), "streaming"),
-                new LeastRecentlyUsedCacheEvictor(100 * 1024 * 1024), new StandaloneDatabaseProvider(context));
         initLoudnessEnhancer(exoPlayer.getAudioSessionId());
     }
 
@@ -200,9 +199,10 @@ public class ExoPlayerWrapper {
         if (exoPlayer != null) {
             exoPlayer.release();
         }
+        prefetcher.shutdown();
         if (simpleCache != null) {
-            simpleCache.release();
             simpleCache = null;
+            StreamingCache.release();
         }
         audioSeekCompleteListener = null;
         audioCompletionListener = null;
@@ -212,10 +212,7 @@ public class ExoPlayerWrapper {
 
     public void reset() {
         exoPlayer.release();
-        if (simpleCache != null) {
-            simpleCache.release();
-            simpleCache = null;
-        }
+        cancelPrefetch();
         createPlayer();
     }
 
@@ -238,16 +235,7 @@ public class ExoPlayerWrapper {
     public void setDataSource(String s, String user, String password)
             throws IllegalArgumentException, IllegalStateException {
         Log.d(TAG, "setDataSource: " + s);
-        final DefaultHttpDataSource.Factory httpDataSourceFactory = new DefaultHttpDataSource.Factory();
-        httpDataSourceFactory.setUserAgent(UserAgentInterceptor.USER_AGENT);
-        httpDataSourceFactory.setAllowCrossProtocolRedirects(true);
-        httpDataSourceFactory.setKeepPostFor302Redirects(true);
-
-        if (!TextUtils.isEmpty(user) && !TextUtils.isEmpty(password)) {
-            final HashMap<String, String> requestProperties = new HashMap<>();
-            requestProperties.put("Authorization", HttpCredentialEncoder.encode(user, password, "ISO-8859-1"));
-            httpDataSourceFactory.setDefaultRequestProperties(requestProperties);
-        }
+        final HttpDataSource.Factory httpDataSourceFactory = StreamingDataSourceFactory.create(user, password);
         DataSource.Factory dataSourceFactory = new DefaultDataSource.Factory(context, httpDataSourceFactory);
         if (s.startsWith("http")) {
             dataSourceFactory = new CacheDataSource.Factory()
@@ -266,6 +254,23 @@ public class ExoPlayerWrapper {
         setDataSource(s, null, null);
     }
 
+    /**
+     * Downloads the first bytes of the given stream into the streaming cache in the background,
+     * so that the transition to that stream does not need to wait for the network.
+     * Only one prefetch runs at a time. A new call cancels the previous one.
+     */
+    public void prefetch(String url, String user, String password, long numBytes) {
+        if (simpleCache == null || TextUtils.isEmpty(url) || !url.startsWith("http") || numBytes <= 0) {
+            cancelPrefetch();
+            return;
+        }
+        prefetcher.prefetch(StreamingDataSourceFactory.create(user, password), url, numBytes);
+    }
+
+    public void cancelPrefetch() {
+        prefetcher.cancel();
+    }
+
     public void setDisplay(SurfaceHolder sh) {
         exoPlayer.setVideoSurfaceHolder(sh);
     }
@@ -608,6 +608,22 @@ public class LocalPSMP extends PlaybackServiceMediaPlayer {
         return mediaPlayer.getSelectedAudioTrack();
     }
 
+    /**
+     * Caches the beginning of the given stream so that playback can continue without buffering
+     * when the current episode ends.
+     */
+    public void prefetch(@NonNull FeedMedia nextMedia, long numBytes) {
+        ExoPlayerWrapper player = mediaPlayer;
+        if (player == null || nextMedia.getItem() == null || nextMedia.getItem().getFeed() == null) {
+            return;
+        }
+        FeedPreferences preferences = nextMedia.getItem().getFeed().getPreferences();
+        player.prefetch(nextMedia.getStreamUrl(),
+                preferences != null ? preferences.getUsername() : null,
+                preferences != null ? preferences.getPassword() : null,
+                numBytes);
+    }
+
     private void createMediaPlayer() {
         if (mediaPlayer != null) {
             mediaPlayer.release();
@@ -0,0 +1,102 @@
+package de.danoeh.antennapod.playback.service.internal;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import de.danoeh.antennapod.model.playback.Playable;
+import de.danoeh.antennapod.net.common.NetworkUtils;
+import de.danoeh.antennapod.storage.database.DBReader;
+import de.danoeh.antennapod.storage.preferences.UserPreferences;
+import io.reactivex.Maybe;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Near the end of the current episode, caches the first minutes of the next queue item
+ * so that continuous playback does not stall on a cold connection.
+ */
+public class NextEpisodePrefetcher {
+    private static final String TAG = "NextEpisodePrefetcher";
+    /**
+     * Remaining playback time in milliseconds at which the prefetch starts.
+     */
+    private static final int PREFETCH_THRESHOLD = 90 * 1000;
+    /**
+     * Upper bound of a single prefetch. The streaming cache itself is limited to 100 MB.
+     */
+    @VisibleForTesting
+    static final long MAX_PREFETCH_BYTES = 25L * 1024 * 1024;
+    /**
+     * Used if the size of the next episode is unknown. Roughly a 128 kbit/s stream.
+     */
+    private static final long FALLBACK_BYTES_PER_SECOND = 16 * 1024;
+
+    @Nullable
+    private String prefetchedAfter = null;
+    @Nullable
+    private Disposable disposable;
+
+    /**
+     * Called regularly while playing. Starts the prefetch once per episode when it comes close to its end.
+     */
+    public void onPositionUpdate(@NonNull LocalPSMP player, @Nullable Playable playable, int position, int duration) {
+        if (!(playable instanceof FeedMedia) || position < 0 || duration <= 0
+                || duration - position > PREFETCH_THRESHOLD) {
+            return;
+        }
+        FeedMedia media = (FeedMedia) playable;
+        String identifier = String.valueOf(media.getIdentifier());
+        if (identifier.equals(prefetchedAfter)) {
+            return;
+        }
+        prefetchedAfter = identifier;
+        int minutes = UserPreferences.getStreamPrefetchMinutes();
+        if (minutes <= 0 || !UserPreferences.isFollowQueue() || media.getItem() == null) {
+            return;
+        }
+        if (NetworkUtils.isNetworkRestricted()) {
+            Log.d(TAG, "Not prefetching on a metered or mobile connection");
+            return;
+        }
+
+        cancel();
+        final FeedItem currentItem = media.getItem();
+        disposable = Maybe.fromCallable(() -> DBReader.getNextInQueue(currentItem))
+                .subscribeOn(Schedulers.io())
+                .subscribe(nextItem -> {
+                    FeedMedia nextMedia = nextItem.getMedia();
+                    if (nextMedia == null || nextMedia.localFileAvailable()
+                            || nextItem.getFeed() == null || nextItem.getFeed().isLocalFeed()) {
+                        return;
+                    }
+                    player.prefetch(nextMedia, estimatePrefetchBytes(nextMedia, minutes));
+                }, error -> Log.e(TAG, Log.getStackTraceString(error)));
+    }
+
+    public void cancel() {
+        if (disposable != null) {
+            disposable.dispose();
+            disposable = null;
+        }
+    }
+
+    /**
+     * Estimates how many bytes make up the first minutes of the episode, capped to the prefetch budget.
+     */
+    @VisibleForTesting
+    static long estimatePrefetchBytes(@NonNull FeedMedia media, int minutes) {
+        long seconds = minutes * 60L;
+        long bytes;
+        if (media.getSize() > 0 && media.getDuration() > 0) {
+            bytes = media.getSize() * seconds * 1000 / media.getDuration();
+        } else {
+            bytes = FALLBACK_BYTES_PER_SECOND * seconds;
+        }
+        return Math.min(bytes, MAX_PREFETCH_BYTES);
+    }
+}
@@ -3,6 +3,7 @@ package de.danoeh.antennapod.playback.service.internal;
 import java.util.Date;
 
 import de.danoeh.antennapod.storage.database.DBWriter;
+import de.danoeh.antennapod.storage.database.PlaybackPositionJournal;
 import de.danoeh.antennapod.model.feed.FeedItem;
 import de.danoeh.antennapod.model.feed.FeedMedia;
 import de.danoeh.antennapod.model.playback.Playable;
@@ -18,6 +19,27 @@ public abstract class PlayableUtils {
      * @param timestamp  current time in ms
      */
     public static void saveCurrentPosition(Playable playable, int newPosition, long timestamp) {
+        updateCurrentPosition(playable, newPosition, timestamp);
+        if (playable instanceof FeedMedia) {
+            DBWriter.setFeedMediaPlaybackInformation((FeedMedia) playable);
+        }
+    }
+
+    /**
+     * Updates the current position of this object, but only writes it to the {@link PlaybackPositionJournal}.
+     * Used while playing, the database is updated when playback pauses.
+     *
+     * @param newPosition  new playback position in ms
+     * @param timestamp  current time in ms
+     */
+    public static void journalCurrentPosition(Playable playable, int newPosition, long timestamp) {
+        updateCurrentPosition(playable, newPosition, timestamp);
+        if (playable instanceof FeedMedia) {
+            PlaybackPositionJournal.write((FeedMedia) playable);
+        }
+    }
+
+    private static void updateCurrentPosition(Playable playable, int newPosition, long timestamp) {
         playable.setPosition(newPosition);
         playable.setLastPlayedTimeStatistics(timestamp);
 
@@ -32,7 +54,6 @@ public abstract class PlayableUtils {
                 media.setPlayedDuration(media.getPlayedDurationWhenStarted()
                         + playable.getPosition() - media.getStartPosition());
             }
-            DBWriter.setFeedMediaPlaybackInformation(media);
         }
     }
 }
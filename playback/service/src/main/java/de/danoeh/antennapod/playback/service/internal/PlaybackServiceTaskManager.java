@@ -1,8 +1,7 @@
 package de.danoeh.antennapod.playback.service.internal;
 
 import android.content.Context;
-import android.os.Handler;
-import android.os.Looper;
+import android.os.SystemClock;
 import android.os.Vibrator;
 import androidx.annotation.NonNull;
 import android.util.Log;
@@ -14,9 +13,8 @@ import de.danoeh.antennapod.ui.widget.WidgetUpdater;
 import io.reactivex.disposables.Disposable;
 import org.greenrobot.eventbus.EventBus;
 
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import de.danoeh.antennapod.model.playback.Playable;
 import io.reactivex.Completable;
@@ -26,9 +24,11 @@ import io.reactivex.schedulers.Schedulers;
 
 /**
  * Manages the background tasks of PlaybackSerivce, i.e.
- * the sleep timer, the position saver, the widget updater and
+ * the sleep timer, the position saver, the position observer, the widget updater and
  * the queue loader.
  * <p/>
+ * The periodic tasks share one {@link PlaybackTickScheduler}, so that they wake up the device together.
+ * <p/>
  * The PlaybackServiceTaskManager(PSTM) uses a callback object (PSTMCallback)
  * to notify the PlaybackService about updates from the running tasks.
  */
@@ -44,12 +44,18 @@ public class PlaybackServiceTaskManager {
      */
     public static final int WIDGET_UPDATER_NOTIFICATION_INTERVAL = 1000;
 
-    private static final int SCHED_EX_POOL_SIZE = 2;
-    private final ScheduledThreadPoolExecutor schedExecutor;
+    /**
+     * Delay of the tasks that only update the screen while the screen is off.
+     * The scheduler runs them right away when the screen is turned on again.
+     */
+    private static final long SCREEN_OFF_INTERVAL = 60000;
+
+    private final PlaybackTickScheduler tickScheduler;
+    private final ExecutorService widgetExecutor;
 
-    private ScheduledFuture<?> positionSaverFuture;
-    private ScheduledFuture<?> widgetUpdaterFuture;
-    private ScheduledFuture<?> sleepTimerFuture;
+    private final PlaybackTickScheduler.Task positionSaver;
+    private final PlaybackTickScheduler.Task positionObserver;
+    private final PlaybackTickScheduler.Task widgetUpdater;
     private volatile Disposable chapterLoaderFuture;
 
     private SleepTimer sleepTimer;
@@ -67,11 +73,24 @@ public class PlaybackServiceTaskManager {
                                       @NonNull PSTMCallback callback) {
         this.context = context;
         this.callback = callback;
-        schedExecutor = new ScheduledThreadPoolExecutor(SCHED_EX_POOL_SIZE, r -> {
+        tickScheduler = new PlaybackTickScheduler(context);
+        widgetExecutor = Executors.newSingleThreadExecutor(r -> {
             Thread t = new Thread(r);
             t.setPriority(Thread.MIN_PRIORITY);
             return t;
         });
+        positionSaver = visibility -> {
+            callback.positionSaverTick();
+            return POSITION_SAVER_WAITING_INTERVAL;
+        };
+        positionObserver = callback::positionObserverTick;
+        widgetUpdater = visibility -> {
+            if (visibility == PlaybackTickScheduler.Visibility.SCREEN_OFF) {
+                return SCREEN_OFF_INTERVAL;
+            }
+            requestWidgetUpdate();
+            return WIDGET_UPDATER_NOTIFICATION_INTERVAL;
+        };
     }
 
     /**
@@ -79,11 +98,7 @@ public class PlaybackServiceTaskManager {
      */
     public synchronized void startPositionSaver() {
         if (!isPositionSaverActive()) {
-            Runnable positionSaver = callback::positionSaverTick;
-            positionSaver = useMainThreadIfNecessary(positionSaver);
-            positionSaverFuture = schedExecutor.scheduleWithFixedDelay(positionSaver, POSITION_SAVER_WAITING_INTERVAL,
-                    POSITION_SAVER_WAITING_INTERVAL, TimeUnit.MILLISECONDS);
-
+            tickScheduler.schedule(positionSaver, POSITION_SAVER_WAITING_INTERVAL);
             Log.d(TAG, "Started PositionSaver");
         } else {
             Log.d(TAG, "Call to startPositionSaver was ignored.");
@@ -94,7 +109,7 @@ public class PlaybackServiceTaskManager {
      * Returns true if the position saver is currently running.
      */
     public synchronized boolean isPositionSaverActive() {
-        return positionSaverFuture != null && !positionSaverFuture.isCancelled() && !positionSaverFuture.isDone();
+        return tickScheduler.isScheduled(positionSaver);
     }
 
     /**
@@ -102,20 +117,43 @@ public class PlaybackServiceTaskManager {
      */
     public synchronized void cancelPositionSaver() {
         if (isPositionSaverActive()) {
-            positionSaverFuture.cancel(false);
+            tickScheduler.cancel(positionSaver);
             Log.d(TAG, "Cancelled PositionSaver");
         }
     }
 
+    /**
+     * Starts the position observer task, which runs {@link PSTMCallback#positionObserverTick} right away and then
+     * as often as the callback requests. If the position observer is already active, it is restarted.
+     */
+    public synchronized void startPositionObserver() {
+        tickScheduler.schedule(positionObserver, 0);
+        Log.d(TAG, "Started PositionObserver");
+    }
+
+    /**
+     * Returns true if the position observer is currently running.
+     */
+    public synchronized boolean isPositionObserverActive() {
+        return tickScheduler.isScheduled(positionObserver);
+    }
+
+    /**
+     * Cancels the position observer. If the position observer is not running, nothing will happen.
+     */
+    public synchronized void cancelPositionObserver() {
+        if (isPositionObserverActive()) {
+            tickScheduler.cancel(positionObserver);
+            Log.d(TAG, "Cancelled PositionObserver");
+        }
+    }
+
     /**
      * Starts the widget updater task. If the widget updater is already active, nothing will happen.
      */
     public synchronized void startWidgetUpdater() {
-        if (!isWidgetUpdaterActive() && !schedExecutor.isShutdown()) {
-            Runnable widgetUpdater = this::requestWidgetUpdate;
-            widgetUpdater = useMainThreadIfNecessary(widgetUpdater);
-            widgetUpdaterFuture = schedExecutor.scheduleWithFixedDelay(widgetUpdater,
-                    WIDGET_UPDATER_NOTIFICATION_INTERVAL, WIDGET_UPDATER_NOTIFICATION_INTERVAL, TimeUnit.MILLISECONDS);
+        if (!isWidgetUpdaterActive() && !widgetExecutor.isShutdown()) {
+            tickScheduler.schedule(widgetUpdater, WIDGET_UPDATER_NOTIFICATION_INTERVAL);
             Log.d(TAG, "Started WidgetUpdater");
         } else {
             Log.d(TAG, "Call to startWidgetUpdater was ignored.");
@@ -127,8 +165,8 @@ public class PlaybackServiceTaskManager {
      */
     public synchronized void requestWidgetUpdate() {
         WidgetUpdater.WidgetState state = callback.requestWidgetState();
-        if (!schedExecutor.isShutdown()) {
-            schedExecutor.execute(() -> WidgetUpdater.updateWidget(context, state));
+        if (!widgetExecutor.isShutdown()) {
+            widgetExecutor.execute(() -> WidgetUpdater.updateWidget(context, state));
         } else {
             Log.d(TAG, "Call to requestWidgetUpdate was ignored.");
         }
@@ -148,10 +186,10 @@ public class PlaybackServiceTaskManager {
 
         Log.d(TAG, "Setting sleep timer to " + waitingTime + " milliseconds");
         if (isSleepTimerActive()) {
-            sleepTimerFuture.cancel(true);
+            tickScheduler.cancel(sleepTimer);
         }
         sleepTimer = new SleepTimer(waitingTime);
-        sleepTimerFuture = schedExecutor.schedule(sleepTimer, 0, TimeUnit.MILLISECONDS);
+        tickScheduler.schedule(sleepTimer, 0);
         EventBus.getDefault().post(SleepTimerUpdatedEvent.justEnabled(waitingTime));
     }
 
@@ -160,9 +198,7 @@ public class PlaybackServiceTaskManager {
      */
     public synchronized boolean isSleepTimerActive() {
         return sleepTimer != null
-                && sleepTimerFuture != null
-                && !sleepTimerFuture.isCancelled()
-                && !sleepTimerFuture.isDone()
+                && tickScheduler.isScheduled(sleepTimer)
                 && sleepTimer.getWaitingTime() > 0;
     }
 
@@ -201,7 +237,7 @@ public class PlaybackServiceTaskManager {
      * Returns true if the widget updater is currently running.
      */
     public synchronized boolean isWidgetUpdaterActive() {
-        return widgetUpdaterFuture != null && !widgetUpdaterFuture.isCancelled() && !widgetUpdaterFuture.isDone();
+        return tickScheduler.isScheduled(widgetUpdater);
     }
 
     /**
@@ -209,7 +245,7 @@ public class PlaybackServiceTaskManager {
      */
     public synchronized void cancelWidgetUpdater() {
         if (isWidgetUpdaterActive()) {
-            widgetUpdaterFuture.cancel(false);
+            tickScheduler.cancel(widgetUpdater);
             Log.d(TAG, "Cancelled WidgetUpdater");
         }
     }
@@ -243,6 +279,7 @@ public class PlaybackServiceTaskManager {
      */
     public synchronized void cancelAllTasks() {
         cancelPositionSaver();
+        cancelPositionObserver();
         cancelWidgetUpdater();
         disableSleepTimer();
 
@@ -258,83 +295,69 @@ public class PlaybackServiceTaskManager {
      */
     public void shutdown() {
         cancelAllTasks();
-        schedExecutor.shutdownNow();
-    }
-
-    private Runnable useMainThreadIfNecessary(Runnable runnable) {
-        if (Looper.myLooper() == Looper.getMainLooper()) {
-            // Called in main thread => ExoPlayer is used
-            // Run on ui thread even if called from schedExecutor
-            Handler handler = new Handler(Looper.getMainLooper());
-            return () -> handler.post(runnable);
-        } else {
-            return runnable;
-        }
+        tickScheduler.shutdown();
+        widgetExecutor.shutdownNow();
     }
 
     /**
-     * Sleeps for a given time and then pauses playback.
+     * Counts down the given time and then pauses playback.
+     * Ticks every second while the remaining time is shown or the volume is faded out, and less often otherwise.
      */
-    public class SleepTimer implements Runnable {
+    public class SleepTimer implements PlaybackTickScheduler.Task {
         private static final String TAG = "SleepTimer";
         private static final long UPDATE_INTERVAL = 1000L;
+        private static final long SCREEN_ON_INTERVAL = 5000L;
         public static final long NOTIFICATION_THRESHOLD = 10000;
         private boolean hasVibrated = false;
         private final long waitingTime;
-        private long timeLeft;
+        private final long endTime;
         private ShakeListener shakeListener;
 
         public SleepTimer(long waitingTime) {
             super();
             this.waitingTime = waitingTime;
-            this.timeLeft = waitingTime;
+            this.endTime = SystemClock.elapsedRealtime() + waitingTime;
         }
 
         @Override
-        public void run() {
-            Log.d(TAG, "Starting");
-            long lastTick = System.currentTimeMillis();
-            EventBus.getDefault().post(SleepTimerUpdatedEvent.updated(timeLeft));
-            while (timeLeft > 0) {
-                try {
-                    Thread.sleep(UPDATE_INTERVAL);
-                } catch (InterruptedException e) {
-                    Log.d(TAG, "Thread was interrupted while waiting");
-                    e.printStackTrace();
-                    break;
+        public long run(@NonNull PlaybackTickScheduler.Visibility visibility) {
+            long timeLeft = getWaitingTime();
+            if (timeLeft > NOTIFICATION_THRESHOLD) {
+                if (visibility == PlaybackTickScheduler.Visibility.UI_VISIBLE) {
+                    EventBus.getDefault().post(SleepTimerUpdatedEvent.updated(timeLeft));
+                    return UPDATE_INTERVAL;
+                } else if (visibility == PlaybackTickScheduler.Visibility.SCREEN_ON) {
+                    return Math.min(timeLeft - NOTIFICATION_THRESHOLD, SCREEN_ON_INTERVAL);
                 }
+                return timeLeft - NOTIFICATION_THRESHOLD;
+            }
 
-                long now = System.currentTimeMillis();
-                timeLeft -= now - lastTick;
-                lastTick = now;
-
-                EventBus.getDefault().post(SleepTimerUpdatedEvent.updated(timeLeft));
-                if (timeLeft < NOTIFICATION_THRESHOLD) {
-                    Log.d(TAG, "Sleep timer is about to expire");
-                    if (SleepTimerPreferences.vibrate() && !hasVibrated) {
-                        Vibrator v = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
-                        if (v != null) {
-                            v.vibrate(500);
-                            hasVibrated = true;
-                        }
-                    }
-                    if (shakeListener == null && SleepTimerPreferences.shakeToReset()) {
-                        shakeListener = new ShakeListener(context, this);
-                    }
+            EventBus.getDefault().post(SleepTimerUpdatedEvent.updated(timeLeft));
+            if (timeLeft <= 0) {
+                Log.d(TAG, "Sleep timer expired");
+                if (shakeListener != null) {
+                    shakeListener.pause();
+                    shakeListener = null;
                 }
-                if (timeLeft <= 0) {
-                    Log.d(TAG, "Sleep timer expired");
-                    if (shakeListener != null) {
-                        shakeListener.pause();
-                        shakeListener = null;
-                    }
-                    hasVibrated = false;
+                hasVibrated = false;
+                return PlaybackTickScheduler.STOP;
+            }
+            Log.d(TAG, "Sleep timer is about to expire");
+            if (SleepTimerPreferences.vibrate() && !hasVibrated) {
+                Vibrator v = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
+                if (v != null) {
+                    v.vibrate(500);
+                    hasVibrated = true;
                 }
             }
+            if (shakeListener == null && SleepTimerPreferences.shakeToReset()) {
+                shakeListener = new ShakeListener(context, this);
+            }
+            return Math.min(UPDATE_INTERVAL, timeLeft); // The tick at the end time posts the final event
         }
 
         public long getWaitingTime() {
-            return timeLeft;
+            return endTime - SystemClock.elapsedRealtime();
         }
 
         public void restart() {
@@ -347,7 +370,7 @@ public class PlaybackServiceTaskManager {
         }
 
         public void cancel() {
-            sleepTimerFuture.cancel(true);
+            tickScheduler.cancel(this);
             if (shakeListener != null) {
                 shakeListener.pause();
             }
@@ -358,6 +381,11 @@ public class PlaybackServiceTaskManager {
     public interface PSTMCallback {
         void positionSaverTick();
 
+        /**
+         * @return Milliseconds until the next tick.
+         */
+        long positionObserverTick(PlaybackTickScheduler.Visibility visibility);
+
         WidgetUpdater.WidgetState requestWidgetState();
 
         void onChapterLoaded(Playable media);
@@ -0,0 +1,187 @@
+package de.danoeh.antennapod.playback.service.internal;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import de.danoeh.antennapod.event.playback.PlaybackPositionEvent;
+import org.greenrobot.eventbus.EventBus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the periodic tasks of the playback service from a single timer on the main thread.
+ * Instead of using a fixed rate, every task returns when it wants to run next. When the timer fires,
+ * all tasks that are due within {@link #ALIGNMENT_WINDOW} run together, so the device wakes up once for all of them.
+ * Tasks get the current {@link Visibility} and can run less often when nobody is looking.
+ */
+public class PlaybackTickScheduler {
+    private static final String TAG = "PlaybackTickScheduler";
+
+    /**
+     * Tasks that are due within this time are run early, together with the task that woke up the timer.
+     */
+    static final long ALIGNMENT_WINDOW = 500;
+    /**
+     * Returned by a task that does not want to run again.
+     */
+    public static final long STOP = -1;
+
+    public enum Visibility {
+        /**
+         * A screen of the app that displays the playback position is shown.
+         */
+        UI_VISIBLE,
+        /**
+         * The screen is on, but only the notification, lock screen or widget might be visible.
+         */
+        SCREEN_ON,
+        SCREEN_OFF
+    }
+
+    public interface Task {
+        /**
+         * Runs the task on the main thread.
+         *
+         * @return Milliseconds until the task wants to run again, or {@link #STOP}.
+         */
+        long run(@NonNull Visibility visibility);
+    }
+
+    private final Context context;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable tickRunnable = this::tick;
+    /**
+     * Uptime at which each scheduled task wants to run next.
+     */
+    private final Map<Task, Long> deadlines = new HashMap<>();
+    private Visibility lastVisibility = null;
+    private boolean isShutdown = false;
+    private int wakeups = 0;
+
+    private final BroadcastReceiver screenStateReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            Log.d(TAG, "Screen state changed: " + intent.getAction());
+            runAllNow();
+        }
+    };
+
+    public PlaybackTickScheduler(@NonNull Context context) {
+        this.context = context.getApplicationContext();
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        this.context.registerReceiver(screenStateReceiver, filter);
+    }
+
+    /**
+     * Runs the task after the given delay. If the task is already scheduled, its deadline is replaced.
+     */
+    public synchronized void schedule(@NonNull Task task, long delayMillis) {
+        if (isShutdown) {
+            Log.d(TAG, "Call to schedule was ignored.");
+            return;
+        }
+        deadlines.put(task, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+        rescheduleTimer();
+    }
+
+    public synchronized void cancel(@NonNull Task task) {
+        if (deadlines.remove(task) != null) {
+            rescheduleTimer();
+        }
+    }
+
+    public synchronized boolean isScheduled(@NonNull Task task) {
+        return deadlines.containsKey(task);
+    }
+
+    /**
+     * Cancels all tasks. The scheduler must not be used afterwards.
+     */
+    public synchronized void shutdown() {
+        if (isShutdown) {
+            return;
+        }
+        isShutdown = true;
+        deadlines.clear();
+        handler.removeCallbacks(tickRunnable);
+        context.unregisterReceiver(screenStateReceiver);
+        Log.d(TAG, "Shut down after " + wakeups + " wakeups");
+    }
+
+    private synchronized void runAllNow() {
+        long now = SystemClock.uptimeMillis();
+        for (Map.Entry<Task, Long> entry : deadlines.entrySet()) {
+            entry.setValue(now);
+        }
+        rescheduleTimer();
+    }
+
+    private void rescheduleTimer() {
+        handler.removeCallbacks(tickRunnable);
+        long next = Long.MAX_VALUE;
+        for (long deadline : deadlines.values()) {
+            next = Math.min(next, deadline);
+        }
+        if (next != Long.MAX_VALUE) {
+            handler.postAtTime(tickRunnable, next);
+        }
+    }
+
+    private void tick() {
+        List<Task> dueTasks = new ArrayList<>();
+        Visibility visibility = getVisibility();
+        synchronized (this) {
+            wakeups++;
+            long now = SystemClock.uptimeMillis();
+            boolean visibilityChanged = lastVisibility != null && visibility != lastVisibility;
+            lastVisibility = visibility;
+            for (Map.Entry<Task, Long> entry : deadlines.entrySet()) {
+                // When the visibility changes, tasks might want to run more often than they planned before
+                if (visibilityChanged || entry.getValue() <= now + ALIGNMENT_WINDOW) {
+                    dueTasks.add(entry.getKey());
+                }
+            }
+        }
+        for (Task task : dueTasks) {
+            long delay = task.run(visibility);
+            synchronized (this) {
+                if (!deadlines.containsKey(task)) {
+                    continue; // Cancelled while running
+                }
+                if (delay == STOP) {
+                    deadlines.remove(task);
+                } else {
+                    deadlines.put(task, SystemClock.uptimeMillis() + Math.max(0, delay));
+                }
+            }
+        }
+        synchronized (this) {
+            rescheduleTimer();
+        }
+    }
+
+    private Visibility getVisibility() {
+        if (EventBus.getDefault().hasSubscriberForEvent(PlaybackPositionEvent.class)) {
+            return Visibility.UI_VISIBLE;
+        }
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        if (powerManager == null || powerManager.isInteractive()) {
+            return Visibility.SCREEN_ON;
+        }
+        return Visibility.SCREEN_OFF;
+    }
+}
@@ -0,0 +1,82 @@
+package de.danoeh.antennapod.playback.service.internal;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.CacheWriter;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Writes the beginning of streams into the {@link StreamingCache} on a background thread.
+ * Only one prefetch runs at a time. A new call cancels the previous one.
+ * Every prefetch holds its own reference to the cache, so cancelling does not need to wait for the writer.
+ */
+@OptIn(markerClass = UnstableApi.class)
+class StreamPrefetcher {
+    private static final String TAG = "StreamPrefetcher";
+
+    private final Context context;
+    private final ExecutorService executor;
+    @Nullable
+    private CacheWriter writer;
+
+    StreamPrefetcher(Context context, ExecutorService executor) {
+        this.context = context;
+        this.executor = executor;
+    }
+
+    synchronized void prefetch(DataSource.Factory upstreamFactory, String url, long numBytes) {
+        cancel();
+        Log.d(TAG, "prefetch: " + numBytes + " bytes of " + url);
+        CacheDataSource dataSource = new CacheDataSource.Factory()
+                .setCache(StreamingCache.acquire(context))
+                .setUpstreamDataSourceFactory(upstreamFactory)
+                .createDataSource();
+        DataSpec dataSpec = new DataSpec.Builder()
+                .setUri(Uri.parse(url))
+                .setLength(numBytes)
+                .build();
+        final CacheWriter cacheWriter = new CacheWriter(dataSource, dataSpec, null, null);
+        try {
+            executor.execute(() -> {
+                try {
+                    cacheWriter.cache();
+                    Log.d(TAG, "prefetch finished: " + url);
+                } catch (IOException e) {
+                    Log.d(TAG, "prefetch failed: " + e.getMessage());
+                } finally {
+                    StreamingCache.release();
+                }
+            });
+            writer = cacheWriter;
+        } catch (RejectedExecutionException e) {
+            StreamingCache.release();
+        }
+    }
+
+    /**
+     * Stops the running prefetch without waiting for it.
+     * The prefetch releases its reference to the cache when the writer notices.
+     */
+    synchronized void cancel() {
+        if (writer != null) {
+            writer.cancel();
+            writer = null;
+        }
+    }
+
+    synchronized void shutdown() {
+        cancel();
+        executor.shutdown();
+    }
+}
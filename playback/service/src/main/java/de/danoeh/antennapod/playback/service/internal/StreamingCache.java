@@ -0,0 +1,51 @@
+package de.danoeh.antennapod.playback.service.internal;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
+import androidx.media3.datasource.cache.SimpleCache;
+
+import java.io.File;
+
+/**
+ * The cache that streams are played from. Only one {@link SimpleCache} may use the folder at a time,
+ * so the player and running prefetches share one instance. It is released when the last of them is done.
+ */
+@OptIn(markerClass = UnstableApi.class)
+final class StreamingCache {
+    private static final long MAX_SIZE = 100 * 1024 * 1024;
+
+    private static SimpleCache cache = null;
+    private static int numUsers = 0;
+
+    private StreamingCache() {
+    }
+
+    @NonNull
+    static synchronized SimpleCache acquire(Context context) {
+        if (cache == null) {
+            cache = new SimpleCache(new File(context.getCacheDir(), "streaming"),
+                    new LeastRecentlyUsedCacheEvictor(MAX_SIZE), new StandaloneDatabaseProvider(context));
+        }
+        numUsers++;
+        return cache;
+    }
+
+    /**
+     * Must be called exactly once for every call to {@link #acquire}.
+     */
+    static synchronized void release() {
+        if (numUsers == 0) {
+            return;
+        }
+        numUsers--;
+        if (numUsers == 0) {
+            cache.release();
+            cache = null;
+        }
+    }
+}
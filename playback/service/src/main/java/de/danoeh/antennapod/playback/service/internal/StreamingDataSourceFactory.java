@@ -0,0 +1,48 @@
+package de.danoeh.antennapod.playback.service.internal;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.HttpDataSource;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
+
+import de.danoeh.antennapod.net.common.AntennapodHttpClient;
+import de.danoeh.antennapod.net.common.HttpCredentialEncoder;
+import de.danoeh.antennapod.net.common.UserAgentInterceptor;
+import okhttp3.OkHttpClient;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates HTTP data sources for streaming that are backed by the shared {@link AntennapodHttpClient}.
+ * This way, streams re-use its connection pool, cookies and proxy settings instead of
+ * opening a fresh connection for every episode.
+ */
+@OptIn(markerClass = UnstableApi.class)
+class StreamingDataSourceFactory {
+
+    private StreamingDataSourceFactory() {
+
+    }
+
+    @NonNull
+    static HttpDataSource.Factory create(@Nullable String user, @Nullable String password) {
+        // Media is cached by ExoPlayer itself. Keep it out of the small HTTP cache used for feeds and images.
+        // Clients created from the same builder share the connection pool, dispatcher and cookie jar.
+        OkHttpClient client = AntennapodHttpClient.getHttpClient().newBuilder()
+                .cache(null)
+                .build();
+        OkHttpDataSource.Factory factory = new OkHttpDataSource.Factory(client);
+        factory.setUserAgent(UserAgentInterceptor.USER_AGENT);
+        if (!TextUtils.isEmpty(user) && !TextUtils.isEmpty(password)) {
+            Map<String, String> requestProperties = new HashMap<>();
+            requestProperties.put("Authorization", HttpCredentialEncoder.encode(user, password, "ISO-8859-1"));
+            factory.setDefaultRequestProperties(requestProperties);
+        }
+        return factory;
+    }
+}
@@ -0,0 +1,38 @@
+package de.danoeh.antennapod.playback.service.internal;
+
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NextEpisodePrefetcherTest {
+
+    @Test
+    public void testEstimateFromSizeAndDuration() {
+        // 60 MB for one hour -> 1 MB per minute
+        FeedMedia media = mockMedia(60L * 1024 * 1024, 60 * 60 * 1000);
+        assertEquals(5L * 1024 * 1024, NextEpisodePrefetcher.estimatePrefetchBytes(media, 5));
+    }
+
+    @Test
+    public void testEstimateWithUnknownSize() {
+        FeedMedia media = mockMedia(0, 60 * 60 * 1000);
+        assertEquals(2 * 60 * 16 * 1024, NextEpisodePrefetcher.estimatePrefetchBytes(media, 2));
+    }
+
+    @Test
+    public void testEstimateIsCapped() {
+        // Very high bitrate video
+        FeedMedia media = mockMedia(2000L * 1024 * 1024, 10 * 60 * 1000);
+        assertEquals(NextEpisodePrefetcher.MAX_PREFETCH_BYTES, NextEpisodePrefetcher.estimatePrefetchBytes(media, 10));
+    }
+
+    private static FeedMedia mockMedia(long size, int duration) {
+        FeedMedia media = mock(FeedMedia.class);
+        when(media.getSize()).thenReturn(size);
+        when(media.getDuration()).thenReturn(duration);
+        return media;
+    }
+}
@@ -0,0 +1,83 @@
+package de.danoeh.antennapod.playback.service.internal;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import de.danoeh.antennapod.event.playback.SleepTimerUpdatedEvent;
+import de.danoeh.antennapod.storage.preferences.SleepTimerPreferences;
+import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.Subscribe;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RobolectricTestRunner.class)
+public class SleepTimerTest {
+    private PlaybackServiceTaskManager taskManager;
+    private List<SleepTimerUpdatedEvent> events;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        SleepTimerPreferences.init(context);
+        events = new ArrayList<>();
+        EventBus.getDefault().register(this);
+        taskManager = new PlaybackServiceTaskManager(context, mock(PlaybackServiceTaskManager.PSTMCallback.class));
+    }
+
+    @After
+    public void tearDown() {
+        taskManager.shutdown();
+        EventBus.getDefault().unregister(this);
+    }
+
+    @Subscribe
+    public void onSleepTimerUpdate(SleepTimerUpdatedEvent event) {
+        events.add(event);
+    }
+
+    @Test
+    public void testExpiresOnceWhenTickIsExactlyAtEnd() {
+        taskManager.setSleepTimer(2000);
+        ShadowLooper.idleMainLooper(10, TimeUnit.SECONDS);
+
+        assertEquals(1, countExpiredEvents());
+        assertEquals(0, events.get(events.size() - 1).getTimeLeft());
+        assertFalse(taskManager.isSleepTimerActive());
+    }
+
+    @Test
+    public void testExpiresOnceWhenTickIsLate() {
+        taskManager.setSleepTimer(2000);
+        ShadowLooper.idleMainLooper();
+        // The device was asleep and the next tick runs after the end time
+        ShadowSystemClock.advanceBy(Duration.ofMillis(2300));
+        ShadowLooper.idleMainLooper(10, TimeUnit.SECONDS);
+
+        assertEquals(1, countExpiredEvents());
+        assertFalse(taskManager.isSleepTimerActive());
+    }
+
+    private int countExpiredEvents() {
+        int count = 0;
+        for (SleepTimerUpdatedEvent event : events) {
+            if (event.isOver()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
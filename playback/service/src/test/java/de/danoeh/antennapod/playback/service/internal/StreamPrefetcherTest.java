@@ -0,0 +1,113 @@
+package de.danoeh.antennapod.playback.service.internal;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
+import androidx.media3.datasource.cache.SimpleCache;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class StreamPrefetcherTest {
+    private static final String URL = "https://example.com/episode.mp3";
+
+    private Context context;
+    private ExecutorService executor;
+    private StreamPrefetcher prefetcher;
+    private CountDownLatch upstreamOpened;
+    private CountDownLatch upstreamUnblocked;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        executor = Executors.newSingleThreadExecutor();
+        prefetcher = new StreamPrefetcher(context, executor);
+        upstreamOpened = new CountDownLatch(1);
+        upstreamUnblocked = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        upstreamUnblocked.countDown();
+        prefetcher.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test(timeout = 5000)
+    public void testCancelDoesNotWaitForWriter() throws Exception {
+        prefetcher.prefetch(BlockingDataSource::new, URL, 1000);
+        assertTrue(upstreamOpened.await(5, TimeUnit.SECONDS));
+        // The upstream stays blocked, so this would not return if cancelling waited for the writer
+        prefetcher.cancel();
+    }
+
+    @Test
+    public void testCacheIsReleasedWhenPrefetchFinishes() throws Exception {
+        SimpleCache playerCache = StreamingCache.acquire(context);
+        prefetcher.prefetch(BlockingDataSource::new, URL, 1000);
+        assertTrue(upstreamOpened.await(5, TimeUnit.SECONDS));
+
+        // The player is released while the prefetch still writes
+        prefetcher.shutdown();
+        StreamingCache.release();
+        assertSame(playerCache, StreamingCache.acquire(context));
+        StreamingCache.release();
+
+        upstreamUnblocked.countDown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        SimpleCache newCache = StreamingCache.acquire(context);
+        assertNotSame(playerCache, newCache);
+        StreamingCache.release();
+    }
+
+    private class BlockingDataSource implements DataSource {
+        @Override
+        public void addTransferListener(@NonNull TransferListener transferListener) {
+        }
+
+        @Override
+        public long open(@NonNull DataSpec dataSpec) throws IOException {
+            upstreamOpened.countDown();
+            try {
+                upstreamUnblocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Connection closed");
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int length) {
+            return 0;
+        }
+
+        @Nullable
+        @Override
+        public Uri getUri() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
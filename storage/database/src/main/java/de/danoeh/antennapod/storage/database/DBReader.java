@@ -7,6 +7,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.collection.ArrayMap;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -29,6 +30,7 @@ import de.danoeh.antennapod.storage.database.mapper.ChapterCursor;
 import de.danoeh.antennapod.storage.database.mapper.DownloadResultCursor;
 import de.danoeh.antennapod.storage.database.mapper.FeedCursor;
 import de.danoeh.antennapod.storage.database.mapper.FeedItemCursor;
+import de.danoeh.antennapod.storage.database.mapper.FeedItemSortQuery;
 
 /**
  * Provides methods for reading data from the AntennaPod database.
@@ -44,6 +46,12 @@ public final class DBReader {
      */
     private static final int DOWNLOAD_LOG_SIZE = 200;
 
+    /**
+     * Receives rows one by one, so that large results do not need to be kept in memory at the same time.
+     */
+    public interface RowVisitor<T> {
+        void visit(T row) throws IOException;
+    }
 
     private DBReader() {
     }
@@ -235,6 +243,54 @@ public final class DBReader {
         }
     }
 
+    /**
+     * Calls the visitor for each subscribed feed, sorted by title. To keep exports of large libraries small in memory,
+     * the feeds only contain their title, link, download URL, image URL and type.
+     */
+    public static void forEachSubscription(RowVisitor<Feed> visitor) throws IOException {
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try (Cursor cursor = adapter.getSubscriptionsExportCursor()) {
+            while (cursor.moveToNext()) {
+                visitor.visit(new Feed(cursor.getLong(0), null, cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3), null, null, null, null, cursor.getString(6), null,
+                        cursor.getString(5), null, cursor.getString(4), 0, false, null, null, null, false,
+                        Feed.STATE_SUBSCRIBED));
+            }
+        } finally {
+            adapter.close();
+        }
+    }
+
+    /**
+     * Calls the visitor for each favorite episode, grouped by feed and sorted from new to old within a feed.
+     * Episodes of the same feed share one {@link Feed} object. The episodes only contain their title, link and
+     * media URL. Their feeds contain the same attributes as in {@link #forEachSubscription}, except the type.
+     */
+    public static void forEachFavorite(RowVisitor<FeedItem> visitor) throws IOException {
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try (Cursor cursor = adapter.getFavoritesExportCursor()) {
+            Feed feed = null;
+            while (cursor.moveToNext()) {
+                long feedId = cursor.getLong(0);
+                if (feed == null || feed.getId() != feedId) {
+                    feed = new Feed(feedId, null, cursor.getString(1), cursor.getString(2), cursor.getString(3),
+                            null, null, null, null, null, null, cursor.getString(5), null, cursor.getString(4),
+                            0, false, null, null, null, false, Feed.STATE_SUBSCRIBED);
+                }
+                FeedItem item = new FeedItem(0, cursor.getString(6), null, cursor.getString(7), null,
+                        FeedItem.UNPLAYED, feed);
+                if (!cursor.isNull(8)) {
+                    item.setMedia(new FeedMedia(item, cursor.getString(8), 0, null));
+                }
+                visitor.visit(item);
+            }
+        } finally {
+            adapter.close();
+        }
+    }
+
     /**
      *
      * @param offset The first episode that should be loaded.
@@ -255,6 +311,63 @@ public final class DBReader {
         }
     }
 
+    /**
+     * Loads the page of episodes that follows the given item. If the sort order allows it, the page is looked up
+     * relative to the last item instead of skipping over all previous items, so that deep pages are as cheap
+     * as the first one.
+     *
+     * @param lastItem The last item of the previous page, or null to use the offset.
+     * @param offset The number of items on the previous pages. Only used if the sort order does not support
+     *               looking up pages relative to the last item.
+     */
+    @NonNull
+    public static List<FeedItem> getEpisodesAfter(@Nullable FeedItem lastItem, int offset, int limit,
+                                                  FeedItemFilter filter, SortOrder sortOrder) {
+        if (lastItem == null || !FeedItemSortQuery.supportsKeyset(sortOrder) || lastItem.getPubDate() == null) {
+            return getEpisodes(offset, limit, filter, sortOrder);
+        }
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try (FeedItemCursor cursor = new FeedItemCursor(
+                adapter.getEpisodesAfterCursor(lastItem, limit, filter, sortOrder))) {
+            List<FeedItem> items = extractItemlistFromCursor(cursor);
+            loadAdditionalFeedItemListData(items);
+            return items;
+        } finally {
+            adapter.close();
+        }
+    }
+
+    /**
+     * Reloads the displayed episodes, which are all episodes up to and including the last displayed item. Unlike
+     * reloading a fixed number of episodes, this neither drops displayed items when episodes are added before them
+     * nor skips over them with an offset. If there are fewer than minCount such episodes, for example because
+     * some were removed, the following episodes are added.
+     *
+     * @param lastItem The last displayed item, or null to load the first minCount episodes.
+     */
+    @NonNull
+    public static List<FeedItem> getEpisodesUpTo(@Nullable FeedItem lastItem, int minCount,
+                                                 FeedItemFilter filter, SortOrder sortOrder) {
+        if (lastItem == null || !FeedItemSortQuery.supportsKeyset(sortOrder) || lastItem.getPubDate() == null) {
+            return getEpisodes(0, minCount, filter, sortOrder);
+        }
+        List<FeedItem> items;
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try (FeedItemCursor cursor = new FeedItemCursor(adapter.getEpisodesUpToCursor(lastItem, filter, sortOrder))) {
+            items = extractItemlistFromCursor(cursor);
+            loadAdditionalFeedItemListData(items);
+        } finally {
+            adapter.close();
+        }
+        if (items.size() < minCount) {
+            FeedItem last = items.isEmpty() ? null : items.get(items.size() - 1);
+            items.addAll(getEpisodesAfter(last, items.size(), minCount - items.size(), filter, sortOrder));
+        }
+        return items;
+    }
+
     public static int getTotalEpisodeCount(FeedItemFilter filter) {
         PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
@@ -339,6 +452,79 @@ public final class DBReader {
         }
     }
 
+    /**
+     * Loads the page of items of a feed that follows the given item, using the filter and sort order of the feed.
+     * The item list of the feed object is not modified.
+     *
+     * @param lastItem The last item of the previous page, or null to use the offset.
+     * @param offset The number of items on the previous pages. Only used if the sort order does not support
+     *               looking up pages relative to the last item.
+     * @see #getEpisodesAfter
+     */
+    @NonNull
+    public static List<FeedItem> getFeedItemsAfter(@NonNull Feed feed, boolean filtered,
+                                                   @Nullable FeedItem lastItem, int offset, int limit) {
+        FeedItemFilter filter = (filtered && feed.getItemFilter() != null)
+                ? feed.getItemFilter() : FeedItemFilter.unfiltered();
+        filter = new FeedItemFilter(filter, FeedItemFilter.INCLUDE_NOT_SUBSCRIBED);
+        SortOrder sortOrder = feed.getSortOrder();
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        Cursor rawCursor;
+        if (lastItem == null || !FeedItemSortQuery.supportsKeyset(sortOrder) || lastItem.getPubDate() == null) {
+            rawCursor = adapter.getItemsOfFeedCursor(feed, filter, sortOrder, offset, limit);
+        } else {
+            rawCursor = adapter.getItemsOfFeedAfterCursor(feed, filter, sortOrder, lastItem, limit);
+        }
+        try (FeedItemCursor cursor = new FeedItemCursor(rawCursor)) {
+            List<FeedItem> items = extractItemlistFromCursor(cursor);
+            for (FeedItem item : items) {
+                item.setFeed(feed);
+            }
+            loadTagsOfFeedItemList(items);
+            return items;
+        } finally {
+            adapter.close();
+        }
+    }
+
+    /**
+     * Reloads the displayed items of a feed, using the filter and sort order of the feed.
+     * The item list of the feed object is not modified.
+     *
+     * @param lastItem The last displayed item, or null to load the first minCount items.
+     * @see #getEpisodesUpTo
+     */
+    @NonNull
+    public static List<FeedItem> getFeedItemsUpTo(@NonNull Feed feed, boolean filtered,
+                                                  @Nullable FeedItem lastItem, int minCount) {
+        SortOrder sortOrder = feed.getSortOrder();
+        if (lastItem == null || !FeedItemSortQuery.supportsKeyset(sortOrder) || lastItem.getPubDate() == null) {
+            return getFeedItemsAfter(feed, filtered, null, 0, minCount);
+        }
+        FeedItemFilter filter = (filtered && feed.getItemFilter() != null)
+                ? feed.getItemFilter() : FeedItemFilter.unfiltered();
+        filter = new FeedItemFilter(filter, FeedItemFilter.INCLUDE_NOT_SUBSCRIBED);
+        List<FeedItem> items;
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try (FeedItemCursor cursor = new FeedItemCursor(
+                adapter.getItemsOfFeedUpToCursor(feed, filter, sortOrder, lastItem))) {
+            items = extractItemlistFromCursor(cursor);
+            for (FeedItem item : items) {
+                item.setFeed(feed);
+            }
+            loadTagsOfFeedItemList(items);
+        } finally {
+            adapter.close();
+        }
+        if (items.size() < minCount) {
+            FeedItem last = items.isEmpty() ? null : items.get(items.size() - 1);
+            items.addAll(getFeedItemsAfter(feed, filtered, last, items.size(), minCount - items.size()));
+        }
+        return items;
+    }
+
     /**
      * Loads a specific Feed from the database.
      *
@@ -461,6 +647,50 @@ public final class DBReader {
         }
     }
 
+    /**
+     * Loads all FeedItems that have one of the guids or whose media has one of the episode URLs.
+     * Matching is done in a few queries instead of one query per item.
+     *
+     * @return The matching FeedItems in no particular order.
+     *          Does NOT load additional attributes like feed or queue state.
+     */
+    @NonNull
+    public static List<FeedItem> getFeedItemsByGuidsOrEpisodeUrls(@NonNull List<String> guids,
+                                                                  @NonNull List<String> episodeUrls) {
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try {
+            List<FeedItem> result = new ArrayList<>();
+            int chunkSize = PodDBAdapter.IN_OPERATOR_MAXIMUM;
+            for (int i = 0; i < Math.max(guids.size(), episodeUrls.size()); i += chunkSize) {
+                List<String> guidChunk = guids.subList(Math.min(i, guids.size()),
+                        Math.min(i + chunkSize, guids.size()));
+                List<String> urlChunk = episodeUrls.subList(Math.min(i, episodeUrls.size()),
+                        Math.min(i + chunkSize, episodeUrls.size()));
+                try (FeedItemCursor cursor = new FeedItemCursor(
+                        adapter.getFeedItemCursorByGuidsOrEpisodeUrls(guidChunk, urlChunk))) {
+                    result.addAll(extractItemlistFromCursor(cursor));
+                }
+            }
+            return result;
+        } finally {
+            adapter.close();
+        }
+    }
+
+    /**
+     * Returns true if there are feeds that should be kept updated but were never refreshed.
+     */
+    public static boolean hasNeverRefreshedFeeds() {
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try {
+            return adapter.getNeverRefreshedFeedCount() > 0;
+        } finally {
+            adapter.close();
+        }
+    }
+
     /**
      * Loads shownotes information about a FeedItem.
      *
@@ -574,25 +804,12 @@ public final class DBReader {
         }
     }
 
+    /**
+     * Returns the played time per month, sorted from old to new.
+     */
     @NonNull
     public static List<MonthlyStatisticsItem> getMonthlyTimeStatistics() {
-        List<MonthlyStatisticsItem> months = new ArrayList<>();
-        PodDBAdapter adapter = PodDBAdapter.getInstance();
-        adapter.open();
-        try (Cursor cursor = adapter.getMonthlyStatisticsCursor()) {
-            int indexMonth = cursor.getColumnIndexOrThrow("month");
-            int indexYear = cursor.getColumnIndexOrThrow("year");
-            int indexTotalDuration = cursor.getColumnIndexOrThrow("total_duration");
-            while (cursor.moveToNext()) {
-                MonthlyStatisticsItem item = new MonthlyStatisticsItem();
-                item.setMonth(Integer.parseInt(cursor.getString(indexMonth)));
-                item.setYear(Integer.parseInt(cursor.getString(indexYear)));
-                item.setTimePlayed(cursor.getLong(indexTotalDuration));
-                months.add(item);
-            }
-        }
-        adapter.close();
-        return months;
+        return PlaybackStatistics.get(0, Long.MAX_VALUE).getMonthlyStatistics();
     }
 
     public static class StatisticsResult {
@@ -608,55 +825,14 @@ public final class DBReader {
     @NonNull
     public static StatisticsResult getStatistics(boolean includeMarkedAsPlayed,
                                                  long timeFilterFrom, long timeFilterTo) {
-        PodDBAdapter adapter = PodDBAdapter.getInstance();
-        adapter.open();
-
-        StatisticsResult result = new StatisticsResult();
-        long sixMonthsAgo = System.currentTimeMillis() - (long) (1000L * 3600 * 24 * 30.44 * 6);
-        try (FeedCursor cursor = new FeedCursor(adapter.getFeedStatisticsCursor(
-                includeMarkedAsPlayed, timeFilterFrom, timeFilterTo, sixMonthsAgo))) {
-            int indexOldestDate = cursor.getColumnIndexOrThrow("oldest_date");
-            int indexNumEpisodes = cursor.getColumnIndexOrThrow("num_episodes");
-            int indexEpisodesStarted = cursor.getColumnIndexOrThrow("episodes_started");
-            int indexTotalTime = cursor.getColumnIndexOrThrow("total_time");
-            int indexPlayedTime = cursor.getColumnIndexOrThrow("played_time");
-            int indexNumDownloaded = cursor.getColumnIndexOrThrow("num_downloaded");
-            int indexDownloadSize = cursor.getColumnIndexOrThrow("download_size");
-            int indexNumRecentUnplayed = cursor.getColumnIndexOrThrow("num_recent_unplayed");
-
-            while (cursor.moveToNext()) {
-                Feed feed = cursor.getFeed();
-
-                long feedPlayedTime = cursor.getLong(indexPlayedTime) / 1000;
-                long feedTotalTime = cursor.getLong(indexTotalTime) / 1000;
-                long episodes = cursor.getLong(indexNumEpisodes);
-                long episodesStarted = cursor.getLong(indexEpisodesStarted);
-                long totalDownloadSize = cursor.getLong(indexDownloadSize);
-                long episodesDownloadCount = cursor.getLong(indexNumDownloaded);
-                long oldestDate = cursor.getLong(indexOldestDate);
-                boolean hasRecentUnplayed = cursor.getLong(indexNumRecentUnplayed) > 0;
-
-                if (episodes > 0 && oldestDate < Long.MAX_VALUE) {
-                    result.oldestDate = Math.min(result.oldestDate, oldestDate);
-                }
-
-                result.feedTime.add(new StatisticsItem(feed, feedTotalTime, feedPlayedTime, episodes,
-                        episodesStarted, totalDownloadSize, episodesDownloadCount, hasRecentUnplayed));
-            }
-        }
-        adapter.close();
-        return result;
+        return PlaybackStatistics.get(timeFilterFrom, timeFilterTo).getStatisticsResult(includeMarkedAsPlayed);
     }
 
+    /**
+     * Returns the median time between the release of an episode and playing it.
+     */
     public static long getTimeBetweenReleaseAndPlayback(long timeFilterFrom, long timeFilterTo) {
-        PodDBAdapter adapter = PodDBAdapter.getInstance();
-        adapter.open();
-        try (Cursor cursor = adapter.getTimeBetweenReleaseAndPlayback(timeFilterFrom, timeFilterTo)) {
-            cursor.moveToFirst();
-            long result = cursor.getLong(0);
-            adapter.close();
-            return result;
-        }
+        return PlaybackStatistics.get(timeFilterFrom, timeFilterTo).getMedianTimeBetweenReleaseAndPlayback();
     }
 
     /**
@@ -355,6 +355,11 @@ class DBUpgrader {
             db.execSQL("DELETE FROM " + PodDBAdapter.TABLE_NAME_FAVORITES + " WHERE " + PodDBAdapter.KEY_FEEDITEM
                     + " NOT IN (SELECT " + PodDBAdapter.KEY_ID + " FROM " + PodDBAdapter.TABLE_NAME_FEED_ITEMS + ")");
         }
+        if (oldVersion < 3090000) {
+            db.execSQL(PodDBAdapter.CREATE_INDEX_FEEDITEMS_FEED_PUBDATE);
+            db.execSQL(PodDBAdapter.CREATE_INDEX_FEEDITEMS_ITEM_IDENTIFIER);
+            db.execSQL(PodDBAdapter.CREATE_INDEX_FEEDMEDIA_DOWNLOAD_URL);
+        }
     }
 
 }
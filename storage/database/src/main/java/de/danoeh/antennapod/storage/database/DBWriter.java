@@ -24,8 +24,8 @@ import org.greenrobot.eventbus.EventBus;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
@@ -184,6 +184,9 @@ public class DBWriter {
             adapter.removeFeed(feed);
             adapter.close();
 
+            if (feed.isLocalFeed()) {
+                FeedUpdateManager.getInstance().onFeedRemoved(context, feed.getId());
+            }
             if (!feed.isLocalFeed() && feed.getState() == Feed.STATE_SUBSCRIBED) {
                 SynchronizationQueue.getInstance().enqueueFeedRemoved(feed.getDownloadUrl());
             }
@@ -205,11 +208,13 @@ public class DBWriter {
      * Deleting media also removes the download log entries.
      */
     private static void deleteFeedItemsSynchronous(@NonNull Context context, @NonNull List<FeedItem> items) {
-        List<FeedItem> queue = DBReader.getQueue();
+        LongList queueIds = DBReader.getQueueIDList();
         List<FeedItem> removedFromQueue = new ArrayList<>();
+        LongList removedFromQueueIds = new LongList();
         for (FeedItem item : items) {
-            if (queue.remove(item)) {
+            if (queueIds.contains(item.getId())) {
                 removedFromQueue.add(item);
+                removedFromQueueIds.add(item.getId());
             }
             if (item.getMedia() != null) {
                 if (item.getMedia().getId() == PlaybackPreferences.getCurrentlyPlayingFeedMediaId()) {
@@ -231,7 +236,7 @@ public class DBWriter {
         PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
         if (!removedFromQueue.isEmpty()) {
-            adapter.setQueue(queue);
+            adapter.removeQueueItems(removedFromQueueIds.toArray());
         }
         adapter.removeFeedItems(items);
         adapter.close();
@@ -341,13 +346,16 @@ public class DBWriter {
         return runOnDbThread(() -> {
             final PodDBAdapter adapter = PodDBAdapter.getInstance();
             adapter.open();
-            final List<FeedItem> queue = DBReader.getQueue();
+            final LongList queueIds = DBReader.getQueueIDList();
 
-            if (!itemListContains(queue, itemId)) {
+            if (!queueIds.contains(itemId)) {
                 FeedItem item = DBReader.getFeedItem(itemId);
                 if (item != null) {
-                    queue.add(index, item);
-                    adapter.setQueue(queue);
+                    if (index < 0 || index > queueIds.size()) {
+                        adapter.close();
+                        throw new IndexOutOfBoundsException("Index " + index + ", queue size " + queueIds.size());
+                    }
+                    adapter.setQueueItemPosition(item, index);
                     item.addTag(FeedItem.TAG_QUEUE);
                     EventBus.getDefault().post(QueueEvent.added(item, index));
                     EventBus.getDefault().post(FeedItemEvent.updated(item));
@@ -363,8 +371,11 @@ public class DBWriter {
     }
 
     /**
-     * Appends FeedItem objects to the end of the queue. The 'read'-attribute of all items will be set to true.
+     * Adds FeedItem objects to the queue, at the position given by the enqueue location setting.
+     * The 'read'-attribute of all items will be set to true.
      * If a FeedItem is already in the queue, the FeedItem will not change its position in the queue.
+     * All new items are inserted next to each other with a single database transaction and a single
+     * {@link QueueEvent}, so enqueueing a large batch does not rewrite the rest of the queue.
      *
      * @param context  A context that is used for opening a database connection.
      * @param items    FeedItem objects that should be added to the queue.
@@ -378,37 +389,42 @@ public class DBWriter {
             final PodDBAdapter adapter = PodDBAdapter.getInstance();
             adapter.open();
             final List<FeedItem> queue = DBReader.getQueue();
+            Set<Long> queuedIds = new HashSet<>();
+            for (FeedItem item : queue) {
+                queuedIds.add(item.getId());
+            }
 
             LongList markAsUnplayedIds = new LongList();
-            List<QueueEvent> events = new ArrayList<>();
-            List<FeedItem> updatedItems = new ArrayList<>();
-            ItemEnqueuePositionCalculator positionCalculator =
-                    new ItemEnqueuePositionCalculator(UserPreferences.getEnqueueLocation());
-            Playable currentlyPlaying = DBReader.getFeedMedia(PlaybackPreferences.getCurrentlyPlayingFeedMediaId());
-            int insertPosition = positionCalculator.calcPosition(queue, currentlyPlaying);
+            List<FeedItem> addedItems = new ArrayList<>();
             for (FeedItem item : items) {
-                if (itemListContains(queue, item.getId())) {
-                    continue;
-                } else if (!item.hasMedia()) {
+                if (!item.hasMedia() || !queuedIds.add(item.getId())) {
                     continue;
                 }
-                queue.add(insertPosition, item);
-                events.add(QueueEvent.added(item, insertPosition));
-
                 item.addTag(FeedItem.TAG_QUEUE);
-                updatedItems.add(item);
+                addedItems.add(item);
                 if (item.isNew()) {
                     markAsUnplayedIds.add(item.getId());
                 }
-                insertPosition++;
             }
-            if (!updatedItems.isEmpty()) {
-                applySortOrder(queue, events);
-                adapter.setQueue(queue);
-                for (QueueEvent event : events) {
-                    EventBus.getDefault().post(event);
+            if (!addedItems.isEmpty()) {
+                ItemEnqueuePositionCalculator positionCalculator =
+                        new ItemEnqueuePositionCalculator(UserPreferences.getEnqueueLocation());
+                Playable currentlyPlaying = DBReader.getFeedMedia(
+                        PlaybackPreferences.getCurrentlyPlayingFeedMediaId());
+                int insertPosition = positionCalculator.calcPosition(queue, currentlyPlaying);
+                queue.addAll(insertPosition, addedItems);
+                if (applySortOrder(queue)) {
+                    adapter.setQueue(queue);
+                    EventBus.getDefault().post(QueueEvent.sorted(queue));
+                } else {
+                    adapter.insertQueueItems(addedItems, insertPosition);
+                    if (addedItems.size() == 1) {
+                        EventBus.getDefault().post(QueueEvent.added(addedItems.get(0), insertPosition));
+                    } else {
+                        EventBus.getDefault().post(QueueEvent.addedItems(addedItems, insertPosition));
+                    }
                 }
-                EventBus.getDefault().post(FeedItemEvent.updated(updatedItems));
+                EventBus.getDefault().post(FeedItemEvent.updated(addedItems));
                 if (markAsUnplayedIds.size() > 0) {
                     DBWriter.markItemPlayed(FeedItem.UNPLAYED, markAsUnplayedIds.toArray());
                 }
@@ -423,26 +439,23 @@ public class DBWriter {
      * If the queue is not in keep sorted mode, nothing happens.
      *
      * @param queue  The queue to be sorted.
-     * @param events Replaces the events by a single SORT event if the list has to be sorted automatically.
+     * @return True if the queue was sorted.
      */
-    private static void applySortOrder(List<FeedItem> queue, List<QueueEvent> events) {
+    private static boolean applySortOrder(List<FeedItem> queue) {
         if (!UserPreferences.isQueueKeepSorted()) {
             // queue is not in keep sorted mode, there's nothing to do
-            return;
+            return false;
         }
 
         // Sort queue by configured sort order
         SortOrder sortOrder = UserPreferences.getQueueKeepSortedOrder();
         if (sortOrder == SortOrder.RANDOM) {
             // do not shuffle the list on every change
-            return;
+            return false;
         }
         Permutor<FeedItem> permutor = FeedItemPermutors.getPermutor(sortOrder);
         permutor.reorder(queue);
-
-        // Replace ADDED events by a single SORTED event
-        events.clear();
-        events.add(QueueEvent.sorted(queue));
+        return true;
     }
 
     /**
@@ -484,31 +497,30 @@ public class DBWriter {
         }
         final PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
-        final List<FeedItem> queue = DBReader.getQueue();
+        final LongList queueIds = DBReader.getQueueIDList();
 
-        boolean queueModified = false;
+        LongList removedIds = new LongList();
         List<QueueEvent> events = new ArrayList<>();
         List<FeedItem> updatedItems = new ArrayList<>();
         for (long itemId : itemIds) {
-            int position = indexInItemList(queue, itemId);
-            if (position >= 0) {
+            if (queueIds.contains(itemId)) {
                 final FeedItem item = DBReader.getFeedItem(itemId);
                 if (item == null) {
                     Log.e(TAG, "removeQueueItem - item in queue but somehow cannot be loaded."
                             + " Item ignored. It should never happen. id:" + itemId);
                     continue;
                 }
-                queue.remove(position);
+                queueIds.remove(itemId);
+                removedIds.add(itemId);
                 item.removeTag(FeedItem.TAG_QUEUE);
                 events.add(QueueEvent.removed(item));
                 updatedItems.add(item);
-                queueModified = true;
             } else {
                 Log.v(TAG, "removeQueueItem - item  not in queue:" + itemId);
             }
         }
-        if (queueModified) {
-            adapter.setQueue(queue);
+        if (removedIds.size() > 0) {
+            adapter.removeQueueItems(removedIds.toArray());
             for (QueueEvent event : events) {
                 EventBus.getDefault().post(event);
             }
@@ -565,15 +577,15 @@ public class DBWriter {
         return runOnDbThread(() -> {
             final PodDBAdapter adapter = PodDBAdapter.getInstance();
             adapter.open();
-            final List<FeedItem> queue = DBReader.getQueue();
-
-            if (from >= 0 && from < queue.size() && to >= 0 && to < queue.size()) {
-                final FeedItem item = queue.remove(from);
-                queue.add(to, item);
+            final LongList queueIds = DBReader.getQueueIDList();
 
-                adapter.setQueue(queue);
-                if (broadcastUpdate) {
-                    EventBus.getDefault().post(QueueEvent.moved(item, to));
+            if (from >= 0 && from < queueIds.size() && to >= 0 && to < queueIds.size()) {
+                final FeedItem item = DBReader.getFeedItem(queueIds.get(from));
+                if (item != null) {
+                    adapter.setQueueItemPosition(item, to);
+                    if (broadcastUpdate) {
+                        EventBus.getDefault().post(QueueEvent.moved(item, to));
+                    }
                 }
             }
             adapter.close();
@@ -589,41 +601,35 @@ public class DBWriter {
     }
 
     private static void moveQueueItemsSynchronous(final boolean moveToTop, final List<FeedItem> items) {
-        if (items.isEmpty()) {
+        final LongList queueIds = DBReader.getQueueIDList();
+        List<FeedItem> movedItems = new ArrayList<>();
+        LongList movedIds = new LongList();
+        for (FeedItem item : items) {
+            if (queueIds.contains(item.getId()) && !movedIds.contains(item.getId())) {
+                movedItems.add(item);
+                movedIds.add(item.getId());
+            }
+        }
+        if (movedItems.isEmpty()) {
+            Log.w(TAG, "moveToTop: " + moveToTop + " - Queue was not modified.");
             return;
         }
 
         final PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
-        final List<FeedItem> queue = DBReader.getQueue();
+        adapter.moveQueueItems(movedItems, moveToTop ? 0 : queueIds.size() - movedItems.size());
+        adapter.close();
 
-        List<FeedItem> selectedItems = moveToTop ? new ArrayList<>(items) : items;
+        // Each event moves one item, so the items end up in the same order as in the database
         if (moveToTop) {
-            Collections.reverse(selectedItems);
-        }
-
-        boolean queueModified = false;
-        List<QueueEvent> events = new ArrayList<>();
-
-        queue.removeAll(selectedItems);
-        events.add(QueueEvent.setQueue(queue));
-
-        for (FeedItem item : selectedItems) {
-            int newIndex = moveToTop ? 0 : queue.size();
-            queue.add(newIndex, item);
-            events.add(QueueEvent.moved(item, newIndex));
-            queueModified = true;
-        }
-
-        if (queueModified) {
-            adapter.setQueue(queue);
-            for (QueueEvent event : events) {
-                EventBus.getDefault().post(event);
+            for (int i = movedItems.size() - 1; i >= 0; i--) {
+                EventBus.getDefault().post(QueueEvent.moved(movedItems.get(i), 0));
             }
         } else {
-            Log.w(TAG, "moveToTop: " + moveToTop +  " - Queue was not modified.");
+            for (FeedItem item : movedItems) {
+                EventBus.getDefault().post(QueueEvent.moved(item, queueIds.size() - 1));
+            }
         }
-        adapter.close();
     }
 
     public static Future<?> resetPagedFeedPage(Feed feed) {
@@ -755,6 +761,32 @@ public class DBWriter {
         });
     }
 
+    /**
+     * Saves the items and removes some of them from the queue. Both happen in a single transaction.
+     *
+     * @param items           The items to save
+     * @param removeFromQueue Items that are no longer part of the queue. Must be contained in items.
+     */
+    public static Future<?> setItemListAndRemoveFromQueue(final List<FeedItem> items,
+                                                          final List<FeedItem> removeFromQueue) {
+        return runOnDbThread(() -> {
+            long[] removedIds = new long[removeFromQueue.size()];
+            for (int i = 0; i < removeFromQueue.size(); i++) {
+                FeedItem item = removeFromQueue.get(i);
+                item.removeTag(FeedItem.TAG_QUEUE);
+                removedIds[i] = item.getId();
+            }
+            PodDBAdapter adapter = PodDBAdapter.getInstance();
+            adapter.open();
+            adapter.storeFeedItemlistAndRemoveFromQueue(items, removedIds);
+            adapter.close();
+            for (FeedItem item : removeFromQueue) {
+                EventBus.getDefault().post(QueueEvent.removed(item));
+            }
+            EventBus.getDefault().post(FeedItemEvent.updated(items));
+        });
+    }
+
     /**
      * Saves a FeedMedia object in the database. This method will save all attributes of the FeedMedia object. The
      * contents of FeedComponent-attributes (e.g. the FeedMedia's 'item'-attribute) will not be saved.
@@ -828,20 +860,6 @@ public class DBWriter {
         });
     }
 
-    private static boolean itemListContains(List<FeedItem> items, long itemId) {
-        return indexInItemList(items, itemId) >= 0;
-    }
-
-    private static int indexInItemList(List<FeedItem> items, long itemId) {
-        for (int i = 0; i < items.size(); i++) {
-            FeedItem item = items.get(i);
-            if (item.getId() == itemId) {
-                return i;
-            }
-        }
-        return -1;
-    }
-
     /**
      * Saves if a feed's last update failed
      *
@@ -962,6 +980,7 @@ public class DBWriter {
             adapter.open();
             adapter.resetAllMediaPlayedDuration();
             adapter.close();
+            PlaybackStatistics.invalidate();
         });
     }
 
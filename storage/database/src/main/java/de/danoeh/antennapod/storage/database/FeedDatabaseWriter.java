@@ -261,6 +261,23 @@ public abstract class FeedDatabaseWriter {
         return resultFeed;
     }
 
+    /**
+     * Adds feeds that are not in the database yet. All feeds are inserted in a single transaction.
+     * Unlike {@link #updateFeed}, this does not look for existing feeds with the same identifying value,
+     * so the caller needs to make sure that the feeds are new.
+     */
+    public static synchronized void addNewFeeds(Context context, List<Feed> newFeeds) {
+        if (newFeeds.isEmpty()) {
+            return;
+        }
+        try {
+            DBWriter.addNewFeed(context, newFeeds.toArray(new Feed[0])).get();
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+        }
+        EventBus.getDefault().post(new FeedListUpdateEvent(Collections.emptyList()));
+    }
+
     private static String duplicateEpisodeDetails(FeedItem item) {
         return "Title: " + item.getTitle()
                 + "\nID: " + item.getItemIdentifier()
@@ -3,12 +3,9 @@ package de.danoeh.antennapod.storage.database;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -28,76 +25,112 @@ public class FeedItemPermutors {
      */
     @NonNull
     public static Permutor<FeedItem> getPermutor(@NonNull SortOrder sortOrder) {
-
-        Comparator<FeedItem> comparator = null;
-        Permutor<FeedItem> permutor = null;
-
         switch (sortOrder) {
             case EPISODE_TITLE_A_Z:
-                comparator = (f1, f2) -> itemTitle(f1).compareTo(itemTitle(f2));
-                break;
+                return queue -> sortByKeys(queue, stringKeys(queue, FeedItemPermutors::itemTitle), false);
             case EPISODE_TITLE_Z_A:
-                comparator = (f1, f2) -> itemTitle(f2).compareTo(itemTitle(f1));
-                break;
+                return queue -> sortByKeys(queue, stringKeys(queue, FeedItemPermutors::itemTitle), true);
             case DATE_OLD_NEW:
-                comparator = (f1, f2) -> pubDate(f1).compareTo(pubDate(f2));
-                break;
+                return queue -> sortByKeys(queue, longKeys(queue, FeedItemPermutors::pubDate), false);
             case DATE_NEW_OLD:
-                comparator = (f1, f2) -> pubDate(f2).compareTo(pubDate(f1));
-                break;
+                return queue -> sortByKeys(queue, longKeys(queue, FeedItemPermutors::pubDate), true);
             case DURATION_SHORT_LONG:
-                comparator = (f1, f2) -> Integer.compare(duration(f1), duration(f2));
-                break;
+                return queue -> sortByKeys(queue, longKeys(queue, FeedItemPermutors::duration), false);
             case DURATION_LONG_SHORT:
-                comparator = (f1, f2) -> Integer.compare(duration(f2), duration(f1));
-                break;
+                return queue -> sortByKeys(queue, longKeys(queue, FeedItemPermutors::duration), true);
             case EPISODE_FILENAME_A_Z:
-                comparator = (f1, f2) -> itemLink(f1).compareTo(itemLink(f2));
-                break;
+                return queue -> sortByKeys(queue, stringKeys(queue, FeedItemPermutors::itemLink), false);
             case EPISODE_FILENAME_Z_A:
-                comparator = (f1, f2) -> itemLink(f2).compareTo(itemLink(f1));
-                break;
+                return queue -> sortByKeys(queue, stringKeys(queue, FeedItemPermutors::itemLink), true);
             case FEED_TITLE_A_Z:
-                comparator = (f1, f2) -> feedTitle(f1).compareTo(feedTitle(f2));
-                break;
+                return queue -> sortByKeys(queue, stringKeys(queue, FeedItemPermutors::feedTitle), false);
             case FEED_TITLE_Z_A:
-                comparator = (f1, f2) -> feedTitle(f2).compareTo(feedTitle(f1));
-                break;
+                return queue -> sortByKeys(queue, stringKeys(queue, FeedItemPermutors::feedTitle), true);
             case RANDOM:
-                permutor = Collections::shuffle;
-                break;
+                return Collections::shuffle;
             case SMART_SHUFFLE_OLD_NEW:
-                permutor = (queue) -> smartShuffle(queue, true);
-                break;
+                return queue -> smartShuffle(queue, true);
             case SMART_SHUFFLE_NEW_OLD:
-                permutor = (queue) -> smartShuffle(queue, false);
-                break;
+                return queue -> smartShuffle(queue, false);
             case SIZE_SMALL_LARGE:
-                comparator = (f1, f2) -> Long.compare(size(f1), size(f2));
-                break;
+                return queue -> sortByKeys(queue, longKeys(queue, FeedItemPermutors::size), false);
             case SIZE_LARGE_SMALL:
-                comparator = (f1, f2) -> Long.compare(size(f2), size(f1));
-                break;
+                return queue -> sortByKeys(queue, longKeys(queue, FeedItemPermutors::size), true);
             case COMPLETION_DATE_NEW_OLD:
-                comparator = (f1, f2) -> f2.getMedia().getLastPlayedTimeHistory()
-                        .compareTo(f1.getMedia().getLastPlayedTimeHistory());
-                break;
+                return queue -> sortByKeys(queue, longKeys(queue, FeedItemPermutors::completionDate), true);
             default:
                 throw new IllegalArgumentException("Permutor not implemented");
         }
+    }
+
+    private interface LongKey {
+        long of(FeedItem item);
+    }
+
+    private interface StringKey {
+        @NonNull
+        String of(FeedItem item);
+    }
+
+    private static long[] longKeys(List<FeedItem> queue, LongKey key) {
+        long[] keys = new long[queue.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key.of(queue.get(i));
+        }
+        return keys;
+    }
+
+    private static String[] stringKeys(List<FeedItem> queue, StringKey key) {
+        String[] keys = new String[queue.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key.of(queue.get(i));
+        }
+        return keys;
+    }
 
-        if (comparator != null) {
-            final Comparator<FeedItem> comparator2 = comparator;
-            permutor = (queue) -> Collections.sort(queue, comparator2);
+    /**
+     * Stable sort by keys that were extracted up front, so that comparisons do not need to call
+     * getters or lower-case strings again. Items with equal keys keep their relative order.
+     */
+    private static void sortByKeys(List<FeedItem> queue, long[] keys, boolean descending) {
+        Integer[] indices = indices(keys.length);
+        if (descending) {
+            Arrays.sort(indices, (i1, i2) -> Long.compare(keys[i2], keys[i1]));
+        } else {
+            Arrays.sort(indices, (i1, i2) -> Long.compare(keys[i1], keys[i2]));
+        }
+        applyPermutation(queue, indices);
+    }
+
+    private static void sortByKeys(List<FeedItem> queue, String[] keys, boolean descending) {
+        Integer[] indices = indices(keys.length);
+        if (descending) {
+            Arrays.sort(indices, (i1, i2) -> keys[i2].compareTo(keys[i1]));
+        } else {
+            Arrays.sort(indices, (i1, i2) -> keys[i1].compareTo(keys[i2]));
+        }
+        applyPermutation(queue, indices);
+    }
+
+    private static Integer[] indices(int size) {
+        Integer[] indices = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private static void applyPermutation(List<FeedItem> queue, Integer[] indices) {
+        FeedItem[] items = queue.toArray(new FeedItem[0]);
+        for (int i = 0; i < items.length; i++) {
+            queue.set(i, items[indices[i]]);
         }
-        return permutor;
     }
 
     // Null-safe accessors
 
-    @NonNull
-    private static Date pubDate(@Nullable FeedItem item) {
-        return (item != null && item.getPubDate() != null) ? item.getPubDate() : new Date(0);
+    private static long pubDate(@Nullable FeedItem item) {
+        return (item != null && item.getPubDate() != null) ? item.getPubDate().getTime() : 0;
     }
 
     @NonNull
@@ -105,7 +138,12 @@ public class FeedItemPermutors {
         return (item != null && item.getTitle() != null) ? item.getTitle().toLowerCase(Locale.getDefault()) : "";
     }
 
-    private static int duration(@Nullable FeedItem item) {
+    private static long completionDate(@Nullable FeedItem item) {
+        return (item != null && item.getMedia() != null && item.getMedia().getLastPlayedTimeHistory() != null)
+                ? item.getMedia().getLastPlayedTimeHistory().getTime() : 0;
+    }
+
+    private static long duration(@Nullable FeedItem item) {
         return (item != null && item.getMedia() != null) ? item.getMedia().getDuration() : 0;
     }
 
@@ -133,12 +171,14 @@ public class FeedItemPermutors {
      * prefer a more balanced ordering that avoids having to listen to clusters of consecutive
      * episodes from the same feed. This is what "Smart Shuffle" tries to accomplish.
      *
-     * Assume the queue looks like this: `ABCDDEEEEEEEEEE`.
-     * This method first starts with a queue of the final size, where each slot is empty (null).
-     * It takes the podcast with most episodes (`E`) and places the episodes spread out in the queue: `EE_E_EE_E_EE_EE`.
-     * The podcast with the second-most number of episodes (`D`) is then
-     * placed spread-out in the *available* slots: `EE_EDEE_EDEE_EE`.
-     * This continues, until we end up with: `EEBEDEECEDEEAEE`.
+     * Every episode gets a target position in the queue. The k episodes of a feed are placed evenly,
+     * 1/k of the queue apart. Feeds with the same number of episodes are shifted against each other,
+     * so that they do not all compete for the same positions.
+     * Assume the queue looks like this: `ABCDDEEEEEEEEEE`. The `E` episodes are spread over the whole queue,
+     * `D` gets one position in each half and `A`, `B` and `C` are placed at 1/6, 1/2 and 5/6 of the queue:
+     * `EEAEDEEBEEEDECE`.
+     * The episodes are then distributed to the positions with a counting sort, so apart from sorting
+     * the episodes by pubdate, this takes linear time.
      *
      * Note that episodes aren't strictly ordered in terms of pubdate, but episodes of each feed are.
      *
@@ -147,54 +187,85 @@ public class FeedItemPermutors {
      *                  {@code false} for descending.
      */
     private static void smartShuffle(List<FeedItem> queue, boolean ascending) {
-        // Divide FeedItems into lists by feed
-        Map<Long, List<FeedItem>> map = new HashMap<>();
-        for (FeedItem item : queue) {
-            Long id = item.getFeedId();
-            if (!map.containsKey(id)) {
-                map.put(id, new ArrayList<>());
+        final int size = queue.size();
+        if (size < 2) {
+            return;
+        }
+        // Afterwards, the episodes of each feed are in the right order, no matter where they are in the queue
+        sortByKeys(queue, longKeys(queue, FeedItemPermutors::pubDate), !ascending);
+
+        // Number the feeds in order of appearance and count their episodes
+        Map<Long, Integer> feedNumbers = new HashMap<>();
+        int[] feedOfItem = new int[size];
+        int[] feedSizes = new int[size];
+        int numFeeds = 0;
+        for (int i = 0; i < size; i++) {
+            long feedId = queue.get(i).getFeedId();
+            Integer feed = feedNumbers.get(feedId);
+            if (feed == null) {
+                feed = numFeeds++;
+                feedNumbers.put(feedId, feed);
             }
-            map.get(id).add(item);
-        }
-
-        // Sort each individual list by PubDate (ascending/descending)
-        Comparator<FeedItem> itemComparator = ascending
-                ? (f1, f2) -> f1.getPubDate().compareTo(f2.getPubDate())
-                : (f1, f2) -> f2.getPubDate().compareTo(f1.getPubDate());
-        List<List<FeedItem>> feeds = new ArrayList<>();
-        for (Map.Entry<Long, List<FeedItem>> mapEntry : map.entrySet()) {
-            Collections.sort(mapEntry.getValue(), itemComparator);
-            feeds.add(mapEntry.getValue());
-        }
-
-        ArrayList<Integer> emptySlots = new ArrayList<>();
-        for (int i = 0; i < queue.size(); i++) {
-            queue.set(i, null);
-            emptySlots.add(i);
-        }
-
-        // Starting with the largest feed, place items spread out through the empty slots in the queue
-        Collections.sort(feeds, (f1, f2) -> Integer.compare(f2.size(), f1.size()));
-        for (List<FeedItem> feedItems : feeds) {
-            double spread = (double) emptySlots.size() / (feedItems.size() + 1);
-            Iterator<Integer> emptySlotIterator = emptySlots.iterator();
-            int skipped = 0;
-            int placed = 0;
-            while (emptySlotIterator.hasNext()) {
-                int nextEmptySlot = emptySlotIterator.next();
-                skipped++;
-                if (skipped >= spread * (placed + 1)) {
-                    if (queue.get(nextEmptySlot) != null) {
-                        throw new RuntimeException("Slot to be placed in not empty");
-                    }
-                    queue.set(nextEmptySlot, feedItems.get(placed));
-                    emptySlotIterator.remove();
-                    placed++;
-                    if (placed == feedItems.size()) {
-                        break;
-                    }
-                }
+            feedOfItem[i] = feed;
+            feedSizes[feed]++;
+        }
+
+        // Group the episodes by feed, keeping their order
+        int[] feedStart = new int[numFeeds + 1];
+        for (int feed = 0; feed < numFeeds; feed++) {
+            feedStart[feed + 1] = feedStart[feed] + feedSizes[feed];
+        }
+        int[] itemsByFeed = new int[size];
+        int[] fill = Arrays.copyOf(feedStart, numFeeds);
+        for (int i = 0; i < size; i++) {
+            itemsByFeed[fill[feedOfItem[i]]++] = i;
+        }
+
+        // Order the feeds by number of episodes, largest first. They win when target positions collide.
+        int[] feedsWithSize = new int[size + 2];
+        for (int feed = 0; feed < numFeeds; feed++) {
+            feedsWithSize[feedSizes[feed]]++;
+        }
+        int[] sizeStart = new int[size + 2];
+        for (int feedSize = size - 1; feedSize >= 0; feedSize--) {
+            sizeStart[feedSize] = sizeStart[feedSize + 1] + feedsWithSize[feedSize + 1];
+        }
+        int[] feedsBySize = new int[numFeeds];
+        for (int feed = 0; feed < numFeeds; feed++) {
+            feedsBySize[sizeStart[feedSizes[feed]]++] = feed;
+        }
+
+        // Target position of episode j of a feed with k episodes that is the r-th of g feeds of that size:
+        // (j + (2r + 1) / 2g) / k of the queue
+        int[] targetOfItem = new int[size];
+        int[] itemsAtTarget = new int[size + 1];
+        int rank = 0;
+        for (int n = 0; n < numFeeds; n++) {
+            int feed = feedsBySize[n];
+            int k = feedSizes[feed];
+            int g = feedsWithSize[k];
+            rank = (n > 0 && feedSizes[feedsBySize[n - 1]] == k) ? rank + 1 : 0;
+            for (int j = 0; j < k; j++) {
+                int target = (int) ((2L * g * j + 2L * rank + 1) * size / (2L * g * k));
+                targetOfItem[itemsByFeed[feedStart[feed] + j]] = target;
+                itemsAtTarget[target + 1]++;
             }
         }
+
+        // Counting sort by target position. Episodes of larger feeds come first on the same position.
+        for (int target = 0; target < size; target++) {
+            itemsAtTarget[target + 1] += itemsAtTarget[target];
+        }
+        FeedItem[] items = queue.toArray(new FeedItem[0]);
+        FeedItem[] result = new FeedItem[size];
+        for (int feed : feedsBySize) {
+            for (int p = feedStart[feed]; p < feedStart[feed + 1]; p++) {
+                int item = itemsByFeed[p];
+                result[itemsAtTarget[targetOfItem[item]]++] = items[item];
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            queue.set(i, result[i]);
+        }
     }
 }
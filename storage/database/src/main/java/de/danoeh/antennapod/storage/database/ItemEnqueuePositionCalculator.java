@@ -26,6 +26,8 @@ public class ItemEnqueuePositionCalculator {
 
     /**
      * Determine the position (0-based) that the item(s) should be inserted to the named queue.
+     * When enqueueing several items, this is called once for the whole batch and the items are inserted
+     * next to each other at the returned position, keeping their order.
      *
      * @param curQueue           the queue to which the item is to be inserted
      * @param currentPlaying     the currently playing media
@@ -0,0 +1,201 @@
+package de.danoeh.antennapod.storage.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import de.danoeh.antennapod.model.feed.FeedMedia;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Date;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the latest playback position of the playing episode in a small file. Overwriting the file is much cheaper
+ * than updating the media row in the database, so it can be done every few seconds during playback.
+ * The database is only updated when playback pauses, seeks or ends. If the app is killed before that,
+ * {@link #replay()} copies the position from the journal to the database on the next start.
+ *
+ * <p>The file has two slots that are written alternately, each with a checksum.
+ * If a write is interrupted, the other slot still holds the previous position.
+ */
+public class PlaybackPositionJournal {
+    private static final String TAG = "PositionJournal";
+    private static final String FILE_NAME = "playback_position_journal";
+    private static final int VERSION = 1;
+    private static final int PAYLOAD_SIZE = 4 + 8 + 4 + 4 + 4 + 8 + 8;
+    private static final int RECORD_SIZE = PAYLOAD_SIZE + 8;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "PositionJournal");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private static File file;
+    private static int nextSlot = 0;
+
+    static class Entry {
+        final long mediaId;
+        final int position;
+        final int duration;
+        final int playedDuration;
+        final long lastPlayedTimeStatistics;
+        final long lastPlayedTimeHistory;
+
+        Entry(long mediaId, int position, int duration, int playedDuration,
+              long lastPlayedTimeStatistics, long lastPlayedTimeHistory) {
+            this.mediaId = mediaId;
+            this.position = position;
+            this.duration = duration;
+            this.playedDuration = playedDuration;
+            this.lastPlayedTimeStatistics = lastPlayedTimeStatistics;
+            this.lastPlayedTimeHistory = lastPlayedTimeHistory;
+        }
+    }
+
+    private PlaybackPositionJournal() {
+    }
+
+    public static synchronized void init(Context context) {
+        file = new File(context.getFilesDir(), FILE_NAME);
+        nextSlot = 0;
+    }
+
+    /**
+     * Stores the playback information of the media in the journal, without touching the database.
+     */
+    public static void write(@NonNull FeedMedia media) {
+        if (file == null || media.getId() == 0) {
+            return;
+        }
+        Date lastPlayedTimeHistory = media.getLastPlayedTimeHistory();
+        final Entry entry = new Entry(media.getId(), media.getPosition(), media.getDuration(),
+                media.getPlayedDuration(), media.getLastPlayedTimeStatistics(),
+                lastPlayedTimeHistory == null ? 0 : lastPlayedTimeHistory.getTime());
+        executor.execute(() -> {
+            try {
+                writeEntry(entry);
+            } catch (IOException e) {
+                Log.e(TAG, "Unable to write position journal", e);
+            }
+        });
+    }
+
+    /**
+     * Writes the journaled position to the database if it is newer than the one in the database,
+     * and empties the journal afterwards.
+     */
+    public static Future<?> replay() {
+        return executor.submit(() -> {
+            Entry entry = readEntry();
+            if (entry != null) {
+                FeedMedia media = DBReader.getFeedMedia(entry.mediaId);
+                if (media != null && media.getLastPlayedTimeStatistics() < entry.lastPlayedTimeStatistics) {
+                    Log.d(TAG, "Restoring position " + entry.position + " of media " + entry.mediaId);
+                    media.setPosition(entry.position);
+                    media.setDuration(entry.duration);
+                    media.setPlayedDuration(entry.playedDuration);
+                    media.setLastPlayedTimeStatistics(entry.lastPlayedTimeStatistics);
+                    media.setLastPlayedTimeHistory(new Date(entry.lastPlayedTimeHistory));
+                    try {
+                        DBWriter.setFeedMediaPlaybackInformation(media).get();
+                    } catch (ExecutionException | InterruptedException e) {
+                        Log.e(TAG, "Unable to restore position", e);
+                        return;
+                    }
+                }
+            }
+            clear();
+        });
+    }
+
+    static synchronized void writeEntry(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(RECORD_SIZE);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(VERSION);
+        out.writeLong(entry.mediaId);
+        out.writeInt(entry.position);
+        out.writeInt(entry.duration);
+        out.writeInt(entry.playedDuration);
+        out.writeLong(entry.lastPlayedTimeStatistics);
+        out.writeLong(entry.lastPlayedTimeHistory);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray(), 0, PAYLOAD_SIZE);
+        out.writeLong(crc.getValue());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek((long) nextSlot * RECORD_SIZE);
+            raf.write(bytes.toByteArray());
+        }
+        nextSlot = 1 - nextSlot;
+    }
+
+    /**
+     * @return The newest valid entry, or null if the journal is empty.
+     */
+    @Nullable
+    static synchronized Entry readEntry() {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        byte[] data = new byte[2 * RECORD_SIZE];
+        int length;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            length = raf.read(data);
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to read position journal", e);
+            return null;
+        }
+        Entry newest = null;
+        for (int slot = 0; slot < 2; slot++) {
+            if (length < (slot + 1) * RECORD_SIZE) {
+                break;
+            }
+            Entry entry = parseRecord(data, slot * RECORD_SIZE);
+            if (entry != null && (newest == null
+                    || entry.lastPlayedTimeStatistics > newest.lastPlayedTimeStatistics)) {
+                newest = entry;
+            }
+        }
+        return newest;
+    }
+
+    @Nullable
+    private static Entry parseRecord(byte[] data, int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, PAYLOAD_SIZE);
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, RECORD_SIZE));
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+            Entry entry = new Entry(in.readLong(), in.readInt(), in.readInt(), in.readInt(),
+                    in.readLong(), in.readLong());
+            if (in.readLong() != crc.getValue()) {
+                Log.d(TAG, "Ignoring incomplete journal record");
+                return null;
+            }
+            return entry;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static synchronized void clear() {
+        if (file != null && file.exists() && !file.delete()) {
+            Log.e(TAG, "Unable to delete position journal");
+        }
+        nextSlot = 0;
+    }
+}
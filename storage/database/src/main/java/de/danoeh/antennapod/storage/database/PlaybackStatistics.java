@@ -0,0 +1,237 @@
+package de.danoeh.antennapod.storage.database;
+
+import android.database.Cursor;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.storage.database.mapper.FeedCursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All statistics of a time window, computed in a single pass over the episodes. The statistics screens and Echo
+ * ask for the same few windows again and again, so the results are cached for a short time.
+ */
+final class PlaybackStatistics {
+    /**
+     * Marks columns that are NULL, for example because an episode has no media.
+     */
+    static final long NO_VALUE = Long.MIN_VALUE;
+    private static final long CACHE_TIME_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int CACHE_SIZE = 4;
+
+    private static final Map<String, PlaybackStatistics> cache =
+            new LinkedHashMap<String, PlaybackStatistics>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PlaybackStatistics> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    private final long timeFilterFrom;
+    private final long timeFilterTo;
+    private final long sixMonthsAgo;
+    private final long createdAt = System.currentTimeMillis();
+    private final Map<Long, FeedStatistics> feeds = new LinkedHashMap<>();
+    private final TreeMap<Integer, Long> monthlyPlayedTime = new TreeMap<>();
+    private final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    private long[] timesBetweenReleaseAndPlayback = new long[64];
+    private int numTimesBetweenReleaseAndPlayback = 0;
+    private long medianTimeBetweenReleaseAndPlayback = 0;
+
+    PlaybackStatistics(long timeFilterFrom, long timeFilterTo, long sixMonthsAgo) {
+        this.timeFilterFrom = timeFilterFrom;
+        this.timeFilterTo = timeFilterTo;
+        this.sixMonthsAgo = sixMonthsAgo;
+    }
+
+    @NonNull
+    static synchronized PlaybackStatistics get(long timeFilterFrom, long timeFilterTo) {
+        String key = timeFilterFrom + "-" + timeFilterTo;
+        PlaybackStatistics statistics = cache.get(key);
+        if (statistics == null || System.currentTimeMillis() - statistics.createdAt > CACHE_TIME_MILLIS) {
+            statistics = compute(timeFilterFrom, timeFilterTo);
+            cache.put(key, statistics);
+        }
+        return statistics;
+    }
+
+    static synchronized void invalidate() {
+        cache.clear();
+    }
+
+    private static PlaybackStatistics compute(long timeFilterFrom, long timeFilterTo) {
+        long sixMonthsAgo = System.currentTimeMillis() - (long) (1000L * 3600 * 24 * 30.44 * 6);
+        PlaybackStatistics statistics = new PlaybackStatistics(timeFilterFrom, timeFilterTo, sixMonthsAgo);
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try {
+            Map<Long, Feed> subscribedFeeds = new HashMap<>();
+            try (FeedCursor cursor = new FeedCursor(adapter.getAllFeedsCursor())) {
+                while (cursor.moveToNext()) {
+                    Feed feed = cursor.getFeed();
+                    if (feed.getState() == Feed.STATE_SUBSCRIBED) {
+                        subscribedFeeds.put(feed.getId(), feed);
+                    }
+                }
+            }
+            try (Cursor cursor = adapter.getPlaybackStatisticsCursor()) {
+                while (cursor.moveToNext()) {
+                    statistics.add(subscribedFeeds.get(cursor.getLong(0)), cursor.getInt(1),
+                            getLongOrNoValue(cursor, 2), cursor.getLong(3), cursor.getLong(4), cursor.getLong(5),
+                            cursor.getLong(6), getLongOrNoValue(cursor, 7), cursor.getLong(8), cursor.getLong(9));
+                }
+            }
+        } finally {
+            adapter.close();
+        }
+        statistics.finish();
+        return statistics;
+    }
+
+    private static long getLongOrNoValue(Cursor cursor, int index) {
+        return cursor.isNull(index) ? NO_VALUE : cursor.getLong(index);
+    }
+
+    /**
+     * Adds one episode. Media columns of episodes without media are 0,
+     * except for the last played time, which is {@link #NO_VALUE} like a missing publishing date.
+     *
+     * @param feed The feed of the episode, or null if it is not subscribed.
+     *             Episodes of feeds that are not subscribed only count towards the monthly and release statistics.
+     */
+    void add(@Nullable Feed feed, int read, long pubDate, long duration, long playedDuration, long position,
+             long lastPlayedTimeHistory, long lastPlayedTimeStatistics, long downloadDate, long size) {
+        boolean isInTimeFilter = lastPlayedTimeStatistics != NO_VALUE
+                && lastPlayedTimeStatistics >= timeFilterFrom && lastPlayedTimeStatistics < timeFilterTo;
+
+        if (lastPlayedTimeStatistics > 0 && playedDuration > 0) {
+            calendar.setTimeInMillis(lastPlayedTimeStatistics);
+            int month = calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+            Long playedInMonth = monthlyPlayedTime.get(month);
+            monthlyPlayedTime.put(month, (playedInMonth != null ? playedInMonth : 0) + playedDuration);
+        }
+
+        if (isInTimeFilter && pubDate != NO_VALUE && pubDate >= timeFilterFrom) {
+            if (numTimesBetweenReleaseAndPlayback == timesBetweenReleaseAndPlayback.length) {
+                timesBetweenReleaseAndPlayback = Arrays.copyOf(timesBetweenReleaseAndPlayback,
+                        2 * timesBetweenReleaseAndPlayback.length);
+            }
+            timesBetweenReleaseAndPlayback[numTimesBetweenReleaseAndPlayback++] = lastPlayedTimeStatistics - pubDate;
+        }
+
+        if (feed == null) {
+            return;
+        }
+        FeedStatistics feedStatistics = feeds.get(feed.getId());
+        if (feedStatistics == null) {
+            feedStatistics = new FeedStatistics(feed);
+            feeds.put(feed.getId(), feedStatistics);
+        }
+        feedStatistics.numEpisodes++;
+        if (lastPlayedTimeStatistics > 0) {
+            feedStatistics.oldestDate = Math.min(feedStatistics.oldestDate, lastPlayedTimeStatistics);
+        }
+        boolean wasStarted = lastPlayedTimeHistory > 0 && playedDuration > 0;
+        if (wasStarted) {
+            feedStatistics.episodesStarted++;
+        }
+        if (wasStarted || read == FeedItem.PLAYED || position > 0) {
+            feedStatistics.episodesStartedIncludingMarked++;
+        }
+        if (isInTimeFilter) {
+            feedStatistics.playedTime += playedDuration;
+            if (playedDuration != 0) {
+                feedStatistics.playedTimeIncludingMarked += playedDuration;
+            } else if (read == FeedItem.PLAYED) {
+                feedStatistics.playedTimeIncludingMarked += duration;
+            }
+        }
+        feedStatistics.totalTime += duration;
+        if (downloadDate > 0) {
+            feedStatistics.numDownloaded++;
+            feedStatistics.downloadSize += size;
+        }
+        if (read != FeedItem.PLAYED && pubDate != NO_VALUE && pubDate >= sixMonthsAgo) {
+            feedStatistics.numRecentUnplayed++;
+        }
+    }
+
+    void finish() {
+        if (numTimesBetweenReleaseAndPlayback > 0) {
+            Arrays.sort(timesBetweenReleaseAndPlayback, 0, numTimesBetweenReleaseAndPlayback);
+            medianTimeBetweenReleaseAndPlayback =
+                    timesBetweenReleaseAndPlayback[numTimesBetweenReleaseAndPlayback / 2];
+        }
+        timesBetweenReleaseAndPlayback = null;
+    }
+
+    /**
+     * Returns a new result, so callers are free to sort it.
+     */
+    @NonNull
+    DBReader.StatisticsResult getStatisticsResult(boolean includeMarkedAsPlayed) {
+        DBReader.StatisticsResult result = new DBReader.StatisticsResult();
+        for (FeedStatistics feedStatistics : feeds.values()) {
+            if (feedStatistics.oldestDate < Long.MAX_VALUE) {
+                result.oldestDate = Math.min(result.oldestDate, feedStatistics.oldestDate);
+            }
+            long playedTime = includeMarkedAsPlayed
+                    ? feedStatistics.playedTimeIncludingMarked : feedStatistics.playedTime;
+            long episodesStarted = includeMarkedAsPlayed
+                    ? feedStatistics.episodesStartedIncludingMarked : feedStatistics.episodesStarted;
+            result.feedTime.add(new StatisticsItem(feedStatistics.feed, feedStatistics.totalTime / 1000,
+                    playedTime / 1000, feedStatistics.numEpisodes, episodesStarted, feedStatistics.downloadSize,
+                    feedStatistics.numDownloaded, feedStatistics.numRecentUnplayed > 0));
+        }
+        return result;
+    }
+
+    /**
+     * Played time per month, independent of the time filter.
+     */
+    @NonNull
+    List<DBReader.MonthlyStatisticsItem> getMonthlyStatistics() {
+        List<DBReader.MonthlyStatisticsItem> months = new ArrayList<>();
+        for (Map.Entry<Integer, Long> entry : monthlyPlayedTime.entrySet()) {
+            DBReader.MonthlyStatisticsItem item = new DBReader.MonthlyStatisticsItem();
+            item.setYear(entry.getKey() / 12);
+            item.setMonth(entry.getKey() % 12 + 1);
+            item.setTimePlayed(entry.getValue());
+            months.add(item);
+        }
+        return months;
+    }
+
+    long getMedianTimeBetweenReleaseAndPlayback() {
+        return medianTimeBetweenReleaseAndPlayback;
+    }
+
+    private static class FeedStatistics {
+        final Feed feed;
+        long numEpisodes = 0;
+        long oldestDate = Long.MAX_VALUE;
+        long episodesStarted = 0;
+        long episodesStartedIncludingMarked = 0;
+        long playedTime = 0;
+        long playedTimeIncludingMarked = 0;
+        long totalTime = 0;
+        long numDownloaded = 0;
+        long downloadSize = 0;
+        long numRecentUnplayed = 0;
+
+        FeedStatistics(Feed feed) {
+            this.feed = feed;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteDatabase.CursorFactory;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Build;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -22,6 +23,7 @@ import de.danoeh.antennapod.model.feed.FeedFunding;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -52,12 +54,19 @@ public class PodDBAdapter {
 
     private static final String TAG = "PodDBAdapter";
     public static final String DATABASE_NAME = "Antennapod.db";
-    public static final int VERSION = 3080000;
+    public static final int VERSION = 3090000;
 
     /**
      * Maximum number of arguments for IN-operator.
      */
-    private static final int IN_OPERATOR_MAXIMUM = 800;
+    static final int IN_OPERATOR_MAXIMUM = 800;
+
+    /**
+     * The queue is ordered by the ID column, which is used as a sparse position key. After the whole queue is
+     * written, neighbouring items have keys this far apart, so that items can be moved between them
+     * by changing a single row.
+     */
+    static final long QUEUE_POSITION_GAP = 1 << 16;
 
     // Key-constants
     public static final String KEY_ID = "id";
@@ -228,6 +237,14 @@ public class PodDBAdapter {
             + TABLE_NAME_FEED_ITEMS + "_" + KEY_PUBDATE + " ON " + TABLE_NAME_FEED_ITEMS + " ("
             + KEY_PUBDATE + ")";
 
+    static final String CREATE_INDEX_FEEDITEMS_FEED_PUBDATE = "CREATE INDEX "
+            + TABLE_NAME_FEED_ITEMS + "_" + KEY_FEED + "_" + KEY_PUBDATE + " ON " + TABLE_NAME_FEED_ITEMS + " ("
+            + KEY_FEED + ", " + KEY_PUBDATE + ", " + KEY_ID + ")";
+
+    static final String CREATE_INDEX_FEEDITEMS_ITEM_IDENTIFIER = "CREATE INDEX "
+            + TABLE_NAME_FEED_ITEMS + "_" + KEY_ITEM_IDENTIFIER + " ON " + TABLE_NAME_FEED_ITEMS + " ("
+            + KEY_ITEM_IDENTIFIER + ")";
+
     static final String CREATE_INDEX_FEEDITEMS_READ = "CREATE INDEX "
             + TABLE_NAME_FEED_ITEMS + "_" + KEY_READ + " ON " + TABLE_NAME_FEED_ITEMS + " ("
             + KEY_READ + ")";
@@ -240,6 +257,10 @@ public class PodDBAdapter {
             + TABLE_NAME_FEED_MEDIA + "_" + KEY_FEEDITEM + " ON " + TABLE_NAME_FEED_MEDIA + " ("
             + KEY_FEEDITEM + ")";
 
+    static final String CREATE_INDEX_FEEDMEDIA_DOWNLOAD_URL = "CREATE INDEX "
+            + TABLE_NAME_FEED_MEDIA + "_" + KEY_DOWNLOAD_URL + " ON " + TABLE_NAME_FEED_MEDIA + " ("
+            + KEY_DOWNLOAD_URL + ")";
+
     static final String CREATE_INDEX_SIMPLECHAPTERS_FEEDITEM = "CREATE INDEX "
             + TABLE_NAME_SIMPLECHAPTERS + "_" + KEY_FEEDITEM + " ON " + TABLE_NAME_SIMPLECHAPTERS + " ("
             + KEY_FEEDITEM + ")";
@@ -410,6 +431,29 @@ public class PodDBAdapter {
     public static void tearDownTests() {
         getInstance().dbHelper.close();
         instance = null;
+        PlaybackStatistics.invalidate();
+    }
+
+    /**
+     * Writes a consistent copy of the database to the given file. Other database operations have to wait while
+     * the copy is written, so it should go to local storage. Compressing or uploading it can then happen later.
+     */
+    public void snapshotTo(File destination) throws IOException {
+        if (destination.exists() && !destination.delete()) {
+            throw new IOException("Unable to delete old snapshot");
+        }
+        if (Build.VERSION.SDK_INT >= 30) {
+            // Needs SQLite 3.27. Only copies pages that are in use, so the snapshot does not contain free space.
+            db.execSQL("VACUUM INTO ?", new Object[] {destination.getAbsolutePath()});
+            return;
+        }
+        // Keeps writers out, so the file does not change while it is being copied
+        db.beginTransactionNonExclusive();
+        try {
+            FileUtils.copyFile(new File(db.getPath()), destination);
+        } finally {
+            db.endTransaction();
+        }
     }
 
     public static boolean deleteDatabase() {
@@ -632,6 +676,25 @@ public class PodDBAdapter {
         }
     }
 
+    /**
+     * Stores the items and removes some of them from the queue in a single transaction.
+     * The positions of the remaining queue items are kept.
+     */
+    public void storeFeedItemlistAndRemoveFromQueue(List<FeedItem> items, long[] removeFromQueue) {
+        try {
+            db.beginTransactionNonExclusive();
+            for (FeedItem item : items) {
+                updateOrInsertFeedItem(item, true);
+            }
+            deleteQueueRows(removeFromQueue);
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, Log.getStackTraceString(e));
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     public long setSingleFeedItem(FeedItem item) {
         long result = 0;
         try {
@@ -878,7 +941,7 @@ public class PodDBAdapter {
             db.delete(TABLE_NAME_QUEUE, null, null);
             for (int i = 0; i < queue.size(); i++) {
                 FeedItem item = queue.get(i);
-                values.put(KEY_ID, i);
+                values.put(KEY_ID, (i + 1) * QUEUE_POSITION_GAP);
                 values.put(KEY_FEEDITEM, item.getId());
                 values.put(KEY_FEED, item.getFeed().getId());
                 db.insertWithOnConflict(TABLE_NAME_QUEUE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
@@ -891,6 +954,227 @@ public class PodDBAdapter {
         }
     }
 
+    /**
+     * Moves the item to the given index of the queue, or inserts it there if it is not in the queue yet.
+     * Only the row of the item is written, using a position key between the keys of its new neighbours.
+     * If the neighbours have no free key between them, the keys of the whole queue are spread out first.
+     *
+     * @param index Index after the item was removed from its old position
+     */
+    public void setQueueItemPosition(FeedItem item, int index) {
+        try {
+            db.beginTransactionNonExclusive();
+            Long key = findQueuePositionKey(item.getId(), index);
+            if (key == null) {
+                Log.d(TAG, "No free queue position key at index " + index + ", renumbering queue");
+                spreadQueuePositionKeys();
+                key = findQueuePositionKey(item.getId(), index);
+            }
+            ContentValues values = new ContentValues();
+            values.put(KEY_ID, key);
+            values.put(KEY_FEEDITEM, item.getId());
+            values.put(KEY_FEED, item.getFeedId());
+            String[] whereArgs = new String[]{String.valueOf(item.getId())};
+            if (db.update(TABLE_NAME_QUEUE, values, KEY_FEEDITEM + "=?", whereArgs) == 0) {
+                db.insert(TABLE_NAME_QUEUE, null, values);
+            }
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, Log.getStackTraceString(e));
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Inserts items that are not in the queue yet at the given index, keeping their order.
+     * Only the rows of the new items are written, with evenly spaced position keys between the keys of
+     * their new neighbours. If there is not enough room between them, the keys of the whole queue are spread out.
+     */
+    public void insertQueueItems(List<FeedItem> items, int index) {
+        if (items.isEmpty()) {
+            return;
+        }
+        try {
+            db.beginTransactionNonExclusive();
+            insertQueueRows(items, index);
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, Log.getStackTraceString(e));
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Moves the items to the given index of the queue, keeping their order. Like {@link #insertQueueItems},
+     * only the rows of the moved items are written, all in one transaction.
+     *
+     * @param index Index after the items were removed from their old positions
+     */
+    public void moveQueueItems(List<FeedItem> items, int index) {
+        if (items.isEmpty()) {
+            return;
+        }
+        long[] itemIds = new long[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            itemIds[i] = items.get(i).getId();
+        }
+        try {
+            db.beginTransactionNonExclusive();
+            deleteQueueRows(itemIds);
+            insertQueueRows(items, index);
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, Log.getStackTraceString(e));
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Needs to run in a transaction.
+     */
+    private void insertQueueRows(List<FeedItem> items, int index) {
+        Long previous = null;
+        Long next = null;
+        try (Cursor cursor = db.rawQuery("SELECT " + KEY_ID + " FROM " + TABLE_NAME_QUEUE
+                + " ORDER BY " + KEY_ID + " LIMIT 2 OFFSET " + Math.max(0, index - 1), null)) {
+            if (index > 0 && cursor.moveToNext()) {
+                previous = cursor.getLong(0);
+            }
+            if (cursor.moveToNext()) {
+                next = cursor.getLong(0);
+            }
+        }
+        if (index > 0 && previous == null) {
+            // Index is after the end of the queue
+            try (Cursor cursor = db.rawQuery("SELECT MAX(" + KEY_ID + ") FROM " + TABLE_NAME_QUEUE
+                    + " HAVING COUNT(*) > 0", null)) {
+                if (cursor.moveToFirst()) {
+                    previous = cursor.getLong(0);
+                }
+            }
+        }
+
+        long step = QUEUE_POSITION_GAP;
+        long first;
+        if (previous == null && next == null) {
+            first = QUEUE_POSITION_GAP;
+        } else if (next == null) {
+            first = previous + QUEUE_POSITION_GAP;
+        } else if (previous == null) {
+            first = next - QUEUE_POSITION_GAP * items.size();
+        } else {
+            step = (next - previous) / (items.size() + 1);
+            first = previous + step;
+        }
+        if (step < 1) {
+            Log.d(TAG, "Not enough free queue position keys at index " + index + ", renumbering queue");
+            spreadQueuePositionKeys(index, items.size());
+            step = QUEUE_POSITION_GAP;
+            first = (index + 1) * QUEUE_POSITION_GAP;
+        }
+
+        ContentValues values = new ContentValues();
+        for (int i = 0; i < items.size(); i++) {
+            values.put(KEY_ID, first + i * step);
+            values.put(KEY_FEEDITEM, items.get(i).getId());
+            values.put(KEY_FEED, items.get(i).getFeedId());
+            db.insert(TABLE_NAME_QUEUE, null, values);
+        }
+    }
+
+    /**
+     * Returns a position key that sorts the item at the given index, ignoring the item's current row.
+     *
+     * @return The key, or null if the neighbours at that index have consecutive keys.
+     */
+    @Nullable
+    private Long findQueuePositionKey(long itemId, int index) {
+        final String others = " FROM " + TABLE_NAME_QUEUE + " WHERE " + KEY_FEEDITEM + " != " + itemId;
+        if (index <= 0) {
+            try (Cursor cursor = db.rawQuery("SELECT MIN(" + KEY_ID + ")" + others
+                    + " HAVING COUNT(*) > 0", null)) {
+                return cursor.moveToFirst() ? cursor.getLong(0) - QUEUE_POSITION_GAP : QUEUE_POSITION_GAP;
+            }
+        }
+        try (Cursor cursor = db.rawQuery("SELECT " + KEY_ID + others
+                + " ORDER BY " + KEY_ID + " LIMIT 2 OFFSET " + (index - 1), null)) {
+            if (cursor.moveToFirst()) {
+                long previous = cursor.getLong(0);
+                if (!cursor.moveToNext()) {
+                    return previous + QUEUE_POSITION_GAP;
+                }
+                long next = cursor.getLong(0);
+                return next - previous < 2 ? null : previous + (next - previous) / 2;
+            }
+        }
+        // Index is after the end of the queue
+        try (Cursor cursor = db.rawQuery("SELECT MAX(" + KEY_ID + ")" + others + " HAVING COUNT(*) > 0", null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) + QUEUE_POSITION_GAP : QUEUE_POSITION_GAP;
+        }
+    }
+
+    /**
+     * Rewrites the position keys of the queue with {@link #QUEUE_POSITION_GAP} between them, keeping the order.
+     * Needs to run in a transaction.
+     */
+    private void spreadQueuePositionKeys() {
+        spreadQueuePositionKeys(0, 0);
+    }
+
+    /**
+     * Like {@link #spreadQueuePositionKeys()}, but leaves the keys for {@code count} items at the given index free.
+     */
+    private void spreadQueuePositionKeys(int index, int count) {
+        List<long[]> rows = new ArrayList<>();
+        try (Cursor cursor = db.query(TABLE_NAME_QUEUE, new String[]{KEY_FEEDITEM, KEY_FEED},
+                null, null, null, null, KEY_ID + " ASC")) {
+            while (cursor.moveToNext()) {
+                rows.add(new long[]{cursor.getLong(0), cursor.getLong(1)});
+            }
+        }
+        db.delete(TABLE_NAME_QUEUE, null, null);
+        ContentValues values = new ContentValues();
+        for (int i = 0; i < rows.size(); i++) {
+            int position = i < index ? i : i + count;
+            values.put(KEY_ID, (position + 1) * QUEUE_POSITION_GAP);
+            values.put(KEY_FEEDITEM, rows.get(i)[0]);
+            values.put(KEY_FEED, rows.get(i)[1]);
+            db.insert(TABLE_NAME_QUEUE, null, values);
+        }
+    }
+
+    /**
+     * Removes the items from the queue. The position keys of the other items stay the same.
+     */
+    public void removeQueueItems(long[] itemIds) {
+        try {
+            db.beginTransactionNonExclusive();
+            deleteQueueRows(itemIds);
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, Log.getStackTraceString(e));
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void deleteQueueRows(long[] itemIds) {
+        for (int i = 0; i < itemIds.length; i += IN_OPERATOR_MAXIMUM) {
+            int end = Math.min(itemIds.length, i + IN_OPERATOR_MAXIMUM);
+            StringBuilder ids = new StringBuilder();
+            for (int j = i; j < end; j++) {
+                if (j != i) {
+                    ids.append(",");
+                }
+                ids.append(itemIds[j]);
+            }
+            db.delete(TABLE_NAME_QUEUE, KEY_FEEDITEM + " IN (" + ids + ")", null);
+        }
+    }
+
     public void clearQueue() {
         db.delete(TABLE_NAME_QUEUE, null, null);
     }
@@ -998,6 +1282,42 @@ public class PodDBAdapter {
         return db.rawQuery(query, null);
     }
 
+    /**
+     * Returns the items of a feed that follow the given item in the given sort order.
+     * Unlike an offset, the key of the last item lets the database seek directly to the next page.
+     * Only valid if {@link FeedItemSortQuery#supportsKeyset} returns true for the sort order.
+     */
+    public final Cursor getItemsOfFeedAfterCursor(final Feed feed, FeedItemFilter filter, SortOrder sortOrder,
+                                                  FeedItem lastItem, int limit) {
+        String orderByQuery = FeedItemSortQuery.generateFrom(sortOrder);
+        String filterQuery = FeedItemFilterQuery.generateFrom(filter);
+        String whereClauseAnd = "".equals(filterQuery) ? "" : " AND " + filterQuery;
+        final String query = SELECT_FEED_ITEMS_AND_MEDIA
+                + " WHERE " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED + "=" + feed.getId()
+                + " AND " + FeedItemSortQuery.generateKeysetCondition(sortOrder, lastItem)
+                + whereClauseAnd
+                + " ORDER BY " + orderByQuery
+                + " LIMIT " + limit;
+        return db.rawQuery(query, null);
+    }
+
+    /**
+     * Returns the items of a feed up to and including the given item in the given sort order.
+     * Only valid if {@link FeedItemSortQuery#supportsKeyset} returns true for the sort order.
+     */
+    public final Cursor getItemsOfFeedUpToCursor(final Feed feed, FeedItemFilter filter, SortOrder sortOrder,
+                                                 FeedItem lastItem) {
+        String orderByQuery = FeedItemSortQuery.generateFrom(sortOrder);
+        String filterQuery = FeedItemFilterQuery.generateFrom(filter);
+        String whereClauseAnd = "".equals(filterQuery) ? "" : " AND " + filterQuery;
+        final String query = SELECT_FEED_ITEMS_AND_MEDIA
+                + " WHERE " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED + "=" + feed.getId()
+                + " AND " + FeedItemSortQuery.generateKeysetBoundCondition(sortOrder, lastItem)
+                + whereClauseAnd
+                + " ORDER BY " + orderByQuery;
+        return db.rawQuery(query, null);
+    }
+
     /**
      * Return the description and content_encoded of item
      */
@@ -1082,6 +1402,46 @@ public class PodDBAdapter {
         return db.rawQuery(query, null);
     }
 
+    /**
+     * Returns only the columns that are needed to export the subscriptions, sorted by title.
+     * Columns: id, title, custom title, link, download url, image url, type
+     */
+    public final Cursor getSubscriptionsExportCursor() {
+        final String query = "SELECT " + KEY_ID + ", " + KEY_TITLE + ", " + KEY_CUSTOM_TITLE + ", " + KEY_LINK + ", "
+                + KEY_DOWNLOAD_URL + ", " + KEY_IMAGE_URL + ", " + KEY_TYPE
+                + " FROM " + TABLE_NAME_FEEDS
+                + " WHERE " + KEY_STATE + "=" + Feed.STATE_SUBSCRIBED
+                + " ORDER BY " + KEY_TITLE + " COLLATE NOCASE ASC";
+        return db.rawQuery(query, null);
+    }
+
+    /**
+     * Returns only the columns that are needed to export the favorites, grouped by feed and sorted from new to old.
+     * Columns: feed id, feed title, feed custom title, feed link, feed download url, feed image url,
+     * item title, item link, media download url
+     */
+    public final Cursor getFavoritesExportCursor() {
+        final String query = "SELECT " + TABLE_NAME_FEEDS + "." + KEY_ID
+                + ", " + TABLE_NAME_FEEDS + "." + KEY_TITLE
+                + ", " + TABLE_NAME_FEEDS + "." + KEY_CUSTOM_TITLE
+                + ", " + TABLE_NAME_FEEDS + "." + KEY_LINK
+                + ", " + TABLE_NAME_FEEDS + "." + KEY_DOWNLOAD_URL
+                + ", " + TABLE_NAME_FEEDS + "." + KEY_IMAGE_URL
+                + ", " + TABLE_NAME_FEED_ITEMS + "." + KEY_TITLE
+                + ", " + TABLE_NAME_FEED_ITEMS + "." + KEY_LINK
+                + ", " + TABLE_NAME_FEED_MEDIA + "." + KEY_DOWNLOAD_URL
+                + " FROM " + TABLE_NAME_FAVORITES
+                + " INNER JOIN " + TABLE_NAME_FEED_ITEMS
+                + " ON " + TABLE_NAME_FEED_ITEMS + "." + KEY_ID + "=" + TABLE_NAME_FAVORITES + "." + KEY_FEEDITEM
+                + " INNER JOIN " + TABLE_NAME_FEEDS
+                + " ON " + TABLE_NAME_FEEDS + "." + KEY_ID + "=" + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED
+                + " LEFT JOIN " + TABLE_NAME_FEED_MEDIA
+                + " ON " + TABLE_NAME_FEED_MEDIA + "." + KEY_FEEDITEM + "=" + TABLE_NAME_FEED_ITEMS + "." + KEY_ID
+                + " ORDER BY " + TABLE_NAME_FEEDS + "." + KEY_ID + " ASC, "
+                + TABLE_NAME_FEED_ITEMS + "." + KEY_PUBDATE + " DESC";
+        return db.rawQuery(query, null);
+    }
+
     public void setFeedItems(int oldState, int newState) {
         setFeedItems(oldState, newState, 0);
     }
@@ -1107,6 +1467,34 @@ public class PodDBAdapter {
         return db.rawQuery(query, null);
     }
 
+    /**
+     * Returns the episodes that follow the given item in the given sort order.
+     * Only valid if {@link FeedItemSortQuery#supportsKeyset} returns true for the sort order.
+     */
+    public final Cursor getEpisodesAfterCursor(FeedItem lastItem, int limit, FeedItemFilter filter,
+                                               SortOrder sortOrder) {
+        String orderByQuery = FeedItemSortQuery.generateFrom(sortOrder);
+        String filterQuery = FeedItemFilterQuery.generateFrom(filter);
+        String whereClause = " WHERE " + FeedItemSortQuery.generateKeysetCondition(sortOrder, lastItem)
+                + ("".equals(filterQuery) ? "" : " AND " + filterQuery);
+        final String query = SELECT_FEED_ITEMS_AND_MEDIA + whereClause
+                + " ORDER BY " + orderByQuery + " LIMIT " + limit;
+        return db.rawQuery(query, null);
+    }
+
+    /**
+     * Returns the episodes up to and including the given item in the given sort order.
+     * Only valid if {@link FeedItemSortQuery#supportsKeyset} returns true for the sort order.
+     */
+    public final Cursor getEpisodesUpToCursor(FeedItem lastItem, FeedItemFilter filter, SortOrder sortOrder) {
+        String orderByQuery = FeedItemSortQuery.generateFrom(sortOrder);
+        String filterQuery = FeedItemFilterQuery.generateFrom(filter);
+        String whereClause = " WHERE " + FeedItemSortQuery.generateKeysetBoundCondition(sortOrder, lastItem)
+                + ("".equals(filterQuery) ? "" : " AND " + filterQuery);
+        final String query = SELECT_FEED_ITEMS_AND_MEDIA + whereClause + " ORDER BY " + orderByQuery;
+        return db.rawQuery(query, null);
+    }
+
     public final Cursor getEpisodeCountCursor(FeedItemFilter filter) {
         String filterQuery = FeedItemFilterQuery.generateFrom(filter);
         String whereClause = "".equals(filterQuery) ? "" : " WHERE " + filterQuery;
@@ -1206,75 +1594,69 @@ public class PodDBAdapter {
         return db.rawQuery(query, null);
     }
 
-    public final Cursor getMonthlyStatisticsCursor() {
-        final String query = "SELECT SUM(" + KEY_PLAYED_DURATION + ") AS total_duration"
-                + ", strftime('%m', datetime(" + KEY_LAST_PLAYED_TIME_STATISTICS + "/1000, 'unixepoch')) AS month"
-                + ", strftime('%Y', datetime(" + KEY_LAST_PLAYED_TIME_STATISTICS + "/1000, 'unixepoch')) AS year"
-                + " FROM " + TABLE_NAME_FEED_MEDIA
-                + " WHERE " + KEY_LAST_PLAYED_TIME_STATISTICS + " > 0 AND " + KEY_PLAYED_DURATION + " > 0"
-                + " GROUP BY year, month"
-                + " ORDER BY year, month";
-        return db.rawQuery(query, null);
-    }
-
-    public final Cursor getFeedStatisticsCursor(boolean includeMarkedAsPlayed, long timeFilterFrom,
-                                                long timeFilterTo, long sixMonthsAgo) {
-        final String lastPlayedTimeStatistics = TABLE_NAME_FEED_MEDIA + "." + KEY_LAST_PLAYED_TIME_STATISTICS;
-        String wasStarted = TABLE_NAME_FEED_MEDIA + "." + KEY_LAST_PLAYED_TIME_HISTORY + " > 0"
-                + " AND " + TABLE_NAME_FEED_MEDIA + "." + KEY_PLAYED_DURATION + " > 0";
-        if (includeMarkedAsPlayed) {
-            wasStarted = "(" + wasStarted + ") OR "
-                    + TABLE_NAME_FEED_ITEMS + "." + KEY_READ + "=" + FeedItem.PLAYED + " OR "
-                    + TABLE_NAME_FEED_MEDIA + "." + KEY_POSITION + "> 0";
-        }
-        final String timeFilter = lastPlayedTimeStatistics + ">=" + timeFilterFrom
-                + " AND " + lastPlayedTimeStatistics + "<" + timeFilterTo;
-        String playedTime = TABLE_NAME_FEED_MEDIA + "." + KEY_PLAYED_DURATION;
-        if (includeMarkedAsPlayed) {
-            playedTime = "(CASE WHEN " + playedTime + " != 0"
-                    + " THEN " + playedTime + " ELSE ("
-                            + "CASE WHEN " + TABLE_NAME_FEED_ITEMS + "." + KEY_READ + "=" + FeedItem.PLAYED
-                                + " THEN " + TABLE_NAME_FEED_MEDIA + "." + KEY_DURATION + " ELSE 0 END"
-                    + ") END)";
-        }
-
-        final String query = "SELECT " + KEYS_FEED + ", "
-                        + "COUNT(*) AS num_episodes, "
-                        + "MIN(CASE WHEN " + lastPlayedTimeStatistics + " > 0"
-                                + " THEN " + lastPlayedTimeStatistics
-                                + " ELSE " + Long.MAX_VALUE + " END) AS oldest_date, "
-                        + "SUM(CASE WHEN (" + wasStarted + ") THEN 1 ELSE 0 END) AS episodes_started, "
-                        + "IFNULL(SUM(CASE WHEN (" + timeFilter + ")"
-                                + " THEN (" + playedTime + ") ELSE 0 END), 0) AS played_time, "
-                        + "IFNULL(SUM(" + TABLE_NAME_FEED_MEDIA + "." + KEY_DURATION + "), 0) AS total_time, "
-                        + "SUM(CASE WHEN " + TABLE_NAME_FEED_MEDIA + "." + KEY_DOWNLOAD_DATE + " > 0"
-                                + " THEN 1 ELSE 0 END) AS num_downloaded, "
-                        + "SUM(CASE WHEN " + TABLE_NAME_FEED_MEDIA + "." + KEY_DOWNLOAD_DATE + " > 0"
-                                + " THEN " + TABLE_NAME_FEED_MEDIA + "." + KEY_SIZE + " ELSE 0 END) AS download_size, "
-                        + "SUM(CASE WHEN " + TABLE_NAME_FEED_ITEMS + "." + KEY_READ + " != " + FeedItem.PLAYED
-                                + " AND " + TABLE_NAME_FEED_ITEMS + "." + KEY_PUBDATE + " >= " + sixMonthsAgo
-                                + " THEN 1 ELSE 0 END) AS num_recent_unplayed "
-                + " FROM " + TABLE_NAME_FEED_ITEMS
-                + JOIN_FEED_ITEM_AND_MEDIA
+    /**
+     * Loads the items that have one of the guids or whose media has one of the download URLs.
+     */
+    public final Cursor getFeedItemCursorByGuidsOrEpisodeUrls(List<String> guids, List<String> episodeUrls) {
+        if (guids.size() > IN_OPERATOR_MAXIMUM || episodeUrls.size() > IN_OPERATOR_MAXIMUM) {
+            throw new IllegalArgumentException("number of IDs must not be larger than " + IN_OPERATOR_MAXIMUM);
+        }
+        List<String> conditions = new ArrayList<>();
+        if (!guids.isEmpty()) {
+            conditions.add(TABLE_NAME_FEED_ITEMS + "." + KEY_ITEM_IDENTIFIER + " IN (" + escapeAndJoin(guids) + ")");
+        }
+        if (!episodeUrls.isEmpty()) {
+            conditions.add(TABLE_NAME_FEED_MEDIA + "." + KEY_DOWNLOAD_URL
+                    + " IN (" + escapeAndJoin(episodeUrls) + ")");
+        }
+        if (conditions.isEmpty()) {
+            conditions.add("0");
+        }
+        final String query = SELECT_FEED_ITEMS_AND_MEDIA
                 + " INNER JOIN " + TABLE_NAME_FEEDS
                 + " ON " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED + "=" + TABLE_NAME_FEEDS + "." + KEY_ID
-                + " WHERE " + TABLE_NAME_FEEDS + "." + KEY_STATE + "=" + Feed.STATE_SUBSCRIBED
-                + " GROUP BY " + TABLE_NAME_FEEDS + "." + KEY_ID;
+                + " WHERE " + TextUtils.join(" OR ", conditions);
         return db.rawQuery(query, null);
     }
 
-    public final Cursor getTimeBetweenReleaseAndPlayback(long timeFilterFrom, long timeFilterTo) {
-        final String from = " FROM " + TABLE_NAME_FEED_ITEMS
+    private static String escapeAndJoin(List<String> values) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i != 0) {
+                result.append(",");
+            }
+            result.append(DatabaseUtils.sqlEscapeString(values.get(i)));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Number of feeds that should be kept updated but were never refreshed.
+     */
+    public final long getNeverRefreshedFeedCount() {
+        return DatabaseUtils.queryNumEntries(db, TABLE_NAME_FEEDS, KEY_KEEP_UPDATED + " > 0 AND ("
+                + KEY_LAST_REFRESH_ATTEMPT + " IS NULL OR " + KEY_LAST_REFRESH_ATTEMPT + " = 0)");
+    }
+
+    /**
+     * One row per episode with the columns that the statistics are computed from.
+     * Columns: feed id, read, publishing date, duration, played duration, position, last played time (history),
+     * last played time (statistics), download date, size
+     */
+    public final Cursor getPlaybackStatisticsCursor() {
+        final String query = "SELECT " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED
+                + ", " + TABLE_NAME_FEED_ITEMS + "." + KEY_READ
+                + ", " + TABLE_NAME_FEED_ITEMS + "." + KEY_PUBDATE
+                + ", " + TABLE_NAME_FEED_MEDIA + "." + KEY_DURATION
+                + ", " + TABLE_NAME_FEED_MEDIA + "." + KEY_PLAYED_DURATION
+                + ", " + TABLE_NAME_FEED_MEDIA + "." + KEY_POSITION
+                + ", " + TABLE_NAME_FEED_MEDIA + "." + KEY_LAST_PLAYED_TIME_HISTORY
+                + ", " + TABLE_NAME_FEED_MEDIA + "." + KEY_LAST_PLAYED_TIME_STATISTICS
+                + ", " + TABLE_NAME_FEED_MEDIA + "." + KEY_DOWNLOAD_DATE
+                + ", " + TABLE_NAME_FEED_MEDIA + "." + KEY_SIZE
+                + " FROM " + TABLE_NAME_FEED_ITEMS
                 + JOIN_FEED_ITEM_AND_MEDIA
-                + " WHERE " + TABLE_NAME_FEED_MEDIA + "." + KEY_LAST_PLAYED_TIME_STATISTICS + ">=" + timeFilterFrom
-                        + " AND " + TABLE_NAME_FEED_ITEMS + "." + KEY_PUBDATE + ">=" + timeFilterFrom
-                        + " AND " + TABLE_NAME_FEED_MEDIA + "." + KEY_LAST_PLAYED_TIME_STATISTICS + "<" + timeFilterTo;
-        final String query = "SELECT " + TABLE_NAME_FEED_MEDIA + "." + KEY_LAST_PLAYED_TIME_STATISTICS
-                + " - " + TABLE_NAME_FEED_ITEMS + "." + KEY_PUBDATE + " AS diff"
-                + from
-                + " ORDER BY diff ASC"
-                + " LIMIT 1"
-                + " OFFSET (SELECT count(*)/2 " + from + ")";
+                + " ORDER BY " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED;
         return db.rawQuery(query, null);
     }
 
@@ -1521,8 +1903,11 @@ public class PodDBAdapter {
 
             db.execSQL(CREATE_INDEX_FEEDITEMS_FEED);
             db.execSQL(CREATE_INDEX_FEEDITEMS_PUBDATE);
+            db.execSQL(CREATE_INDEX_FEEDITEMS_FEED_PUBDATE);
+            db.execSQL(CREATE_INDEX_FEEDITEMS_ITEM_IDENTIFIER);
             db.execSQL(CREATE_INDEX_FEEDITEMS_READ);
             db.execSQL(CREATE_INDEX_FEEDMEDIA_FEEDITEM);
+            db.execSQL(CREATE_INDEX_FEEDMEDIA_DOWNLOAD_URL);
             db.execSQL(CREATE_INDEX_QUEUE_FEEDITEM);
             db.execSQL(CREATE_INDEX_SIMPLECHAPTERS_FEEDITEM);
         }
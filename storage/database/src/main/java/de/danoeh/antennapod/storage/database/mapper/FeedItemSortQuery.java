@@ -1,5 +1,6 @@
 package de.danoeh.antennapod.storage.database.mapper;
 
+import de.danoeh.antennapod.model.feed.FeedItem;
 import de.danoeh.antennapod.model.feed.SortOrder;
 import de.danoeh.antennapod.storage.database.PodDBAdapter;
 
@@ -25,14 +26,53 @@ public class FeedItemSortQuery {
                 return PodDBAdapter.TABLE_NAME_FEED_MEDIA + "."
                         + PodDBAdapter.KEY_LAST_PLAYED_TIME_HISTORY + " " + "DESC";
             case DATE_OLD_NEW:
-                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_PUBDATE + " " + "ASC";
+                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_PUBDATE + " " + "ASC, "
+                        + PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_ID + " " + "ASC";
             case EPISODE_FILENAME_A_Z:
                 return PodDBAdapter.KEY_LINK + " " + "ASC";
             case EPISODE_FILENAME_Z_A:
                 return PodDBAdapter.KEY_LINK + " " + "DESC";
             case DATE_NEW_OLD:
             default:
-                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_PUBDATE + " " + "DESC";
+                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_PUBDATE + " " + "DESC, "
+                        + PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_ID + " " + "DESC";
         }
     }
+
+    /**
+     * Returns true if pages in the given sort order can be loaded relative to the last item of the previous page.
+     * This requires the order to be unique, which is the case for (pubDate, id).
+     */
+    public static boolean supportsKeyset(SortOrder sortOrder) {
+        return sortOrder == null || sortOrder == SortOrder.DATE_NEW_OLD || sortOrder == SortOrder.DATE_OLD_NEW;
+    }
+
+    /**
+     * Generates a condition that matches all items that come after the given item in the given sort order.
+     */
+    public static String generateKeysetCondition(SortOrder sortOrder, FeedItem lastItem) {
+        if (!supportsKeyset(sortOrder) || lastItem.getPubDate() == null) {
+            throw new IllegalArgumentException("Keyset pagination not supported for " + sortOrder);
+        }
+        String comparator = sortOrder == SortOrder.DATE_OLD_NEW ? ">" : "<";
+        String pubDate = PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_PUBDATE;
+        String id = PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_ID;
+        long lastPubDate = lastItem.getPubDate().getTime();
+        return "(" + pubDate + comparator + lastPubDate
+                + " OR (" + pubDate + "=" + lastPubDate + " AND " + id + comparator + lastItem.getId() + "))";
+    }
+
+    /**
+     * Generates a condition that matches all items that come before the given item in the given sort order,
+     * including the item itself.
+     */
+    public static String generateKeysetBoundCondition(SortOrder sortOrder, FeedItem lastItem) {
+        String condition = "NOT " + generateKeysetCondition(sortOrder, lastItem);
+        if (sortOrder == SortOrder.DATE_OLD_NEW) {
+            // Items without date are sorted first
+            return "(" + PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_PUBDATE + " IS NULL OR "
+                    + condition + ")";
+        }
+        return condition;
+    }
 }
\ No newline at end of file
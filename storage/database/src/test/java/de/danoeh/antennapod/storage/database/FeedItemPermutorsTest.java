@@ -5,12 +5,19 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
 
 import de.danoeh.antennapod.model.feed.Feed;
 import de.danoeh.antennapod.model.feed.FeedItem;
 import de.danoeh.antennapod.model.feed.FeedMedia;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -176,6 +183,129 @@ public class FeedItemPermutorsTest {
         assertTrue(checkIdOrder(itemList, 2, 1, 3)); // after sorting
     }
 
+    @Test
+    public void testPermutorForRule_SMART_SHUFFLE_ASC() {
+        Permutor<FeedItem> permutor = FeedItemPermutors.getPermutor(SortOrder.SMART_SHUFFLE_OLD_NEW);
+
+        List<FeedItem> itemList = getSmartShuffleTestList("ABCDDEEEEEEEEEE");
+        Collections.shuffle(itemList, new Random(1));
+        permutor.reorder(itemList);
+        assertEquals("EEAEDEEBEEEDECE", feedLetters(itemList));
+        assertTrue(isPubDateOrderedPerFeed(itemList, true));
+    }
+
+    @Test
+    public void testPermutorForRule_SMART_SHUFFLE_DESC() {
+        Permutor<FeedItem> permutor = FeedItemPermutors.getPermutor(SortOrder.SMART_SHUFFLE_NEW_OLD);
+
+        List<FeedItem> itemList = getSmartShuffleTestList("AAAABBBBCCCC");
+        permutor.reorder(itemList);
+        assertEquals("CBACBACBACBA", feedLetters(itemList)); // Feed with the newest episode first
+        assertTrue(isPubDateOrderedPerFeed(itemList, false));
+    }
+
+    @Test
+    public void testPermutorForRule_SMART_SHUFFLE_NoNeighborsFromSameFeed() {
+        Permutor<FeedItem> permutor = FeedItemPermutors.getPermutor(SortOrder.SMART_SHUFFLE_OLD_NEW);
+
+        List<FeedItem> itemList = getSmartShuffleTestList("AAAAAABBBBBCCCCDDDEEF");
+        Collections.shuffle(itemList, new Random(2));
+        permutor.reorder(itemList);
+        String letters = feedLetters(itemList);
+        for (int i = 1; i < letters.length(); i++) {
+            assertNotEquals(letters, letters.charAt(i - 1), letters.charAt(i));
+        }
+        assertTrue(isPubDateOrderedPerFeed(itemList, true));
+    }
+
+    @Test
+    public void testKeySortsMatchComparators() {
+        List<FeedItem> queue = getLargeTestList();
+        assertSortedLike(queue, SortOrder.EPISODE_TITLE_A_Z, (f1, f2) -> lowerCase(f1.getTitle())
+                .compareTo(lowerCase(f2.getTitle())));
+        assertSortedLike(queue, SortOrder.EPISODE_TITLE_Z_A, (f1, f2) -> lowerCase(f2.getTitle())
+                .compareTo(lowerCase(f1.getTitle())));
+        assertSortedLike(queue, SortOrder.FEED_TITLE_A_Z, (f1, f2) -> lowerCase(f1.getFeed().getTitle())
+                .compareTo(lowerCase(f2.getFeed().getTitle())));
+        assertSortedLike(queue, SortOrder.DATE_OLD_NEW, (f1, f2) -> f1.getPubDate().compareTo(f2.getPubDate()));
+        assertSortedLike(queue, SortOrder.DATE_NEW_OLD, (f1, f2) -> f2.getPubDate().compareTo(f1.getPubDate()));
+        assertSortedLike(queue, SortOrder.DURATION_SHORT_LONG, (f1, f2) -> Integer.compare(
+                f1.getMedia().getDuration(), f2.getMedia().getDuration()));
+        assertSortedLike(queue, SortOrder.SIZE_LARGE_SMALL, (f1, f2) -> Long.compare(
+                f2.getMedia().getSize(), f1.getMedia().getSize()));
+    }
+
+    /**
+     * Checks that the permutor orders like a stable sort with the comparator, including items with equal keys.
+     */
+    private void assertSortedLike(List<FeedItem> queue, SortOrder sortOrder, Comparator<FeedItem> comparator) {
+        List<FeedItem> expected = new ArrayList<>(queue);
+        Collections.sort(expected, comparator);
+        List<FeedItem> actual = new ArrayList<>(queue);
+        FeedItemPermutors.getPermutor(sortOrder).reorder(actual);
+        assertEquals(sortOrder.name(), expected, actual);
+    }
+
+    private static String lowerCase(String title) {
+        return title.toLowerCase(Locale.getDefault());
+    }
+
+    /**
+     * Generates a shuffled list with few distinct values, so that many items have equal keys.
+     */
+    private List<FeedItem> getLargeTestList() {
+        Random random = new Random(42);
+        List<Feed> feeds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            feeds.add(new Feed(null, null, (i % 2 == 0 ? "feed " : "Feed ") + (i / 2)));
+        }
+        List<FeedItem> itemList = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String title = (random.nextBoolean() ? "Episode " : "episode ") + random.nextInt(50);
+            FeedItem item = new FeedItem(i, title, null, null, new Date(1000L * random.nextInt(100)), 0,
+                    feeds.get(random.nextInt(feeds.size())));
+            item.setMedia(new FeedMedia(0, item, 1000 * random.nextInt(20), 0, random.nextInt(20),
+                    null, null, null, 0, null, 0, 0));
+            itemList.add(item);
+        }
+        return itemList;
+    }
+
+    /**
+     * Generates one item per letter. Items with the same letter belong to the same feed.
+     */
+    private List<FeedItem> getSmartShuffleTestList(String feedLetters) {
+        List<FeedItem> itemList = new ArrayList<>();
+        for (int i = 0; i < feedLetters.length(); i++) {
+            char letter = feedLetters.charAt(i);
+            FeedItem item = new FeedItem(i, "Title " + i, null, null, new Date(1000L * i), 0,
+                    new Feed(null, null, String.valueOf(letter)));
+            item.setFeedId(letter);
+            itemList.add(item);
+        }
+        return itemList;
+    }
+
+    private String feedLetters(List<FeedItem> itemList) {
+        StringBuilder letters = new StringBuilder();
+        for (FeedItem item : itemList) {
+            letters.append((char) item.getFeedId());
+        }
+        return letters.toString();
+    }
+
+    private boolean isPubDateOrderedPerFeed(List<FeedItem> itemList, boolean ascending) {
+        for (int i = 0; i < itemList.size(); i++) {
+            for (int j = i + 1; j < itemList.size(); j++) {
+                if (itemList.get(i).getFeedId() == itemList.get(j).getFeedId()
+                        && itemList.get(i).getPubDate().before(itemList.get(j).getPubDate()) != ascending) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * Generates a list with test data.
      */
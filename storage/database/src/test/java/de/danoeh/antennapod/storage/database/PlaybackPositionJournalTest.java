@@ -0,0 +1,110 @@
+package de.danoeh.antennapod.storage.database;
+
+import android.content.Context;
+import androidx.test.platform.app.InstrumentationRegistry;
+import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import de.danoeh.antennapod.storage.preferences.UserPreferences;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+public class PlaybackPositionJournalTest {
+    private Context context;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getContext();
+        UserPreferences.init(context);
+        PodDBAdapter.init(context);
+        PodDBAdapter.deleteDatabase();
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        adapter.close();
+        PlaybackPositionJournal.init(context);
+        PlaybackPositionJournal.replay().get(); // Start with an empty journal
+    }
+
+    @After
+    public void tearDown() {
+        PodDBAdapter.tearDownTests();
+        DBWriter.tearDownTests();
+    }
+
+    private FeedMedia createMedia(int position, long lastPlayed) {
+        Feed feed = new Feed("url", null, "title");
+        feed.setItems(new ArrayList<>());
+        FeedItem item = new FeedItem(0, "item", "id", "link", new Date(), FeedItem.PLAYED, feed);
+        FeedMedia media = new FeedMedia(0, item, 60000, position, 1, "audio/mp3", null, "http://example.com/1.mp3",
+                0, new Date(lastPlayed), 0, lastPlayed);
+        item.setMedia(media);
+        feed.getItems().add(item);
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        adapter.setCompleteFeed(feed);
+        adapter.close();
+        return media;
+    }
+
+    @Test
+    public void testReplayNewerPosition() throws Exception {
+        FeedMedia media = createMedia(1000, 1000);
+        media.setPosition(5000);
+        media.setLastPlayedTimeStatistics(2000);
+        PlaybackPositionJournal.write(media);
+        PlaybackPositionJournal.replay().get();
+
+        FeedMedia restored = DBReader.getFeedMedia(media.getId());
+        assertNotNull(restored);
+        assertEquals(5000, restored.getPosition());
+        assertEquals(2000, restored.getLastPlayedTimeStatistics());
+        assertNull(PlaybackPositionJournal.readEntry());
+    }
+
+    @Test
+    public void testReplayKeepsNewerDatabaseState() throws Exception {
+        FeedMedia media = createMedia(1000, 3000);
+        PlaybackPositionJournal.writeEntry(new PlaybackPositionJournal.Entry(
+                media.getId(), 5000, 60000, 0, 2000, 2000));
+        PlaybackPositionJournal.replay().get();
+
+        FeedMedia restored = DBReader.getFeedMedia(media.getId());
+        assertNotNull(restored);
+        assertEquals(1000, restored.getPosition());
+    }
+
+    @Test
+    public void testIgnoresIncompleteRecord() throws Exception {
+        PlaybackPositionJournal.writeEntry(new PlaybackPositionJournal.Entry(1, 1000, 60000, 0, 1000, 1000));
+        PlaybackPositionJournal.writeEntry(new PlaybackPositionJournal.Entry(1, 2000, 60000, 0, 2000, 2000));
+        assertEquals(2000, PlaybackPositionJournal.readEntry().position);
+
+        File file = new File(context.getFilesDir(), "playback_position_journal");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3); // Interrupted while writing the second slot
+        }
+        assertEquals(1000, PlaybackPositionJournal.readEntry().position);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(10);
+            raf.write(0x7f); // Corrupted first slot
+        }
+        assertNull(PlaybackPositionJournal.readEntry());
+        PlaybackPositionJournal.replay().get();
+        assertFalse(file.exists());
+    }
+}
@@ -0,0 +1,135 @@
+package de.danoeh.antennapod.storage.database;
+
+import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.model.feed.FeedItem;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import static de.danoeh.antennapod.storage.database.PlaybackStatistics.NO_VALUE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlaybackStatisticsTest {
+    private static final long HOUR = 3600 * 1000L;
+    private static final long FROM = utc(2024, Calendar.JANUARY, 1);
+    private static final long TO = utc(2025, Calendar.JANUARY, 1);
+
+    private Feed feed1;
+    private Feed feed2;
+
+    @Before
+    public void setUp() {
+        feed1 = new Feed("https://example.com/1", null, "Feed 1");
+        feed1.setId(1);
+        feed2 = new Feed("https://example.com/2", null, "Feed 2");
+        feed2.setId(2);
+    }
+
+    @Test
+    public void testFeedStatistics() {
+        PlaybackStatistics statistics = new PlaybackStatistics(FROM, TO, utc(2024, Calendar.JUNE, 1));
+        long played = utc(2024, Calendar.MARCH, 10);
+        // Played in the time window
+        statistics.add(feed1, FeedItem.PLAYED, utc(2024, Calendar.MARCH, 1), HOUR, HOUR, 0,
+                played, played, played, 1000);
+        // Marked as played without playing, downloaded
+        statistics.add(feed1, FeedItem.PLAYED, utc(2024, Calendar.MARCH, 2), 2 * HOUR, 0, 0,
+                0, NO_VALUE, played, 500);
+        // Played before the time window
+        long playedBefore = utc(2023, Calendar.DECEMBER, 24);
+        statistics.add(feed1, FeedItem.PLAYED, utc(2023, Calendar.DECEMBER, 1), HOUR, HOUR, 0,
+                playedBefore, playedBefore, 0, 0);
+        // Recent and unplayed, no media
+        statistics.add(feed2, FeedItem.NEW, utc(2024, Calendar.JULY, 1), 0, 0, 0, 0, NO_VALUE, 0, 0);
+        statistics.finish();
+
+        DBReader.StatisticsResult result = statistics.getStatisticsResult(false);
+        assertEquals(2, result.feedTime.size());
+        StatisticsItem item1 = result.feedTime.get(0);
+        assertEquals(feed1, item1.feed);
+        assertEquals(3, item1.episodes);
+        assertEquals(2, item1.episodesStarted);
+        assertEquals(4 * HOUR / 1000, item1.time);
+        assertEquals(HOUR / 1000, item1.timePlayed);
+        assertEquals(2, item1.episodesDownloadCount);
+        assertEquals(1500, item1.totalDownloadSize);
+        assertFalse(item1.hasRecentUnplayed);
+        assertTrue(result.feedTime.get(1).hasRecentUnplayed);
+        assertEquals(playedBefore, result.oldestDate);
+
+        // The episode that was marked as played has no last played time, so it is not in the time window
+        StatisticsItem itemIncludingMarked = statistics.getStatisticsResult(true).feedTime.get(0);
+        assertEquals(3, itemIncludingMarked.episodesStarted);
+        assertEquals(HOUR / 1000, itemIncludingMarked.timePlayed);
+    }
+
+    @Test
+    public void testIncludeMarkedAsPlayed() {
+        PlaybackStatistics statistics = new PlaybackStatistics(FROM, TO, FROM);
+        long markedTime = utc(2024, Calendar.MAY, 1);
+        statistics.add(feed1, FeedItem.PLAYED, FROM, 2 * HOUR, 0, 0, 0, markedTime, 0, 0);
+        statistics.add(feed1, FeedItem.NEW, FROM, HOUR, 0, 10, 0, NO_VALUE, 0, 0);
+        statistics.finish();
+
+        StatisticsItem item = statistics.getStatisticsResult(false).feedTime.get(0);
+        assertEquals(0, item.episodesStarted);
+        assertEquals(0, item.timePlayed);
+        item = statistics.getStatisticsResult(true).feedTime.get(0);
+        assertEquals(2, item.episodesStarted);
+        assertEquals(2 * HOUR / 1000, item.timePlayed);
+    }
+
+    @Test
+    public void testUnsubscribedFeedsOnlyCountPerMonth() {
+        PlaybackStatistics statistics = new PlaybackStatistics(0, Long.MAX_VALUE, 0);
+        statistics.add(null, FeedItem.PLAYED, utc(2024, Calendar.FEBRUARY, 1), HOUR, HOUR, 0,
+                utc(2024, Calendar.FEBRUARY, 2), utc(2024, Calendar.FEBRUARY, 2), 0, 0);
+        statistics.add(feed1, FeedItem.PLAYED, utc(2024, Calendar.FEBRUARY, 3), HOUR, 2 * HOUR, 0,
+                utc(2024, Calendar.FEBRUARY, 4), utc(2024, Calendar.FEBRUARY, 4), 0, 0);
+        statistics.add(feed1, FeedItem.PLAYED, utc(2023, Calendar.DECEMBER, 3), HOUR, HOUR, 0,
+                utc(2023, Calendar.DECEMBER, 31), utc(2023, Calendar.DECEMBER, 31), 0, 0);
+        statistics.finish();
+
+        assertEquals(1, statistics.getStatisticsResult(false).feedTime.size());
+        List<DBReader.MonthlyStatisticsItem> months = statistics.getMonthlyStatistics();
+        assertEquals(2, months.size());
+        assertEquals(2023, months.get(0).getYear());
+        assertEquals(12, months.get(0).getMonth());
+        assertEquals(HOUR, months.get(0).getTimePlayed());
+        assertEquals(2024, months.get(1).getYear());
+        assertEquals(2, months.get(1).getMonth());
+        assertEquals(3 * HOUR, months.get(1).getTimePlayed());
+    }
+
+    @Test
+    public void testMedianTimeBetweenReleaseAndPlayback() {
+        PlaybackStatistics statistics = new PlaybackStatistics(FROM, TO, 0);
+        long[] delays = {5 * HOUR, HOUR, 3 * HOUR, 24 * HOUR};
+        for (int i = 0; i < delays.length; i++) {
+            long released = FROM + i * 24 * HOUR;
+            statistics.add(feed1, FeedItem.PLAYED, released, HOUR, HOUR, 0,
+                    released + delays[i], released + delays[i], 0, 0);
+        }
+        // Released before the time window
+        long playedLater = FROM + 100 * HOUR;
+        statistics.add(feed1, FeedItem.PLAYED, FROM - HOUR, HOUR, HOUR, 0, playedLater, playedLater, 0, 0);
+        statistics.finish();
+        assertEquals(5 * HOUR, statistics.getMedianTimeBetweenReleaseAndPlayback());
+
+        PlaybackStatistics empty = new PlaybackStatistics(FROM, TO, 0);
+        empty.finish();
+        assertEquals(0, empty.getMedianTimeBetweenReleaseAndPlayback());
+    }
+
+    private static long utc(int year, int month, int day) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(year, month, day);
+        return calendar.getTimeInMillis();
+    }
+}
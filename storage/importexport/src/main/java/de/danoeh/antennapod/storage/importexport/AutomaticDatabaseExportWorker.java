@@ -74,9 +74,9 @@ public class AutomaticDatabaseExportWorker extends Worker {
         if (documentFolder == null || !documentFolder.exists() || !documentFolder.canWrite()) {
             throw new IOException("Unable to open export folder");
         }
-        String filename = String.format("AntennaPodBackup-%s.db",
+        String filename = String.format("AntennaPodBackup-%s.db.gz",
                 new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date()));
-        DocumentFile exportFile = documentFolder.createFile("application/x-sqlite3", filename);
+        DocumentFile exportFile = documentFolder.createFile(DatabaseExporter.MIME_TYPE, filename);
         if (exportFile == null || !exportFile.canWrite()) {
             throw new IOException("Unable to create export file");
         }
@@ -85,7 +85,8 @@ public class AutomaticDatabaseExportWorker extends Worker {
         Iterator<DocumentFile> itr = files.iterator();
         while (itr.hasNext()) {
             DocumentFile file = itr.next();
-            if (!file.getName().matches("AntennaPodBackup-\\d\\d\\d\\d-\\d\\d-\\d\\d\\.db")) {
+            // Also matches uncompressed backups of older versions
+            if (!file.getName().matches("AntennaPodBackup-\\d\\d\\d\\d-\\d\\d-\\d\\d\\.db(\\.gz)?")) {
                 itr.remove();
             }
         }
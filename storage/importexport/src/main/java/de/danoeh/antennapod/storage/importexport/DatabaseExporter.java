@@ -1,6 +1,7 @@
 package de.danoeh.antennapod.storage.importexport;
 
 import android.content.Context;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.net.Uri;
@@ -10,28 +11,40 @@ import android.util.Log;
 import de.danoeh.antennapod.storage.database.PodDBAdapter;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Backups are gzip compressed copies of the database. The gzip trailer contains a CRC32 of the database,
+ * which is verified when importing. Uncompressed backups of older versions can still be imported.
+ */
 public class DatabaseExporter {
     private static final String TAG = "DatabaseExporter";
     private static final String TEMP_DB_NAME = PodDBAdapter.DATABASE_NAME + "_tmp";
+    private static final String SNAPSHOT_NAME = PodDBAdapter.DATABASE_NAME + "_snapshot";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    public static final String MIME_TYPE = "application/gzip";
 
     public static void exportToDocument(Uri uri, Context context) throws IOException {
         ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "wt");
-        int bytesCopied = -1;
-        int resultingFileSize = 0;
+        long bytesCopied = -1;
+        long resultingFileSize = 0;
         try (FileOutputStream fileOutputStream = new FileOutputStream(pfd.getFileDescriptor())) {
             bytesCopied = exportToStream(fileOutputStream, context);
         } catch (IOException e) {
             Log.e(TAG, Log.getStackTraceString(e));
             throw e;
         } finally {
-            resultingFileSize = (int) pfd.getStatSize();
+            resultingFileSize = pfd.getStatSize();
             IOUtils.closeQuietly(pfd);
         }
         if (resultingFileSize != bytesCopied) {
@@ -42,32 +55,68 @@ public class DatabaseExporter {
         }
     }
 
-    public static int exportToStream(FileOutputStream outFileStream, Context context) throws IOException {
-        File currentDB = context.getDatabasePath(PodDBAdapter.DATABASE_NAME);
-        if (!currentDB.exists()) {
-            throw new IOException("Cannot access current database");
-        }
-        try (InputStream src = new FileInputStream(currentDB)) {
-            return IOUtils.copy(src, outFileStream);
+    /**
+     * Writes a compressed backup to the stream.
+     *
+     * @return The number of bytes written
+     */
+    public static long exportToStream(OutputStream outputStream, Context context) throws IOException {
+        // The database is only locked while taking the local snapshot, not while compressing and writing
+        File snapshot = new File(context.getCacheDir(), SNAPSHOT_NAME);
+        try {
+            PodDBAdapter adapter = PodDBAdapter.getInstance();
+            adapter.open();
+            try {
+                adapter.snapshotTo(snapshot);
+            } catch (SQLiteException e) {
+                throw new IOException("Unable to create database snapshot", e);
+            } finally {
+                adapter.close();
+            }
+
+            CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+            try (InputStream src = new FileInputStream(snapshot)) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(countingStream, BUFFER_SIZE);
+                IOUtils.copyLarge(src, gzipStream, new byte[BUFFER_SIZE]);
+                gzipStream.finish();
+            }
+            countingStream.flush();
+            return countingStream.getByteCount();
         } catch (IOException e) {
             Log.e(TAG, Log.getStackTraceString(e));
             throw e;
+        } finally {
+            if (snapshot.exists() && !snapshot.delete()) {
+                Log.w(TAG, "Unable to delete snapshot");
+            }
         }
     }
 
     public static void importBackup(Uri inputUri, Context context) throws IOException {
-        InputStream inputStream = null;
+        File tempDB = context.getDatabasePath(TEMP_DB_NAME);
         try {
-            File tempDB = context.getDatabasePath(TEMP_DB_NAME);
-            inputStream = context.getContentResolver().openInputStream(inputUri);
-            FileUtils.copyInputStreamToFile(inputStream, tempDB);
+            InputStream inputStream = context.getContentResolver().openInputStream(inputUri);
+            if (inputStream == null) {
+                throw new IOException("Unable to open backup");
+            }
+            // Reading a gzip stream to its end verifies its checksum
+            try (InputStream backupStream = openBackup(inputStream)) {
+                FileUtils.copyInputStreamToFile(backupStream, tempDB);
+            }
 
             SQLiteDatabase db = SQLiteDatabase.openDatabase(tempDB.getAbsolutePath(),
                     null, SQLiteDatabase.OPEN_READONLY);
-            if (db.getVersion() > PodDBAdapter.VERSION) {
-                throw new IOException(context.getString(R.string.import_no_downgrade));
+            try {
+                if (db.getVersion() > PodDBAdapter.VERSION) {
+                    throw new IOException(context.getString(R.string.import_no_downgrade));
+                }
+                String integrity = DatabaseUtils.stringForQuery(db, "PRAGMA quick_check", null);
+                if (!"ok".equalsIgnoreCase(integrity)) {
+                    throw new IOException("Backup is damaged: " + integrity);
+                }
+            } finally {
+                db.close();
             }
-            db.close();
 
             File currentDB = context.getDatabasePath(PodDBAdapter.DATABASE_NAME);
             boolean success = currentDB.delete();
@@ -77,9 +126,22 @@ public class DatabaseExporter {
             FileUtils.moveFile(tempDB, currentDB);
         } catch (IOException | SQLiteException e) {
             Log.e(TAG, Log.getStackTraceString(e));
+            FileUtils.deleteQuietly(tempDB);
             throw e;
-        } finally {
-            IOUtils.closeQuietly(inputStream);
         }
     }
+
+    /**
+     * Decompresses the backup if needed.
+     */
+    private static InputStream openBackup(InputStream inputStream) throws IOException {
+        BufferedInputStream bufferedStream = new BufferedInputStream(inputStream, BUFFER_SIZE);
+        bufferedStream.mark(2);
+        int magic = bufferedStream.read() | (bufferedStream.read() << 8);
+        bufferedStream.reset();
+        if (magic == GZIPInputStream.GZIP_MAGIC) {
+            return new GZIPInputStream(bufferedStream, BUFFER_SIZE);
+        }
+        return bufferedStream;
+    }
 }
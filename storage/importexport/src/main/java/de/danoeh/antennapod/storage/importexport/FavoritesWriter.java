@@ -8,13 +8,10 @@ import org.apache.commons.io.IOUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 import de.danoeh.antennapod.model.feed.Feed;
 import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.storage.database.DBReader;
 
 /** Writes saved favorites to file. */
 public class FavoritesWriter {
@@ -23,7 +20,11 @@ public class FavoritesWriter {
     private static final String FEED_TEMPLATE = "html-export-feed-template.html";
     private static final String UTF_8 = "UTF-8";
 
-    public static void writeDocument(List<FeedItem> allFavorites, Writer writer, Context context)
+    /**
+     * Writes all favorite episodes, grouped by feed, into an HTML document. The episodes are read from the database
+     * one by one, so the writer should be buffered.
+     */
+    public static void writeDocument(Writer writer, Context context)
             throws IllegalArgumentException, IllegalStateException, IOException {
         Log.d(TAG, "Starting to write document");
 
@@ -38,19 +39,23 @@ public class FavoritesWriter {
         InputStream feedTemplateStream = context.getAssets().open(FEED_TEMPLATE);
         String feedTemplate = IOUtils.toString(feedTemplateStream, UTF_8);
 
-        Map<Long, List<FeedItem>> favoriteByFeed = getFeedMap(allFavorites);
-
         writer.append(templateParts[0]);
 
-        for (final Map.Entry<Long, List<FeedItem>> feedId : favoriteByFeed.entrySet()) {
-            final List<FeedItem> favorites = feedId.getValue();
-            writer.append("<li><div>\n");
-            writeFeed(writer, favorites.get(0).getFeed(), feedTemplate);
-
-            writer.append("<ul>\n");
-            for (FeedItem item : favorites) {
-                writeFavoriteItem(writer, item, favTemplate);
+        // Episodes are grouped by feed, so a feed section ends as soon as the feed changes
+        final Feed[] currentFeed = new Feed[1];
+        DBReader.forEachFavorite(item -> {
+            if (item.getFeed() != currentFeed[0]) {
+                if (currentFeed[0] != null) {
+                    writer.append("</ul></div></li>\n");
+                }
+                currentFeed[0] = item.getFeed();
+                writer.append("<li><div>\n");
+                writeFeed(writer, item.getFeed(), feedTemplate);
+                writer.append("<ul>\n");
             }
+            writeFavoriteItem(writer, item, favTemplate);
+        });
+        if (currentFeed[0] != null) {
             writer.append("</ul></div></li>\n");
         }
 
@@ -59,29 +64,6 @@ public class FavoritesWriter {
         Log.d(TAG, "Finished writing document");
     }
 
-    /**
-     * Group favorite episodes by feed, sorting them by publishing date in descending order.
-     *
-     * @param favoritesList {@code List} of all favorite episodes.
-     * @return A {@code Map} favorite episodes, keyed by feed ID.
-     */
-    private static Map<Long, List<FeedItem>> getFeedMap(List<FeedItem> favoritesList) {
-        Map<Long, List<FeedItem>> feedMap = new TreeMap<>();
-
-        for (FeedItem item : favoritesList) {
-            List<FeedItem> feedEpisodes = feedMap.get(item.getFeedId());
-
-            if (feedEpisodes == null) {
-                feedEpisodes = new ArrayList<>();
-                feedMap.put(item.getFeedId(), feedEpisodes);
-            }
-
-            feedEpisodes.add(item);
-        }
-
-        return feedMap;
-    }
-
     private static void writeFeed(Writer writer, Feed feed, String feedTemplate) throws IOException {
         String feedInfo = feedTemplate
                 .replace("{FEED_IMG}", feed.getImageUrl())
@@ -2,11 +2,10 @@ package de.danoeh.antennapod.storage.importexport;
 
 import android.content.Context;
 import android.util.Log;
-import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.storage.database.DBReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
-import java.util.List;
 import org.apache.commons.io.IOUtils;
 
 /** Writes HTML documents. */
@@ -14,10 +13,10 @@ public class HtmlWriter {
     private static final String TAG = "HtmlWriter";
 
     /**
-     * Takes a list of feeds and a writer and writes those into an HTML
-     * document.
+     * Writes all subscriptions into an HTML document. The subscriptions are read from the database one by one,
+     * so the writer should be buffered.
      */
-    public static void writeDocument(List<Feed> feeds, Writer writer, Context context)
+    public static void writeDocument(Writer writer, Context context)
             throws IllegalArgumentException, IllegalStateException, IOException {
         Log.d(TAG, "Starting to write document");
 
@@ -27,10 +26,7 @@ public class HtmlWriter {
         String[] templateParts = template.split("\\{FEEDS\\}");
 
         writer.append(templateParts[0]);
-        for (Feed feed : feeds) {
-            if (feed.getState() != Feed.STATE_SUBSCRIBED) {
-                continue;
-            }
+        DBReader.forEachSubscription(feed -> {
             writer.append("<li><div><img src=\"");
             writer.append(feed.getImageUrl());
             writer.append("\" /><p>");
@@ -40,7 +36,7 @@ public class HtmlWriter {
             writer.append("\">Website</a> • <a href=\"");
             writer.append(feed.getDownloadUrl());
             writer.append("\">Feed</a></span></p></div></li>\n");
-        }
+        });
         writer.append(templateParts[1]);
         Log.d(TAG, "Finished writing document");
     }
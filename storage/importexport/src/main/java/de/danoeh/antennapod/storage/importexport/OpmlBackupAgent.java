@@ -8,8 +8,6 @@ import android.content.Context;
 import android.os.ParcelFileDescriptor;
 import android.util.Log;
 
-import de.danoeh.antennapod.net.download.serviceinterface.FeedUpdateManager;
-import de.danoeh.antennapod.storage.database.FeedDatabaseWriter;
 import org.apache.commons.io.IOUtils;
 import org.xmlpull.v1.XmlPullParserException;
 
@@ -29,10 +27,7 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 
-import de.danoeh.antennapod.model.feed.Feed;
-import de.danoeh.antennapod.storage.database.DBReader;
 
 public class OpmlBackupAgent extends BackupAgentHelper {
     private static final String OPML_BACKUP_KEY = "opml";
@@ -78,7 +73,7 @@ public class OpmlBackupAgent extends BackupAgentHelper {
 
             try {
                 // Write OPML
-                OpmlWriter.writeDocument(DBReader.getFeedList(), writer);
+                OpmlWriter.writeDocument(writer);
 
                 // Compare checksum of new and old file to see if we need to perform a backup at all
                 if (digester != null) {
@@ -140,12 +135,7 @@ public class OpmlBackupAgent extends BackupAgentHelper {
             try {
                 ArrayList<OpmlElement> opmlElements = new OpmlReader().readDocument(reader);
                 mChecksum = digester == null ? null : digester.digest();
-                for (OpmlElement opmlElem : opmlElements) {
-                    Feed feed = new Feed(opmlElem.getXmlUrl(), null, opmlElem.getText());
-                    feed.setItems(Collections.emptyList());
-                    FeedDatabaseWriter.updateFeed(mContext, feed, false);
-                }
-                FeedUpdateManager.getInstance().runOnce(mContext);
+                OpmlImporter.importElements(mContext, opmlElements);
             } catch (XmlPullParserException e) {
                 Log.e(TAG, "Error while parsing the OPML file", e);
             } catch (IOException e) {
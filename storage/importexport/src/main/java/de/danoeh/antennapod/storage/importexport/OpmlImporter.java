@@ -0,0 +1,55 @@
+package de.danoeh.antennapod.storage.importexport;
+
+import android.content.Context;
+import android.text.TextUtils;
+import android.util.Log;
+import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.net.common.UrlChecker;
+import de.danoeh.antennapod.net.download.serviceinterface.FeedUpdateManager;
+import de.danoeh.antennapod.storage.database.DBReader;
+import de.danoeh.antennapod.storage.database.FeedDatabaseWriter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Subscribes to the feeds of an OPML file. Feeds that are already in the database are looked up by URL
+ * in a hash set and skipped. All other feeds are inserted in a single transaction, and only these new feeds
+ * are refreshed afterwards.
+ */
+public final class OpmlImporter {
+    private static final String TAG = "OpmlImporter";
+
+    private OpmlImporter() {
+    }
+
+    /**
+     * @return The number of feeds that were added
+     */
+    public static int importElements(Context context, List<OpmlElement> elements) {
+        Set<String> urlKeys = new HashSet<>();
+        for (String url : DBReader.getFeedListDownloadUrls()) {
+            urlKeys.add(UrlChecker.getComparisonKey(url));
+        }
+        List<Feed> newFeeds = new ArrayList<>();
+        for (OpmlElement element : elements) {
+            if (TextUtils.isEmpty(element.getXmlUrl())
+                    || !urlKeys.add(UrlChecker.getComparisonKey(element.getXmlUrl()))) {
+                continue; // Already subscribed, or listed twice in the file
+            }
+            Feed feed = new Feed(element.getXmlUrl(), null,
+                    element.getText() != null ? element.getText() : "Unknown podcast");
+            feed.setItems(Collections.emptyList());
+            newFeeds.add(feed);
+        }
+        Log.d(TAG, "Adding " + newFeeds.size() + " of " + elements.size() + " feeds");
+        if (!newFeeds.isEmpty()) {
+            FeedDatabaseWriter.addNewFeeds(context, newFeeds);
+            FeedUpdateManager.getInstance().runOnceForNewSubscriptions(context);
+        }
+        return newFeeds.size();
+    }
+}
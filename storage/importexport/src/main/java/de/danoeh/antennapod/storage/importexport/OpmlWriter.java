@@ -9,10 +9,9 @@ import java.io.IOException;
 import java.io.Writer;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 
-import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.storage.database.DBReader;
 
 /** Writes OPML documents. */
 public class OpmlWriter {
@@ -23,10 +22,10 @@ public class OpmlWriter {
     private static final String OPML_TITLE = "AntennaPod Subscriptions";
 
     /**
-     * Takes a list of feeds and a writer and writes those into an OPML
-     * document.
+     * Writes all subscriptions into an OPML document. The subscriptions are read from the database one by one,
+     * so the writer should be buffered.
      */
-    public static void writeDocument(List<Feed> feeds, Writer writer)
+    public static void writeDocument(Writer writer)
             throws IllegalArgumentException, IllegalStateException, IOException {
         Log.d(TAG, "Starting to write document");
         XmlSerializer xs = Xml.newSerializer();
@@ -47,10 +46,7 @@ public class OpmlWriter {
         xs.endTag(null, OpmlSymbols.HEAD);
 
         xs.startTag(null, OpmlSymbols.BODY);
-        for (Feed feed : feeds) {
-            if (feed.getState() != Feed.STATE_SUBSCRIBED) {
-                continue;
-            }
+        DBReader.forEachSubscription(feed -> {
             xs.startTag(null, OpmlSymbols.OUTLINE);
             xs.attribute(null, OpmlSymbols.TEXT, feed.getTitle());
             xs.attribute(null, OpmlSymbols.TITLE, feed.getTitle());
@@ -62,7 +58,7 @@ public class OpmlWriter {
                 xs.attribute(null, OpmlSymbols.HTMLURL, feed.getLink());
             }
             xs.endTag(null, OpmlSymbols.OUTLINE);
-        }
+        });
         xs.endTag(null, OpmlSymbols.BODY);
         xs.endTag(null, OpmlSymbols.OPML);
         xs.endDocument();
@@ -90,6 +90,7 @@ public abstract class UserPreferences {
     public static final String PREF_PAUSE_PLAYBACK_FOR_FOCUS_LOSS = "prefPauseForFocusLoss";
     private static final String PREF_TIME_RESPECTS_SPEED = "prefPlaybackTimeRespectsSpeed";
     public static final String PREF_STREAM_OVER_DOWNLOAD = "prefStreamOverDownload";
+    public static final String PREF_STREAM_PREFETCH_MINUTES = "prefStreamPrefetchMinutes";
 
     // Network
     private static final String PREF_ENQUEUE_DOWNLOADED = "prefEnqueueDownloaded";
@@ -769,6 +770,14 @@ public abstract class UserPreferences {
         prefs.edit().putBoolean(PREF_STREAM_OVER_DOWNLOAD, stream).apply();
     }
 
+    /**
+     * Returns how many minutes of the next queue item are cached ahead when streaming.
+     * 0 means that nothing is prefetched.
+     */
+    public static int getStreamPrefetchMinutes() {
+        return Integer.parseInt(prefs.getString(PREF_STREAM_PREFETCH_MINUTES, "5"));
+    }
+
     /**
      * Returns if the queue is in keep sorted mode.
      *
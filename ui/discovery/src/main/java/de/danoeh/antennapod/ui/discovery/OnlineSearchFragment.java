@@ -22,11 +22,15 @@ import com.google.android.material.appbar.MaterialToolbar;
 import java.util.ArrayList;
 import java.util.List;
 
+import de.danoeh.antennapod.net.discovery.CombinedSearcher;
 import de.danoeh.antennapod.net.discovery.PodcastSearchResult;
 import de.danoeh.antennapod.net.discovery.PodcastSearcher;
 import de.danoeh.antennapod.net.discovery.PodcastSearcherRegistry;
 import de.danoeh.antennapod.ui.appstartintent.OnlineFeedviewActivityStarter;
+import io.reactivex.Observable;
+import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 
 public class OnlineSearchFragment extends Fragment {
 
@@ -182,15 +186,25 @@ public class OnlineSearchFragment extends Fragment {
             disposable.dispose();
         }
         showOnlyProgressBar();
-        disposable = searchProvider.search(query).subscribe(result -> {
+        searchResults = new ArrayList<>();
+        Observable<List<PodcastSearchResult>> results;
+        if (searchProvider instanceof CombinedSearcher) {
+            // Shows the results of fast providers while slow ones are still loading
+            results = ((CombinedSearcher) searchProvider).searchProgressive(query)
+                    .subscribeOn(Schedulers.io())
+                    .observeOn(AndroidSchedulers.mainThread());
+        } else {
+            results = searchProvider.search(query).toObservable();
+        }
+        disposable = results.subscribe(result -> {
             searchResults = result;
-            progressBar.setVisibility(View.GONE);
             adapter.clear();
             adapter.addAll(searchResults);
             adapter.notifyDataSetInvalidated();
-            gridView.setVisibility(!searchResults.isEmpty() ? View.VISIBLE : View.GONE);
-            txtvEmpty.setVisibility(searchResults.isEmpty() ? View.VISIBLE : View.GONE);
-            txtvEmpty.setText(getString(R.string.no_results_for_query, query));
+            if (!searchResults.isEmpty()) {
+                progressBar.setVisibility(View.GONE);
+                gridView.setVisibility(View.VISIBLE);
+            }
         }, error -> {
                 Log.e(TAG, Log.getStackTraceString(error));
                 progressBar.setVisibility(View.GONE);
@@ -198,6 +212,11 @@ public class OnlineSearchFragment extends Fragment {
                 txtvError.setVisibility(View.VISIBLE);
                 butRetry.setOnClickListener(v -> search(query));
                 butRetry.setVisibility(View.VISIBLE);
+            }, () -> {
+                progressBar.setVisibility(View.GONE);
+                gridView.setVisibility(!searchResults.isEmpty() ? View.VISIBLE : View.GONE);
+                txtvEmpty.setVisibility(searchResults.isEmpty() ? View.VISIBLE : View.GONE);
+                txtvEmpty.setText(getString(R.string.no_results_for_query, query));
             });
     }
 
@@ -2,6 +2,7 @@ package de.danoeh.antennapod.ui.glide;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -45,10 +46,13 @@ public class ApGlideModule extends AppGlideModule {
     @Override
     public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
         registry.replace(String.class, InputStream.class, new MetadataRetrieverLoader.Factory(context));
-        registry.append(String.class, InputStream.class, new GenerativePlaceholderImageModelLoader.Factory());
+        registry.append(String.class, GenerativePlaceholderImageModelLoader.Placeholder.class,
+                new GenerativePlaceholderImageModelLoader.Factory());
         registry.append(String.class, InputStream.class, new ApOkHttpUrlLoader.Factory());
         registry.append(String.class, InputStream.class, new NoHttpStringLoader.StreamFactory());
 
         registry.append(EmbeddedChapterImage.class, ByteBuffer.class, new ChapterImageModelLoader.Factory(context));
+        registry.append(GenerativePlaceholderImageModelLoader.Placeholder.class, Bitmap.class,
+                new GenerativePlaceholderImageModelLoader.Decoder(glide.getBitmapPool()));
     }
 }
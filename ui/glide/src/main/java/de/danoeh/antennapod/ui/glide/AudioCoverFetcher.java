@@ -4,17 +4,26 @@ import android.content.ContentResolver;
 import android.content.Context;
 
 import android.net.Uri;
+import android.util.Log;
 import androidx.annotation.NonNull;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.data.DataFetcher;
 import de.danoeh.antennapod.model.MediaMetadataRetrieverCompat;
+import de.danoeh.antennapod.parser.media.id3.model.EmbeddedPicture;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 
+/**
+ * Loads the cover that is embedded in a media file. For ID3 tags, the location of the cover is kept in the
+ * {@link EmbeddedPictureIndex}, so later loads only read the image itself. Other formats are handled by
+ * Android's MediaMetadataRetriever.
+ */
 // see https://github.com/bumptech/glide/issues/699
 class AudioCoverFetcher implements DataFetcher<InputStream> {
+    private static final String TAG = "AudioCoverFetcher";
     private final String path;
     private final Context context;
 
@@ -25,6 +34,23 @@ class AudioCoverFetcher implements DataFetcher<InputStream> {
 
     @Override
     public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super InputStream> callback) {
+        try {
+            EmbeddedPicture picture = EmbeddedPictureIndex.get(path);
+            if (picture == null) {
+                picture = EmbeddedPictureIndex.scan(context, path);
+            }
+            if (picture != EmbeddedPictureIndex.NOT_INDEXED) {
+                byte[] content = MediaRangeReader.read(context, path, picture.getPosition(), picture.getLength());
+                callback.onDataReady(new ByteArrayInputStream(content));
+                return;
+            }
+        } catch (IOException e) {
+            Log.d(TAG, "Unable to read indexed cover, falling back to metadata retriever: " + e.getMessage());
+        }
+        loadWithMetadataRetriever(callback);
+    }
+
+    private void loadWithMetadataRetriever(@NonNull DataCallback<? super InputStream> callback) {
         try (MediaMetadataRetrieverCompat retriever = new MediaMetadataRetrieverCompat()) {
             if (path.startsWith(ContentResolver.SCHEME_CONTENT)) {
                 retriever.setDataSource(context, Uri.parse(path));
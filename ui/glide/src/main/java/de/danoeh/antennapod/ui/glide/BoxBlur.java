@@ -0,0 +1,130 @@
+package de.danoeh.antennapod.ui.glide;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Blurs pixels with three box blurs in a row, which together look almost like a Gaussian blur.
+ * A box blur is separable, so it runs over the rows and then over the columns. Each pass keeps a running sum
+ * over a sliding window, so the cost does not depend on the radius. Every pass writes its output transposed,
+ * so the column pass can walk along rows as well. Rows are independent, so large images are split across threads.
+ */
+final class BoxBlur {
+    private static final int PASSES = 3;
+    private static final int PARALLEL_THRESHOLD = 128 * 128;
+    private static final int THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    static final int MAX_POOLED_BUFFERS = 4;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS, r -> {
+        Thread thread = new Thread(r, "BoxBlur");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ArrayDeque<int[]> bufferPool = new ArrayDeque<>();
+
+    private BoxBlur() {
+    }
+
+    /**
+     * Blurs the ARGB pixels in place. The result is opaque.
+     */
+    static void blur(int[] pixels, int width, int height, int radius) {
+        if (radius < 1 || width < 1 || height < 1) {
+            return;
+        }
+        int[] scratch = obtainBuffer(width * height);
+        try {
+            for (int pass = 0; pass < PASSES; pass++) {
+                blurRowsTransposed(pixels, scratch, width, height, radius);
+                blurRowsTransposed(scratch, pixels, height, width, radius);
+            }
+        } finally {
+            releaseBuffer(scratch);
+        }
+    }
+
+    /**
+     * Returns a buffer with at least the given length, reusing released buffers if possible.
+     */
+    static int[] obtainBuffer(int length) {
+        synchronized (bufferPool) {
+            for (int[] buffer : bufferPool) {
+                if (buffer.length >= length) {
+                    bufferPool.remove(buffer);
+                    return buffer;
+                }
+            }
+        }
+        return new int[length];
+    }
+
+    static void releaseBuffer(int[] buffer) {
+        synchronized (bufferPool) {
+            if (bufferPool.size() >= MAX_POOLED_BUFFERS) {
+                bufferPool.removeFirst();
+            }
+            bufferPool.addLast(buffer);
+        }
+    }
+
+    private static void blurRowsTransposed(int[] src, int[] dst, int width, int height, int radius) {
+        if (width * height < PARALLEL_THRESHOLD || THREADS == 1) {
+            blurRowsTransposed(src, dst, width, height, radius, 0, height);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(THREADS);
+        int rowsPerTask = (height + THREADS - 1) / THREADS;
+        for (int start = 0; start < height; start += rowsPerTask) {
+            final int rowStart = start;
+            final int rowEnd = Math.min(height, start + rowsPerTask);
+            tasks.add(() -> {
+                blurRowsTransposed(src, dst, width, height, radius, rowStart, rowEnd);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Blurs the given rows of {@code src} (width x height) and writes them as columns of {@code dst}
+     * (height x width). Pixels outside the image repeat the edge pixel.
+     */
+    private static void blurRowsTransposed(int[] src, int[] dst, int width, int height, int radius,
+                                           int rowStart, int rowEnd) {
+        final int windowSize = 2 * radius + 1;
+        final int last = width - 1;
+        for (int y = rowStart; y < rowEnd; y++) {
+            final int row = y * width;
+            int first = src[row];
+            int sumR = (radius + 1) * ((first >> 16) & 0xff);
+            int sumG = (radius + 1) * ((first >> 8) & 0xff);
+            int sumB = (radius + 1) * (first & 0xff);
+            for (int i = 1; i <= radius; i++) {
+                int pixel = src[row + Math.min(i, last)];
+                sumR += (pixel >> 16) & 0xff;
+                sumG += (pixel >> 8) & 0xff;
+                sumB += pixel & 0xff;
+            }
+            for (int x = 0, out = y; x < width; x++, out += height) {
+                dst[out] = 0xff000000 | ((sumR / windowSize) << 16) | ((sumG / windowSize) << 8) | (sumB / windowSize);
+                int added = src[row + Math.min(x + radius + 1, last)];
+                int removed = src[row + Math.max(x - radius, 0)];
+                sumR += ((added >> 16) & 0xff) - ((removed >> 16) & 0xff);
+                sumG += ((added >> 8) & 0xff) - ((removed >> 8) & 0xff);
+                sumB += (added & 0xff) - (removed & 0xff);
+            }
+        }
+    }
+}
@@ -13,10 +13,9 @@ import com.bumptech.glide.load.model.ModelLoaderFactory;
 import com.bumptech.glide.load.model.MultiModelLoaderFactory;
 import com.bumptech.glide.signature.ObjectKey;
 import de.danoeh.antennapod.model.feed.EmbeddedChapterImage;
-import java.io.BufferedInputStream;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.nio.ByteBuffer;
 
 import de.danoeh.antennapod.net.common.AntennapodHttpClient;
@@ -53,7 +52,19 @@ public final class ChapterImageModelLoader implements ModelLoader<EmbeddedChapte
     @Override
     public LoadData<ByteBuffer> buildLoadData(@NonNull EmbeddedChapterImage model, int width,
                                               int height, @NonNull Options options) {
-        return new LoadData<>(new ObjectKey(model), new EmbeddedImageFetcher(model, context));
+        Object key = model;
+        if (model.getHash() != null) {
+            key = getCacheKey(model.getMedia().getIdentifier(), model.getLength(), model.getHash());
+        }
+        return new LoadData<>(new ObjectKey(key), new EmbeddedImageFetcher(model, context));
+    }
+
+    /**
+     * Chapters often repeat the same image, which then only needs to be read and cached once. The hash only
+     * covers the start of the image, so images are only shared within the same episode.
+     */
+    static String getCacheKey(Object mediaIdentifier, int length, String hash) {
+        return "embedded-image-hash://" + length + "/" + hash + "/" + mediaIdentifier;
     }
 
     @Override
@@ -72,38 +83,39 @@ public final class ChapterImageModelLoader implements ModelLoader<EmbeddedChapte
 
         @Override
         public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super ByteBuffer> callback) {
-
-            BufferedInputStream stream = null;
             try {
-                boolean isLocalFeed = image.getMedia().getStreamUrl().startsWith(ContentResolver.SCHEME_CONTENT);
-                if (isLocalFeed || image.getMedia().localFileAvailable()) {
-                    if (isLocalFeed) {
-                        Uri uri = Uri.parse(image.getMedia().getStreamUrl());
-                        stream = new BufferedInputStream(context.getContentResolver().openInputStream(uri));
-                    } else {
-                        File localFile = new File(image.getMedia().getLocalFileUrl());
-                        stream = new BufferedInputStream(new FileInputStream(localFile));
-                    }
-                    IOUtils.skip(stream, image.getPosition());
-                    byte[] imageContent = new byte[image.getLength()];
-                    IOUtils.read(stream, imageContent, 0, image.getLength());
-                    callback.onDataReady(ByteBuffer.wrap(imageContent));
+                String streamUrl = image.getMedia().getStreamUrl();
+                if (streamUrl.startsWith(ContentResolver.SCHEME_CONTENT)) {
+                    callback.onDataReady(ByteBuffer.wrap(MediaRangeReader.read(context, streamUrl,
+                            image.getPosition(), image.getLength())));
+                } else if (image.getMedia().localFileAvailable()) {
+                    callback.onDataReady(ByteBuffer.wrap(MediaRangeReader.read(context,
+                            image.getMedia().getLocalFileUrl(), image.getPosition(), image.getLength())));
                 } else {
-                    Request.Builder httpReq = new Request.Builder();
-                    // Skipping would download the whole file
-                    httpReq.header("Range", "bytes=" + image.getPosition()
-                            + "-" + (image.getPosition() + image.getLength()));
-                    httpReq.url(image.getMedia().getStreamUrl());
-                    Response response = AntennapodHttpClient.getHttpClient().newCall(httpReq.build()).execute();
-                    if (!response.isSuccessful() || response.body() == null) {
-                        throw new IOException("Invalid response: " + response.code() + " " + response.message());
-                    }
-                    callback.onDataReady(ByteBuffer.wrap(response.body().bytes()));
+                    callback.onDataReady(ByteBuffer.wrap(loadRange(streamUrl)));
                 }
             } catch (IOException e) {
                 callback.onLoadFailed(e);
-            } finally {
-                IOUtils.closeQuietly(stream);
+            }
+        }
+
+        private byte[] loadRange(String url) throws IOException {
+            Request.Builder httpReq = new Request.Builder();
+            // Skipping would download the whole file. The end of the range is inclusive.
+            httpReq.header("Range", "bytes=" + image.getPosition()
+                    + "-" + (image.getPosition() + image.getLength() - 1));
+            httpReq.url(url);
+            try (Response response = AntennapodHttpClient.getHttpClient().newCall(httpReq.build()).execute()) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    throw new IOException("Invalid response: " + response.code() + " " + response.message());
+                }
+                if (response.code() == HttpURLConnection.HTTP_PARTIAL) {
+                    return response.body().bytes();
+                }
+                // The server ignored the range and sends the whole file
+                InputStream in = response.body().byteStream();
+                IOUtils.skipFully(in, image.getPosition());
+                return IOUtils.toByteArray(in, image.getLength());
             }
         }
 
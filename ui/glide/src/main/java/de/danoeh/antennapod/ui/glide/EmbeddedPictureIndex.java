@@ -0,0 +1,82 @@
+package de.danoeh.antennapod.ui.glide;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import de.danoeh.antennapod.parser.media.id3.EmbeddedPictureReader;
+import de.danoeh.antennapod.parser.media.id3.ID3ReaderException;
+import de.danoeh.antennapod.parser.media.id3.model.EmbeddedPicture;
+import org.apache.commons.io.input.CountingInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Remembers where the cover image is in a media file. The tags only need to be parsed the first time a cover
+ * is loaded. After that, the image can be read directly and covers with the same hash share a cache entry.
+ */
+final class EmbeddedPictureIndex {
+    private static final String TAG = "EmbeddedPictureIndex";
+    /**
+     * Marks files that have no ID3 cover, so that they go straight to MediaMetadataRetriever.
+     */
+    static final EmbeddedPicture NOT_INDEXED = new EmbeddedPicture(-1, 0, null);
+
+    private static final LruCache<String, EmbeddedPicture> index = new LruCache<>(200);
+
+    private EmbeddedPictureIndex() {
+    }
+
+    /**
+     * @return The location of the cover, {@link #NOT_INDEXED}, or null if the file was not scanned yet.
+     */
+    @Nullable
+    static EmbeddedPicture get(String path) {
+        return index.get(keyFor(path));
+    }
+
+    @NonNull
+    static EmbeddedPicture scan(Context context, String path) {
+        EmbeddedPicture picture = NOT_INDEXED;
+        try (InputStream in = open(context, path)) {
+            EmbeddedPictureReader reader = new EmbeddedPictureReader(new CountingInputStream(in));
+            reader.readInputStream();
+            if (reader.getPicture() != null) {
+                picture = reader.getPicture();
+            }
+        } catch (IOException | ID3ReaderException e) {
+            Log.d(TAG, "No ID3 cover in " + path + ": " + e.getMessage());
+        }
+        index.put(keyFor(path), picture);
+        return picture;
+    }
+
+    private static InputStream open(Context context, String path) throws IOException {
+        if (path.startsWith(ContentResolver.SCHEME_CONTENT)) {
+            InputStream in = context.getContentResolver().openInputStream(Uri.parse(path));
+            if (in == null) {
+                throw new IOException("Unable to open " + path);
+            }
+            return new BufferedInputStream(in);
+        }
+        return new BufferedInputStream(new FileInputStream(path));
+    }
+
+    /**
+     * Files can be replaced, for example when an episode is downloaded again.
+     */
+    private static String keyFor(String path) {
+        if (path.startsWith(ContentResolver.SCHEME_CONTENT)) {
+            return path;
+        }
+        File file = new File(path);
+        return path + ":" + file.length() + ":" + file.lastModified();
+    }
+}
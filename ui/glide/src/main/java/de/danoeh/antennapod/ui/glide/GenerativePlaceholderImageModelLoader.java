@@ -7,28 +7,36 @@ import android.graphics.Paint;
 import android.graphics.PorterDuff;
 import android.graphics.PorterDuffColorFilter;
 import android.graphics.Shader;
+import android.util.LruCache;
 import androidx.annotation.NonNull;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
 import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.load.model.ModelLoader;
 import com.bumptech.glide.load.model.ModelLoaderFactory;
 import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.load.resource.bitmap.BitmapResource;
 import com.bumptech.glide.signature.ObjectKey;
 import de.danoeh.antennapod.model.feed.Feed;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.util.Random;
 
-public final class GenerativePlaceholderImageModelLoader implements ModelLoader<String, InputStream> {
+/**
+ * Generates cover images for feeds that do not have one. Instead of handing Glide an encoded image,
+ * the loader only passes on a {@link Placeholder} and the {@link Decoder} draws it directly into a
+ * bitmap from Glide's pool, at the size that was requested.
+ */
+public final class GenerativePlaceholderImageModelLoader
+        implements ModelLoader<String, GenerativePlaceholderImageModelLoader.Placeholder> {
 
-    public static class Factory implements ModelLoaderFactory<String, InputStream> {
+    public static class Factory implements ModelLoaderFactory<String, Placeholder> {
         @NonNull
         @Override
-        public ModelLoader<String, InputStream> build(@NonNull MultiModelLoaderFactory unused) {
+        public ModelLoader<String, Placeholder> build(@NonNull MultiModelLoaderFactory unused) {
             return new GenerativePlaceholderImageModelLoader();
         }
 
@@ -39,8 +47,8 @@ public final class GenerativePlaceholderImageModelLoader implements ModelLoader<
     }
 
     @Override
-    public LoadData<InputStream> buildLoadData(@NonNull String model, int width, int height, @NonNull Options options) {
-        return new LoadData<>(new ObjectKey(model), new EmbeddedImageFetcher(model, width, height));
+    public LoadData<Placeholder> buildLoadData(@NonNull String model, int width, int height, @NonNull Options options) {
+        return new LoadData<>(new ObjectKey(model), new PlaceholderFetcher(model));
     }
 
     @Override
@@ -48,50 +56,83 @@ public final class GenerativePlaceholderImageModelLoader implements ModelLoader<
         return model.startsWith(Feed.PREFIX_GENERATIVE_COVER);
     }
 
-    static class EmbeddedImageFetcher implements DataFetcher<InputStream> {
+    /**
+     * The random choices that make up a placeholder image, independent of its size.
+     */
+    public static final class Placeholder {
         private static final int[] PALETTES = {0xff78909c, 0xffff6f00, 0xff388e3c,
                 0xff00838f, 0xff7b1fa2, 0xffb71c1c, 0xff2196f3};
-        private final String model;
-        private final int width;
-        private final int height;
+        /**
+         * Models with the same hash look the same, so they share their placeholder.
+         */
+        private static final LruCache<Integer, Placeholder> cache = new LruCache<>(100);
+
+        final int lineGridSteps;
+        final int baseColor;
+        /**
+         * Color of each line, from the last line to the first one.
+         */
+        final int[] lineColors;
+        /**
+         * Whether the line has a different color than the previous one and gets a shadow.
+         */
+        final boolean[] switchColor;
+
+        private Placeholder(int seed) {
+            final Random generator = new Random(seed);
+            lineGridSteps = 4 + generator.nextInt(4);
+            baseColor = PALETTES[generator.nextInt(PALETTES.length)];
+            lineColors = new int[lineGridSteps];
+            switchColor = new boolean[lineGridSteps];
 
-        public EmbeddedImageFetcher(String model, int width, int height) {
-            this.model = model;
-            this.width = width;
-            this.height = height;
+            int color = randomShadeOfGrey(generator);
+            int forcedColorChange = 1 + generator.nextInt(lineGridSteps - 2);
+            for (int i = lineGridSteps - 1; i >= 0; i--) {
+                switchColor[i] = generator.nextFloat() < 0.3f || i == forcedColorChange;
+                if (switchColor[i]) {
+                    int newColor = color;
+                    while (newColor == color) {
+                        newColor = randomShadeOfGrey(generator);
+                    }
+                    color = newColor;
+                }
+                lineColors[i] = color;
+            }
         }
 
-        @Override
-        public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super InputStream> callback) {
-            final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-            final Canvas canvas = new Canvas(bitmap);
-            final Random generator = new Random(model.hashCode());
-            final int lineGridSteps = 4 + generator.nextInt(4);
+        static Placeholder forModel(@NonNull String model) {
+            int seed = model.hashCode();
+            synchronized (cache) {
+                Placeholder placeholder = cache.get(seed);
+                if (placeholder == null) {
+                    placeholder = new Placeholder(seed);
+                    cache.put(seed, placeholder);
+                }
+                return placeholder;
+            }
+        }
+
+        private static int randomShadeOfGrey(Random generator) {
+            return 0xff777777 + 0x222222 * generator.nextInt(5);
+        }
+
+        void draw(@NonNull Canvas canvas, int width, int height) {
             final int slope = width / 4;
             final float shadowWidth = width * 0.01f;
             final float lineDistance = ((float) width / (lineGridSteps - 2));
-            final int baseColor = PALETTES[generator.nextInt(PALETTES.length)];
 
+            canvas.drawColor(0xff000000);
             Paint paint = new Paint();
-            int color = randomShadeOfGrey(generator);
-            paint.setColor(color);
             paint.setStrokeWidth(lineDistance);
             paint.setColorFilter(new PorterDuffColorFilter(baseColor, PorterDuff.Mode.MULTIPLY));
             Paint paintShadow = new Paint();
             paintShadow.setColor(0xff000000);
             paintShadow.setStrokeWidth(lineDistance);
 
-            int forcedColorChange = 1 + generator.nextInt(lineGridSteps - 2);
             for (int i = lineGridSteps - 1; i >= 0; i--) {
                 float linePos = (i - 0.5f) * lineDistance;
-                boolean switchColor = generator.nextFloat() < 0.3f || i == forcedColorChange;
-                if (switchColor) {
-                    int newColor = color;
-                    while (newColor == color) {
-                        newColor = randomShadeOfGrey(generator);
-                    }
-                    color = newColor;
-                    paint.setColor(newColor);
+                paint.setColor(lineColors[i]);
+                if (switchColor[i]) {
                     canvas.drawLine(linePos + slope + shadowWidth, -slope,
                             linePos - slope + shadowWidth, height + slope, paintShadow);
                 }
@@ -100,18 +141,22 @@ public final class GenerativePlaceholderImageModelLoader implements ModelLoader<
             }
 
             Paint gradientPaint = new Paint();
-            paint.setDither(true);
+            gradientPaint.setDither(true);
             gradientPaint.setShader(new LinearGradient(0, 0, 0, height, 0x00000000, 0x55000000, Shader.TileMode.CLAMP));
             canvas.drawRect(0, 0, width, height, gradientPaint);
+        }
+    }
+
+    static class PlaceholderFetcher implements DataFetcher<Placeholder> {
+        private final String model;
 
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            bitmap.compress(Bitmap.CompressFormat.JPEG, 100, baos);
-            InputStream is = new ByteArrayInputStream(baos.toByteArray());
-            callback.onDataReady(is);
+        PlaceholderFetcher(String model) {
+            this.model = model;
         }
 
-        private static int randomShadeOfGrey(Random generator) {
-            return 0xff777777 + 0x222222 * generator.nextInt(5);
+        @Override
+        public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super Placeholder> callback) {
+            callback.onDataReady(Placeholder.forModel(model));
         }
 
         @Override
@@ -126,8 +171,8 @@ public final class GenerativePlaceholderImageModelLoader implements ModelLoader<
 
         @NonNull
         @Override
-        public Class<InputStream> getDataClass() {
-            return InputStream.class;
+        public Class<Placeholder> getDataClass() {
+            return Placeholder.class;
         }
 
         @NonNull
@@ -136,4 +181,31 @@ public final class GenerativePlaceholderImageModelLoader implements ModelLoader<
             return DataSource.LOCAL;
         }
     }
+
+    /**
+     * Draws the placeholder at the requested size into a bitmap from the pool.
+     */
+    public static class Decoder implements ResourceDecoder<Placeholder, Bitmap> {
+        private static final int DEFAULT_SIZE = 512;
+        private final BitmapPool bitmapPool;
+
+        public Decoder(BitmapPool bitmapPool) {
+            this.bitmapPool = bitmapPool;
+        }
+
+        @Override
+        public boolean handles(@NonNull Placeholder source, @NonNull Options options) {
+            return true;
+        }
+
+        @Override
+        public Resource<Bitmap> decode(@NonNull Placeholder source, int width, int height, @NonNull Options options) {
+            // Target.SIZE_ORIGINAL is negative, but a generated image has no original size
+            width = width > 0 ? width : DEFAULT_SIZE;
+            height = height > 0 ? height : DEFAULT_SIZE;
+            Bitmap bitmap = bitmapPool.getDirty(width, height, Bitmap.Config.ARGB_8888);
+            source.draw(new Canvas(bitmap), width, height);
+            return BitmapResource.obtain(bitmap, bitmapPool);
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package de.danoeh.antennapod.ui.glide;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import androidx.annotation.NonNull;
+import org.apache.commons.io.IOUtils;
+
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a range of bytes from a local media file by seeking to it, without reading the bytes before it.
+ */
+final class MediaRangeReader {
+    private MediaRangeReader() {
+    }
+
+    /**
+     * @param path File path or content:// URI
+     */
+    @NonNull
+    static byte[] read(Context context, String path, long position, int length) throws IOException {
+        if (!path.startsWith(ContentResolver.SCHEME_CONTENT)) {
+            try (RandomAccessFile file = new RandomAccessFile(path, "r")) {
+                byte[] content = new byte[length];
+                file.seek(position);
+                file.readFully(content);
+                return content;
+            }
+        }
+        Uri uri = Uri.parse(path);
+        try (ParcelFileDescriptor descriptor = context.getContentResolver().openFileDescriptor(uri, "r")) {
+            if (descriptor != null && descriptor.getStatSize() >= 0) {
+                try (FileInputStream in = new FileInputStream(descriptor.getFileDescriptor())) {
+                    return readFully(in.getChannel(), position, length);
+                }
+            }
+        }
+        // Not backed by a regular file, so seeking is not possible
+        try (InputStream in = context.getContentResolver().openInputStream(uri)) {
+            if (in == null) {
+                throw new IOException("Unable to open " + path);
+            }
+            IOUtils.skipFully(in, position);
+            return IOUtils.toByteArray(in, length);
+        }
+    }
+
+    private static byte[] readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read == -1) {
+                throw new EOFException("Unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+        return buffer.array();
+    }
+}
@@ -9,6 +9,7 @@ import com.bumptech.glide.load.model.ModelLoaderFactory;
 import com.bumptech.glide.load.model.MultiModelLoaderFactory;
 import com.bumptech.glide.signature.ObjectKey;
 import de.danoeh.antennapod.model.feed.FeedMedia;
+import de.danoeh.antennapod.parser.media.id3.model.EmbeddedPicture;
 
 import java.io.InputStream;
 
@@ -46,8 +47,28 @@ class MetadataRetrieverLoader implements ModelLoader<String, InputStream> {
     @Override
     public LoadData<InputStream> buildLoadData(@NonNull String model,
                                                int width, int height, @NonNull Options options) {
-        return new LoadData<>(new ObjectKey(model),
-                new AudioCoverFetcher(model.replace(FeedMedia.FILENAME_PREFIX_EMBEDDED_COVER, ""), context));
+        String path = model.replace(FeedMedia.FILENAME_PREFIX_EMBEDDED_COVER, "");
+        // Glide builds the load data on its background threads, so the file can be scanned here. Scanning before
+        // deciding on the key means that a cover is always cached under the same key, not under the model first.
+        EmbeddedPicture picture = EmbeddedPictureIndex.get(path);
+        if (picture == null) {
+            picture = EmbeddedPictureIndex.scan(context, path);
+        }
+        Object key = model; // No ID3 cover, so there is no hash
+        if (picture != EmbeddedPictureIndex.NOT_INDEXED) {
+            key = getCacheKey(path, picture);
+        }
+        return new LoadData<>(new ObjectKey(key), new AudioCoverFetcher(path, context));
+    }
+
+    /**
+     * Episodes of a podcast usually have the same cover, which then only needs to be cached once. The hash only
+     * covers the start of the image, so covers are only shared between files in the same folder. Downloads and
+     * local feeds keep the episodes of each podcast in their own folder.
+     */
+    static String getCacheKey(String path, EmbeddedPicture picture) {
+        String folder = path.substring(0, path.lastIndexOf('/') + 1);
+        return "embedded-cover-hash://" + picture.getLength() + "/" + picture.getHash() + "/" + folder;
     }
 
     @Override
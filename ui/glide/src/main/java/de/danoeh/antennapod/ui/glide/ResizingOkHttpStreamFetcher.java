@@ -12,25 +12,35 @@ import com.bumptech.glide.integration.okhttp3.OkHttpStreamFetcher;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.model.GlideUrl;
 import okhttp3.Call;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Loads images and shrinks the ones that are larger than {@link #MAX_FILE_SIZE}, so that huge covers
+ * do not fill up the disk cache and do not need to be decoded at full resolution every time.
+ * Small images are passed through unchanged. Nothing is written to temporary files: at most
+ * {@link #MAX_FILE_SIZE} bytes of the response are buffered to read the image bounds, and the rest is
+ * decoded straight from the network.
+ */
 public class ResizingOkHttpStreamFetcher extends OkHttpStreamFetcher {
     private static final String TAG = "ResizingOkHttpStreamFet";
     private static final int MAX_DIMENSIONS = 1500;
     private static final int MAX_FILE_SIZE = 1024 * 1024; // 1 MB
+    /**
+     * Approximate bits per pixel of lossy WebP at the given qualities, for typical cover art.
+     */
+    private static final int[] QUALITIES = {90, 75, 60, 45, 30, 15};
+    private static final double[] BITS_PER_PIXEL = {3.0, 2.0, 1.5, 1.1, 0.8, 0.5};
 
-    private FileInputStream stream;
-    private File tempIn;
-    private File tempOut;
+    private InputStream stream;
 
     public ResizingOkHttpStreamFetcher(Call.Factory client, GlideUrl url) {
         super(client, url);
@@ -45,79 +55,40 @@ public class ResizingOkHttpStreamFetcher extends OkHttpStreamFetcher {
                     callback.onDataReady(null);
                     return;
                 }
+                byte[] head;
+                try {
+                    head = readAtMost(data, MAX_FILE_SIZE + 1);
+                } catch (IOException e) {
+                    callback.onLoadFailed(e);
+                    return;
+                }
+                if (head.length <= MAX_FILE_SIZE) {
+                    stream = new ByteArrayInputStream(head);
+                    callback.onDataReady(stream); // Just deliver the original, non-scaled image
+                    return;
+                }
+
+                BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inJustDecodeBounds = true;
+                BitmapFactory.decodeStream(new ByteArrayInputStream(head), null, options);
+                if (options.outWidth <= 0 || options.outHeight <= 0) {
+                    Log.d(TAG, "Unable to read image bounds, delivering original image");
+                    stream = new SequenceInputStream(new ByteArrayInputStream(head), data);
+                    callback.onDataReady(stream);
+                    return;
+                }
+
+                // Keeps what the decoder read from the network, to deliver the original image if resizing fails
+                ByteArrayOutputStream consumed = new ByteArrayOutputStream();
                 try {
-                    tempIn = File.createTempFile("resize_", null);
-                    tempOut = File.createTempFile("resize_", null);
-                    OutputStream outputStream = new FileOutputStream(tempIn);
-                    IOUtils.copy(data, outputStream);
-                    outputStream.close();
-                    IOUtils.closeQuietly(data);
-
-                    if (tempIn.length() <= MAX_FILE_SIZE) {
-                        try {
-                            stream = new FileInputStream(tempIn);
-                            callback.onDataReady(stream); // Just deliver the original, non-scaled image
-                        } catch (FileNotFoundException fileNotFoundException) {
-                            callback.onLoadFailed(fileNotFoundException);
-                        }
-                        return;
-                    }
-
-                    BitmapFactory.Options options = new BitmapFactory.Options();
-                    options.inJustDecodeBounds = true;
-                    FileInputStream in = new FileInputStream(tempIn);
-                    BitmapFactory.decodeStream(in, null, options);
-                    IOUtils.closeQuietly(in);
-
-                    if (options.outWidth == -1 || options.outHeight == -1) {
-                        throw new IOException("Not a valid image");
-                    } else if (Math.max(options.outHeight, options.outWidth) >= MAX_DIMENSIONS) {
-                        double sampleSize = (double) Math.max(options.outHeight, options.outWidth) / MAX_DIMENSIONS;
-                        options.inSampleSize = (int) Math.pow(2d, Math.floor(Math.log(sampleSize) / Math.log(2d)));
-                    }
-
-                    options.inJustDecodeBounds = false;
-                    in = new FileInputStream(tempIn);
-                    Bitmap bitmap = BitmapFactory.decodeStream(in, null, options);
-                    IOUtils.closeQuietly(in);
-
-                    Bitmap.CompressFormat format = Build.VERSION.SDK_INT < 30
-                            ? Bitmap.CompressFormat.WEBP : Bitmap.CompressFormat.WEBP_LOSSY;
-
-                    int quality = 100;
-                    while (true) {
-                        FileOutputStream out = new FileOutputStream(tempOut);
-                        bitmap.compress(format, quality, out);
-                        IOUtils.closeQuietly(out);
-
-                        if (tempOut.length() > 3 * MAX_FILE_SIZE && quality >= 45) {
-                            quality -= 40;
-                        } else if (tempOut.length() > 2 * MAX_FILE_SIZE && quality >= 25) {
-                            quality -= 20;
-                        } else if (tempOut.length() > MAX_FILE_SIZE && quality >= 15) {
-                            quality -= 10;
-                        } else if (tempOut.length() > MAX_FILE_SIZE && quality >= 10) {
-                            quality -= 5;
-                        } else {
-                            break;
-                        }
-                    }
-                    bitmap.recycle();
-
-                    stream = new FileInputStream(tempOut);
+                    stream = new ByteArrayInputStream(resize(new SequenceInputStream(
+                            new ByteArrayInputStream(head), new TeeInputStream(data, consumed)), options));
+                    callback.onDataReady(stream);
+                } catch (IOException | OutOfMemoryError e) {
+                    Log.e(TAG, "Unable to resize image, delivering original image", e);
+                    stream = new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                            new ByteArrayInputStream(head), new ByteArrayInputStream(consumed.toByteArray()), data)));
                     callback.onDataReady(stream);
-                    Log.d(TAG, "Compressed image from " + tempIn.length() / 1024
-                            + " to " + tempOut.length() / 1024 + " kB (quality: " + quality + "%)");
-                } catch (Throwable e) {
-                    e.printStackTrace();
-
-                    try {
-                        stream = new FileInputStream(tempIn);
-                        callback.onDataReady(stream); // Just deliver the original, non-scaled image
-                    } catch (FileNotFoundException fileNotFoundException) {
-                        e.printStackTrace();
-                        callback.onLoadFailed(fileNotFoundException);
-                    }
                 }
             }
 
@@ -128,11 +99,132 @@ public class ResizingOkHttpStreamFetcher extends OkHttpStreamFetcher {
         });
     }
 
+    /**
+     * Decodes the image in a single pass, sampled and scaled to at most {@link #MAX_DIMENSIONS},
+     * and encodes it with a quality that is expected to fit into {@link #MAX_FILE_SIZE}.
+     *
+     * @param options Options that contain the bounds of the image
+     */
+    private static byte[] resize(InputStream in, BitmapFactory.Options options) throws IOException {
+        int longestSide = Math.max(options.outWidth, options.outHeight);
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = 1;
+        while (longestSide / (options.inSampleSize * 2) >= MAX_DIMENSIONS) {
+            options.inSampleSize *= 2;
+        }
+        int sampledSide = longestSide / options.inSampleSize;
+        if (sampledSide > MAX_DIMENSIONS) {
+            // Scale the rest of the way while decoding, instead of creating a second bitmap
+            options.inScaled = true;
+            options.inDensity = sampledSide;
+            options.inTargetDensity = MAX_DIMENSIONS;
+        }
+        Bitmap bitmap = BitmapFactory.decodeStream(in, null, options);
+        if (bitmap == null) {
+            throw new IOException("Not a valid image");
+        }
+
+        Bitmap.CompressFormat format = Build.VERSION.SDK_INT < 30
+                ? Bitmap.CompressFormat.WEBP : Bitmap.CompressFormat.WEBP_LOSSY;
+        try {
+            byte[] resized = encode(quality -> {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(MAX_FILE_SIZE);
+                bitmap.compress(format, quality, out);
+                return out.toByteArray();
+            }, predictQuality(bitmap.getWidth(), bitmap.getHeight()));
+            Log.d(TAG, "Resized image from " + options.outWidth + "x" + options.outHeight + " to "
+                    + bitmap.getWidth() + "x" + bitmap.getHeight() + ", " + resized.length / 1024 + " kB");
+            return resized;
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    interface Encoder {
+        byte[] encode(int quality);
+    }
+
+    /**
+     * Encodes the image with the given quality. If the prediction was wrong and the result is larger than
+     * {@link #MAX_FILE_SIZE}, the image is encoded once more with a quality from {@link #lowerQuality}.
+     *
+     * @throws IOException If the image does not fit even then, so that the original image is delivered instead
+     */
+    static byte[] encode(Encoder encoder, int quality) throws IOException {
+        byte[] encoded = encoder.encode(quality);
+        if (encoded.length <= MAX_FILE_SIZE) {
+            return encoded;
+        }
+        int lowerQuality = lowerQuality(quality, encoded.length);
+        if (lowerQuality < 0) {
+            throw new IOException("Resized image is too large: " + encoded.length + " bytes at quality " + quality);
+        }
+        encoded = encoder.encode(lowerQuality);
+        if (encoded.length > MAX_FILE_SIZE) {
+            throw new IOException("Resized image is too large: " + encoded.length
+                    + " bytes at quality " + lowerQuality);
+        }
+        return encoded;
+    }
+
+    /**
+     * Corrects the expected bits per pixel of the quality by how much larger the image turned out to be.
+     *
+     * @return The highest lower quality at which the image is then expected to fit into {@link #MAX_FILE_SIZE},
+     *         at least the next lower one. -1 if the quality already is the lowest.
+     */
+    static int lowerQuality(int quality, int encodedSize) {
+        int index = 0;
+        while (index < QUALITIES.length - 1 && QUALITIES[index] > quality) {
+            index++;
+        }
+        if (index == QUALITIES.length - 1) {
+            return -1;
+        }
+        double bitsPerPixel = BITS_PER_PIXEL[index] * MAX_FILE_SIZE / encodedSize;
+        for (int i = index + 1; i < QUALITIES.length; i++) {
+            if (BITS_PER_PIXEL[i] <= bitsPerPixel) {
+                return QUALITIES[i];
+            }
+        }
+        return QUALITIES[QUALITIES.length - 1];
+    }
+
+    /**
+     * @return The highest quality at which an image of the given size is expected to fit into
+     *         {@link #MAX_FILE_SIZE}, so that it usually only needs to be encoded once.
+     */
+    static int predictQuality(int width, int height) {
+        double bitsPerPixel = 8.0 * MAX_FILE_SIZE / ((double) width * height);
+        for (int i = 0; i < QUALITIES.length; i++) {
+            if (BITS_PER_PIXEL[i] <= bitsPerPixel) {
+                return QUALITIES[i];
+            }
+        }
+        return QUALITIES[QUALITIES.length - 1];
+    }
+
+    /**
+     * Reads up to {@code limit} bytes. If the returned array is shorter than the limit, the stream has ended.
+     */
+    private static byte[] readAtMost(InputStream in, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(limit, 64 * 1024));
+        byte[] buffer = new byte[8 * 1024];
+        int remaining = limit;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+            if (read == -1) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        return out.toByteArray();
+    }
+
     @Override
     public void cleanup() {
         IOUtils.closeQuietly(stream);
-        FileUtils.deleteQuietly(tempIn);
-        FileUtils.deleteQuietly(tempOut);
         super.cleanup();
     }
 }
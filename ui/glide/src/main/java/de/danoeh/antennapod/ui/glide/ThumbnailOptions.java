@@ -0,0 +1,65 @@
+package de.danoeh.antennapod.ui.glide;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.request.RequestOptions;
+
+/**
+ * Request options for covers in lists and grids. Instead of the exact size of each cell, the covers are loaded
+ * at one of a few size classes. Every image then only needs to be decoded and cached in a few variants,
+ * no matter how many different cell sizes the screens use. Thumbnails are decoded as RGB_565 when the image
+ * has no transparency, which halves their memory. The player screen keeps loading full ARGB_8888 covers.
+ */
+public final class ThumbnailOptions {
+    private static final int[] SIZE_CLASSES = {128, 256, 512};
+    private static final RequestOptions[] OPTIONS = new RequestOptions[SIZE_CLASSES.length];
+
+    static {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            OPTIONS[i] = new RequestOptions()
+                    .override(SIZE_CLASSES[i])
+                    .format(DecodeFormat.PREFER_RGB_565)
+                    .lock();
+        }
+    }
+
+    private ThumbnailOptions() {
+    }
+
+    /**
+     * Returns the options to load a cover that is displayed at the given size.
+     *
+     * @return Options with the next larger size class, or null if the cover is too large to be a thumbnail.
+     */
+    @Nullable
+    public static RequestOptions forSize(int sizePx) {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            if (sizePx <= SIZE_CLASSES[i]) {
+                return OPTIONS[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the options to load a cover into the view.
+     *
+     * @param fallbackSizePx Size to assume if the view was not laid out yet and has no fixed size
+     * @return Options with the next larger size class, or null if the cover is too large to be a thumbnail.
+     */
+    @Nullable
+    public static RequestOptions forView(@NonNull View view, int fallbackSizePx) {
+        int size = fallbackSizePx;
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (view.getWidth() > 0 && view.getHeight() > 0) {
+            size = Math.max(view.getWidth(), view.getHeight());
+        } else if (params != null && params.width > 0 && params.height > 0) {
+            size = Math.max(params.width, params.height);
+        }
+        return forSize(size);
+    }
+}
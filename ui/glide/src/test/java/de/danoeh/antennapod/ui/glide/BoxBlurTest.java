@@ -0,0 +1,117 @@
+package de.danoeh.antennapod.ui.glide;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BoxBlurTest {
+    /**
+     * Three box blurs with radius 4 have about the same variance as a stack blur with radius 10.
+     */
+    private static final int BOX_RADIUS = 4;
+    private static final int STACK_RADIUS = 10;
+
+    static int[] createImage(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = 255 * x / width;
+                int green = 255 * y / height;
+                int blue = ((x / 16 + y / 16) % 2) * 200 + random.nextInt(56);
+                pixels[y * width + x] = 0xff000000 | (red << 16) | (green << 8) | blue;
+            }
+        }
+        return pixels;
+    }
+
+    @Test
+    public void testLooksLikeStackBlur() {
+        int width = 120;
+        int height = 90;
+        int[] box = createImage(width, height, 1);
+        int[] stack = box.clone();
+        BoxBlur.blur(box, width, height, BOX_RADIUS);
+        StackBlur.blur(stack, width, height, STACK_RADIUS);
+
+        long difference = 0;
+        for (int i = 0; i < box.length; i++) {
+            for (int shift = 0; shift <= 16; shift += 8) {
+                difference += Math.abs(((box[i] >> shift) & 0xff) - ((stack[i] >> shift) & 0xff));
+            }
+        }
+        double meanDifference = (double) difference / (3 * box.length);
+        assertTrue("Mean difference per channel: " + meanDifference, meanDifference < 3);
+    }
+
+    @Test
+    public void testUniformImageStaysUniform() {
+        int[] pixels = new int[37 * 23];
+        Arrays.fill(pixels, 0x80336699);
+        BoxBlur.blur(pixels, 37, 23, 5);
+        for (int pixel : pixels) {
+            assertEquals(0xff336699, pixel);
+        }
+    }
+
+    @Test
+    public void testRadiusLargerThanImage() {
+        int[] pixels = {0xff000000, 0xffffffff, 0xff000000};
+        BoxBlur.blur(pixels, 3, 1, 10);
+        assertEquals(pixels[0], pixels[2]);
+        assertTrue((pixels[0] & 0xff) > 0 && (pixels[0] & 0xff) < 0xff);
+    }
+
+    @Test
+    public void testParallelBlurMatchesSingleRow() {
+        // Large enough to be split across threads. As all rows are equal, the vertical passes do not change
+        // anything and every row must end up like the blurred single row.
+        int width = 400;
+        int height = 300;
+        int[] row = createImage(width, 1, 2);
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(row, 0, pixels, y * width, width);
+        }
+        BoxBlur.blur(row, width, 1, 3);
+        BoxBlur.blur(pixels, width, height, 3);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals(row[x], pixels[y * width + x]);
+            }
+        }
+    }
+
+    @Test
+    public void testBufferPoolReusesReleasedBuffers() {
+        int[] buffer = new int[1000003]; // Larger than the buffers of the other tests
+        BoxBlur.releaseBuffer(buffer);
+        assertSame(buffer, BoxBlur.obtainBuffer(buffer.length));
+        assertNotSame(buffer, BoxBlur.obtainBuffer(buffer.length));
+    }
+
+    @Test
+    public void testBlurIgnoresContentOfPooledBuffers() {
+        int width = 60;
+        int height = 40;
+        int[] expected = createImage(width, height, 3);
+        int[] pixels = expected.clone();
+        BoxBlur.blur(expected, width, height, BOX_RADIUS);
+
+        // A larger buffer with leftovers from an earlier image is used as scratch space
+        for (int i = 0; i < BoxBlur.MAX_POOLED_BUFFERS; i++) {
+            int[] leftovers = new int[2 * width * height];
+            Arrays.fill(leftovers, 0xffff00ff);
+            BoxBlur.releaseBuffer(leftovers);
+        }
+        BoxBlur.blur(pixels, width, height, BOX_RADIUS);
+        assertArrayEquals(expected, pixels);
+    }
+}
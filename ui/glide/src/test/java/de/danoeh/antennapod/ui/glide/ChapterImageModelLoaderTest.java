@@ -0,0 +1,18 @@
+package de.danoeh.antennapod.ui.glide;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ChapterImageModelLoaderTest {
+    @Test
+    public void testImagesAreOnlySharedWithinEpisode() {
+        // Same length and hash, but the images can still differ after the hashed part
+        String hash = "e9c1aba6ce879ac3b55644a2a684467835d258db";
+        assertEquals(ChapterImageModelLoader.getCacheKey(1L, 20480, hash),
+                ChapterImageModelLoader.getCacheKey(1L, 20480, hash));
+        assertNotEquals(ChapterImageModelLoader.getCacheKey(1L, 20480, hash),
+                ChapterImageModelLoader.getCacheKey(2L, 20480, hash));
+    }
+}
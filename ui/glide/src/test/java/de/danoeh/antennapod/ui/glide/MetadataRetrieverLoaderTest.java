@@ -0,0 +1,81 @@
+package de.danoeh.antennapod.ui.glide;
+
+import de.danoeh.antennapod.parser.media.id3.EmbeddedPictureReader;
+import de.danoeh.antennapod.parser.media.id3.ID3ReaderException;
+import de.danoeh.antennapod.parser.media.id3.model.EmbeddedPicture;
+import org.apache.commons.io.input.CountingInputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class MetadataRetrieverLoaderTest {
+    /**
+     * Longer than the part of the image that is hashed.
+     */
+    private static final int IMAGE_LENGTH = 20 * 1024;
+
+    @Test
+    public void testEpisodesOfPodcastShareCover() throws IOException, ID3ReaderException {
+        EmbeddedPicture cover = readCover(new byte[IMAGE_LENGTH]);
+        assertEquals(MetadataRetrieverLoader.getCacheKey("/media/Podcast/episode1.mp3", cover),
+                MetadataRetrieverLoader.getCacheKey("/media/Podcast/episode2.mp3", cover));
+        assertEquals(MetadataRetrieverLoader.getCacheKey(
+                        "content://documents/tree/primary%3APodcast/document/primary%3APodcast%2Fepisode1.mp3", cover),
+                MetadataRetrieverLoader.getCacheKey(
+                        "content://documents/tree/primary%3APodcast/document/primary%3APodcast%2Fepisode2.mp3", cover));
+    }
+
+    @Test
+    public void testCoversDifferingAfterHashedPrefixDoNotCollide() throws IOException, ID3ReaderException {
+        byte[] image = new byte[IMAGE_LENGTH];
+        EmbeddedPicture cover1 = readCover(image);
+        image[IMAGE_LENGTH - 1] = 1;
+        EmbeddedPicture cover2 = readCover(image);
+        assertEquals(cover1.getLength(), cover2.getLength());
+        assertEquals(cover1.getHash(), cover2.getHash());
+
+        assertNotEquals(MetadataRetrieverLoader.getCacheKey("/media/Podcast A/episode.mp3", cover1),
+                MetadataRetrieverLoader.getCacheKey("/media/Podcast B/episode.mp3", cover2));
+        assertNotEquals(MetadataRetrieverLoader.getCacheKey(
+                        "content://documents/tree/primary%3AA/document/primary%3AA%2Fepisode.mp3", cover1),
+                MetadataRetrieverLoader.getCacheKey(
+                        "content://documents/tree/primary%3AB/document/primary%3AB%2Fepisode.mp3", cover2));
+    }
+
+    private static EmbeddedPicture readCover(byte[] image) throws IOException, ID3ReaderException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(0); // Encoding: ISO-8859-1
+        frame.write("image/jpeg".getBytes(StandardCharsets.ISO_8859_1));
+        frame.write(0);
+        frame.write(3); // Picture type: front cover
+        frame.write(0); // Empty description
+        frame.write(image);
+
+        int frameSize = frame.size();
+        int tagSize = 10 + frameSize;
+        ByteArrayOutputStream tag = new ByteArrayOutputStream();
+        tag.write(new byte[] {
+                'I', 'D', '3',
+                0, 3, // Version
+                0, // Flags
+                (byte) ((tagSize >> 21) & 0x7f), (byte) ((tagSize >> 14) & 0x7f),
+                (byte) ((tagSize >> 7) & 0x7f), (byte) (tagSize & 0x7f), // Synchsafe size
+                'A', 'P', 'I', 'C',
+                (byte) (frameSize >> 24), (byte) (frameSize >> 16),
+                (byte) (frameSize >> 8), (byte) frameSize,
+                0, 0 // Frame flags
+        });
+        frame.writeTo(tag);
+
+        EmbeddedPictureReader reader = new EmbeddedPictureReader(
+                new CountingInputStream(new ByteArrayInputStream(tag.toByteArray())));
+        reader.readInputStream();
+        return reader.getPicture();
+    }
+}
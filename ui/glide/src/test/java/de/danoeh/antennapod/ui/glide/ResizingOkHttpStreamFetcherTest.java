@@ -0,0 +1,88 @@
+package de.danoeh.antennapod.ui.glide;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ResizingOkHttpStreamFetcherTest {
+    private static final int MAX_FILE_SIZE = 1024 * 1024;
+
+    @Test
+    public void testPredictQualityForSmallImages() {
+        assertEquals(90, ResizingOkHttpStreamFetcher.predictQuality(1000, 1000));
+        assertEquals(90, ResizingOkHttpStreamFetcher.predictQuality(1500, 1500));
+    }
+
+    @Test
+    public void testPredictQualityForLargeImages() {
+        // 6 megapixels leave about 1.4 bits per pixel
+        assertEquals(45, ResizingOkHttpStreamFetcher.predictQuality(3000, 2000));
+        // Even the lowest quality is not expected to fit, but it is the best guess
+        assertEquals(15, ResizingOkHttpStreamFetcher.predictQuality(10000, 10000));
+    }
+
+    @Test
+    public void testPredictQualityDecreasesWithSize() {
+        int previous = Integer.MAX_VALUE;
+        for (int side = 500; side <= 10000; side += 250) {
+            int quality = ResizingOkHttpStreamFetcher.predictQuality(side, side);
+            assertTrue(quality <= previous);
+            previous = quality;
+        }
+    }
+
+    @Test
+    public void testEncodeOnceIfPredictionFits() throws IOException {
+        List<Integer> qualities = new ArrayList<>();
+        byte[] encoded = ResizingOkHttpStreamFetcher.encode(quality -> {
+            qualities.add(quality);
+            return new byte[MAX_FILE_SIZE];
+        }, 90);
+        assertEquals(MAX_FILE_SIZE, encoded.length);
+        assertEquals(Arrays.asList(90), qualities);
+    }
+
+    @Test
+    public void testEncodeAgainAtLowerQualityIfPredictionOvershoots() throws IOException {
+        List<Integer> qualities = new ArrayList<>();
+        byte[] encoded = ResizingOkHttpStreamFetcher.encode(quality -> {
+            qualities.add(quality);
+            return new byte[quality >= 90 ? 2 * MAX_FILE_SIZE : MAX_FILE_SIZE / 2];
+        }, 90);
+        assertEquals(MAX_FILE_SIZE / 2, encoded.length);
+        // Twice the expected size leaves 1.5 instead of 3 bits per pixel
+        assertEquals(Arrays.asList(90, 60), qualities);
+    }
+
+    @Test
+    public void testEncodeFailsIfStillTooLarge() {
+        List<Integer> qualities = new ArrayList<>();
+        assertThrows(IOException.class, () -> ResizingOkHttpStreamFetcher.encode(quality -> {
+            qualities.add(quality);
+            return new byte[MAX_FILE_SIZE + 1];
+        }, 90));
+        assertEquals(Arrays.asList(90, 75), qualities);
+
+        qualities.clear();
+        assertThrows(IOException.class, () -> ResizingOkHttpStreamFetcher.encode(quality -> {
+            qualities.add(quality);
+            return new byte[MAX_FILE_SIZE + 1];
+        }, 15));
+        assertEquals(Arrays.asList(15), qualities);
+    }
+
+    @Test
+    public void testLowerQuality() {
+        assertEquals(75, ResizingOkHttpStreamFetcher.lowerQuality(90, MAX_FILE_SIZE + 1));
+        assertEquals(60, ResizingOkHttpStreamFetcher.lowerQuality(90, 2 * MAX_FILE_SIZE));
+        assertEquals(15, ResizingOkHttpStreamFetcher.lowerQuality(45, 10 * MAX_FILE_SIZE));
+        assertEquals(-1, ResizingOkHttpStreamFetcher.lowerQuality(15, 2 * MAX_FILE_SIZE));
+    }
+}
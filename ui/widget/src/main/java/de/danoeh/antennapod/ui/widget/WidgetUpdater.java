@@ -7,10 +7,13 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.graphics.Bitmap;
 import android.os.Bundle;
+import android.os.PowerManager;
+import android.text.TextUtils;
 import android.util.Log;
 import android.view.KeyEvent;
 import android.view.View;
 import android.widget.RemoteViews;
+import androidx.annotation.Nullable;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.resource.bitmap.FitCenter;
@@ -37,6 +40,17 @@ import de.danoeh.antennapod.ui.episodes.TimeSpeedConverter;
 public abstract class WidgetUpdater {
     private static final String TAG = "WidgetUpdater";
 
+    /**
+     * Describes everything except the progress text that was sent with the last full update.
+     * Null if the next update needs to send the full layout.
+     */
+    private static String lastLayoutKey = null;
+    private static int[] lastWidgetIds = null;
+    private static String lastProgressString = null;
+
+    private static String coverKey = null;
+    private static Bitmap cover = null;
+
     public static class WidgetState {
         final Playable media;
         final PlayerStatus status;
@@ -60,11 +74,29 @@ public abstract class WidgetUpdater {
     /**
      * Update the widgets with the given parameters. Must be called in a background thread.
      */
-    public static void updateWidget(Context context, WidgetState widgetState) {
+    public static synchronized void updateWidget(Context context, WidgetState widgetState) {
         if (!PlayerWidget.isEnabled(context) || widgetState == null) {
             return;
         }
 
+        String layoutKey = getLayoutKey(widgetState);
+        String progressString = widgetState.media == null ? null
+                : getProgressString(widgetState.position, widgetState.duration, widgetState.playbackSpeed);
+        if (layoutKey.equals(lastLayoutKey) && lastWidgetIds != null) {
+            if (TextUtils.equals(progressString, lastProgressString)) {
+                return;
+            }
+            PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null && !powerManager.isInteractive()) {
+                return; // Nobody can see the progress. Updated with the next tick after the screen is turned on.
+            }
+            RemoteViews views = new RemoteViews(context.getPackageName(), R.layout.player_widget);
+            setProgress(views, progressString);
+            AppWidgetManager.getInstance(context).partiallyUpdateAppWidget(lastWidgetIds, views);
+            lastProgressString = progressString;
+            return;
+        }
+
         PendingIntent startMediaPlayer;
         if (widgetState.media != null && widgetState.media.getMediaType() == MediaType.VIDEO) {
             startMediaPlayer = new VideoPlayerActivityStarter(context).getPendingIntent();
@@ -79,7 +111,6 @@ public abstract class WidgetUpdater {
         views = new RemoteViews(context.getPackageName(), R.layout.player_widget);
 
         if (widgetState.media != null) {
-            Bitmap icon;
             int iconSize = context.getResources().getDimensionPixelSize(android.R.dimen.app_icon_size);
             views.setOnClickPendingIntent(R.id.layout_left, startMediaPlayer);
             views.setOnClickPendingIntent(R.id.imgvCover, startMediaPlayer);
@@ -90,39 +121,22 @@ public abstract class WidgetUpdater {
                     .dontAnimate()
                     .transform(new FitCenter(), new RoundedCorners(radius));
 
-            try {
-                icon = Glide.with(context)
-                        .asBitmap()
-                        .load(widgetState.media.getImageLocation())
-                        .apply(options)
-                        .submit(iconSize, iconSize)
-                        .get(500, TimeUnit.MILLISECONDS);
-                views.setImageViewBitmap(R.id.imgvCover, icon);
-            } catch (Throwable tr1) {
-                try {
-                    icon = Glide.with(context)
-                            .asBitmap()
-                            .load(ImageResourceUtils.getFallbackImageLocation(widgetState.media))
-                            .apply(options)
-                            .submit(iconSize, iconSize)
-                            .get(500, TimeUnit.MILLISECONDS);
-                    views.setImageViewBitmap(R.id.imgvCover, icon);
-                } catch (Throwable tr2) {
-                    Log.e(TAG, "Error loading the media icon for the widget", tr2);
-                    views.setImageViewResource(R.id.imgvCover, R.mipmap.ic_launcher);
-                }
+            String key = widgetState.media.getImageLocation() + "|" + iconSize + "|" + radius;
+            if (cover == null || !key.equals(coverKey)) {
+                cover = loadCover(context, widgetState.media, options, iconSize);
+                coverKey = key;
+            }
+            if (cover != null) {
+                views.setImageViewBitmap(R.id.imgvCover, cover);
+            } else {
+                views.setImageViewResource(R.id.imgvCover, R.mipmap.ic_launcher);
             }
 
             views.setTextViewText(R.id.txtvTitle, widgetState.media.getEpisodeTitle());
             views.setViewVisibility(R.id.txtvTitle, View.VISIBLE);
             views.setViewVisibility(R.id.txtNoPlaying, View.GONE);
 
-            String progressString = getProgressString(widgetState.position,
-                    widgetState.duration, widgetState.playbackSpeed);
-            if (progressString != null) {
-                views.setViewVisibility(R.id.txtvProgress, View.VISIBLE);
-                views.setTextViewText(R.id.txtvProgress, progressString);
-            }
+            setProgress(views, progressString);
 
             if (widgetState.status == PlayerStatus.PLAYING) {
                 views.setImageViewResource(R.id.butPlay, R.drawable.ic_widget_pause);
@@ -195,6 +209,64 @@ public abstract class WidgetUpdater {
 
             manager.updateAppWidget(id, views);
         }
+        lastLayoutKey = layoutKey;
+        lastWidgetIds = widgetIds;
+        lastProgressString = progressString;
+    }
+
+    /**
+     * Hides the progress if it is unknown, so that a stale position is not left on the widget.
+     */
+    private static void setProgress(RemoteViews views, @Nullable String progressString) {
+        if (progressString != null) {
+            views.setViewVisibility(R.id.txtvProgress, View.VISIBLE);
+            views.setTextViewText(R.id.txtvProgress, progressString);
+        } else {
+            views.setViewVisibility(R.id.txtvProgress, View.GONE);
+            views.setTextViewText(R.id.txtvProgress, "");
+        }
+    }
+
+    /**
+     * Makes the next update send the full layout, for example because the widget options changed.
+     * Only full updates are remembered by the launcher, partial updates are lost when it re-creates the widget.
+     */
+    public static synchronized void invalidate() {
+        lastLayoutKey = null;
+        lastWidgetIds = null;
+        lastProgressString = null;
+    }
+
+    private static String getLayoutKey(WidgetState widgetState) {
+        if (widgetState.media == null) {
+            return "none";
+        }
+        return widgetState.media.getIdentifier() + "|" + widgetState.media.getMediaType()
+                + "|" + widgetState.media.getImageLocation() + "|" + widgetState.media.getEpisodeTitle()
+                + "|" + (widgetState.status == PlayerStatus.PLAYING);
+    }
+
+    private static Bitmap loadCover(Context context, Playable media, RequestOptions options, int iconSize) {
+        try {
+            return Glide.with(context)
+                    .asBitmap()
+                    .load(media.getImageLocation())
+                    .apply(options)
+                    .submit(iconSize, iconSize)
+                    .get(500, TimeUnit.MILLISECONDS);
+        } catch (Throwable tr1) {
+            try {
+                return Glide.with(context)
+                        .asBitmap()
+                        .load(ImageResourceUtils.getFallbackImageLocation(media))
+                        .apply(options)
+                        .submit(iconSize, iconSize)
+                        .get(500, TimeUnit.MILLISECONDS);
+            } catch (Throwable tr2) {
+                Log.e(TAG, "Error loading the media icon for the widget", tr2);
+                return null;
+            }
+        }
     }
 
     /**
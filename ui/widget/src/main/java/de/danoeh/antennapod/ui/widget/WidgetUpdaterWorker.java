@@ -44,6 +44,7 @@ public class WidgetUpdaterWorker extends Worker {
      * Loads the current media from the database and updates the widget in a background job.
      */
     private void updateWidget() {
+        WidgetUpdater.invalidate();
         final Playable media = DBReader.getFeedMedia(PlaybackPreferences.getCurrentlyPlayingFeedMediaId());
         if (media != null) {
             WidgetUpdater.updateWidget(getApplicationContext(),